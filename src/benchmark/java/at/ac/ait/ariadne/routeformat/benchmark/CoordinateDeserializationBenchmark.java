@@ -0,0 +1,135 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.io.ByteStreams;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatJson;
+
+/**
+ * Compares parsing the bundled example response with the coordinate
+ * deserializers of the route format and with the previous implementation,
+ * which parsed each ordinate via a {@link String} into a {@link BigDecimal}
+ * and collected them in a list. Since the example contains only a few
+ * coordinates a long line string is parsed as well.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class CoordinateDeserializationBenchmark {
+
+    private static final int LINE_STRING_SIZE = 10000;
+
+    private byte[] exampleJson, lineStringJson;
+    private ObjectReader reader, legacyReader, lineStringReader, legacyLineStringReader;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/ariadne-json-route-format_example.json")) {
+            exampleJson = ByteStreams.toByteArray(in);
+        }
+        Random random = new Random(42);
+        StringBuilder lineString = new StringBuilder("{\"type\":\"LineString\",\"coordinates\":[");
+        for (int i = 0; i < LINE_STRING_SIZE; i++) {
+            if (i > 0)
+                lineString.append(',');
+            lineString.append(String.format(Locale.ROOT, "[%.7f,%.7f]", 16 + random.nextDouble(),
+                    48 + random.nextDouble()));
+        }
+        lineStringJson = lineString.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        ObjectMapper legacyMapper = RouteFormatJson.createMapper()
+                .addMixIn(GeoJSONCoordinate.class, LegacyCoordinateMixIn.class)
+                .addMixIn(GeoJSONLineString.class, LegacyLineStringMixIn.class);
+        reader = mapper.readerFor(RoutingResponse.class);
+        legacyReader = legacyMapper.readerFor(RoutingResponse.class);
+        lineStringReader = mapper.readerFor(GeoJSONLineString.class);
+        legacyLineStringReader = legacyMapper.readerFor(GeoJSONLineString.class);
+    }
+
+    @Benchmark
+    public RoutingResponse parseExample() throws IOException {
+        return reader.readValue(exampleJson);
+    }
+
+    @Benchmark
+    public RoutingResponse parseExampleLegacy() throws IOException {
+        return legacyReader.readValue(exampleJson);
+    }
+
+    @Benchmark
+    public GeoJSONLineString parseLineString() throws IOException {
+        return lineStringReader.readValue(lineStringJson);
+    }
+
+    @Benchmark
+    public GeoJSONLineString parseLineStringLegacy() throws IOException {
+        return legacyLineStringReader.readValue(lineStringJson);
+    }
+
+    @JsonDeserialize(using = LegacyCoordinateDeserializer.class)
+    static abstract class LegacyCoordinateMixIn {
+    }
+
+    static abstract class LegacyLineStringMixIn {
+        @JsonIgnore(false)
+        @JsonProperty("coordinates")
+        public abstract GeoJSONLineString setCoordinates(List<GeoJSONCoordinate> coordinates);
+
+        @JsonIgnore
+        abstract void setDeserializedCoordinates(PackedCoordinateList coordinates);
+    }
+
+    public static class LegacyCoordinateDeserializer extends JsonDeserializer<GeoJSONCoordinate> {
+        @Override
+        public GeoJSONCoordinate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            List<BigDecimal> coordinates = new ArrayList<>();
+            for (JsonToken t = p.nextToken(); t != null; t = p.nextToken()) {
+                if (t.equals(JsonToken.VALUE_NUMBER_INT) || t.equals(JsonToken.VALUE_NUMBER_FLOAT))
+                    coordinates.add(new BigDecimal(p.getValueAsString()));
+                else
+                    break;
+            }
+            return GeoJSONCoordinate.create(coordinates);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.ac.ait.ariadne.routeformat.util.PackedDateTime;
+import at.ac.ait.ariadne.routeformat.util.Utils;
+
+/**
+ * Compares parsing and formatting times in the format of the route format
+ * with {@link PackedDateTime} and with the previous implementation based on
+ * {@link ZonedDateTime#parse(CharSequence)} and {@link Utils#FORMATTER}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeBenchmark {
+
+    private String text;
+    private ZonedDateTime time;
+    private PackedDateTime packedTime;
+
+    @Setup
+    public void setUp() {
+        text = "2016-01-01T15:51:43+01:00";
+        time = ZonedDateTime.parse(text);
+        packedTime = PackedDateTime.of(time);
+    }
+
+    @Benchmark
+    public PackedDateTime parse() {
+        return PackedDateTime.parse(text);
+    }
+
+    @Benchmark
+    public ZonedDateTime parseLegacy() {
+        return ZonedDateTime.parse(text).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Benchmark
+    public String format() {
+        return packedTime.format();
+    }
+
+    @Benchmark
+    public String formatZonedDateTime() {
+        return PackedDateTime.format(time);
+    }
+
+    @Benchmark
+    public String formatLegacy() {
+        return Utils.FORMATTER.format(time);
+    }
+
+}
@@ -0,0 +1,65 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.instruction.Instruction;
+import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.InterningModule;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatJson;
+
+/**
+ * Prints the retained heap size of a deserialized {@link RoutingResponse}
+ * with {@value #ALTERNATIVES} alternative routes (copies of the first route of
+ * {@link IntermodalRouteExample}) broken down by class, and the instance
+ * layouts of the main model classes, measured with JOL. For comparison the
+ * retained size of the same response read with {@link InterningModule} is
+ * printed as well.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class FootprintReport {
+
+    private static final int ALTERNATIVES = 5;
+    private static final Class<?>[] MODEL_CLASSES = { Route.class, RouteSegment.class, Location.class,
+            Instruction.class, GeoJSONFeature.class, GeoJSONPoint.class, GeoJSONCoordinate.class };
+
+    public static void main(String[] args) throws IOException {
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        ObjectReader reader = mapper.readerFor(RoutingResponse.class);
+
+        RoutingResponse example = new IntermodalRouteExample().getRoutingResponse();
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < ALTERNATIVES; i++)
+            routes.add(example.getRoutes().get(0));
+        example.setRoutes(routes);
+        byte[] json = mapper.writeValueAsBytes(example);
+        RoutingResponse response = reader.readValue(json);
+
+        GraphLayout graph = GraphLayout.parseInstance(response);
+        System.out.printf("retained size of a response with %d routes: %d bytes in %d objects%n", ALTERNATIVES,
+                graph.totalSize(), graph.totalCount());
+        GraphLayout interned = GraphLayout
+                .parseInstance((Object) InterningModule.readerFor(mapper, RoutingResponse.class).readValue(json));
+        System.out.printf("retained size with interning: %d bytes in %d objects%n", interned.totalSize(),
+                interned.totalCount());
+        System.out.println(graph.toFootprint());
+        for (Class<?> modelClass : MODEL_CLASSES)
+            System.out.println(ClassLayout.parseClass(modelClass).toPrintable());
+    }
+
+}
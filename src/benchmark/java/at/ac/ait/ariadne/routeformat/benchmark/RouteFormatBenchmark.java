@@ -0,0 +1,210 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.WKBWriter;
+import at.ac.ait.ariadne.routeformat.geojson.WKTWriter;
+import at.ac.ait.ariadne.routeformat.util.MapboxVectorTileEncoder;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatJson;
+import at.ac.ait.ariadne.routeformat.util.RouteSegmentMerger;
+import at.ac.ait.ariadne.routeformat.util.RouteSnapIndex;
+import at.ac.ait.ariadne.routeformat.util.RouteSnapIndex.SnapResult;
+
+/**
+ * Benchmarks the typical operations on routes. The size of the route is
+ * varied by concatenating consecutive copies of the first route of
+ * {@link IntermodalRouteExample} with {@link RouteSegmentMerger}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteFormatBenchmark {
+
+    private static final TypeReference<List<GeoJSONCoordinate>> COORDINATES_TYPE = new TypeReference<List<GeoJSONCoordinate>>() {
+    };
+    private static final int TILE_ZOOM = 14;
+
+    @Param({ "1", "10", "100" })
+    public int routeCopies;
+
+    private List<List<RouteSegment>> copies;
+    private Route route;
+    private RoutingResponse response;
+    private byte[] responseJson;
+    private List<GeoJSONCoordinate> coordinates;
+    private byte[] coordinatesJson;
+    private RouteSnapIndex snapIndex;
+    private GeoJSONCoordinate snapPosition;
+    private final StringBuilder wktBuffer = new StringBuilder();
+    private final WKBWriter wkbWriter = new WKBWriter().setSrid(4326);
+    private final ByteBuffer wkbBuffer = ByteBuffer.allocate(1 << 20);
+    private final MapboxVectorTileEncoder tileEncoder = new MapboxVectorTileEncoder();
+    private int tileX, tileY;
+
+    private ObjectReader responseReader, coordinatesReader;
+    private ObjectWriter responseWriter, coordinatesWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        responseReader = mapper.readerFor(RoutingResponse.class);
+        responseWriter = mapper.writerFor(RoutingResponse.class);
+        coordinatesReader = mapper.readerFor(COORDINATES_TYPE);
+        coordinatesWriter = mapper.writerFor(COORDINATES_TYPE);
+
+        RoutingResponse example = new IntermodalRouteExample().getRoutingResponse();
+        byte[] exampleJson = responseWriter.writeValueAsBytes(example);
+        copies = new ArrayList<>();
+        for (int i = 0; i < routeCopies; i++) {
+            RoutingResponse copy = responseReader.readValue(exampleJson);
+            Route copiedRoute = copy.getRoutes().get(0);
+            // consecutive copies, i.e. the merger does not have to shift
+            // overlapping routes in time
+            long shiftSeconds = i * Duration.between(copiedRoute.getStartTimeAsZonedDateTime(),
+                    copiedRoute.getEndTimeAsZonedDateTime()).getSeconds();
+            List<RouteSegment> segments = new ArrayList<>();
+            for (RouteSegment segment : copiedRoute.getSegments())
+                segments.add(RouteSegment.createShallowCopy(segment)
+                        .setStartTime(segment.getStartTimeAsZonedDateTime().plusSeconds(shiftSeconds))
+                        .setEndTime(segment.getEndTimeAsZonedDateTime().plusSeconds(shiftSeconds)));
+            copies.add(segments);
+        }
+
+        route = Route.createFromSegments(new RouteSegmentMerger(copies).createMergedSegments());
+        route.validate(true);
+        response = responseReader.readValue(exampleJson);
+        List<Route> routes = new ArrayList<>();
+        routes.add(route);
+        response.setRoutes(routes);
+        responseJson = responseWriter.writeValueAsBytes(response);
+
+        coordinates = new ArrayList<>();
+        for (RouteSegment segment : route.getSegments())
+            segment.getGeometryGeoJson().ifPresent(g -> coordinates.addAll(g.getGeometry().getCoordinates()));
+        coordinatesJson = coordinatesWriter.writeValueAsBytes(coordinates);
+
+        snapIndex = new RouteSnapIndex(route);
+        snapPosition = coordinates.get(coordinates.size() / 2);
+        tileX = (int) (MapboxVectorTileEncoder.getWorldX(snapPosition.getX().doubleValue()) * (1 << TILE_ZOOM));
+        tileY = (int) (MapboxVectorTileEncoder.getWorldY(snapPosition.getY().doubleValue()) * (1 << TILE_ZOOM));
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public RoutingResponse deserializeResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    @Benchmark
+    public RoutingResponse roundTripResponse() throws IOException {
+        return responseReader.readValue(responseWriter.writeValueAsBytes(response));
+    }
+
+    @Benchmark
+    public byte[] serializeCoordinates() throws IOException {
+        return coordinatesWriter.writeValueAsBytes(coordinates);
+    }
+
+    @Benchmark
+    public List<GeoJSONCoordinate> deserializeCoordinates() throws IOException {
+        return coordinatesReader.readValue(coordinatesJson);
+    }
+
+    @Benchmark
+    public Route validateRoute() {
+        route.validate(true);
+        return route;
+    }
+
+    @Benchmark
+    public List<RouteSegment> mergeSegments() {
+        return new RouteSegmentMerger(copies).createMergedSegments();
+    }
+
+    @Benchmark
+    public RouteSnapIndex createSnapIndex() {
+        return new RouteSnapIndex(route);
+    }
+
+    @Benchmark
+    public SnapResult snapToRoute() {
+        return snapIndex.snap(snapPosition.getX().doubleValue() + 0.0001, snapPosition.getY().doubleValue()).get();
+    }
+
+    @Benchmark
+    public void exportWkt(Blackhole blackhole) {
+        for (RouteSegment segment : route.getSegments())
+            segment.getGeometryGeoJson().ifPresent(g -> blackhole.consume(g.getGeometry().toWKT()));
+    }
+
+    @Benchmark
+    public StringBuilder exportWktStreaming() throws IOException {
+        wktBuffer.setLength(0);
+        WKTWriter writer = new WKTWriter(wktBuffer);
+        for (RouteSegment segment : route.getSegments()) {
+            if (segment.getGeometryGeoJson().isPresent()) {
+                writer.write(segment.getGeometryGeoJson().get().getGeometry());
+                wktBuffer.append('\n');
+            }
+        }
+        return wktBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer exportEwkb() {
+        wkbBuffer.clear();
+        for (RouteSegment segment : route.getSegments()) {
+            if (segment.getGeometryGeoJson().isPresent()) {
+                GeoJSONLineString geometry = segment.getGeometryGeoJson().get().getGeometry();
+                if (wkbBuffer.remaining() < wkbWriter.getSize(geometry))
+                    wkbBuffer.clear();
+                wkbWriter.write(geometry, wkbBuffer);
+            }
+        }
+        return wkbBuffer;
+    }
+
+    @Benchmark
+    public byte[] exportVectorTile() {
+        return tileEncoder.encodeSegments(route.getSegments(), TILE_ZOOM, tileX, tileY);
+    }
+
+}
@@ -8,10 +8,12 @@ import java.util.TreeMap;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.PackedDateTime;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -27,10 +29,10 @@ import at.ac.ait.ariadne.routeformat.util.Utils;
 @JsonInclude(Include.NON_ABSENT)
 public class IntermediateStop implements Validatable {
     private Location<?> stop;
-    private Optional<ZonedDateTime> plannedArrivalTime = Optional.empty();
-    private Optional<ZonedDateTime> plannedDepartureTime = Optional.empty();
-    private Optional<ZonedDateTime> estimatedArrivalTime = Optional.empty();
-    private Optional<ZonedDateTime> estimatedDepartureTime = Optional.empty();
+    private PackedDateTime plannedArrivalTime;
+    private PackedDateTime plannedDepartureTime;
+    private PackedDateTime estimatedArrivalTime;
+    private PackedDateTime estimatedDepartureTime;
     private Map<String, Object> additionalInfo = new TreeMap<>();
 
     // -- getters
@@ -43,7 +45,7 @@ public class IntermediateStop implements Validatable {
      * @return static time according to a time table
      */
     public Optional<String> getPlannedArrivalTime() {
-        return plannedArrivalTime.map(time -> Utils.getDateTimeString(time));
+        return Optional.ofNullable(plannedArrivalTime).map(PackedDateTime::format);
     }
 
     /**
@@ -51,14 +53,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getPlannedArrivalTimeAsZonedDateTime() {
-        return plannedArrivalTime;
+        return Optional.ofNullable(plannedArrivalTime).map(PackedDateTime::toZonedDateTime);
     }
 
     /**
      * @return static time according to a time table
      */
     public Optional<String> getPlannedDepartureTime() {
-        return plannedDepartureTime.map(time -> Utils.getDateTimeString(time));
+        return Optional.ofNullable(plannedDepartureTime).map(PackedDateTime::format);
     }
 
     /**
@@ -66,14 +68,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getPlannedDepartureTimeAsZonedDateTime() {
-        return plannedDepartureTime;
+        return Optional.ofNullable(plannedDepartureTime).map(PackedDateTime::toZonedDateTime);
     }
 
     /**
      * @return time estimated via real-time data
      */
     public Optional<String> getEstimatedArrivalTime() {
-        return estimatedArrivalTime.map(time -> Utils.getDateTimeString(time));
+        return Optional.ofNullable(estimatedArrivalTime).map(PackedDateTime::format);
     }
 
     /**
@@ -81,14 +83,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getEstimatedArrivalTimeAsZonedDateTime() {
-        return estimatedArrivalTime;
+        return Optional.ofNullable(estimatedArrivalTime).map(PackedDateTime::toZonedDateTime);
     }
 
     /**
      * @return time estimated via real-time data
      */
     public Optional<String> getEstimatedDepartureTime() {
-        return estimatedDepartureTime.map(time -> Utils.getDateTimeString(time));
+        return Optional.ofNullable(estimatedDepartureTime).map(PackedDateTime::format);
     }
 
     /**
@@ -96,9 +98,10 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getEstimatedDepartureTimeAsZonedDateTime() {
-        return estimatedDepartureTime;
+        return Optional.ofNullable(estimatedDepartureTime).map(PackedDateTime::toZonedDateTime);
     }
 
+    @JsonMerge
     public Map<String, Object> getAdditionalInfo() {
         return additionalInfo;
     }
@@ -112,53 +115,49 @@ public class IntermediateStop implements Validatable {
 
     @JsonIgnore
     public IntermediateStop setPlannedArrivalTime(ZonedDateTime plannedArrivalTime) {
-        this.plannedArrivalTime = Optional.ofNullable(plannedArrivalTime);
+        this.plannedArrivalTime = plannedArrivalTime == null ? null : PackedDateTime.of(plannedArrivalTime);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setPlannedArrivalTime(String plannedArrivalTime) {
-        this.plannedArrivalTime = Optional
-                .ofNullable(Utils.parseDateTime(plannedArrivalTime, "plannedArrivalTime"));
+        this.plannedArrivalTime = Utils.parsePackedDateTime(plannedArrivalTime, "plannedArrivalTime");
         return this;
     }
 
     @JsonIgnore
     public IntermediateStop setPlannedDepartureTime(ZonedDateTime plannedDepartureTime) {
-        this.plannedDepartureTime = Optional.ofNullable(plannedDepartureTime);
+        this.plannedDepartureTime = plannedDepartureTime == null ? null : PackedDateTime.of(plannedDepartureTime);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setPlannedDepartureTime(String plannedDepartureTime) {
-        this.plannedDepartureTime = Optional
-                .ofNullable(Utils.parseDateTime(plannedDepartureTime, "plannedDepartureTime"));
+        this.plannedDepartureTime = Utils.parsePackedDateTime(plannedDepartureTime, "plannedDepartureTime");
         return this;
     }
 
     @JsonIgnore
     public IntermediateStop setEstimatedArrivalTime(ZonedDateTime estimatedArrivalTime) {
-        this.estimatedArrivalTime = Optional.ofNullable(estimatedArrivalTime);
+        this.estimatedArrivalTime = estimatedArrivalTime == null ? null : PackedDateTime.of(estimatedArrivalTime);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setEstimatedArrivalTime(String estimatedArrivalTime) {
-        this.estimatedArrivalTime = Optional
-                .ofNullable(Utils.parseDateTime(estimatedArrivalTime, "estimatedArrivalTime"));
+        this.estimatedArrivalTime = Utils.parsePackedDateTime(estimatedArrivalTime, "estimatedArrivalTime");
         return this;
     }
 
     @JsonIgnore
     public IntermediateStop setEstimatedDepartureTime(ZonedDateTime estimatedDepartureTime) {
-        this.estimatedDepartureTime = Optional.ofNullable(estimatedDepartureTime);
+        this.estimatedDepartureTime = estimatedDepartureTime == null ? null : PackedDateTime.of(estimatedDepartureTime);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setEstimatedDepartureTime(String estimatedDepartureTime) {
-        this.estimatedDepartureTime = Optional
-                .ofNullable(Utils.parseDateTime(estimatedDepartureTime, "estimatedDepartureTime"));
+        this.estimatedDepartureTime = Utils.parsePackedDateTime(estimatedDepartureTime, "estimatedDepartureTime");
         return this;
     }
 
@@ -236,9 +235,10 @@ public class IntermediateStop implements Validatable {
 
     @Override
     public String toString() {
-        return "IntermediateStop [stop=" + stop + ", plannedArrivalTime=" + plannedArrivalTime
-                + ", plannedDepartureTime=" + plannedDepartureTime + ", estimatedArrivalTime=" + estimatedArrivalTime
-                + ", estimatedDepartureTime=" + estimatedDepartureTime + ", additionalInfo=" + additionalInfo + "]";
+        return "IntermediateStop [stop=" + stop + ", plannedArrivalTime=" + getPlannedArrivalTimeAsZonedDateTime()
+                + ", plannedDepartureTime=" + getPlannedDepartureTimeAsZonedDateTime() + ", estimatedArrivalTime="
+                + getEstimatedArrivalTimeAsZonedDateTime() + ", estimatedDepartureTime="
+                + getEstimatedDepartureTimeAsZonedDateTime() + ", additionalInfo=" + additionalInfo + "]";
     }
 
 }
@@ -14,13 +14,16 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
+import at.ac.ait.ariadne.routeformat.geojson.BoundingBox;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.PackedDateTime;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -49,13 +52,13 @@ public class Route implements Validatable {
     private int distanceMeters;
     private int durationSeconds;
     private List<RouteSegment> segments = new ArrayList<>();
-    private Optional<String> id = Optional.empty();
-    private ZonedDateTime startTime = null;
-    private ZonedDateTime endTime = null;
-    private Optional<String> optimizedFor = Optional.empty();
-    private Optional<GeoJSONFeature<GeoJSONPolygon>> boundingBox = Optional.empty();
-    private Optional<String> simplifiedGeometryEncodedPolyLine = Optional.empty();
-    private Optional<GeoJSONFeature<GeoJSONLineString>> simplifiedGeometryGeoJson = Optional.empty();
+    private String id;
+    private PackedDateTime startTime = null;
+    private PackedDateTime endTime = null;
+    private String optimizedFor;
+    private GeoJSONFeature<GeoJSONPolygon> boundingBox;
+    private String simplifiedGeometryEncodedPolyLine;
+    private GeoJSONFeature<GeoJSONLineString> simplifiedGeometryGeoJson;
     private Map<String, Object> additionalInfo = new TreeMap<>();
 
     // -- getters
@@ -86,25 +89,25 @@ public class Route implements Validatable {
     }
 
     public Optional<String> getId() {
-        return id;
+        return Optional.ofNullable(id);
     }
 
     public String getStartTime() {
-        return Utils.getDateTimeString(startTime);
+        return startTime.format();
     }
 
     @JsonIgnore
     public ZonedDateTime getStartTimeAsZonedDateTime() {
-        return startTime;
+        return startTime == null ? null : startTime.toZonedDateTime();
     }
 
     public String getEndTime() {
-        return Utils.getDateTimeString(endTime);
+        return endTime.format();
     }
 
     @JsonIgnore
     public ZonedDateTime getEndTimeAsZonedDateTime() {
-        return endTime;
+        return endTime == null ? null : endTime.toZonedDateTime();
     }
 
     /**
@@ -115,7 +118,7 @@ public class Route implements Validatable {
      *         one request.
      */
     public Optional<String> getOptimizedFor() {
-        return optimizedFor;
+        return Optional.ofNullable(optimizedFor);
     }
 
     /**
@@ -123,7 +126,7 @@ public class Route implements Validatable {
      *         south-west and then continuing clockwise
      */
     public Optional<GeoJSONFeature<GeoJSONPolygon>> getBoundingBox() {
-        return boundingBox;
+        return Optional.ofNullable(boundingBox);
     }
 
     /**
@@ -132,13 +135,14 @@ public class Route implements Validatable {
      * @see "https://developers.google.com/maps/documentation/utilities/polylinealgorithm"
      */
     public Optional<String> getSimplifiedGeometryEncodedPolyLine() {
-        return simplifiedGeometryEncodedPolyLine;
+        return Optional.ofNullable(simplifiedGeometryEncodedPolyLine);
     }
 
     public Optional<GeoJSONFeature<GeoJSONLineString>> getSimplifiedGeometryGeoJson() {
-        return simplifiedGeometryGeoJson;
+        return Optional.ofNullable(simplifiedGeometryGeoJson);
     }
 
+    @JsonMerge
     public Map<String, Object> getAdditionalInfo() {
         return additionalInfo;
     }
@@ -171,51 +175,51 @@ public class Route implements Validatable {
     }
 
     public Route setId(String id) {
-        this.id = Optional.ofNullable(id);
+        this.id = id;
         return this;
     }
 
     @JsonIgnore
     public Route setStartTime(ZonedDateTime startTime) {
-        this.startTime = startTime;
+        this.startTime = startTime == null ? null : PackedDateTime.of(startTime);
         return this;
     }
 
     @JsonProperty
     public Route setStartTime(String startTime) {
-        this.startTime = Utils.parseDateTime(startTime, "startTime");
+        this.startTime = Utils.parsePackedDateTime(startTime, "startTime");
         return this;
     }
 
     @JsonIgnore
     public Route setEndTime(ZonedDateTime endTime) {
-        this.endTime = endTime;
+        this.endTime = endTime == null ? null : PackedDateTime.of(endTime);
         return this;
     }
 
     @JsonProperty
     public Route setEndTime(String endTime) {
-        this.endTime = Utils.parseDateTime(endTime, "endTime");
+        this.endTime = Utils.parsePackedDateTime(endTime, "endTime");
         return this;
     }
 
     public Route setOptimizedFor(String optimizedFor) {
-        this.optimizedFor = Optional.ofNullable(optimizedFor);
+        this.optimizedFor = optimizedFor;
         return this;
     }
 
     public Route setBoundingBox(GeoJSONFeature<GeoJSONPolygon> boundingBox) {
-        this.boundingBox = Optional.ofNullable(boundingBox);
+        this.boundingBox = boundingBox;
         return this;
     }
 
     public Route setSimplifiedGeometryEncodedPolyLine(String simplifiedGeometryEncodedPolyLine) {
-        this.simplifiedGeometryEncodedPolyLine = Optional.ofNullable(simplifiedGeometryEncodedPolyLine);
+        this.simplifiedGeometryEncodedPolyLine = simplifiedGeometryEncodedPolyLine;
         return this;
     }
 
     public Route setSimplifiedGeometryGeoJson(GeoJSONFeature<GeoJSONLineString> simplifiedGeometryGeoJson) {
-        this.simplifiedGeometryGeoJson = Optional.ofNullable(simplifiedGeometryGeoJson);
+        this.simplifiedGeometryGeoJson = simplifiedGeometryGeoJson;
         return this;
     }
 
@@ -226,6 +230,31 @@ public class Route implements Validatable {
 
     // --
 
+    /**
+     * @return the bounding box of the geometries of all segments, see
+     *         {@link RouteSegment#getGeometryBoundingBox()}
+     */
+    @JsonIgnore
+    public Optional<BoundingBox> getGeometryBoundingBox() {
+        Optional<BoundingBox> box = Optional.empty();
+        for (RouteSegment segment : segments)
+            box = BoundingBox.union(box, segment.getGeometryBoundingBox());
+        return box;
+    }
+
+    /**
+     * Recalculates the distance of all segments with
+     * {@link RouteSegment#setDistanceMetersFromGeometry()} and sets
+     * {@link #getDistanceMeters()} to their sum
+     */
+    public Route setDistanceMetersFromGeometry() {
+        int sum = 0;
+        for (RouteSegment segment : segments)
+            sum += segment.setDistanceMetersFromGeometry().getDistanceMeters();
+        this.distanceMeters = sum;
+        return this;
+    }
+
     /**
      * Create a route only consisting of a single location, i.e. start and end
      * point of the route are the same
@@ -276,8 +305,8 @@ public class Route implements Validatable {
         Preconditions.checkArgument(startTime != null, "startTime is mandatory but missing");
         Preconditions.checkArgument(endTime != null, "endTime is mandatory but missing");
         segments.forEach(s -> s.validate());
-        boundingBox.ifPresent(b -> b.validate());
-        simplifiedGeometryGeoJson.ifPresent(g -> g.validate());
+        getBoundingBox().ifPresent(b -> b.validate());
+        getSimplifiedGeometryGeoJson().ifPresent(g -> g.validate());
 
         try {
             Preconditions.checkArgument(distanceMeters >= 0, "distanceMeters must be >= 0, but was %s", distanceMeters);
@@ -286,7 +315,8 @@ public class Route implements Validatable {
 
             Preconditions.checkArgument(!endTime.isBefore(startTime), "startTime must be <= endTime");
 
-            long durationBetweenTimestamps = Duration.between(startTime, endTime).getSeconds();
+            long durationBetweenTimestamps = Duration.between(startTime.toZonedDateTime(), endTime.toZonedDateTime())
+                    .getSeconds();
             Preconditions.checkArgument(durationSeconds == durationBetweenTimestamps,
                     "durationSeconds does not match seconds between start & end time: %s!=%s", durationSeconds,
                     durationBetweenTimestamps);
@@ -400,7 +430,7 @@ public class Route implements Validatable {
     @Override
     public String toString() {
         return "Route [from=" + from + ", to=" + to + ", distanceMeters=" + distanceMeters + ", durationSeconds="
-                + durationSeconds + ", id=" + id + ", startTime=" + startTime + ", endTime=" + endTime
-                + ", optimizedFor=" + optimizedFor + ", segments=" + segments.size() + "]";
+                + durationSeconds + ", id=" + getId() + ", startTime=" + startTime + ", endTime=" + endTime
+                + ", optimizedFor=" + getOptimizedFor() + ", segments=" + segments.size() + "]";
     }
 }
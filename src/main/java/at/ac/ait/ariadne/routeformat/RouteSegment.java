@@ -15,17 +15,21 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Constants.Accessibility;
 import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.geojson.BoundingBox;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollection;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
+import at.ac.ait.ariadne.routeformat.geojson.SharedVertexFeatureCollection;
 import at.ac.ait.ariadne.routeformat.instruction.Instruction;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.PackedDateTime;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -75,15 +79,15 @@ public class RouteSegment implements Validatable {
     private Integer distanceMeters;
     private Integer durationSeconds;
     private ModeOfTransport modeOfTransport;
-    private Optional<Integer> boardingSeconds = Optional.empty();
-    private Optional<Integer> alightingSeconds = Optional.empty();
-    private ZonedDateTime startTime = null;
-    private ZonedDateTime endTime = null;
+    private Integer boardingSeconds;
+    private Integer alightingSeconds;
+    private PackedDateTime startTime = null;
+    private PackedDateTime endTime = null;
     private List<IntermediateStop> intermediateStops = new ArrayList<>();
-    private Optional<GeoJSONFeature<GeoJSONPolygon>> boundingBox = Optional.empty();
-    private Optional<String> geometryEncodedPolyLine = Optional.empty();
-    private Optional<GeoJSONFeature<GeoJSONLineString>> geometryGeoJson = Optional.empty();
-    private Optional<GeoJSONFeatureCollection<GeoJSONLineString>> geometryGeoJsonEdges = Optional.empty();
+    private GeoJSONFeature<GeoJSONPolygon> boundingBox;
+    private String geometryEncodedPolyLine;
+    private GeoJSONFeature<GeoJSONLineString> geometryGeoJson;
+    private GeoJSONFeatureCollection<GeoJSONLineString> geometryGeoJsonEdges;
     private List<Instruction<?>> navigationInstructions = new ArrayList<>();
     private List<Accessibility> accessibility = new ArrayList<>();
     private Map<String, Object> additionalInfo = new TreeMap<>();
@@ -128,7 +132,7 @@ public class RouteSegment implements Validatable {
      */
     @JsonIgnore
     public int getTravelTimeSeconds() {
-        return durationSeconds - boardingSeconds.orElse(0) - alightingSeconds.orElse(0);
+        return durationSeconds - getBoardingSeconds().orElse(0) - getAlightingSeconds().orElse(0);
     }
 
     @JsonProperty(required = true)
@@ -143,7 +147,7 @@ public class RouteSegment implements Validatable {
      * a public transport segment (PT_CONDENSED),..
      */
     public Optional<Integer> getBoardingSeconds() {
-        return boardingSeconds;
+        return Optional.ofNullable(boardingSeconds);
     }
 
     /**
@@ -156,19 +160,19 @@ public class RouteSegment implements Validatable {
      * (PT_CONDENSED),..
      */
     public Optional<Integer> getAlightingSeconds() {
-        return alightingSeconds;
+        return Optional.ofNullable(alightingSeconds);
     }
 
     /**
      * the start time of this {@link RouteSegment}, i.e. when boarding starts
      */
     public String getStartTime() {
-        return Utils.getDateTimeString(startTime);
+        return startTime.format();
     }
 
     @JsonIgnore
     public ZonedDateTime getStartTimeAsZonedDateTime() {
-        return startTime;
+        return startTime == null ? null : startTime.toZonedDateTime();
     }
 
     /**
@@ -179,7 +183,7 @@ public class RouteSegment implements Validatable {
      */
     @JsonIgnore
     public ZonedDateTime getDepartureTimeAsZonedDateTime() {
-        return startTime.plusSeconds(boardingSeconds.orElse(0));
+        return getStartTimeAsZonedDateTime().plusSeconds(getBoardingSeconds().orElse(0));
     }
 
     /**
@@ -189,7 +193,7 @@ public class RouteSegment implements Validatable {
      */
     @JsonIgnore
     public ZonedDateTime getArrivalTimeAsZonedDateTime() {
-        return endTime.minusSeconds(alightingSeconds.orElse(0));
+        return getEndTimeAsZonedDateTime().minusSeconds(getAlightingSeconds().orElse(0));
     }
 
     /**
@@ -197,12 +201,12 @@ public class RouteSegment implements Validatable {
      *         finished
      */
     public String getEndTime() {
-        return Utils.getDateTimeString(endTime);
+        return endTime.format();
     }
 
     @JsonIgnore
     public ZonedDateTime getEndTimeAsZonedDateTime() {
-        return endTime;
+        return endTime == null ? null : endTime.toZonedDateTime();
     }
 
     /**
@@ -213,7 +217,7 @@ public class RouteSegment implements Validatable {
     }
 
     public Optional<GeoJSONFeature<GeoJSONPolygon>> getBoundingBox() {
-        return boundingBox;
+        return Optional.ofNullable(boundingBox);
     }
 
     /**
@@ -222,12 +226,12 @@ public class RouteSegment implements Validatable {
      * @see "https://developers.google.com/maps/documentation/utilities/polylinealgorithm"
      */
     public Optional<String> getGeometryEncodedPolyLine() {
-        return geometryEncodedPolyLine;
+        return Optional.ofNullable(geometryEncodedPolyLine);
     }
 
     /** segment geometry as a single LineString-Feature */
     public Optional<GeoJSONFeature<GeoJSONLineString>> getGeometryGeoJson() {
-        return geometryGeoJson;
+        return Optional.ofNullable(geometryGeoJson);
     }
 
     /**
@@ -235,7 +239,7 @@ public class RouteSegment implements Validatable {
      * routing graph) with debugging information for each edge
      */
     public Optional<GeoJSONFeatureCollection<GeoJSONLineString>> getGeometryGeoJsonEdges() {
-        return geometryGeoJsonEdges;
+        return Optional.ofNullable(geometryGeoJsonEdges);
     }
 
     public List<Instruction<?>> getNavigationInstructions() {
@@ -254,6 +258,7 @@ public class RouteSegment implements Validatable {
      * @return additional information, e.g. other weights for the segment
      *         (energy,..)
      */
+    @JsonMerge
     public Map<String, Object> getAdditionalInfo() {
         return additionalInfo;
     }
@@ -291,36 +296,36 @@ public class RouteSegment implements Validatable {
     }
 
     public RouteSegment setBoardingSeconds(Integer boardingSeconds) {
-        this.boardingSeconds = Optional.ofNullable(boardingSeconds);
+        this.boardingSeconds = boardingSeconds;
         return this;
     }
 
     public RouteSegment setAlightingSeconds(Integer alightingSeconds) {
-        this.alightingSeconds = Optional.ofNullable(alightingSeconds);
+        this.alightingSeconds = alightingSeconds;
         return this;
     }
 
     @JsonIgnore
     public RouteSegment setStartTime(ZonedDateTime startTime) {
-        this.startTime = startTime;
+        this.startTime = startTime == null ? null : PackedDateTime.of(startTime);
         return this;
     }
 
     @JsonProperty
     public RouteSegment setStartTime(String startTime) {
-        this.startTime = Utils.parseDateTime(startTime, "startTime");
+        this.startTime = Utils.parsePackedDateTime(startTime, "startTime");
         return this;
     }
 
     @JsonIgnore
     public RouteSegment setEndTime(ZonedDateTime endTime) {
-        this.endTime = endTime;
+        this.endTime = endTime == null ? null : PackedDateTime.of(endTime);
         return this;
     }
 
     @JsonProperty
     public RouteSegment setEndTime(String endTime) {
-        this.endTime = Utils.parseDateTime(endTime, "endTime");
+        this.endTime = Utils.parsePackedDateTime(endTime, "endTime");
         return this;
     }
 
@@ -330,22 +335,22 @@ public class RouteSegment implements Validatable {
     }
 
     public RouteSegment setBoundingBox(GeoJSONFeature<GeoJSONPolygon> boundingBox) {
-        this.boundingBox = Optional.ofNullable(boundingBox);
+        this.boundingBox = boundingBox;
         return this;
     }
 
     public RouteSegment setGeometryEncodedPolyLine(String geometryEncodedPolyLine) {
-        this.geometryEncodedPolyLine = Optional.ofNullable(geometryEncodedPolyLine);
+        this.geometryEncodedPolyLine = geometryEncodedPolyLine;
         return this;
     }
 
     public RouteSegment setGeometryGeoJson(GeoJSONFeature<GeoJSONLineString> geometryGeoJson) {
-        this.geometryGeoJson = Optional.ofNullable(geometryGeoJson);
+        this.geometryGeoJson = geometryGeoJson;
         return this;
     }
 
     public RouteSegment setGeometryGeoJsonEdges(GeoJSONFeatureCollection<GeoJSONLineString> geometryGeoJsonEdges) {
-        this.geometryGeoJsonEdges = Optional.ofNullable(geometryGeoJsonEdges);
+        this.geometryGeoJsonEdges = geometryGeoJsonEdges;
         return this;
     }
 
@@ -370,14 +375,82 @@ public class RouteSegment implements Validatable {
      */
     public RouteSegment shiftBySeconds(int amountToAdd) {
         if (startTime != null)
-            startTime = startTime.plus(amountToAdd, ChronoUnit.SECONDS);
+            startTime = startTime.plusSeconds(amountToAdd);
         if (endTime != null)
-            endTime = endTime.plus(amountToAdd, ChronoUnit.SECONDS);
+            endTime = endTime.plusSeconds(amountToAdd);
         return this;
     }
 
     // --
 
+    /**
+     * @return the bounding box of {@link #getGeometryGeoJson()} and
+     *         {@link #getGeometryGeoJsonEdges()} calculated from the (cached)
+     *         bounding boxes of the line strings
+     */
+    @JsonIgnore
+    public Optional<BoundingBox> getGeometryBoundingBox() {
+        Optional<BoundingBox> box = Optional.empty();
+        if (getGeometryGeoJson().isPresent())
+            box = getGeometryGeoJson().get().getGeometry().getBoundingBox();
+        if (getGeometryGeoJsonEdges().isPresent() && !hasSharedEdgeVertices()) {
+            for (GeoJSONFeature<GeoJSONLineString> edge : getGeometryGeoJsonEdges().get().getFeatures())
+                box = BoundingBox.union(box, edge.getGeometry().getBoundingBox());
+        }
+        return box;
+    }
+
+    /**
+     * @return the geodesic length of {@link #getGeometryGeoJson()} in meters
+     *         (calculated from the cached cumulative distances of the line
+     *         string) or empty if there is no geometry
+     */
+    @JsonIgnore
+    public Optional<Double> getGeometryLengthMeters() {
+        return getGeometryGeoJson().map(g -> g.getGeometry().getLengthMeters());
+    }
+
+    /**
+     * Sets {@link #getDistanceMeters()} to the rounded length of
+     * {@link #getGeometryGeoJson()}. Segments without geometry are left
+     * unchanged.
+     */
+    public RouteSegment setDistanceMetersFromGeometry() {
+        getGeometryLengthMeters().ifPresent(length -> this.distanceMeters = (int) Math.round(length));
+        return this;
+    }
+
+    /**
+     * Replaces {@link #getGeometryGeoJsonEdges()} with a
+     * {@link SharedVertexFeatureCollection}, which shares the vertices of
+     * {@link #getGeometryGeoJson()} instead of storing copies of them. This is
+     * only possible if the edges are consecutive parts of the geometry.
+     * Sharing is opt-in, i.e. deserialized segments store copies of the
+     * vertices until this method is called. Modifying the geometry afterwards
+     * does not affect the edges (the modified vertices are copied), but ends
+     * the sharing.
+     *
+     * @return <code>true</code> if the edges share the vertices of the
+     *         geometry (also if they already did before)
+     */
+    public boolean shareEdgeVertices() {
+        if (!getGeometryGeoJson().isPresent() || !getGeometryGeoJsonEdges().isPresent())
+            return false;
+        if (hasSharedEdgeVertices())
+            return true;
+        Optional<SharedVertexFeatureCollection> shared = SharedVertexFeatureCollection
+                .create(getGeometryGeoJson().get().getGeometry(), getGeometryGeoJsonEdges().get().getFeatures());
+        shared.ifPresent(edges -> this.geometryGeoJsonEdges = edges);
+        return shared.isPresent();
+    }
+
+    private boolean hasSharedEdgeVertices() {
+        return geometryGeoJson != null && geometryGeoJson.getGeometry() != null
+                && geometryGeoJsonEdges instanceof SharedVertexFeatureCollection
+                && ((SharedVertexFeatureCollection) geometryGeoJsonEdges)
+                        .sharesVerticesOf(geometryGeoJson.getGeometry());
+    }
+
     // no createMinimal! see javadoc for explanation.
 
     public static RouteSegment createShallowCopy(RouteSegment s) {
@@ -423,9 +496,9 @@ public class RouteSegment implements Validatable {
         Preconditions.checkArgument(startTime != null, "startTime is mandatory but missing for segment #" + nr);
         Preconditions.checkArgument(endTime != null, "endTime is mandatory but missing for segment #" + nr);
         intermediateStops.forEach(s -> s.validate());
-        boundingBox.ifPresent(b -> b.validate());
-        geometryGeoJson.ifPresent(g -> g.validate());
-        geometryGeoJsonEdges.ifPresent(g -> g.validate());
+        getBoundingBox().ifPresent(b -> b.validate());
+        getGeometryGeoJson().ifPresent(g -> g.validate());
+        getGeometryGeoJsonEdges().ifPresent(g -> g.validate());
         navigationInstructions.forEach(i -> i.validate());
 
         try {
@@ -435,14 +508,16 @@ public class RouteSegment implements Validatable {
             Preconditions.checkArgument(durationSeconds >= 0,
                     "durationSeconds must be >= 0, but was %s for segment #%s", durationSeconds, nr);
 
-            Preconditions.checkArgument(alightingSeconds.orElse(0) + boardingSeconds.orElse(0) <= durationSeconds,
+            Preconditions.checkArgument(
+                    getAlightingSeconds().orElse(0) + getBoardingSeconds().orElse(0) <= durationSeconds,
                     "boarding+alighting seconds must be equal to or smaller than the total duration for segment #%s",
                     nr);
 
             Preconditions.checkArgument(!endTime.isBefore(startTime), "startTime must be <= endTime for segment #%s",
                     nr);
 
-            long durationBetweenTimestamps = Duration.between(startTime, endTime).getSeconds();
+            ZonedDateTime start = startTime.toZonedDateTime(), end = endTime.toZonedDateTime();
+            long durationBetweenTimestamps = Duration.between(start, end).getSeconds();
             Preconditions.checkArgument(durationSeconds == durationBetweenTimestamps,
                     "durationSeconds does not match seconds between start & end time: %s!=%s for segment #%s",
                     durationSeconds, durationBetweenTimestamps, nr);
@@ -451,17 +526,17 @@ public class RouteSegment implements Validatable {
                     + nr;
             for (IntermediateStop stop : intermediateStops) {
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getPlannedArrivalTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(start, stop.getPlannedArrivalTimeAsZonedDateTime(), end), error);
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getPlannedDepartureTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(start, stop.getPlannedDepartureTimeAsZonedDateTime(), end), error);
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getEstimatedArrivalTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(start, stop.getEstimatedArrivalTimeAsZonedDateTime(), end), error);
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getEstimatedDepartureTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(start, stop.getEstimatedDepartureTimeAsZonedDateTime(), end), error);
             }
 
-            boolean geometryPresent = geometryEncodedPolyLine.isPresent() || geometryGeoJson.isPresent()
-                    || geometryGeoJsonEdges.isPresent();
+            boolean geometryPresent = getGeometryEncodedPolyLine().isPresent() || getGeometryGeoJson().isPresent()
+                    || getGeometryGeoJsonEdges().isPresent();
             Preconditions.checkArgument(geometryPresent, "at least one geometry must be present for segment #%s", nr);
         } catch (IllegalArgumentException e) {
             if (strongValidation)
@@ -599,18 +674,19 @@ public class RouteSegment implements Validatable {
 
     @Override
     public String toString() {
+        ZonedDateTime startTime = getStartTimeAsZonedDateTime(), endTime = getEndTimeAsZonedDateTime();
         StringBuilder builder = new StringBuilder();
         builder.append(String.format("%d: %s %dm %ds (%s ", nr, modeOfTransport.toString(), distanceMeters,
                 durationSeconds, Utils.getShortStringDate(startTime)));
-        if (boardingSeconds.isPresent() && boardingSeconds.get() > 0) {
+        if (getBoardingSeconds().isPresent() && getBoardingSeconds().get() > 0) {
             builder.append(String.format("start: %s, departure: %s, ", Utils.getShortStringTime(startTime),
-                    Utils.getShortStringTime(startTime.plus(boardingSeconds.get(), ChronoUnit.SECONDS))));
+                    Utils.getShortStringTime(startTime.plus(getBoardingSeconds().get(), ChronoUnit.SECONDS))));
         } else {
             builder.append(String.format("start: %s, ", Utils.getShortStringTime(startTime)));
         }
-        if (alightingSeconds.isPresent() && alightingSeconds.get() > 0) {
+        if (getAlightingSeconds().isPresent() && getAlightingSeconds().get() > 0) {
             builder.append(String.format("alighting: %s, end: %s",
-                    Utils.getShortStringTime(endTime.minus(alightingSeconds.get(), ChronoUnit.SECONDS)),
+                    Utils.getShortStringTime(endTime.minus(getAlightingSeconds().get(), ChronoUnit.SECONDS)),
                     Utils.getShortStringTime(endTime)));
         } else {
             builder.append(String.format("end: %s", Utils.getShortStringTime(endTime)));
@@ -14,6 +14,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Constants.Status;
+import at.ac.ait.ariadne.routeformat.geojson.BoundingBox;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -171,6 +172,18 @@ public class RoutingResponse implements Validatable {
 
     // --
 
+    /**
+     * @return the bounding box of the geometries of all routes, see
+     *         {@link Route#getGeometryBoundingBox()}
+     */
+    @JsonIgnore
+    public Optional<BoundingBox> getGeometryBoundingBox() {
+        Optional<BoundingBox> box = Optional.empty();
+        for (Route route : routes)
+            box = BoundingBox.union(box, route.getGeometryBoundingBox());
+        return box;
+    }
+
     // no createMinimal! see javadoc for explanation.
 
     @Override
@@ -0,0 +1,146 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable axis-aligned bounding box. Calculations are done with
+ * primitive doubles, but the exact decimal values of the coordinates defining
+ * the box are kept so that {@link #toPolygonFeature()} does not introduce
+ * rounding differences.
+ * 
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class BoundingBox {
+
+    private final double minX, minY, maxX, maxY;
+    private final BigDecimal exactMinX, exactMinY, exactMaxX, exactMaxY;
+
+    public BoundingBox(BigDecimal minX, BigDecimal minY, BigDecimal maxX, BigDecimal maxY) {
+        this(minX.doubleValue(), minY.doubleValue(), maxX.doubleValue(), maxY.doubleValue(), minX, minY, maxX, maxY);
+    }
+
+    BoundingBox(double minX, double minY, double maxX, double maxY, BigDecimal exactMinX, BigDecimal exactMinY,
+            BigDecimal exactMaxX, BigDecimal exactMaxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.exactMinX = exactMinX;
+        this.exactMinY = exactMinY;
+        this.exactMaxX = exactMaxX;
+        this.exactMaxY = exactMaxY;
+    }
+
+    // -- getters
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    // --
+
+    /**
+     * @return the smallest box containing this and the other box
+     */
+    public BoundingBox union(BoundingBox other) {
+        boolean otherMinX = other.minX < minX, otherMinY = other.minY < minY;
+        boolean otherMaxX = other.maxX > maxX, otherMaxY = other.maxY > maxY;
+        if (!otherMinX && !otherMinY && !otherMaxX && !otherMaxY)
+            return this;
+        return new BoundingBox(otherMinX ? other.minX : minX, otherMinY ? other.minY : minY,
+                otherMaxX ? other.maxX : maxX, otherMaxY ? other.maxY : maxY,
+                otherMinX ? other.exactMinX : exactMinX, otherMinY ? other.exactMinY : exactMinY,
+                otherMaxX ? other.exactMaxX : exactMaxX, otherMaxY ? other.exactMaxY : exactMaxY);
+    }
+
+    /**
+     * @return the union of both boxes or the present one
+     */
+    public static Optional<BoundingBox> union(Optional<BoundingBox> a, Optional<BoundingBox> b) {
+        if (!a.isPresent())
+            return b;
+        if (!b.isPresent())
+            return a;
+        return Optional.of(a.get().union(b.get()));
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    public boolean intersects(BoundingBox other) {
+        return other.minX <= maxX && other.maxX >= minX && other.minY <= maxY && other.maxY >= minY;
+    }
+
+    /**
+     * @return the bounding box as polygon with the points beginning in
+     *         south-west and then continuing clockwise
+     */
+    public GeoJSONFeature<GeoJSONPolygon> toPolygonFeature() {
+        List<GeoJSONCoordinate> outerRing = new ArrayList<>();
+        outerRing.add(GeoJSONCoordinate.create(exactMinX, exactMinY));
+        outerRing.add(GeoJSONCoordinate.create(exactMinX, exactMaxY));
+        outerRing.add(GeoJSONCoordinate.create(exactMaxX, exactMaxY));
+        outerRing.add(GeoJSONCoordinate.create(exactMaxX, exactMinY));
+        outerRing.add(GeoJSONCoordinate.create(exactMinX, exactMinY));
+        return GeoJSONFeature.createPolygonFeatureFromRings(outerRing, Collections.emptyList());
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        long temp;
+        temp = Double.doubleToLongBits(maxX);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(maxY);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(minX);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(minY);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        BoundingBox other = (BoundingBox) obj;
+        if (Double.doubleToLongBits(maxX) != Double.doubleToLongBits(other.maxX))
+            return false;
+        if (Double.doubleToLongBits(maxY) != Double.doubleToLongBits(other.maxY))
+            return false;
+        if (Double.doubleToLongBits(minX) != Double.doubleToLongBits(other.minX))
+            return false;
+        if (Double.doubleToLongBits(minY) != Double.doubleToLongBits(other.minY))
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox [minX=" + minX + ", minY=" + minY + ", maxX=" + maxX + ", maxY=" + maxY + "]";
+    }
+
+}
@@ -0,0 +1,165 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Writes ordinates stored as decimal fixed-point numbers (an unscaled
+ * <code>long</code> and a scale) with integer arithmetic into a reused char
+ * buffer, which is then passed to the generator, i.e. without creating
+ * {@link BigDecimal}s or {@link String}s. Generators of formats that can not
+ * write formatted numbers (e.g. binary formats or token buffers) get
+ * {@link BigDecimal}s.
+ * <p>
+ * Without a fixed number of decimals the output is identical to
+ * {@link JsonGenerator#writeNumber(BigDecimal)}. With a fixed number of
+ * decimals ordinates are rounded half up and trailing zeros are omitted.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+final class CoordinateNumberWriter {
+
+    static final int EXACT = -1;
+    static final int MAX_DECIMALS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DECIMALS + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    /** sign, 19 digits, decimal point and up to 127 leading zeros */
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[160]);
+
+    private CoordinateNumberWriter() {
+    }
+
+    /**
+     * @return the number of decimals configured with
+     *         {@link GeoJSONCoordinateSerializer#DECIMALS_ATTRIBUTE} or
+     *         {@link #EXACT}
+     */
+    static int getDecimals(SerializerProvider provider) throws JsonMappingException {
+        Object decimals = provider.getAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE);
+        if (decimals == null)
+            return EXACT;
+        if (!(decimals instanceof Integer) || (Integer) decimals < 0 || (Integer) decimals > MAX_DECIMALS)
+            throw JsonMappingException.from(provider,
+                    "number of decimals must be an integer between 0 and " + MAX_DECIMALS + " but was " + decimals);
+        return (Integer) decimals;
+    }
+
+    static void write(JsonGenerator gen, long unscaled, int scale, int decimals) throws IOException {
+        if (canWriteFormattedNumbers(gen)) {
+            char[] buffer = BUFFER.get();
+            int length = decimals == EXACT ? formatExact(buffer, unscaled, scale)
+                    : formatRounded(buffer, unscaled, scale, decimals, false);
+            if (length > 0) {
+                gen.writeNumber(buffer, 0, length);
+                return;
+            }
+        }
+        write(gen, BigDecimal.valueOf(unscaled, scale), decimals);
+    }
+
+    static void write(JsonGenerator gen, BigDecimal value, int decimals) throws IOException {
+        if (decimals == EXACT) {
+            gen.writeNumber(value);
+        } else if (canWriteFormattedNumbers(gen) && value.precision() <= MAX_DECIMALS
+                && value.scale() > Byte.MIN_VALUE && value.scale() <= Byte.MAX_VALUE) {
+            write(gen, value.unscaledValue().longValue(), value.scale(), decimals);
+        } else {
+            gen.writeNumber(value.setScale(decimals, RoundingMode.HALF_UP).stripTrailingZeros());
+        }
+    }
+
+    /**
+     * In Jackson 2.11 only the generator for character output reports
+     * {@link JsonGenerator#canWriteFormattedNumbers()}, the one for byte output
+     * does not. Textual formats are therefore also recognized by not writing
+     * binary data natively.
+     */
+    private static boolean canWriteFormattedNumbers(JsonGenerator gen) {
+        return gen.canWriteFormattedNumbers() || !gen.canWriteBinaryNatively();
+    }
+
+    /**
+     * Formats like {@link BigDecimal#toString()} for all numbers that are not
+     * represented in scientific notation there
+     *
+     * @return the length or <code>0</code> if the number requires scientific
+     *         notation
+     */
+    private static int formatExact(char[] buffer, long unscaled, int scale) {
+        if (scale < 0 || unscaled == Long.MIN_VALUE)
+            return 0;
+        int digits = countDigits(Math.abs(unscaled));
+        if (digits - 1 - scale < -6)
+            return 0;
+        return format(buffer, unscaled < 0, Math.abs(unscaled), digits, scale);
+    }
+
+    /**
+     * @param halfEven
+     *            round half even (like {@link java.text.DecimalFormat})
+     *            instead of half up
+     * @return the length or <code>0</code> if the number is too large
+     */
+    static int formatRounded(char[] buffer, long unscaled, int scale, int decimals, boolean halfEven) {
+        if (unscaled == Long.MIN_VALUE)
+            return 0;
+        boolean negative = unscaled < 0;
+        long value = Math.abs(unscaled);
+        if (scale > decimals) {
+            int shift = scale - decimals;
+            if (shift > MAX_DECIMALS) {
+                value = 0;
+            } else {
+                long divisor = POWERS_OF_TEN[shift];
+                long remainder = value % divisor;
+                value /= divisor;
+                if (remainder * 2 > divisor || (remainder * 2 == divisor && (!halfEven || value % 2 == 1)))
+                    value++;
+            }
+            scale = decimals;
+        } else if (scale < 0) {
+            if (-scale > MAX_DECIMALS || value > Long.MAX_VALUE / POWERS_OF_TEN[-scale])
+                return 0;
+            value *= POWERS_OF_TEN[-scale];
+            scale = 0;
+        }
+        while (scale > 0 && value % 10 == 0) {
+            value /= 10;
+            scale--;
+        }
+        return format(buffer, negative && value != 0, value, countDigits(value), scale);
+    }
+
+    private static int format(char[] buffer, boolean negative, long value, int digits, int scale) {
+        int length = (negative ? 1 : 0) + (scale == 0 ? digits : Math.max(digits, scale + 1) + 1);
+        int pos = length;
+        for (int i = 0; i < Math.max(digits, scale + 1); i++) {
+            if (i == scale && scale > 0)
+                buffer[--pos] = '.';
+            buffer[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        if (negative)
+            buffer[--pos] = '-';
+        return length;
+    }
+
+    private static int countDigits(long value) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits])
+            digits++;
+        return digits;
+    }
+
+}
@@ -3,7 +3,6 @@ package at.ac.ait.ariadne.routeformat.geojson;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -31,7 +30,19 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 public class GeoJSONCoordinate implements Validatable {
 
     private BigDecimal x, y;
-    private Optional<BigDecimal> z = Optional.empty();
+    private BigDecimal z;
+
+    public GeoJSONCoordinate() {
+    }
+
+    /**
+     * for read-only subclasses, which can not use the setters
+     */
+    GeoJSONCoordinate(BigDecimal x, BigDecimal y, BigDecimal z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
 
     // -- getters
 
@@ -44,7 +55,7 @@ public class GeoJSONCoordinate implements Validatable {
     }
 
     public Optional<BigDecimal> getZ() {
-        return z;
+        return Optional.ofNullable(z);
     }
 
     // -- setters
@@ -60,19 +71,27 @@ public class GeoJSONCoordinate implements Validatable {
     }
 
     public GeoJSONCoordinate setZ(BigDecimal z) {
-        this.z = Optional.ofNullable(z);
+        this.z = z;
         return this;
     }
 
     // --
 
+    /**
+     * Rounds the values to seven decimal places half up (i.e. away from zero),
+     * see {@link PackedCoordinateList#add(double, double)}
+     */
     public static GeoJSONCoordinate create(double x, double y) {
-        return GeoJSONCoordinate.create(String.format(Locale.US, "%.7f", x), String.format(Locale.US, "%.7f", y));
+        return GeoJSONCoordinate.create(PackedCoordinateList.roundDouble(x), PackedCoordinateList.roundDouble(y));
     }
 
+    /**
+     * Rounds the values to seven decimal places half up (i.e. away from zero),
+     * see {@link PackedCoordinateList#add(double, double, double)}
+     */
     public static GeoJSONCoordinate create(double x, double y, double z) {
-        return GeoJSONCoordinate.create(String.format(Locale.US, "%.7f", x), String.format(Locale.US, "%.7f", y),
-                String.format(Locale.US, "%.7f", z));
+        return GeoJSONCoordinate.create(PackedCoordinateList.roundDouble(x), PackedCoordinateList.roundDouble(y),
+                PackedCoordinateList.roundDouble(z));
     }
 
     public static GeoJSONCoordinate create(String x, String y) {
@@ -124,7 +143,7 @@ public class GeoJSONCoordinate implements Validatable {
             return true;
         if (obj == null)
             return false;
-        if (getClass() != obj.getClass())
+        if (!(obj instanceof GeoJSONCoordinate))
             return false;
         GeoJSONCoordinate other = (GeoJSONCoordinate) obj;
         if (x == null) {
@@ -155,7 +174,7 @@ public class GeoJSONCoordinate implements Validatable {
 
     @Override
     public String toString() {
-        return "Coordinate [x=" + x + ", y=" + y + ", z=" + z + "]";
+        return "Coordinate [x=" + x + ", y=" + y + ", z=" + getZ() + "]";
     }
 
 }
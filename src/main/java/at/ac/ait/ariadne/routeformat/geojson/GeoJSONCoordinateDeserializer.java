@@ -1,9 +1,6 @@
 package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -17,16 +14,15 @@ public class GeoJSONCoordinateDeserializer extends JsonDeserializer<GeoJSONCoord
     public GeoJSONCoordinate deserialize(JsonParser p, DeserializationContext ctxt)
             throws IOException, JsonProcessingException {
         if (!p.isExpectedStartArrayToken())
-            throw ctxt.mappingException("expected array start for coordinate");
+            throw ctxt.wrongTokenException(p, GeoJSONCoordinate.class, JsonToken.START_ARRAY,
+                    "expected array start for coordinate");
 
-        List<BigDecimal> coordinates = new ArrayList<>();
-        for (JsonToken t = p.nextToken(); t != null; t = p.nextToken()) {
-            if (t.equals(JsonToken.VALUE_NUMBER_INT) || t.equals(JsonToken.VALUE_NUMBER_FLOAT))
-                coordinates.add(new BigDecimal(p.getValueAsString()));
-            else
-                break;
-        }
-        return GeoJSONCoordinate.create(coordinates);
+        OrdinateReader reader = OrdinateReader.of(ctxt);
+        int dimension = reader.read(p, ctxt);
+        GeoJSONCoordinate coordinate = GeoJSONCoordinate.create(reader.getDecimal(0), reader.getDecimal(1));
+        if (dimension == 3)
+            coordinate.setZ(reader.getDecimal(2));
+        return coordinate;
     }
 
 }
@@ -4,19 +4,40 @@ import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
+/**
+ * Writes coordinates either exactly or - if {@link #DECIMALS_ATTRIBUTE} is set
+ * - rounded to a fixed number of decimals, e.g.
+ * <code>mapper.writer().withAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE, 7)</code>
+ * or for all writers of a mapper
+ * <code>mapper.setDefaultAttributes(ContextAttributes.getEmpty().withSharedAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE, 7))</code>
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
 public class GeoJSONCoordinateSerializer extends JsonSerializer<GeoJSONCoordinate> {
 
+    /**
+     * Jackson attribute (an {@link Integer} between 0 and 18) for the number of
+     * decimals coordinates are rounded to (half up, trailing zeros are
+     * omitted)
+     */
+    public static final String DECIMALS_ATTRIBUTE = GeoJSONCoordinateSerializer.class.getName() + ".decimals";
+
     @Override
     public void serialize(GeoJSONCoordinate value, JsonGenerator gen, SerializerProvider serializers)
             throws IOException, JsonProcessingException {
+        if (value.getX() == null || value.getY() == null)
+            throw JsonMappingException.from(serializers, "x and y of coordinate must be set: " + value);
+
+        int decimals = CoordinateNumberWriter.getDecimals(serializers);
         gen.writeStartArray();
-        gen.writeNumber(value.getX());
-        gen.writeNumber(value.getY());
+        CoordinateNumberWriter.write(gen, value.getX(), decimals);
+        CoordinateNumberWriter.write(gen, value.getY(), decimals);
         if (value.getZ().isPresent())
-            gen.writeNumber(value.getZ().get());
+            CoordinateNumberWriter.write(gen, value.getZ().get(), decimals);
         gen.writeEndArray();
     }
 
@@ -8,6 +8,7 @@ import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
@@ -20,11 +21,24 @@ import at.ac.ait.ariadne.routeformat.location.Location;
 @JsonInclude(Include.NON_ABSENT)
 public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validatable {
 
+    public static final String TYPE_NAME = "Feature";
+
     @JsonProperty(required = true)
-    public final String type = GeoJSONUtil.getTypeName(this.getClass());
+    public final String type = TYPE_NAME;
     private T geometry;
     private Map<String, Object> properties = new TreeMap<>();
 
+    public GeoJSONFeature() {
+    }
+
+    /**
+     * for read-only subclasses, which can not use the setters
+     */
+    GeoJSONFeature(T geometry, Map<String, Object> properties) {
+        this.geometry = geometry;
+        this.properties = properties;
+    }
+
     // -- getters
 
     @JsonProperty(required = true)
@@ -38,6 +52,7 @@ public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validata
      */
     @JsonInclude(Include.ALWAYS)
     @JsonProperty(required = true)
+    @JsonMerge
     public Map<String, Object> getProperties() {
         return properties;
     }
@@ -54,8 +69,24 @@ public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validata
         return this;
     }
 
+    /**
+     * Uses the given properties without copying them, e.g. for features that
+     * are created as view
+     */
+    GeoJSONFeature<T> setSharedProperties(Map<String, Object> properties) {
+        this.properties = properties;
+        return this;
+    }
+
     // --
 
+    /**
+     * @return <code>true</code> if there are properties
+     */
+    boolean hasProperties() {
+        return properties != null && !properties.isEmpty();
+    }
+
     public static GeoJSONFeature<GeoJSONPoint> createPointFeature(GeoJSONCoordinate point) {
         return createPointFeature(GeoJSONPoint.create(point));
     }
@@ -67,9 +98,9 @@ public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validata
     public static GeoJSONFeature<GeoJSONLineString> createLineStringFeature(Location<?> from, Location<?> to,
             GeoJSONCoordinate... geometryInbetween) {
         List<GeoJSONCoordinate> coordinatePoints = new ArrayList<>();
-        coordinatePoints.add(from.getCoordinate().geometry.getCoordinates().get());
+        coordinatePoints.add(from.getSimpleCoordinate());
         coordinatePoints.addAll(Arrays.asList(geometryInbetween));
-        coordinatePoints.add(to.getCoordinate().geometry.getCoordinates().get());
+        coordinatePoints.add(to.getSimpleCoordinate());
         return createLineStringFeature(coordinatePoints);
     }
 
@@ -139,7 +170,7 @@ public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validata
             return true;
         if (obj == null)
             return false;
-        if (getClass() != obj.getClass())
+        if (!(obj instanceof GeoJSONFeature))
             return false;
         GeoJSONFeature<?> other = (GeoJSONFeature<?>) obj;
         if (geometry == null) {
@@ -12,15 +12,19 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 
 /**
  * A feature collection restricted to features of just one type. It may be
- * empty.
+ * empty. Subclasses may provide the features as a view on other data (see
+ * {@link SharedVertexFeatureCollection}), therefore all methods access them
+ * via {@link #getFeatures()}.
  * 
  * @author AIT Austrian Institute of Technology GmbH
  */
 @JsonInclude(Include.NON_ABSENT)
 public class GeoJSONFeatureCollection<T extends GeoJSONGeometryObject> implements Validatable {
 
+    public static final String TYPE_NAME = "FeatureCollection";
+
     @JsonProperty(required = true)
-    public final String type = GeoJSONUtil.getTypeName(this.getClass());
+    public final String type = TYPE_NAME;
     private List<GeoJSONFeature<T>> features = new ArrayList<>();
 
     // -- getters
@@ -47,14 +51,14 @@ public class GeoJSONFeatureCollection<T extends GeoJSONGeometryObject> implement
 
     @Override
     public void validate() {
-        features.forEach(f -> f.validate());
+        getFeatures().forEach(f -> f.validate());
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((features == null) ? 0 : features.hashCode());
+        result = prime * result + ((getFeatures() == null) ? 0 : getFeatures().hashCode());
         result = prime * result + ((type == null) ? 0 : type.hashCode());
         return result;
     }
@@ -65,13 +69,13 @@ public class GeoJSONFeatureCollection<T extends GeoJSONGeometryObject> implement
             return true;
         if (obj == null)
             return false;
-        if (getClass() != obj.getClass())
+        if (!(obj instanceof GeoJSONFeatureCollection))
             return false;
         GeoJSONFeatureCollection<?> other = (GeoJSONFeatureCollection<?>) obj;
-        if (features == null) {
-            if (other.features != null)
+        if (getFeatures() == null) {
+            if (other.getFeatures() != null)
                 return false;
-        } else if (!features.equals(other.features))
+        } else if (!getFeatures().equals(other.getFeatures()))
             return false;
         if (type == null) {
             if (other.type != null)
@@ -82,7 +86,7 @@ public class GeoJSONFeatureCollection<T extends GeoJSONGeometryObject> implement
     }
 
     public List<String> toWKT() {
-        return features.stream().map(f -> f.toWKT()).collect(Collectors.toList());
+        return getFeatures().stream().map(f -> f.toWKT()).collect(Collectors.toList());
     }
 
     @Override
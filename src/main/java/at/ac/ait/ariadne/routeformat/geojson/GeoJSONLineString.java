@@ -2,37 +2,82 @@ package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.base.Preconditions;
 
 /**
  * A linestring that may be empty, i.e. not contain a coordinate, but may never
  * consist of a single coordinate.
+ * <p>
+ * The coordinates are internally stored in a {@link PackedCoordinateList}, i.e.
+ * {@link #getCoordinates()} is an unmodifiable view that materializes
+ * (read-only) {@link GeoJSONCoordinate}s only on access. Modifying the list or
+ * one of its coordinates throws an {@link UnsupportedOperationException}, the
+ * coordinates are modified via {@link #getPackedCoordinates()} or replaced
+ * with {@link #setCoordinates(List)}. Sub line strings and
+ * concatenations share the coordinates of their sources copy-on-write, i.e.
+ * they are cheap to create but behave like independent copies, see
+ * {@link PackedCoordinateList}.
  * 
  * @author AIT Austrian Institute of Technology GmbH
  */
 @JsonInclude(Include.ALWAYS)
 public class GeoJSONLineString implements GeoJSONGeometryObject {
 
-    private List<GeoJSONCoordinate> coordinates = new ArrayList<>();
+    public static final String TYPE_NAME = "LineString";
+
+    private PackedCoordinateList coordinates = new PackedCoordinateList();
 
     // -- getters
 
     @JsonProperty(required = true)
+    @JsonSerialize(using = PackedCoordinateListSerializer.class)
     public List<GeoJSONCoordinate> getCoordinates() {
+        return coordinates.asUnmodifiableList();
+    }
+
+    /**
+     * @return the same coordinates as {@link #getCoordinates()} but modifiable
+     *         and typed to allow primitive access without materializing
+     *         {@link GeoJSONCoordinate}s
+     */
+    @JsonIgnore
+    public PackedCoordinateList getPackedCoordinates() {
         return coordinates;
     }
 
     // -- setters
 
+    /**
+     * @throws NullPointerException
+     *             if a coordinate is <code>null</code>
+     */
+    @JsonIgnore
     public GeoJSONLineString setCoordinates(List<GeoJSONCoordinate> coordinates) {
-        this.coordinates = new ArrayList<>(coordinates);
+        PackedCoordinateList packed = PackedCoordinateList.unwrap(coordinates);
+        if (packed != null)
+            this.coordinates = packed.copyOfRange(0, packed.size());
+        else
+            this.coordinates = new PackedCoordinateList(coordinates);
         return this;
     }
 
+    /**
+     * Takes over the freshly deserialized list without copying it
+     */
+    @JsonProperty("coordinates")
+    @JsonDeserialize(using = PackedCoordinateListDeserializer.class)
+    private void setDeserializedCoordinates(PackedCoordinateList coordinates) {
+        this.coordinates = coordinates;
+    }
+
     // --
 
     public static GeoJSONLineString create(List<GeoJSONCoordinate> points) {
@@ -44,12 +89,74 @@ public class GeoJSONLineString implements GeoJSONGeometryObject {
      *            low coordinate-pair (inclusive) of the subLineString
      * @param toIndex
      *            high coordinate-pair (exclusive) of the subLineString
-     * @return a shallow copy of the requested sub part, i.e. the sublist and
-     *         the old list are independent from each other but use the same
-     *         {@link GeoJSONCoordinate}s
+     * @return the requested sub part, which is created in constant time but
+     *         is independent from this line string (copy-on-write)
      */
     public GeoJSONLineString subLineString(int fromIndex, int toIndex) {
-        return GeoJSONLineString.create(coordinates.subList(fromIndex, toIndex));
+        GeoJSONLineString subLineString = new GeoJSONLineString();
+        subLineString.coordinates = coordinates.copyOfRange(fromIndex, toIndex);
+        return subLineString;
+    }
+
+    /**
+     * @return a new line string consisting of the coordinates of this line
+     *         string followed by the coordinates of the other line string
+     *         (without removing a common junction coordinate). Both line
+     *         strings stay independent from the result, see
+     *         {@link PackedCoordinateList#concat(List)}.
+     */
+    public GeoJSONLineString concat(GeoJSONLineString other) {
+        GeoJSONLineString concatenation = new GeoJSONLineString();
+        concatenation.coordinates = coordinates.concat(other.coordinates);
+        return concatenation;
+    }
+
+    /**
+     * @return a new line string consisting of the coordinates of all line
+     *         strings (in the given order), which takes time linear in the
+     *         number of coordinates of all but the first line string (if its
+     *         coordinates can be shared, see
+     *         {@link PackedCoordinateList#concat(List)})
+     */
+    public static GeoJSONLineString concat(List<GeoJSONLineString> lineStrings) {
+        List<PackedCoordinateList> lists = new ArrayList<>(lineStrings.size());
+        for (GeoJSONLineString lineString : lineStrings)
+            lists.add(lineString.coordinates);
+        GeoJSONLineString concatenation = new GeoJSONLineString();
+        concatenation.coordinates = PackedCoordinateList.concat(lists);
+        return concatenation;
+    }
+
+    /**
+     * @return the bounding box, which is cached and kept up to date when the
+     *         coordinates are modified
+     */
+    @JsonIgnore
+    public Optional<BoundingBox> getBoundingBox() {
+        return coordinates.getBoundingBox();
+    }
+
+    /**
+     * @return the geodesic length in meters, see
+     *         {@link PackedCoordinateList#getCumulativeDistanceMeters(int)}
+     */
+    @JsonIgnore
+    public double getLengthMeters() {
+        return coordinates.getLengthMeters();
+    }
+
+    /**
+     * @return the (interpolated) coordinate at the given distance along the
+     *         line string, see {@link PackedCoordinateList#interpolate(double)}
+     */
+    public GeoJSONCoordinate getCoordinateAtDistance(double distanceMeters) {
+        Preconditions.checkArgument(!isEmpty(), "line string is empty");
+        return coordinates.interpolate(distanceMeters);
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
     }
 
     @Override
@@ -90,7 +197,7 @@ public class GeoJSONLineString implements GeoJSONGeometryObject {
 
     @Override
     public String toWKT() {
-        return getTypeName() + " " + WKTUtil.getCoordinateStringPointOrLineString(coordinates);
+        return WKTWriter.toWKT(this);
     }
 
     @Override
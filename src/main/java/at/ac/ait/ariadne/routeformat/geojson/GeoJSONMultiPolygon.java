@@ -17,6 +17,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @JsonInclude(Include.ALWAYS)
 public class GeoJSONMultiPolygon implements GeoJSONGeometryObject {
 
+    public static final String TYPE_NAME = "MultiPolygon";
+
     private List<List<List<GeoJSONCoordinate>>> coordinates = new ArrayList<>();
 
     // -- getters
@@ -53,6 +55,11 @@ public class GeoJSONMultiPolygon implements GeoJSONGeometryObject {
         return new GeoJSONMultiPolygon().setCoordinates(points);
     }
 
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
     @Override
     public boolean isEmpty() {
         return coordinates.isEmpty();
@@ -94,7 +101,7 @@ public class GeoJSONMultiPolygon implements GeoJSONGeometryObject {
 
     @Override
     public String toWKT() {
-        return getTypeName() + " " + WKTUtil.getCoordinateStringMultiPolygon(coordinates);
+        return WKTWriter.toWKT(this);
     }
 
     @Override
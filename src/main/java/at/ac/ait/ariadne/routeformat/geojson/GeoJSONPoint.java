@@ -1,8 +1,5 @@
 package at.ac.ait.ariadne.routeformat.geojson;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -17,19 +14,31 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @JsonInclude(Include.ALWAYS)
 public class GeoJSONPoint implements GeoJSONGeometryObject {
 
-    private Optional<GeoJSONCoordinate> coordinates = Optional.empty();
+    public static final String TYPE_NAME = "Point";
+
+    private GeoJSONCoordinate coordinates;
+
+    public GeoJSONPoint() {
+    }
+
+    /**
+     * for read-only subclasses, which can not use the setters
+     */
+    GeoJSONPoint(GeoJSONCoordinate coordinates) {
+        this.coordinates = coordinates;
+    }
 
     // -- getters
 
     @JsonProperty(required = true)
     public Optional<GeoJSONCoordinate> getCoordinates() {
-        return coordinates;
+        return Optional.ofNullable(coordinates);
     }
 
     // -- setters
 
     public GeoJSONPoint setCoordinates(GeoJSONCoordinate coordinates) {
-        this.coordinates = Optional.ofNullable(coordinates);
+        this.coordinates = coordinates;
         return this;
     }
 
@@ -39,9 +48,14 @@ public class GeoJSONPoint implements GeoJSONGeometryObject {
         return new GeoJSONPoint().setCoordinates(point);
     }
 
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
     @Override
     public boolean isEmpty() {
-        return !coordinates.isPresent();
+        return !getCoordinates().isPresent();
     }
 
     @Override
@@ -62,7 +76,7 @@ public class GeoJSONPoint implements GeoJSONGeometryObject {
             return true;
         if (obj == null)
             return false;
-        if (getClass() != obj.getClass())
+        if (!(obj instanceof GeoJSONPoint))
             return false;
         GeoJSONPoint other = (GeoJSONPoint) obj;
         if (coordinates == null) {
@@ -75,9 +89,7 @@ public class GeoJSONPoint implements GeoJSONGeometryObject {
 
     @Override
     public String toWKT() {
-        List<GeoJSONCoordinate> list = coordinates.isPresent() ? Arrays.asList(coordinates.get())
-                : Collections.emptyList();
-        return getTypeName() + " " + WKTUtil.getCoordinateStringPointOrLineString(list);
+        return WKTWriter.toWKT(this);
     }
 
     @Override
@@ -17,6 +17,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @JsonInclude(Include.ALWAYS)
 public class GeoJSONPolygon implements GeoJSONGeometryObject {
 
+    public static final String TYPE_NAME = "Polygon";
+
     private List<List<GeoJSONCoordinate>> coordinates = new ArrayList<>();
 
     // -- getters
@@ -48,6 +50,11 @@ public class GeoJSONPolygon implements GeoJSONGeometryObject {
         return new GeoJSONPolygon().setCoordinates(points);
     }
 
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
     @Override
     public boolean isEmpty() {
         return coordinates.isEmpty();
@@ -86,7 +93,7 @@ public class GeoJSONPolygon implements GeoJSONGeometryObject {
 
     @Override
     public String toWKT() {
-        return getTypeName() + " " + WKTUtil.getCoordinateStringPolygon(coordinates);
+        return WKTWriter.toWKT(this);
     }
 
     @Override
@@ -7,12 +7,53 @@ import com.google.common.base.Preconditions;
 
 public class GeoJSONUtil {
 
+    /** computed once per class instead of per call (or per instance) */
+    private static final ClassValue<String> TYPE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getSimpleName();
+            return name.startsWith("GeoJSON") ? name.substring("GeoJSON".length()) : name;
+        }
+    };
+
     /**
      * @return the geometry type of a GeoJSON* class, e.g. Point for
      *         {@link GeoJSONPoint}
      */
     public static String getTypeName(Class<?> clazz) {
-        return clazz.getSimpleName().replaceAll("GeoJSON", "");
+        return TYPE_NAMES.get(clazz);
+    }
+
+    /**
+     * @return <code>true</code> if the geometry is not empty and all of its
+     *         coordinates have an altitude, i.e. if it can be exported with
+     *         three dimensions (e.g. to WKT or WKB)
+     */
+    public static boolean hasZ(GeoJSONGeometryObject geometry) {
+        if (geometry.isEmpty())
+            return false;
+        if (geometry instanceof GeoJSONPoint)
+            return ((GeoJSONPoint) geometry).getCoordinates().get().getZ().isPresent();
+        if (geometry instanceof GeoJSONLineString)
+            return hasZ(((GeoJSONLineString) geometry).getPackedCoordinates());
+        if (geometry instanceof GeoJSONPolygon)
+            return ((GeoJSONPolygon) geometry).getCoordinates().stream().allMatch(GeoJSONUtil::hasZ);
+        if (geometry instanceof GeoJSONMultiPolygon)
+            return ((GeoJSONMultiPolygon) geometry).getCoordinates().stream()
+                    .allMatch(polygon -> polygon.stream().allMatch(GeoJSONUtil::hasZ));
+        throw new IllegalArgumentException("unsupported geometry type " + geometry.getClass().getName());
+    }
+
+    private static boolean hasZ(List<GeoJSONCoordinate> coordinates) {
+        if (coordinates instanceof PackedCoordinateList) {
+            PackedCoordinateList packed = (PackedCoordinateList) coordinates;
+            for (int i = 0; i < packed.size(); i++) {
+                if (!packed.hasZ(i))
+                    return false;
+            }
+            return true;
+        }
+        return coordinates.stream().allMatch(coordinate -> coordinate.getZ().isPresent());
     }
 
     /**
@@ -0,0 +1,105 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+/**
+ * Geodesic distances on the WGS84 ellipsoid between coordinates given as
+ * longitude / latitude in degrees.
+ * <p>
+ * Short distances (such as between consecutive vertices of a route) are
+ * calculated with a local flat approximation using the meridional and
+ * prime-vertical radii of curvature at the mean latitude, which deviates less
+ * than a millimeter per kilometer from the exact geodesic. Longer distances
+ * are calculated with Vincenty's inverse formula.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class GeodesicDistance {
+
+    private static final double SEMI_MAJOR_AXIS = 6378137;
+    private static final double FLATTENING = 1 / 298.257223563;
+    private static final double SEMI_MINOR_AXIS = SEMI_MAJOR_AXIS * (1 - FLATTENING);
+    private static final double ECCENTRICITY_SQUARED = FLATTENING * (2 - FLATTENING);
+    /** maximum difference in degrees for which the local approximation is used */
+    private static final double LOCAL_APPROXIMATION_DEGREES = 0.1;
+    private static final int MAX_ITERATIONS = 100;
+
+    private GeodesicDistance() {
+    }
+
+    /**
+     * @return the geodesic distance in meters between the two coordinates or
+     *         {@link Double#NaN} if one of the ordinates is {@link Double#NaN}
+     */
+    public static double meters(double x1, double y1, double x2, double y2) {
+        if (Double.isNaN(x1) || Double.isNaN(y1) || Double.isNaN(x2) || Double.isNaN(y2))
+            return Double.NaN;
+        double deltaX = x2 - x1;
+        if (deltaX > 180)
+            deltaX -= 360;
+        else if (deltaX < -180)
+            deltaX += 360;
+        double deltaY = y2 - y1;
+        if (Math.abs(deltaX) <= LOCAL_APPROXIMATION_DEGREES && Math.abs(deltaY) <= LOCAL_APPROXIMATION_DEGREES)
+            return localApproximation(deltaX, deltaY, (y1 + y2) / 2);
+        return vincenty(deltaX, y1, y2);
+    }
+
+    private static double localApproximation(double deltaX, double deltaY, double latitude) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude));
+        double w = 1 - ECCENTRICITY_SQUARED * sinLatitude * sinLatitude;
+        double primeVerticalRadius = SEMI_MAJOR_AXIS / Math.sqrt(w);
+        double meridionalRadius = primeVerticalRadius * (1 - ECCENTRICITY_SQUARED) / w;
+        double dx = Math.toRadians(deltaX) * primeVerticalRadius * Math.cos(Math.toRadians(latitude));
+        double dy = Math.toRadians(deltaY) * meridionalRadius;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Vincenty's inverse formula, for the rare nearly antipodal points where
+     * it does not converge a spherical approximation is returned
+     */
+    private static double vincenty(double deltaX, double y1, double y2) {
+        double l = Math.toRadians(deltaX);
+        double u1 = Math.atan((1 - FLATTENING) * Math.tan(Math.toRadians(y1)));
+        double u2 = Math.atan((1 - FLATTENING) * Math.tan(Math.toRadians(y2)));
+        double sinU1 = Math.sin(u1), cosU1 = Math.cos(u1);
+        double sinU2 = Math.sin(u2), cosU2 = Math.cos(u2);
+
+        double lambda = l;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double sinLambda = Math.sin(lambda), cosLambda = Math.cos(lambda);
+            double a = cosU2 * sinLambda, b = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            double sinSigma = Math.sqrt(a * a + b * b);
+            if (sinSigma == 0)
+                return 0;
+            double cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            double sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            double cosSquaredAlpha = 1 - sinAlpha * sinAlpha;
+            double cos2SigmaM = cosSquaredAlpha == 0 ? 0 : cosSigma - 2 * sinU1 * sinU2 / cosSquaredAlpha;
+            double c = FLATTENING / 16 * cosSquaredAlpha * (4 + FLATTENING * (4 - 3 * cosSquaredAlpha));
+            double previousLambda = lambda;
+            lambda = l + (1 - c) * FLATTENING * sinAlpha
+                    * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (Math.abs(lambda - previousLambda) < 1e-12) {
+                double uSquared = cosSquaredAlpha * (SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS
+                        - SEMI_MINOR_AXIS * SEMI_MINOR_AXIS) / (SEMI_MINOR_AXIS * SEMI_MINOR_AXIS);
+                double bigA = 1 + uSquared / 16384 * (4096 + uSquared * (-768 + uSquared * (320 - 175 * uSquared)));
+                double bigB = uSquared / 1024 * (256 + uSquared * (-128 + uSquared * (74 - 47 * uSquared)));
+                double deltaSigma = bigB * sinSigma * (cos2SigmaM + bigB / 4 * (cosSigma
+                        * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                        - bigB / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+                return SEMI_MINOR_AXIS * bigA * (sigma - deltaSigma);
+            }
+        }
+        return spherical(deltaX, y1, y2);
+    }
+
+    private static double spherical(double deltaX, double y1, double y2) {
+        double sinLatitude = Math.sin(Math.toRadians(y2 - y1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(deltaX) / 2);
+        double a = sinLatitude * sinLatitude
+                + Math.cos(Math.toRadians(y1)) * Math.cos(Math.toRadians(y2)) * sinLongitude * sinLongitude;
+        return 2 * (2 * SEMI_MAJOR_AXIS + SEMI_MINOR_AXIS) / 3 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+}
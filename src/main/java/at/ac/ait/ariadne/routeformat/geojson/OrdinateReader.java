@@ -0,0 +1,151 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Reads the ordinates of a single coordinate array directly from the
+ * character buffer of a {@link JsonParser} into decimal fixed-point numbers
+ * (an unscaled <code>long</code> and a <code>byte</code> scale), i.e. without
+ * creating a {@link String} and parsing it into a {@link BigDecimal}. Only
+ * numbers with more than 18 significant digits or extreme exponents fall back
+ * to {@link BigDecimal}.
+ * <p>
+ * The buffers are reused for each coordinate, so one instance can read all
+ * coordinates of a geometry - or, see {@link #of(DeserializationContext)},
+ * all coordinates of a deserialization.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+final class OrdinateReader {
+
+    private static final int MAX_DIGITS = 18;
+
+    final long[] unscaled = new long[3];
+    final byte[] scales = new byte[3];
+    /** only set for ordinates that do not fit into {@link #unscaled} */
+    final BigDecimal[] decimals = new BigDecimal[3];
+
+    /**
+     * @return the reader shared by all coordinates read with the given
+     *         context, i.e. within one call to <code>readValue</code>
+     */
+    static OrdinateReader of(DeserializationContext ctxt) {
+        OrdinateReader reader = (OrdinateReader) ctxt.getAttribute(OrdinateReader.class);
+        if (reader == null) {
+            reader = new OrdinateReader();
+            ctxt.setAttribute(OrdinateReader.class, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Reads a coordinate array, i.e. the parser must be positioned at its
+     * start and is positioned at its end afterwards.
+     *
+     * @return the number of ordinates (2 or 3)
+     */
+    int read(JsonParser p, DeserializationContext ctxt) throws IOException {
+        int dimension = 0;
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (t != JsonToken.VALUE_NUMBER_INT && t != JsonToken.VALUE_NUMBER_FLOAT)
+                return ctxt.reportInputMismatch(GeoJSONCoordinate.class, "expected number in coordinate but got %s",
+                        t);
+            if (dimension < 3)
+                readOrdinate(p, dimension);
+            dimension++;
+        }
+        if (dimension < 2 || dimension > 3)
+            return ctxt.reportInputMismatch(GeoJSONCoordinate.class,
+                    "exactly 2 or 3 coordinates allowed, but were %s", dimension);
+        return dimension;
+    }
+
+    BigDecimal getDecimal(int i) {
+        if (decimals[i] != null)
+            return decimals[i];
+        return BigDecimal.valueOf(unscaled[i], scales[i]);
+    }
+
+    private void readOrdinate(JsonParser p, int i) throws IOException {
+        readOrdinate(p.getTextCharacters(), p.getTextOffset(), p.getTextLength(), i);
+    }
+
+    /**
+     * Reads a number (e.g. of WKT) into the ordinate with the given index
+     *
+     * @throws NumberFormatException
+     *             if the characters are no valid number
+     */
+    void readOrdinate(char[] buffer, int offset, int length, int i) {
+        if (parse(buffer, offset, length, i))
+            decimals[i] = null;
+        else
+            decimals[i] = new BigDecimal(buffer, offset, length);
+    }
+
+    /**
+     * Parses a JSON number with the same result as
+     * {@link BigDecimal#BigDecimal(String)}, i.e. the scale is preserved.
+     *
+     * @return <code>false</code> if the number does not fit into a
+     *         <code>long</code> and a <code>byte</code> scale
+     */
+    private boolean parse(char[] buffer, int offset, int length, int i) {
+        int pos = offset, end = offset + length;
+        boolean negative = pos < end && buffer[pos] == '-';
+        if (negative)
+            pos++;
+
+        long value = 0;
+        int digits = 0, scale = 0;
+        boolean anyDigit = false, fraction = false;
+        for (; pos < end; pos++) {
+            char c = buffer[pos];
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if ((value != 0 || c != '0') && ++digits > MAX_DIGITS)
+                    return false;
+                value = value * 10 + (c - '0');
+                if (fraction)
+                    scale++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit)
+            return false;
+
+        if (pos < end) {
+            if (buffer[pos] != 'e' && buffer[pos] != 'E')
+                return false;
+            pos++;
+            boolean negativeExponent = pos < end && buffer[pos] == '-';
+            if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+'))
+                pos++;
+            if (pos == end)
+                return false;
+            int exponent = 0;
+            for (; pos < end; pos++) {
+                char c = buffer[pos];
+                if (c < '0' || c > '9' || exponent > 1000)
+                    return false;
+                exponent = exponent * 10 + (c - '0');
+            }
+            scale += negativeExponent ? exponent : -exponent;
+        }
+        if (scale > Byte.MAX_VALUE || scale <= Byte.MIN_VALUE)
+            return false;
+
+        unscaled[i] = negative ? -value : value;
+        scales[i] = (byte) scale;
+        return true;
+    }
+
+}
@@ -0,0 +1,1043 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A memory-efficient list of {@link GeoJSONCoordinate}s. Instead of one object
+ * per coordinate (each holding up to three {@link BigDecimal}s) the ordinates
+ * are stored as decimal fixed-point numbers, i.e. an unscaled
+ * <code>long</code> and a <code>byte</code> scale, in interleaved primitive
+ * arrays. The altitude lane is only allocated as soon as the first coordinate
+ * with altitude is added.
+ * <p>
+ * <code>null</code> coordinates are not supported, adding them throws a
+ * {@link NullPointerException}.
+ * <p>
+ * {@link GeoJSONCoordinate}s are only materialized on access via
+ * {@link #get(int)}, i.e. the returned instances are snapshots and changing
+ * them does not affect this list (use {@link #set(int, GeoJSONCoordinate)}
+ * instead). {@link #asUnmodifiableList()} offers a view that makes such edits
+ * fail loudly. For performance critical code the primitive accessors such as
+ * {@link #getX(int)} should be preferred.
+ * <p>
+ * Doubles are rounded to seven decimal places half up, i.e. away from zero,
+ * based on their shortest decimal representation (see
+ * {@link #roundDouble(double)}). This is the same rule as used by
+ * {@link GeoJSONCoordinate#create(double, double)}.
+ * <p>
+ * Ordinates are stored exactly as long as their unscaled value fits into 18
+ * decimal digits, which is the case for all practically relevant coordinates.
+ * Otherwise they are rounded to 18 significant digits.
+ * <p>
+ * Ranges ({@link #copyOfRange(int, int)}) and concatenations
+ * ({@link #concat(PackedCoordinateList)}, {@link #concat(List)}) share the
+ * arrays of their source list copy-on-write: a range is an offset view created
+ * in constant time, and a concatenation appends the other lists into the
+ * unused capacity behind the first list (or copies it once into larger
+ * arrays). Coordinates already belonging to a list are never written while
+ * the arrays are shared, a list modifying them in place first copies its own
+ * range. Slots behind the last shared coordinate are claimed atomically by
+ * the one list appending there, so that e.g. concatenating a chain of lists
+ * (like merging route segments) takes linear time and the results stay
+ * independent of each other and of their sources. Note, that a range keeps
+ * all coordinates of its source reachable.
+ * <p>
+ * Like other collections the list must not be modified concurrently, but as
+ * soon as it is no longer modified it can be read by many threads, which may
+ * also create ranges and concatenations of it: the bounding box and distances
+ * cached by the getters are published as immutable values.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class PackedCoordinateList extends AbstractList<GeoJSONCoordinate> implements RandomAccess {
+
+    /** scale marking a missing ordinate (a <code>null</code> x/y or no z) */
+    static final byte NO_VALUE = Byte.MIN_VALUE;
+    private static final int DOUBLE_SCALE = 7;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private static final long[] LONG_POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L,
+            10000000L, 100000000L, 1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+            100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L };
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final MathContext MAX_PRECISION = new MathContext(18, RoundingMode.HALF_EVEN);
+    /** value of {@link #claimed} as long as the arrays are not shared */
+    private static final int NOT_SHARED = -1;
+
+    private long[] xy;
+    private byte[] xyScale;
+    private long[] z;
+    private byte[] zScale;
+    /** index of the first coordinate of this list in the arrays */
+    private int offset;
+    private int size;
+    /**
+     * shared by all lists referencing the same arrays: {@link #NOT_SHARED} as
+     * long as only this list references them, otherwise the end of the slots
+     * that are in use by one of the lists. Only the list ending exactly there
+     * may append behind it (after atomically moving the end).
+     */
+    private AtomicInteger claimed;
+
+    /**
+     * indices of the coordinates with minimum x, minimum y, maximum x and
+     * maximum y (-1 if there are none), which are kept up to date when
+     * appending. <code>null</code> after other modifications.
+     */
+    private int[] extremes = { -1, -1, -1, -1 };
+    /**
+     * values cached by getters, which are immutable once published (so that
+     * concurrent readers always see completely calculated values)
+     */
+    private volatile Optional<BoundingBox> boundingBox;
+    private volatile Distances distances;
+
+    public PackedCoordinateList() {
+        this(10);
+    }
+
+    public PackedCoordinateList(int initialCapacity) {
+        xy = new long[initialCapacity * 2];
+        xyScale = new byte[initialCapacity * 2];
+        claimed = new AtomicInteger(NOT_SHARED);
+    }
+
+    public PackedCoordinateList(Collection<? extends GeoJSONCoordinate> coordinates) {
+        this(coordinates.size());
+        addAll(coordinates);
+    }
+
+    /**
+     * Creates a view of the given range of the arrays of the source list, see
+     * {@link #share()}
+     */
+    private PackedCoordinateList(PackedCoordinateList source, int offset, int size) {
+        source.share();
+        this.xy = source.xy;
+        this.xyScale = source.xyScale;
+        this.z = source.z;
+        this.zScale = source.zScale;
+        this.claimed = source.claimed;
+        this.offset = offset;
+        this.size = size;
+        this.extremes = null;
+    }
+
+    // -- primitive access
+
+    /**
+     * @return the x value (longitude) of the coordinate at the given index or
+     *         {@link Double#NaN} if it is not set
+     */
+    public double getX(int index) {
+        checkIndex(index);
+        int i = 2 * (offset + index);
+        return toDouble(xy[i], xyScale[i]);
+    }
+
+    /**
+     * @return the y value (latitude) of the coordinate at the given index or
+     *         {@link Double#NaN} if it is not set
+     */
+    public double getY(int index) {
+        checkIndex(index);
+        int i = 2 * (offset + index) + 1;
+        return toDouble(xy[i], xyScale[i]);
+    }
+
+    public boolean hasZ(int index) {
+        checkIndex(index);
+        return zScale != null && zScale[offset + index] != NO_VALUE;
+    }
+
+    /**
+     * @return the z value (altitude) of the coordinate at the given index or
+     *         {@link Double#NaN} if it is not set
+     */
+    public double getZ(int index) {
+        checkIndex(index);
+        if (zScale == null)
+            return Double.NaN;
+        return toDouble(z[offset + index], zScale[offset + index]);
+    }
+
+    /**
+     * @return <code>true</code> if at least one coordinate has an altitude
+     */
+    public boolean hasAnyZ() {
+        if (zScale == null)
+            return false;
+        for (int i = offset; i < offset + size; i++) {
+            if (zScale[i] != NO_VALUE)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rounds (half up) the exactly stored value without the detour via
+     * <code>double</code>, e.g. 16.3738189 with scale 5 is 1637382.
+     *
+     * @param ordinate
+     *            0 for x, 1 for y and 2 for z
+     * @param scale
+     *            the number of decimal places
+     * @return the rounded value as unscaled value for the given scale
+     * @throws IllegalArgumentException
+     *             if the ordinate is not set
+     * @throws ArithmeticException
+     *             if the result does not fit into a <code>long</code>
+     */
+    public long getUnscaled(int index, int ordinate, int scale) {
+        byte storedScale = getScale(index, ordinate);
+        Preconditions.checkArgument(storedScale != NO_VALUE, "ordinate %s of coordinate %s is not set", ordinate,
+                index);
+        long unscaled = getUnscaled(index, ordinate);
+        int difference = scale - storedScale;
+        if (difference == 0)
+            return unscaled;
+        if (difference > 0 && difference < LONG_POWERS_OF_TEN.length)
+            return Math.multiplyExact(unscaled, LONG_POWERS_OF_TEN[difference]);
+        if (difference < 0 && -difference < LONG_POWERS_OF_TEN.length) {
+            long divisor = LONG_POWERS_OF_TEN[-difference];
+            long quotient = unscaled / divisor, remainder = Math.abs(unscaled % divisor);
+            if (remainder >= divisor - remainder)
+                quotient += Long.signum(unscaled);
+            return quotient;
+        }
+        return toBigDecimal(unscaled, storedScale).setScale(scale, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Appends a coordinate with seven decimal places, i.e. equivalent to
+     * {@link GeoJSONCoordinate#create(double, double)} but without creating
+     * intermediate objects.
+     */
+    public PackedCoordinateList add(double x, double y) {
+        prepareAppend(1);
+        int end = offset + size;
+        setFromDouble(xy, xyScale, 2 * end, x);
+        setFromDouble(xy, xyScale, 2 * end + 1, y);
+        if (zScale != null)
+            zScale[end] = NO_VALUE;
+        size++;
+        modCount++;
+        appended(size - 1);
+        return this;
+    }
+
+    /**
+     * Appends a coordinate with seven decimal places, i.e. equivalent to
+     * {@link GeoJSONCoordinate#create(double, double, double)} but without
+     * creating intermediate objects.
+     */
+    public PackedCoordinateList add(double x, double y, double z) {
+        add(x, y);
+        ensureZLane();
+        setFromDouble(this.z, zScale, offset + size - 1, z);
+        return this;
+    }
+
+    /**
+     * Appends a coordinate given as unscaled values, e.g. x=163738189 and
+     * scale=7 for 16.3738189, without creating intermediate objects
+     */
+    public PackedCoordinateList addUnscaled(long x, long y, int scale) {
+        Preconditions.checkArgument(scale > NO_VALUE && scale <= Byte.MAX_VALUE, "scale out of range: %s", scale);
+        prepareAppend(1);
+        int end = offset + size;
+        xy[2 * end] = x;
+        xy[2 * end + 1] = y;
+        xyScale[2 * end] = xyScale[2 * end + 1] = (byte) scale;
+        if (zScale != null)
+            zScale[end] = NO_VALUE;
+        size++;
+        modCount++;
+        appended(size - 1);
+        return this;
+    }
+
+    /**
+     * Appends a coordinate with altitude given as unscaled values, see
+     * {@link #addUnscaled(long, long, int)}
+     */
+    public PackedCoordinateList addUnscaled(long x, long y, long z, int scale) {
+        addUnscaled(x, y, scale);
+        ensureZLane();
+        this.z[offset + size - 1] = z;
+        zScale[offset + size - 1] = (byte) scale;
+        return this;
+    }
+
+    /**
+     * Appends an exact copy of a coordinate of another list without creating
+     * intermediate objects
+     */
+    public PackedCoordinateList add(PackedCoordinateList source, int index) {
+        source.checkIndex(index);
+        prepareAppend(1);
+        int sourceIndex = source.offset + index, end = offset + size;
+        System.arraycopy(source.xy, 2 * sourceIndex, xy, 2 * end, 2);
+        System.arraycopy(source.xyScale, 2 * sourceIndex, xyScale, 2 * end, 2);
+        if (source.zScale != null && source.zScale[sourceIndex] != NO_VALUE) {
+            ensureZLane();
+            z[end] = source.z[sourceIndex];
+            zScale[end] = source.zScale[sourceIndex];
+        } else if (zScale != null) {
+            zScale[end] = NO_VALUE;
+        }
+        size++;
+        modCount++;
+        appended(size - 1);
+        return this;
+    }
+
+    /**
+     * @param ordinate
+     *            0 for x, 1 for y and 2 for z
+     * @return the unscaled value, only meaningful if
+     *         {@link #getScale(int, int)} is not {@link #NO_VALUE}
+     */
+    long getUnscaled(int index, int ordinate) {
+        return ordinate < 2 ? xy[2 * (offset + index) + ordinate] : z[offset + index];
+    }
+
+    /**
+     * @param ordinate
+     *            0 for x, 1 for y and 2 for z
+     * @return the scale or {@link #NO_VALUE} if the ordinate is not set
+     */
+    byte getScale(int index, int ordinate) {
+        checkIndex(index);
+        if (ordinate < 2)
+            return xyScale[2 * (offset + index) + ordinate];
+        return zScale == null ? NO_VALUE : zScale[offset + index];
+    }
+
+    /**
+     * Appends the coordinate last read by the reader without creating
+     * intermediate objects
+     */
+    void add(OrdinateReader reader, int dimension) {
+        prepareAppend(1);
+        int end = offset + size;
+        setFromReader(xy, xyScale, 2 * end, reader, 0);
+        setFromReader(xy, xyScale, 2 * end + 1, reader, 1);
+        if (dimension == 3) {
+            ensureZLane();
+            setFromReader(z, zScale, end, reader, 2);
+        } else if (zScale != null) {
+            zScale[end] = NO_VALUE;
+        }
+        size++;
+        modCount++;
+        appended(size - 1);
+    }
+
+    /**
+     * @return the bounding box of all coordinates (with x and y) or empty if
+     *         there are none. The box is kept up to date when appending
+     *         coordinates (including deserialization) and only recalculated
+     *         after other modifications.
+     */
+    public Optional<BoundingBox> getBoundingBox() {
+        Optional<BoundingBox> box = boundingBox;
+        if (box == null) {
+            int[] current = extremes;
+            if (current == null) {
+                current = new int[] { -1, -1, -1, -1 };
+                for (int i = 0; i < size; i++)
+                    updateExtremes(current, i);
+            }
+            if (current[0] < 0)
+                box = Optional.empty();
+            else
+                box = Optional.of(new BoundingBox(getX(current[0]), getY(current[1]), getX(current[2]),
+                        getY(current[3]), getDecimal(current[0], 0), getDecimal(current[1], 1),
+                        getDecimal(current[2], 0), getDecimal(current[3], 1)));
+            boundingBox = box;
+        }
+        return box;
+    }
+
+    /**
+     * @return the geodesic distance in meters along the line from the first
+     *         coordinate to the coordinate at the given index. Distances are
+     *         cached and only recalculated from the first modified coordinate
+     *         on. Coordinates without x or y do not add to the distance.
+     */
+    public double getCumulativeDistanceMeters(int index) {
+        checkIndex(index);
+        return cumulativeDistances()[index];
+    }
+
+    /**
+     * @return the geodesic length of the line in meters
+     */
+    public double getLengthMeters() {
+        return size == 0 ? 0 : getCumulativeDistanceMeters(size - 1);
+    }
+
+    /**
+     * @return the index of the last coordinate with a cumulative distance less
+     *         than or equal to the given distance (at least 0 and at most the
+     *         second last index), i.e. the start of the edge containing the
+     *         point at this distance
+     */
+    public int getIndexAtDistance(double distanceMeters) {
+        Preconditions.checkState(size > 0, "no coordinates");
+        return indexAtDistance(cumulativeDistances(), distanceMeters);
+    }
+
+    private int indexAtDistance(double[] cumulativeDistances, double distanceMeters) {
+        int low = 0, high = Math.max(0, size - 2);
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (cumulativeDistances[middle] <= distanceMeters)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * @return the coordinate at the given distance along the line, which is
+     *         linearly interpolated between the vertices (including the
+     *         altitude if both vertices have one). Distances outside the line
+     *         are clamped to its first or last coordinate.
+     */
+    public GeoJSONCoordinate interpolate(double distanceMeters) {
+        Preconditions.checkState(size > 0, "no coordinates");
+        double[] cumulativeDistances = cumulativeDistances();
+        int index = indexAtDistance(cumulativeDistances, distanceMeters);
+        if (index + 1 >= size)
+            return get(index);
+        double edgeLength = cumulativeDistances[index + 1] - cumulativeDistances[index];
+        double fraction = edgeLength == 0 ? 0 : (distanceMeters - cumulativeDistances[index]) / edgeLength;
+        if (fraction <= 0)
+            return get(index);
+        if (fraction >= 1)
+            return get(index + 1);
+        double x = getX(index) + fraction * (getX(index + 1) - getX(index));
+        double y = getY(index) + fraction * (getY(index + 1) - getY(index));
+        if (hasZ(index) && hasZ(index + 1))
+            return GeoJSONCoordinate.create(x, y, getZ(index) + fraction * (getZ(index + 1) - getZ(index)));
+        return GeoJSONCoordinate.create(x, y);
+    }
+
+    /**
+     * @return an unmodifiable view of this list, whose elements are read-only
+     *         as well, i.e. modifying the list or one of its coordinates via
+     *         the view throws an {@link UnsupportedOperationException} (instead
+     *         of silently not affecting this list)
+     */
+    public List<GeoJSONCoordinate> asUnmodifiableList() {
+        return new UnmodifiableView(this);
+    }
+
+    /**
+     * @return the list itself or the list behind a view created with
+     *         {@link #asUnmodifiableList()}, <code>null</code> for other lists
+     */
+    static PackedCoordinateList unwrap(List<GeoJSONCoordinate> coordinates) {
+        if (coordinates instanceof PackedCoordinateList)
+            return (PackedCoordinateList) coordinates;
+        if (coordinates instanceof UnmodifiableView)
+            return ((UnmodifiableView) coordinates).list;
+        return null;
+    }
+
+    // -- list implementation
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public GeoJSONCoordinate get(int index) {
+        checkIndex(index);
+        GeoJSONCoordinate coordinate = new GeoJSONCoordinate().setX(getDecimal(index, 0))
+                .setY(getDecimal(index, 1));
+        if (zScale != null && zScale[offset + index] != NO_VALUE)
+            coordinate.setZ(getDecimal(index, 2));
+        return coordinate;
+    }
+
+    @Override
+    public GeoJSONCoordinate set(int index, GeoJSONCoordinate element) {
+        Preconditions.checkNotNull(element, "coordinate at index %s", index);
+        GeoJSONCoordinate old = get(index);
+        prepareModification(0);
+        store(index, element);
+        return old;
+    }
+
+    @Override
+    public void add(int index, GeoJSONCoordinate element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        Preconditions.checkNotNull(element, "coordinate at index %s", index);
+        if (index == size) {
+            prepareAppend(1);
+        } else {
+            prepareModification(1);
+            int from = offset + index;
+            System.arraycopy(xy, 2 * from, xy, 2 * from + 2, 2 * (size - index));
+            System.arraycopy(xyScale, 2 * from, xyScale, 2 * from + 2, 2 * (size - index));
+            if (zScale != null) {
+                System.arraycopy(z, from, z, from + 1, size - index);
+                System.arraycopy(zScale, from, zScale, from + 1, size - index);
+            }
+        }
+        size++;
+        modCount++;
+        modified(index);
+        store(index, element);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends GeoJSONCoordinate> c) {
+        if (!(c instanceof PackedCoordinateList)) {
+            // fail before adding any coordinate
+            int index = size;
+            for (GeoJSONCoordinate element : c)
+                Preconditions.checkNotNull(element, "coordinate at index %s", index++);
+            return super.addAll(c);
+        }
+
+        PackedCoordinateList other = (PackedCoordinateList) c;
+        int otherSize = other.size;
+        if (otherSize == 0)
+            return false;
+        prepareAppend(otherSize);
+        append(other);
+        return true;
+    }
+
+    /**
+     * Copies the coordinates of the other list into the slots behind the last
+     * coordinate, which must have been prepared with
+     * {@link #prepareAppend(int)}
+     */
+    private void append(PackedCoordinateList other) {
+        int otherSize = other.size, end = offset + size;
+        System.arraycopy(other.xy, 2 * other.offset, xy, 2 * end, 2 * otherSize);
+        System.arraycopy(other.xyScale, 2 * other.offset, xyScale, 2 * end, 2 * otherSize);
+        if (other.zScale != null) {
+            ensureZLane();
+            System.arraycopy(other.z, other.offset, z, end, otherSize);
+            System.arraycopy(other.zScale, other.offset, zScale, end, otherSize);
+        } else if (zScale != null) {
+            Arrays.fill(zScale, end, end + otherSize, NO_VALUE);
+        }
+        size += otherSize;
+        modCount++;
+        appended(size - otherSize);
+    }
+
+    @Override
+    public GeoJSONCoordinate remove(int index) {
+        GeoJSONCoordinate old = get(index);
+        removeRange(index, index + 1);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        int tail = size - toIndex;
+        // removing the tail only shortens this list, also if it is shared
+        if (tail > 0) {
+            prepareModification(0);
+            int from = offset + fromIndex, to = offset + toIndex;
+            System.arraycopy(xy, 2 * to, xy, 2 * from, 2 * tail);
+            System.arraycopy(xyScale, 2 * to, xyScale, 2 * from, 2 * tail);
+            if (zScale != null) {
+                System.arraycopy(z, to, z, from, tail);
+                System.arraycopy(zScale, to, zScale, from, tail);
+            }
+        }
+        size -= toIndex - fromIndex;
+        modCount++;
+        modified(fromIndex);
+    }
+
+    @Override
+    public void clear() {
+        if (isShared()) {
+            xy = new long[xy.length];
+            xyScale = new byte[xyScale.length];
+            claimed = new AtomicInteger(NOT_SHARED);
+        }
+        offset = 0;
+        size = 0;
+        z = null;
+        zScale = null;
+        modCount++;
+        extremes = new int[] { -1, -1, -1, -1 };
+        boundingBox = null;
+        distances = null;
+    }
+
+    /**
+     * @return <code>true</code> if both lists consist of exactly the same
+     *         (shared) coordinates, i.e. one is an unmodified range or copy of
+     *         the other (see {@link #copyOfRange(int, int)})
+     */
+    boolean sharesCoordinatesOf(PackedCoordinateList other) {
+        return xy == other.xy && offset == other.offset && size == other.size && zScale == other.zScale;
+    }
+
+    /**
+     * @return the given range as new list, which is created in constant time
+     *         by sharing the arrays of this list copy-on-write, i.e. this list
+     *         and the range stay independent from each other
+     */
+    public PackedCoordinateList copyOfRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("range: " + fromIndex + "-" + toIndex + ", size: " + size);
+        return new PackedCoordinateList(this, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * @return a new list with the coordinates of this list followed by the
+     *         coordinates of the other list, see {@link #concat(List)}
+     */
+    public PackedCoordinateList concat(PackedCoordinateList other) {
+        return concat(Arrays.asList(this, other));
+    }
+
+    /**
+     * @return a new list with the coordinates of all lists (in the given
+     *         order). The result shares the arrays of the first list
+     *         copy-on-write and appends the other lists behind it, if they
+     *         are unused and large enough, otherwise the first list is copied
+     *         into larger arrays (growing by half, so that concatenating a
+     *         chain of lists pairwise takes linear time in total). The result
+     *         and the lists stay independent from each other.
+     */
+    public static PackedCoordinateList concat(List<PackedCoordinateList> lists) {
+        if (lists.isEmpty())
+            return new PackedCoordinateList();
+        PackedCoordinateList first = lists.get(0);
+        PackedCoordinateList result = new PackedCoordinateList(first, first.offset, first.size);
+        int count = 0;
+        for (int i = 1; i < lists.size(); i++)
+            count += lists.get(i).size;
+        if (count == 0)
+            return result;
+        result.prepareAppend(count);
+        for (int i = 1; i < lists.size(); i++) {
+            if (lists.get(i).size > 0)
+                result.append(lists.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof PackedCoordinateList))
+            return super.equals(o);
+
+        PackedCoordinateList other = (PackedCoordinateList) o;
+        return size == other.size && regionMatches(0, other, 0, size);
+    }
+
+    /**
+     * @return <code>true</code> if the given number of coordinates starting at
+     *         the given indices are exactly equal (including their scale)
+     */
+    boolean regionMatches(int index, PackedCoordinateList other, int otherIndex, int count) {
+        if (index < 0 || otherIndex < 0 || count < 0 || index + count > size || otherIndex + count > other.size)
+            return false;
+        int from = offset + index, otherFrom = other.offset + otherIndex;
+        for (int i = 0; i < 2 * count; i++) {
+            if (xy[2 * from + i] != other.xy[2 * otherFrom + i]
+                    || xyScale[2 * from + i] != other.xyScale[2 * otherFrom + i])
+                return false;
+        }
+        for (int i = 0; i < count; i++) {
+            byte scale = zScale == null ? NO_VALUE : zScale[from + i];
+            byte otherScale = other.zScale == null ? NO_VALUE : other.zScale[otherFrom + i];
+            if (scale != otherScale || (scale != NO_VALUE && z[from + i] != other.z[otherFrom + i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same result as {@link AbstractList#hashCode()} (i.e. consistent with
+     * {@link #equals(Object)} for all lists of coordinates), but calculated
+     * from the stored values without materializing coordinates
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int i = offset; i < offset + size; i++) {
+            int coordinateHash = 1;
+            coordinateHash = 31 * coordinateHash + decimalHashCode(xy[2 * i], xyScale[2 * i]);
+            coordinateHash = 31 * coordinateHash + decimalHashCode(xy[2 * i + 1], xyScale[2 * i + 1]);
+            coordinateHash = 31 * coordinateHash + (zScale == null ? 0 : decimalHashCode(z[i], zScale[i]));
+            hashCode = 31 * hashCode + coordinateHash;
+        }
+        return hashCode;
+    }
+
+    // --
+
+    /**
+     * Stores the element at the given index, whose slot must have been
+     * prepared with {@link #prepareAppend(int)} or
+     * {@link #prepareModification(int)}
+     */
+    private void store(int index, GeoJSONCoordinate element) {
+        modified(index);
+        int i = offset + index;
+        setFromBigDecimal(xy, xyScale, 2 * i, element.getX());
+        setFromBigDecimal(xy, xyScale, 2 * i + 1, element.getY());
+        Optional<BigDecimal> elementZ = element.getZ();
+        if (elementZ != null && elementZ.isPresent()) {
+            ensureZLane();
+            setFromBigDecimal(z, zScale, i, elementZ.get());
+        } else if (zScale != null) {
+            zScale[i] = NO_VALUE;
+        }
+    }
+
+    /**
+     * Updates the extremes with the coordinates appended starting at the given
+     * index
+     */
+    private void appended(int fromIndex) {
+        if (extremes != null) {
+            for (int i = fromIndex; i < size; i++)
+                updateExtremes(extremes, i);
+        }
+        boundingBox = null;
+    }
+
+    /**
+     * Invalidates all cached values depending on the coordinates from the
+     * given index on
+     */
+    private void modified(int fromIndex) {
+        extremes = null;
+        boundingBox = null;
+        Distances current = distances;
+        if (current != null && current.valid > fromIndex)
+            distances = fromIndex == 0 ? null : new Distances(current.cumulative, fromIndex);
+    }
+
+    /**
+     * @return the cumulative distances of all coordinates, which are
+     *         calculated from the first outdated one on into a new array
+     */
+    private double[] cumulativeDistances() {
+        Distances current = distances;
+        if (current != null && current.valid >= size)
+            return current.cumulative;
+        int valid = current == null ? 0 : current.valid;
+        double[] cumulative = new double[size];
+        if (valid > 0)
+            System.arraycopy(current.cumulative, 0, cumulative, 0, valid);
+        for (int i = Math.max(1, valid); i < size; i++) {
+            double distance = GeodesicDistance.meters(getX(i - 1), getY(i - 1), getX(i), getY(i));
+            cumulative[i] = cumulative[i - 1] + (Double.isNaN(distance) ? 0 : distance);
+        }
+        distances = new Distances(cumulative, size);
+        return cumulative;
+    }
+
+    private void updateExtremes(int[] extremes, int index) {
+        double x = getX(index), y = getY(index);
+        if (Double.isNaN(x) || Double.isNaN(y))
+            return;
+        if (extremes[0] < 0) {
+            Arrays.fill(extremes, index);
+            return;
+        }
+        if (x < getX(extremes[0]))
+            extremes[0] = index;
+        if (y < getY(extremes[1]))
+            extremes[1] = index;
+        if (x > getX(extremes[2]))
+            extremes[2] = index;
+        if (y > getY(extremes[3]))
+            extremes[3] = index;
+    }
+
+    private boolean isShared() {
+        return claimed.get() != NOT_SHARED;
+    }
+
+    /**
+     * Marks the arrays as shared before another list starts referencing them.
+     * If they were not shared before, the slots in use end behind this list.
+     * The marker is only set once and never reset, i.e. concurrent calls are
+     * harmless.
+     */
+    private void share() {
+        claimed.compareAndSet(NOT_SHARED, offset + size);
+    }
+
+    /**
+     * Makes sure that the given number of coordinates can be written behind
+     * the last coordinate: directly if the arrays are not shared, by claiming
+     * the slots if they are shared but unused and large enough, and otherwise
+     * by copying this list into new arrays
+     */
+    private void prepareAppend(int count) {
+        int end = offset + size, capacity = xy.length / 2;
+        if (end + count <= capacity && (!isShared() || claimed.compareAndSet(end, end + count)))
+            return;
+        reallocate(Math.max(size + count, capacity * 3 / 2 + 1));
+    }
+
+    /**
+     * Makes sure that the coordinates of this list can be modified in place
+     * and that the given number of coordinates can be added, i.e. copies this
+     * list into new arrays if they are shared or too small
+     */
+    private void prepareModification(int count) {
+        int capacity = xy.length / 2;
+        if (isShared() || offset + size + count > capacity)
+            reallocate(Math.max(size + count, offset + size + count > capacity ? capacity * 3 / 2 + 1 : capacity));
+    }
+
+    /**
+     * Copies the coordinates of this list to the start of new arrays with the
+     * given capacity, which are not shared
+     */
+    private void reallocate(int capacity) {
+        long[] newXy = new long[2 * capacity];
+        byte[] newXyScale = new byte[2 * capacity];
+        System.arraycopy(xy, 2 * offset, newXy, 0, 2 * size);
+        System.arraycopy(xyScale, 2 * offset, newXyScale, 0, 2 * size);
+        if (zScale != null) {
+            long[] newZ = new long[capacity];
+            byte[] newZScale = new byte[capacity];
+            System.arraycopy(z, offset, newZ, 0, size);
+            System.arraycopy(zScale, offset, newZScale, 0, size);
+            Arrays.fill(newZScale, size, capacity, NO_VALUE);
+            z = newZ;
+            zScale = newZScale;
+        }
+        xy = newXy;
+        xyScale = newXyScale;
+        offset = 0;
+        claimed = new AtomicInteger(NOT_SHARED);
+    }
+
+    /**
+     * Allocates the altitude lane, which is a new array referenced by this
+     * list only, i.e. this is allowed for shared arrays as well
+     */
+    private void ensureZLane() {
+        if (zScale != null)
+            return;
+        z = new long[xy.length / 2];
+        zScale = new byte[xy.length / 2];
+        Arrays.fill(zScale, NO_VALUE);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+
+    private BigDecimal getDecimal(int index, int ordinate) {
+        return toBigDecimal(getUnscaled(index, ordinate), getScale(index, ordinate));
+    }
+
+    private static void setFromDouble(long[] values, byte[] scales, int i, double value) {
+        if (Double.isNaN(value)) {
+            scales[i] = NO_VALUE;
+        } else if (Math.abs(value) < 1e11) {
+            values[i] = roundDoubleUnscaled(value);
+            scales[i] = DOUBLE_SCALE;
+        } else {
+            setFromBigDecimal(values, scales, i, roundDouble(value));
+        }
+    }
+
+    /**
+     * Rounds a double to seven decimal places half up (i.e. away from zero)
+     * based on its shortest decimal representation, exactly like
+     * <code>String.format(Locale.US, "%.7f", value)</code>. This is the only
+     * rounding rule for doubles in the GeoJSON classes.
+     *
+     * @throws NumberFormatException
+     *             if the value is infinite or NaN
+     */
+    static BigDecimal roundDouble(double value) {
+        return BigDecimal.valueOf(value).setScale(DOUBLE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return the unscaled value of {@link #roundDouble(double)} for values
+     *         below 1e11, without creating intermediate objects unless the
+     *         value is (nearly) exactly between two results
+     */
+    private static long roundDoubleUnscaled(double value) {
+        double scaled = Math.abs(value) * POWERS_OF_TEN[DOUBLE_SCALE];
+        // the error of the product is far below the tolerance as long as it
+        // is below 1e13
+        if (scaled < 1e13 && Math.abs(scaled - Math.floor(scaled) - 0.5) > 1e-3) {
+            long rounded = (long) (scaled + 0.5);
+            return value < 0 ? -rounded : rounded;
+        }
+        return roundDouble(value).unscaledValue().longValue();
+    }
+
+    private static void setFromBigDecimal(long[] values, byte[] scales, int i, BigDecimal value) {
+        if (value == null) {
+            scales[i] = NO_VALUE;
+            return;
+        }
+        value = toStorable(value);
+        values[i] = value.unscaledValue().longValue();
+        scales[i] = (byte) value.scale();
+    }
+
+    /**
+     * @return the value rounded so that it can be stored as unscaled
+     *         <code>long</code> and <code>byte</code> scale
+     */
+    static BigDecimal toStorable(BigDecimal value) {
+        if (value.precision() > MAX_PRECISION.getPrecision())
+            value = value.round(MAX_PRECISION);
+        if (value.scale() > Byte.MAX_VALUE)
+            value = value.setScale(Byte.MAX_VALUE, RoundingMode.HALF_EVEN);
+        if (value.scale() <= NO_VALUE)
+            throw new IllegalArgumentException("ordinate out of range: " + value);
+        return value;
+    }
+
+    private static void setFromReader(long[] values, byte[] scales, int i, OrdinateReader reader, int ordinate) {
+        if (reader.decimals[ordinate] != null) {
+            setFromBigDecimal(values, scales, i, reader.decimals[ordinate]);
+        } else {
+            values[i] = reader.unscaled[ordinate];
+            scales[i] = reader.scales[ordinate];
+        }
+    }
+
+    static BigDecimal toBigDecimal(long unscaled, byte scale) {
+        if (scale == NO_VALUE)
+            return null;
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * @return the same value as {@link BigDecimal#hashCode()} of
+     *         {@link #toBigDecimal(long, byte)} (0 for <code>null</code>),
+     *         which is specified by the algorithm of {@link BigDecimal} for
+     *         unscaled values fitting into a <code>long</code>
+     */
+    static int decimalHashCode(long unscaled, byte scale) {
+        if (scale == NO_VALUE)
+            return 0;
+        long absolute = Math.abs(unscaled);
+        int hash = (int) (((int) (absolute >>> 32)) * 31 + (absolute & 0xFFFFFFFFL));
+        return 31 * (unscaled < 0 ? -hash : hash) + scale;
+    }
+
+    static double toDouble(long unscaled, byte scale) {
+        if (scale == NO_VALUE)
+            return Double.NaN;
+        if (scale >= 0 && scale < POWERS_OF_TEN.length && Math.abs(unscaled) <= MAX_EXACT_DOUBLE)
+            return unscaled / POWERS_OF_TEN[scale];
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    /**
+     * Geodesic distances from the first coordinate, of which the first
+     * <code>valid</code> are up to date (modifications only invalidate the
+     * distances from the modified index on). The array is not modified after
+     * it was published.
+     */
+    private static class Distances {
+        private final double[] cumulative;
+        private final int valid;
+
+        Distances(double[] cumulative, int valid) {
+            this.cumulative = cumulative;
+            this.valid = valid;
+        }
+    }
+
+    /**
+     * An unmodifiable view of a list, see {@link #asUnmodifiableList()}
+     */
+    private static class UnmodifiableView extends AbstractList<GeoJSONCoordinate> implements RandomAccess {
+        private static final String READ_ONLY_MESSAGE = "coordinates of a line string can not be modified in place, "
+                + "set them in the line string instead";
+        private final PackedCoordinateList list;
+
+        UnmodifiableView(PackedCoordinateList list) {
+            this.list = list;
+        }
+
+        @Override
+        public GeoJSONCoordinate get(int index) {
+            return new ReadOnlyCoordinate(list.getDecimal(index, 0), list.getDecimal(index, 1),
+                    list.hasZ(index) ? list.getDecimal(index, 2) : null, READ_ONLY_MESSAGE);
+        }
+
+        @Override
+        public int size() {
+            return list.size;
+        }
+    }
+
+    /**
+     * A coordinate of a view created with {@link #asUnmodifiableList()} (or of
+     * a {@link PackedPoint}), which can not be changed
+     */
+    static class ReadOnlyCoordinate extends GeoJSONCoordinate {
+        private final String message;
+
+        /**
+         * @param message
+         *            the message of the exception thrown by the setters
+         */
+        ReadOnlyCoordinate(BigDecimal x, BigDecimal y, BigDecimal z, String message) {
+            super(x, y, z);
+            this.message = message;
+        }
+
+        @Override
+        public GeoJSONCoordinate setX(BigDecimal x) {
+            throw readOnly();
+        }
+
+        @Override
+        public GeoJSONCoordinate setY(BigDecimal y) {
+            throw readOnly();
+        }
+
+        @Override
+        public GeoJSONCoordinate setZ(BigDecimal z) {
+            throw readOnly();
+        }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException(message);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+/**
+ * Reads an array of coordinates directly into a {@link PackedCoordinateList},
+ * i.e. without creating intermediate {@link GeoJSONCoordinate}s or
+ * {@link java.math.BigDecimal}s.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class PackedCoordinateListDeserializer extends JsonDeserializer<PackedCoordinateList> {
+
+    @Override
+    public PackedCoordinateList deserialize(JsonParser p, DeserializationContext ctxt)
+            throws IOException, JsonProcessingException {
+        if (!p.isExpectedStartArrayToken())
+            return (PackedCoordinateList) ctxt.handleUnexpectedToken(PackedCoordinateList.class, p);
+
+        PackedCoordinateList coordinates = new PackedCoordinateList();
+        OrdinateReader reader = OrdinateReader.of(ctxt);
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (t != JsonToken.START_ARRAY)
+                return ctxt.reportInputMismatch(this, "expected array start for coordinate but got %s", t);
+            int dimension = reader.read(p, ctxt);
+            coordinates.add(reader, dimension);
+        }
+        return coordinates;
+    }
+
+}
@@ -0,0 +1,65 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonArrayFormatVisitor;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatTypes;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+
+/**
+ * Writes a {@link PackedCoordinateList} (or a view of it) directly from its primitive storage,
+ * i.e. without materializing {@link GeoJSONCoordinate}s. Supports the same
+ * fixed number of decimals as {@link GeoJSONCoordinateSerializer}. Other lists
+ * are written element by element. Coordinates without x or y can not be
+ * written, because they could not be read again.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class PackedCoordinateListSerializer extends JsonSerializer<List<GeoJSONCoordinate>> {
+
+    @Override
+    public void serialize(List<GeoJSONCoordinate> value, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException, JsonProcessingException {
+        PackedCoordinateList coordinates = PackedCoordinateList.unwrap(value);
+        if (coordinates == null) {
+            serializers.findValueSerializer(List.class).serialize(value, gen, serializers);
+            return;
+        }
+
+        int decimals = CoordinateNumberWriter.getDecimals(serializers);
+        gen.writeStartArray();
+        for (int i = 0; i < coordinates.size(); i++) {
+            gen.writeStartArray();
+            for (int ordinate = 0; ordinate < 3; ordinate++) {
+                byte scale = coordinates.getScale(i, ordinate);
+                if (scale != PackedCoordinateList.NO_VALUE)
+                    CoordinateNumberWriter.write(gen, coordinates.getUnscaled(i, ordinate), scale, decimals);
+                else if (ordinate < 2)
+                    throw JsonMappingException.from(serializers,
+                            String.format("ordinate %s of coordinate %s is not set", ordinate, i));
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Describes the coordinates as array (of arrays) like the default
+     * collection serializer does
+     */
+    @Override
+    public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType typeHint)
+            throws JsonMappingException {
+        JsonArrayFormatVisitor arrayVisitor = visitor.expectArrayFormat(typeHint);
+        if (arrayVisitor != null)
+            arrayVisitor.itemsFormat(JsonFormatTypes.ANY);
+    }
+
+}
@@ -0,0 +1,212 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Validatable;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList.ReadOnlyCoordinate;
+
+/**
+ * A compact, immutable representation of a point feature without properties,
+ * e.g. the coordinate of a location. Instead of a {@link GeoJSONFeature}, a
+ * {@link GeoJSONPoint} and a {@link GeoJSONCoordinate} with its
+ * {@link BigDecimal}s only the ordinates are stored as decimal fixed-point
+ * numbers (exactly like in {@link PackedCoordinateList}). The GeoJSON objects
+ * are created on demand with {@link #toFeature()} and
+ * {@link #toCoordinate()}, or as read-only objects (e.g. for getters of the
+ * owner of the point) with {@link #toReadOnlyFeature(String)} and
+ * {@link #toReadOnlyCoordinate(String)}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class PackedPoint implements Validatable {
+
+    private final long x, y, z;
+    private final byte xScale, yScale, zScale;
+
+    private PackedPoint(BigDecimal x, BigDecimal y, BigDecimal z) {
+        BigDecimal storableX = x == null ? null : PackedCoordinateList.toStorable(x);
+        BigDecimal storableY = y == null ? null : PackedCoordinateList.toStorable(y);
+        BigDecimal storableZ = z == null ? null : PackedCoordinateList.toStorable(z);
+        this.x = unscaled(storableX);
+        this.y = unscaled(storableY);
+        this.z = unscaled(storableZ);
+        this.xScale = scale(storableX);
+        this.yScale = scale(storableY);
+        this.zScale = scale(storableZ);
+    }
+
+    /**
+     * @return the ordinates of the coordinate (which is not referenced)
+     */
+    public static PackedPoint of(GeoJSONCoordinate coordinate) {
+        return new PackedPoint(coordinate.getX(), coordinate.getY(), coordinate.getZ().orElse(null));
+    }
+
+    /**
+     * @return the compact representation of the feature or empty if the
+     *         feature can not be represented without loss, i.e. if it has
+     *         properties or no coordinate
+     */
+    public static Optional<PackedPoint> of(GeoJSONFeature<GeoJSONPoint> feature) {
+        if (feature == null || feature.hasProperties() || feature.getGeometry() == null)
+            return Optional.empty();
+        return feature.getGeometry().getCoordinates().map(PackedPoint::of);
+    }
+
+    // -- getters
+
+    /**
+     * @return the x value (longitude) or {@link Double#NaN} if it is not set
+     */
+    public double getX() {
+        return PackedCoordinateList.toDouble(x, xScale);
+    }
+
+    /**
+     * @return the y value (latitude) or {@link Double#NaN} if it is not set
+     */
+    public double getY() {
+        return PackedCoordinateList.toDouble(y, yScale);
+    }
+
+    public boolean hasZ() {
+        return zScale != PackedCoordinateList.NO_VALUE;
+    }
+
+    /**
+     * @return the z value (altitude) or {@link Double#NaN} if it is not set
+     */
+    public double getZ() {
+        return PackedCoordinateList.toDouble(z, zScale);
+    }
+
+    // --
+
+    /**
+     * @return a new coordinate with the exact ordinates
+     */
+    public GeoJSONCoordinate toCoordinate() {
+        return new GeoJSONCoordinate().setX(PackedCoordinateList.toBigDecimal(x, xScale))
+                .setY(PackedCoordinateList.toBigDecimal(y, yScale))
+                .setZ(PackedCoordinateList.toBigDecimal(z, zScale));
+    }
+
+    /**
+     * @return a new point feature (without properties)
+     */
+    public GeoJSONFeature<GeoJSONPoint> toFeature() {
+        return GeoJSONFeature.createPointFeature(toCoordinate());
+    }
+
+    /**
+     * @param message
+     *            the message of the {@link UnsupportedOperationException}
+     *            thrown when trying to modify the coordinate
+     * @return a new coordinate with the exact ordinates, which can not be
+     *         modified
+     */
+    public GeoJSONCoordinate toReadOnlyCoordinate(String message) {
+        return new ReadOnlyCoordinate(PackedCoordinateList.toBigDecimal(x, xScale),
+                PackedCoordinateList.toBigDecimal(y, yScale), PackedCoordinateList.toBigDecimal(z, zScale), message);
+    }
+
+    /**
+     * @param message
+     *            the message of the {@link UnsupportedOperationException}
+     *            thrown when trying to modify the feature, its (empty)
+     *            properties, its point or its coordinate
+     * @return a new point feature (without properties), which is equal to
+     *         {@link #toFeature()} but can not be modified
+     */
+    public GeoJSONFeature<GeoJSONPoint> toReadOnlyFeature(String message) {
+        return new ReadOnlyFeature(new ReadOnlyPoint(toReadOnlyCoordinate(message), message), message);
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if x or y is not set
+     */
+    @Override
+    public void validate() {
+        Preconditions.checkArgument(xScale != PackedCoordinateList.NO_VALUE, "x is mandatory but missing");
+        Preconditions.checkArgument(yScale != PackedCoordinateList.NO_VALUE, "y is mandatory but missing");
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value == null ? 0 : value.unscaledValue().longValue();
+    }
+
+    private static byte scale(BigDecimal value) {
+        return value == null ? PackedCoordinateList.NO_VALUE : (byte) value.scale();
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Long.hashCode(x);
+        result = prime * result + Long.hashCode(y);
+        result = prime * result + Long.hashCode(z);
+        result = prime * result + xScale;
+        result = prime * result + yScale;
+        result = prime * result + zScale;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        PackedPoint other = (PackedPoint) obj;
+        return x == other.x && y == other.y && z == other.z && xScale == other.xScale && yScale == other.yScale
+                && zScale == other.zScale;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedPoint [" + toCoordinate() + "]";
+    }
+
+    private static class ReadOnlyFeature extends GeoJSONFeature<GeoJSONPoint> {
+        private final String message;
+
+        ReadOnlyFeature(GeoJSONPoint point, String message) {
+            super(point, Collections.emptyMap());
+            this.message = message;
+        }
+
+        @Override
+        public GeoJSONFeature<GeoJSONPoint> setGeometry(GeoJSONPoint geometry) {
+            throw new UnsupportedOperationException(message);
+        }
+
+        @Override
+        public GeoJSONFeature<GeoJSONPoint> setProperties(Map<String, Object> properties) {
+            throw new UnsupportedOperationException(message);
+        }
+    }
+
+    private static class ReadOnlyPoint extends GeoJSONPoint {
+        private final String message;
+
+        ReadOnlyPoint(GeoJSONCoordinate coordinates, String message) {
+            super(coordinates);
+            this.message = message;
+        }
+
+        @Override
+        public GeoJSONPoint setCoordinates(GeoJSONCoordinate coordinates) {
+            throw new UnsupportedOperationException(message);
+        }
+    }
+
+}
@@ -0,0 +1,332 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable, indexed version of a {@link GeoJSONMultiPolygon} (or
+ * {@link GeoJSONPolygon}) answering point-in-polygon and
+ * segment-intersects-polygon queries in near-constant time, e.g. for checking
+ * routes against forbidden areas.
+ * <p>
+ * Each polygon is prepared separately with its bounding box and a uniform
+ * grid over its bounding box. Each cell of the grid lists the ring edges
+ * touching it, cells without edges are classified as completely inside or
+ * outside of the polygon when preparing. A point in such a cell is therefore
+ * answered with a single lookup, a point in a cell with edges by counting the
+ * crossings of a ray to the right until the next cell without edges.
+ * <p>
+ * Coordinates are treated as planar (longitude / latitude) and the polygons of
+ * a multipolygon may overlap (a point is contained if it is contained in any of
+ * them). Interior rings are holes of their polygon.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class PreparedMultiPolygon {
+
+    private final List<PreparedPolygon> polygons;
+    private final double minX, minY, maxX, maxY;
+
+    public PreparedMultiPolygon(GeoJSONMultiPolygon multiPolygon) {
+        this(multiPolygon.getCoordinates());
+    }
+
+    public PreparedMultiPolygon(GeoJSONPolygon polygon) {
+        this(Collections.singletonList(polygon.getCoordinates()));
+    }
+
+    private PreparedMultiPolygon(List<List<List<GeoJSONCoordinate>>> coordinates) {
+        List<PreparedPolygon> polygons = new ArrayList<>();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (List<List<GeoJSONCoordinate>> polygon : coordinates) {
+            if (polygon.isEmpty() || polygon.get(0).isEmpty())
+                continue;
+            PreparedPolygon prepared = new PreparedPolygon(polygon);
+            polygons.add(prepared);
+            minX = Math.min(minX, prepared.minX);
+            minY = Math.min(minY, prepared.minY);
+            maxX = Math.max(maxX, prepared.maxX);
+            maxY = Math.max(maxY, prepared.maxY);
+        }
+        this.polygons = polygons;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    public boolean isEmpty() {
+        return polygons.isEmpty();
+    }
+
+    /**
+     * @return <code>true</code> if the point lies inside of one of the
+     *         polygons (points exactly on the boundary may be reported as
+     *         inside or outside)
+     */
+    public boolean contains(double x, double y) {
+        if (x < minX || x > maxX || y < minY || y > maxY)
+            return false;
+        for (PreparedPolygon polygon : polygons) {
+            if (polygon.contains(x, y))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if the line segment between the two points
+     *         touches the interior or the boundary of one of the polygons
+     */
+    public boolean intersects(double x1, double y1, double x2, double y2) {
+        if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX || Math.max(y1, y2) < minY
+                || Math.min(y1, y2) > maxY)
+            return false;
+        for (PreparedPolygon polygon : polygons) {
+            if (polygon.intersects(x1, y1, x2, y2))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if any part of the line string touches the
+     *         interior or the boundary of one of the polygons
+     */
+    public boolean intersects(GeoJSONLineString lineString) {
+        return findFirstIntersectingEdge(lineString).isPresent();
+    }
+
+    /**
+     * @return the index of the first coordinate of the first edge of the line
+     *         string intersecting one of the polygons (for line strings with
+     *         a single coordinate the index of the coordinate if it is
+     *         contained)
+     */
+    public Optional<Integer> findFirstIntersectingEdge(GeoJSONLineString lineString) {
+        Optional<BoundingBox> box = lineString.getBoundingBox();
+        if (!box.isPresent() || box.get().getMaxX() < minX || box.get().getMinX() > maxX
+                || box.get().getMaxY() < minY || box.get().getMinY() > maxY)
+            return Optional.empty();
+        PackedCoordinateList coordinates = lineString.getPackedCoordinates();
+        if (coordinates.size() == 1)
+            return contains(coordinates.getX(0), coordinates.getY(0)) ? Optional.of(0) : Optional.empty();
+        for (int i = 0; i + 1 < coordinates.size(); i++) {
+            if (intersects(coordinates.getX(i), coordinates.getY(i), coordinates.getX(i + 1),
+                    coordinates.getY(i + 1)))
+                return Optional.of(i);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * A single polygon with its edge grid
+     */
+    private static class PreparedPolygon {
+        private static final byte OUTSIDE = 0, INSIDE = 1, BOUNDARY = 2;
+        private static final int MAX_CELLS_PER_AXIS = 512;
+
+        /** all vertices of all rings, edges connect i and i + 1 */
+        private final double[] x, y;
+        private final double minX, minY, maxX, maxY;
+        private final int columns, rows;
+        private final double cellWidth, cellHeight;
+        /** edges (index of the first vertex) of each cell: compressed rows */
+        private final int[] cellStart, cellEdges;
+        private final byte[] cellState;
+
+        PreparedPolygon(List<List<GeoJSONCoordinate>> rings) {
+            int vertexCount = 0;
+            for (List<GeoJSONCoordinate> ring : rings)
+                vertexCount += ring.size();
+            x = new double[vertexCount];
+            y = new double[vertexCount];
+            List<Integer> edges = new ArrayList<>(vertexCount);
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            int vertex = 0;
+            for (List<GeoJSONCoordinate> ring : rings) {
+                for (int i = 0; i < ring.size(); i++, vertex++) {
+                    x[vertex] = ring.get(i).getX().doubleValue();
+                    y[vertex] = ring.get(i).getY().doubleValue();
+                    minX = Math.min(minX, x[vertex]);
+                    minY = Math.min(minY, y[vertex]);
+                    maxX = Math.max(maxX, x[vertex]);
+                    maxY = Math.max(maxY, y[vertex]);
+                    if (i + 1 < ring.size())
+                        edges.add(vertex);
+                }
+            }
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+
+            int cellsPerAxis = (int) Math.ceil(Math.sqrt(edges.size()));
+            cellsPerAxis = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, cellsPerAxis));
+            columns = maxX > minX ? cellsPerAxis : 1;
+            rows = maxY > minY ? cellsPerAxis : 1;
+            cellWidth = maxX > minX ? (maxX - minX) / columns : 1;
+            cellHeight = maxY > minY ? (maxY - minY) / rows : 1;
+
+            // two passes: count the edges per cell, then fill them in
+            cellStart = new int[columns * rows + 1];
+            for (int edge : edges)
+                forEachCell(edge, cell -> cellStart[cell + 1]++);
+            for (int cell = 0; cell < columns * rows; cell++)
+                cellStart[cell + 1] += cellStart[cell];
+            cellEdges = new int[cellStart[columns * rows]];
+            int[] fill = cellStart.clone();
+            for (int edge : edges)
+                forEachCell(edge, cell -> cellEdges[fill[cell]++] = edge);
+
+            // classify cells without edges from right to left, so that the
+            // walk to the right always ends at an already classified cell
+            cellState = new byte[columns * rows];
+            for (int row = 0; row < rows; row++) {
+                double centerY = minY + (row + 0.5) * cellHeight;
+                for (int column = columns - 1; column >= 0; column--) {
+                    int cell = row * columns + column;
+                    if (cellStart[cell + 1] > cellStart[cell])
+                        cellState[cell] = BOUNDARY;
+                    else
+                        cellState[cell] = walkRight(minX + (column + 0.5) * cellWidth, centerY, row, column + 1)
+                                ? INSIDE : OUTSIDE;
+                }
+            }
+        }
+
+        boolean contains(double px, double py) {
+            if (px < minX || px > maxX || py < minY || py > maxY)
+                return false;
+            int row = row(py), column = column(px);
+            byte state = cellState[row * columns + column];
+            if (state != BOUNDARY)
+                return state == INSIDE;
+            return walkRight(px, py, row, column);
+        }
+
+        boolean intersects(double x1, double y1, double x2, double y2) {
+            if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX || Math.max(y1, y2) < minY
+                    || Math.min(y1, y2) > maxY)
+                return false;
+            if (contains(x1, y1))
+                return true;
+            int firstColumn = column(Math.min(x1, x2)), lastColumn = column(Math.max(x1, x2));
+            int firstRow = row(Math.min(y1, y2)), lastRow = row(Math.max(y1, y2));
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int cell = row * columns + column;
+                    if (cellState[cell] != BOUNDARY || !segmentTouchesCell(x1, y1, x2, y2, row, column))
+                        continue;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int edge = cellEdges[i];
+                        if (segmentsIntersect(x1, y1, x2, y2, x[edge], y[edge], x[edge + 1], y[edge + 1]))
+                            return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Casts a ray from the point to the right and counts the crossings
+         * with edges in the cells of the row starting at the given column
+         * until a cell without edges (whose state is known) is reached.
+         * Crossings are only counted in the cell they lie in, so that edges
+         * listed in several cells are counted once.
+         */
+        private boolean walkRight(double px, double py, int row, int column) {
+            boolean inside = false;
+            for (; column < columns; column++) {
+                int cell = row * columns + column;
+                if (cellStart[cell + 1] == cellStart[cell])
+                    return inside ^ (cellState[cell] == INSIDE);
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int edge = cellEdges[i];
+                    double ax = x[edge], ay = y[edge], bx = x[edge + 1], by = y[edge + 1];
+                    if ((ay > py) == (by > py))
+                        continue;
+                    double crossingX = ax + (py - ay) * (bx - ax) / (by - ay);
+                    crossingX = Math.max(Math.min(ax, bx), Math.min(Math.max(ax, bx), crossingX));
+                    if (crossingX > px && column(crossingX) == column)
+                        inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        private interface CellConsumer {
+            void accept(int cell);
+        }
+
+        /**
+         * Calls the consumer for all cells touched by the edge (with a small
+         * margin, so that rounding never leads to missing cells)
+         */
+        private void forEachCell(int edge, CellConsumer consumer) {
+            double ax = x[edge], ay = y[edge], bx = x[edge + 1], by = y[edge + 1];
+            int firstColumn = column(Math.min(ax, bx)), lastColumn = column(Math.max(ax, bx));
+            int firstRow = row(Math.min(ay, by)), lastRow = row(Math.max(ay, by));
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    if (segmentTouchesCell(ax, ay, bx, by, row, column))
+                        consumer.accept(row * columns + column);
+                }
+            }
+        }
+
+        /**
+         * @return <code>false</code> if all corners of the (slightly enlarged)
+         *         cell lie strictly on the same side of the line through the
+         *         segment, which must overlap with the cell's bounding box
+         */
+        private boolean segmentTouchesCell(double ax, double ay, double bx, double by, int row, int column) {
+            double marginX = cellWidth * 1e-6, marginY = cellHeight * 1e-6;
+            double cellMinX = minX + column * cellWidth - marginX, cellMaxX = cellMinX + cellWidth + 2 * marginX;
+            double cellMinY = minY + row * cellHeight - marginY, cellMaxY = cellMinY + cellHeight + 2 * marginY;
+            int sides = side(ax, ay, bx, by, cellMinX, cellMinY) + side(ax, ay, bx, by, cellMinX, cellMaxY)
+                    + side(ax, ay, bx, by, cellMaxX, cellMinY) + side(ax, ay, bx, by, cellMaxX, cellMaxY);
+            return sides != 4 && sides != -4;
+        }
+
+        private int column(double px) {
+            return Math.max(0, Math.min(columns - 1, (int) ((px - minX) / cellWidth)));
+        }
+
+        private int row(double py) {
+            return Math.max(0, Math.min(rows - 1, (int) ((py - minY) / cellHeight)));
+        }
+    }
+
+    private static int side(double ax, double ay, double bx, double by, double px, double py) {
+        return (int) Math.signum(orientation(ax, ay, bx, by, px, py));
+    }
+
+    private static double orientation(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    /**
+     * @return <code>true</code> if the segments a-b and c-d have at least one
+     *         point in common
+     */
+    static boolean segmentsIntersect(double ax, double ay, double bx, double by, double cx, double cy, double dx,
+            double dy) {
+        double d1 = orientation(cx, cy, dx, dy, ax, ay), d2 = orientation(cx, cy, dx, dy, bx, by);
+        double d3 = orientation(ax, ay, bx, by, cx, cy), d4 = orientation(ax, ay, bx, by, dx, dy);
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0)))
+            return true;
+        return (d1 == 0 && onSegment(cx, cy, dx, dy, ax, ay)) || (d2 == 0 && onSegment(cx, cy, dx, dy, bx, by))
+                || (d3 == 0 && onSegment(ax, ay, bx, by, cx, cy)) || (d4 == 0 && onSegment(ax, ay, bx, by, dx, dy));
+    }
+
+    /** @return if the collinear point p lies within the box of a-b */
+    private static boolean onSegment(double ax, double ay, double bx, double by, double px, double py) {
+        return px >= Math.min(ax, bx) && px <= Math.max(ax, bx) && py >= Math.min(ay, by) && py <= Math.max(ay, by);
+    }
+
+}
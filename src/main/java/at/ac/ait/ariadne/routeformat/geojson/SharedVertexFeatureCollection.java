@@ -0,0 +1,193 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.base.Preconditions;
+
+/**
+ * A collection of line strings (e.g. the edges of a route segment) that are
+ * parts of one common line string (e.g. the geometry of the route segment).
+ * Instead of copies of the vertices the geometry of each edge is a range of
+ * the coordinates of the common line string (see
+ * {@link PackedCoordinateList#copyOfRange(int, int)}), i.e. the vertices are
+ * shared with the common line string including the junction vertices between
+ * consecutive edges.
+ * <p>
+ * The collection keeps a copy-on-write snapshot of the common line string, so
+ * later modifications of the line string (or of the geometry of an edge) copy
+ * the modified coordinates and are not reflected by the other edges. The edge
+ * features are created once per edge, {@link #getFeatures()} is a read-only
+ * list of them, which can be replaced with {@link #setFeatures(List)}.
+ * <p>
+ * Deserialization always creates a regular {@link GeoJSONFeatureCollection},
+ * i.e. the vertices of deserialized edges are only shared after calling
+ * {@link at.ac.ait.ariadne.routeformat.RouteSegment#shareEdgeVertices()}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class SharedVertexFeatureCollection extends GeoJSONFeatureCollection<GeoJSONLineString> {
+
+    /** snapshot of the coordinates of the common line string */
+    private PackedCoordinateList vertices;
+    private final List<GeoJSONFeature<GeoJSONLineString>> edges = new ArrayList<>();
+    private final List<GeoJSONFeature<GeoJSONLineString>> features = Collections.unmodifiableList(edges);
+
+    /**
+     * @param lineString
+     *            the common line string whose vertices are shared
+     */
+    public SharedVertexFeatureCollection(GeoJSONLineString lineString) {
+        this.vertices = snapshot(lineString.getPackedCoordinates());
+    }
+
+    /**
+     * Creates a collection sharing the vertices of the line string if each
+     * edge is an exact part of it, starting either where the previous edge
+     * ended or at the last vertex of the previous edge. This is typically the
+     * case for the edges and the geometry of a route segment.
+     *
+     * @return the shared collection or empty if the edges are not consecutive
+     *         parts of the line string
+     */
+    public static Optional<SharedVertexFeatureCollection> create(GeoJSONLineString lineString,
+            List<GeoJSONFeature<GeoJSONLineString>> edges) {
+        SharedVertexFeatureCollection collection = new SharedVertexFeatureCollection(lineString);
+        return collection.addSharedEdges(collection.vertices, edges) ? Optional.of(collection) : Optional.empty();
+    }
+
+    /**
+     * Adds an edge consisting of the given range of vertices of the common
+     * line string
+     *
+     * @param fromIndex
+     *            first vertex (inclusive)
+     * @param toIndex
+     *            last vertex (exclusive)
+     * @param properties
+     *            the properties of the edge feature (are not copied)
+     * @throws IllegalArgumentException
+     *             if the range is negative or reversed
+     * @throws IndexOutOfBoundsException
+     *             if the range ends after the last vertex of the common line
+     *             string
+     */
+    public SharedVertexFeatureCollection addEdge(int fromIndex, int toIndex, Map<String, Object> properties) {
+        Preconditions.checkArgument(0 <= fromIndex && fromIndex <= toIndex, "invalid range %s-%s", fromIndex,
+                toIndex);
+        Preconditions.checkPositionIndexes(fromIndex, toIndex, vertices.size());
+        GeoJSONLineString edge = new GeoJSONLineString().setCoordinates(vertices.copyOfRange(fromIndex, toIndex));
+        edges.add(new GeoJSONFeature<GeoJSONLineString>().setGeometry(edge)
+                .setSharedProperties(properties == null ? new TreeMap<>() : properties));
+        return this;
+    }
+
+    // -- getters
+
+    /**
+     * @return the common line string whose vertices are shared (as new line
+     *         string sharing the snapshot copy-on-write)
+     */
+    @JsonIgnore
+    public GeoJSONLineString getLineString() {
+        return new GeoJSONLineString().setCoordinates(vertices);
+    }
+
+    /**
+     * @return <code>true</code> if the edges still share the vertices of the
+     *         given line string, i.e. neither has been modified since the
+     *         edges were created from it
+     */
+    public boolean sharesVerticesOf(GeoJSONLineString lineString) {
+        return vertices.sharesCoordinatesOf(lineString.getPackedCoordinates());
+    }
+
+    /**
+     * @return a read-only list of the edges
+     */
+    @Override
+    public List<GeoJSONFeature<GeoJSONLineString>> getFeatures() {
+        return features;
+    }
+
+    // -- setters
+
+    /**
+     * Replaces the edges. If they are consecutive parts of the common line
+     * string (see {@link #create(GeoJSONLineString, List)}) its vertices are
+     * shared. Otherwise the vertices of the edges are copied into a new
+     * common line string (see {@link #getLineString()}), where consecutive
+     * edges share their junction vertex.
+     *
+     * @throws IllegalArgumentException
+     *             if the geometry of a feature is missing
+     */
+    @Override
+    public SharedVertexFeatureCollection setFeatures(List<GeoJSONFeature<GeoJSONLineString>> features) {
+        List<GeoJSONFeature<GeoJSONLineString>> newEdges = new ArrayList<>(features);
+        if (addSharedEdges(vertices, newEdges))
+            return this;
+
+        PackedCoordinateList coordinates = new PackedCoordinateList();
+        for (GeoJSONFeature<GeoJSONLineString> edge : newEdges) {
+            Preconditions.checkArgument(edge.getGeometry() != null, "geometry of edge is missing");
+            PackedCoordinateList edgeCoordinates = edge.getGeometry().getPackedCoordinates();
+            int first = 0;
+            if (!edgeCoordinates.isEmpty() && !coordinates.isEmpty()
+                    && coordinates.regionMatches(coordinates.size() - 1, edgeCoordinates, 0, 1))
+                first = 1;
+            for (int i = first; i < edgeCoordinates.size(); i++)
+                coordinates.add(edgeCoordinates, i);
+        }
+        Preconditions.checkState(addSharedEdges(coordinates, newEdges));
+        return this;
+    }
+
+    // --
+
+    /**
+     * Replaces the vertices and edges with the given ones if the edges are
+     * consecutive parts of the vertices
+     *
+     * @return <code>true</code> if the edges were replaced
+     */
+    private boolean addSharedEdges(PackedCoordinateList coordinates,
+            List<GeoJSONFeature<GeoJSONLineString>> newEdges) {
+        int[] from = new int[newEdges.size()], to = new int[newEdges.size()];
+        int nextIndex = 0;
+        for (int e = 0; e < newEdges.size(); e++) {
+            GeoJSONLineString edge = newEdges.get(e).getGeometry();
+            if (edge == null)
+                return false;
+            PackedCoordinateList edgeCoordinates = edge.getPackedCoordinates();
+            int count = edgeCoordinates.size();
+            if (count > 0 && nextIndex > 0 && coordinates.regionMatches(nextIndex - 1, edgeCoordinates, 0, count))
+                from[e] = nextIndex - 1;
+            else if (coordinates.regionMatches(nextIndex, edgeCoordinates, 0, count))
+                from[e] = nextIndex;
+            else
+                return false;
+            to[e] = from[e] + count;
+            nextIndex = to[e];
+        }
+        vertices = snapshot(coordinates);
+        edges.clear();
+        for (int e = 0; e < newEdges.size(); e++)
+            addEdge(from[e], to[e], newEdges.get(e).getProperties());
+        return true;
+    }
+
+    /**
+     * @return a copy of the coordinates sharing them copy-on-write, i.e. the
+     *         copy is not affected by later modifications of the coordinates
+     */
+    private static PackedCoordinateList snapshot(PackedCoordinateList coordinates) {
+        return coordinates.copyOfRange(0, coordinates.size());
+    }
+
+}
@@ -0,0 +1,189 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads geometry objects from their <a href=
+ * "https://en.wikipedia.org/wiki/Well-known_text#Well-known_binary">well known
+ * binary</a> representation, i.e. the inverse of {@link WKBWriter}, e.g. for
+ * reading geometry columns of PostGIS.
+ * <p>
+ * Supported are points, line strings, polygons and multi polygons with two or
+ * three dimensions in both byte orders, as ISO WKB as well as PostGIS'
+ * extended WKB (EWKB). SRIDs and measures are skipped. Ordinates are rounded
+ * to seven decimals (like {@link PackedCoordinateList#add(double, double)})
+ * and empty points (with NaN ordinates) are read as empty
+ * {@link GeoJSONPoint}s.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class WKBReader {
+
+    private static final int POINT = 1, LINE_STRING = 2, POLYGON = 3, MULTI_POLYGON = 6;
+    private static final int EWKB_Z_FLAG = 0x80000000, EWKB_M_FLAG = 0x40000000, EWKB_SRID_FLAG = 0x20000000;
+    private static final int EWKB_TYPE_MASK = 0x0FFFFFFF;
+    private static final int ORDINATE_SIZE = 8;
+
+    /**
+     * Reads a geometry starting at the current position of the buffer and
+     * advances the position to its end. The byte order of the buffer is
+     * restored afterwards.
+     *
+     * @throws IllegalArgumentException
+     *             if the bytes are no valid WKB of a supported geometry type
+     */
+    public GeoJSONGeometryObject read(ByteBuffer buffer) {
+        ByteOrder previousOrder = buffer.order();
+        try {
+            return readGeometry(buffer, 0);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("WKB is truncated", e);
+        } finally {
+            buffer.order(previousOrder);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the bytes are no valid WKB of the given geometry type
+     */
+    public <T extends GeoJSONGeometryObject> T read(ByteBuffer buffer, Class<T> type) {
+        GeoJSONGeometryObject geometry = read(buffer);
+        if (!type.isInstance(geometry))
+            throw new IllegalArgumentException(
+                    "expected " + GeoJSONUtil.getTypeName(type) + " but WKB contains " + geometry.getTypeName());
+        return type.cast(geometry);
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the bytes are no valid WKB of a supported geometry type
+     *             or contain additional bytes after the geometry
+     */
+    public GeoJSONGeometryObject read(byte[] wkb) {
+        ByteBuffer buffer = ByteBuffer.wrap(wkb);
+        GeoJSONGeometryObject geometry = read(buffer);
+        if (buffer.hasRemaining())
+            throw new IllegalArgumentException(buffer.remaining() + " unexpected bytes after the WKB geometry");
+        return geometry;
+    }
+
+    /**
+     * Reads hex encoded WKB as returned by PostGIS for geometry columns in
+     * text format
+     *
+     * @throws IllegalArgumentException
+     *             if the text is no hex encoded WKB of a supported geometry
+     *             type
+     */
+    public GeoJSONGeometryObject readHex(CharSequence hex) {
+        if (hex.length() % 2 != 0)
+            throw new IllegalArgumentException("hex encoded WKB must have an even length but was " + hex.length());
+        byte[] wkb = new byte[hex.length() / 2];
+        for (int i = 0; i < wkb.length; i++)
+            wkb[i] = (byte) (hexDigit(hex, 2 * i) << 4 | hexDigit(hex, 2 * i + 1));
+        return read(wkb);
+    }
+
+    /**
+     * @param expectedType
+     *            the type the geometry must have or <code>0</code> for any
+     */
+    private GeoJSONGeometryObject readGeometry(ByteBuffer buffer, int expectedType) {
+        int position = buffer.position();
+        byte byteOrder = buffer.get();
+        if (byteOrder == 0)
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        else if (byteOrder == 1)
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        else
+            throw new IllegalArgumentException("invalid byte order " + byteOrder + " at position " + position);
+
+        int type = buffer.getInt();
+        boolean z = (type & EWKB_Z_FLAG) != 0, m = (type & EWKB_M_FLAG) != 0;
+        if ((type & EWKB_SRID_FLAG) != 0)
+            buffer.getInt();
+        type &= EWKB_TYPE_MASK;
+        if (type >= 1000 && type < 4000) {
+            z |= type / 1000 == 1 || type / 1000 == 3;
+            m |= type / 1000 == 2 || type / 1000 == 3;
+            type %= 1000;
+        }
+        if (expectedType != 0 && type != expectedType)
+            throw new IllegalArgumentException(
+                    "expected geometry type " + expectedType + " but got " + type + " at position " + position);
+
+        int dimension = 2 + (z ? 1 : 0) + (m ? 1 : 0);
+        switch (type) {
+        case POINT:
+            double x = buffer.getDouble(), y = buffer.getDouble();
+            double altitude = z ? buffer.getDouble() : Double.NaN;
+            if (m)
+                buffer.getDouble();
+            if (Double.isNaN(x) && Double.isNaN(y))
+                return new GeoJSONPoint();
+            return GeoJSONPoint.create(z ? GeoJSONCoordinate.create(x, y, altitude) : GeoJSONCoordinate.create(x, y));
+        case LINE_STRING:
+            return new GeoJSONLineString().setCoordinates(readCoordinates(buffer, z, m));
+        case POLYGON:
+            return GeoJSONPolygon.create(readRings(buffer, z, m));
+        case MULTI_POLYGON:
+            int count = readCount(buffer, 1 + 4 + 4);
+            List<List<List<GeoJSONCoordinate>>> polygons = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                polygons.add(((GeoJSONPolygon) readGeometry(buffer, POLYGON)).getCoordinates());
+            return GeoJSONMultiPolygon.create(polygons);
+        default:
+            throw new IllegalArgumentException("unsupported geometry type " + type + " with " + dimension
+                    + " dimensions at position " + position);
+        }
+    }
+
+    private static List<List<GeoJSONCoordinate>> readRings(ByteBuffer buffer, boolean z, boolean m) {
+        int count = readCount(buffer, 4);
+        List<List<GeoJSONCoordinate>> rings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            rings.add(readCoordinates(buffer, z, m));
+        return rings;
+    }
+
+    private static PackedCoordinateList readCoordinates(ByteBuffer buffer, boolean z, boolean m) {
+        int count = readCount(buffer, (2 + (z ? 1 : 0) + (m ? 1 : 0)) * ORDINATE_SIZE);
+        PackedCoordinateList coordinates = new PackedCoordinateList(count);
+        for (int i = 0; i < count; i++) {
+            double x = buffer.getDouble(), y = buffer.getDouble();
+            if (z)
+                coordinates.add(x, y, buffer.getDouble());
+            else
+                coordinates.add(x, y);
+            if (m)
+                buffer.getDouble();
+        }
+        return coordinates;
+    }
+
+    /**
+     * Reads the number of elements and checks it against the remaining bytes,
+     * so that corrupt data does not lead to huge allocations
+     */
+    private static int readCount(ByteBuffer buffer, int minElementSize) {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * minElementSize > buffer.remaining())
+            throw new IllegalArgumentException("invalid number of elements " + count + " at position "
+                    + (buffer.position() - 4) + " (only " + buffer.remaining() + " bytes remaining)");
+        return count;
+    }
+
+    private static int hexDigit(CharSequence hex, int index) {
+        int digit = Character.digit(hex.charAt(index), 16);
+        if (digit < 0)
+            throw new IllegalArgumentException("invalid hex character '" + hex.charAt(index) + "' at position "
+                    + index);
+        return digit;
+    }
+
+}
@@ -0,0 +1,242 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Writes the <a href=
+ * "https://en.wikipedia.org/wiki/Well-known_text#Well-known_binary">well known
+ * binary</a> representation of geometry objects to a {@link ByteBuffer}, e.g.
+ * for bulk loading geometries into a spatial database such as PostGIS.
+ * <p>
+ * By default ISO WKB is written, where three dimensional geometries (see
+ * {@link GeoJSONUtil#hasZ(GeoJSONGeometryObject)}) are marked by adding 1000
+ * to the geometry type. Optionally the PostGIS specific extended WKB (EWKB) is
+ * written, where three dimensional geometries are marked with a flag in the
+ * geometry type and the geometry can carry an SRID. Empty points are written
+ * with NaN ordinates.
+ * <p>
+ * The required size can be calculated in advance with
+ * {@link #getSize(GeoJSONGeometryObject)}, so that many geometries can be
+ * written into one (reused) buffer.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class WKBWriter {
+
+    private static final int POINT = 1, LINE_STRING = 2, POLYGON = 3, MULTI_POLYGON = 6;
+    private static final int ISO_Z_OFFSET = 1000;
+    private static final int EWKB_Z_FLAG = 0x80000000, EWKB_SRID_FLAG = 0x20000000;
+    private static final int HEADER_SIZE = 5, SRID_SIZE = 4, COUNT_SIZE = 4, ORDINATE_SIZE = 8;
+
+    private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+    private boolean extended = false;
+    private Optional<Integer> srid = Optional.empty();
+
+    // -- getters
+
+    /**
+     * Default: little endian (NDR)
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * @return <code>true</code> if EWKB is written instead of ISO WKB
+     *         (default: <code>false</code>)
+     */
+    public boolean isExtended() {
+        return extended;
+    }
+
+    /**
+     * The SRID written into the header of EWKB geometries
+     */
+    public Optional<Integer> getSrid() {
+        return srid;
+    }
+
+    // -- setters
+
+    public WKBWriter setByteOrder(ByteOrder byteOrder) {
+        this.byteOrder = byteOrder;
+        return this;
+    }
+
+    public WKBWriter setExtended(boolean extended) {
+        this.extended = extended;
+        if (!extended)
+            this.srid = Optional.empty();
+        return this;
+    }
+
+    /**
+     * Sets the SRID (e.g. 4326 for WGS84) and switches to EWKB, since ISO WKB
+     * can not carry an SRID
+     */
+    public WKBWriter setSrid(int srid) {
+        this.srid = Optional.of(srid);
+        this.extended = true;
+        return this;
+    }
+
+    // --
+
+    /**
+     * @return the number of bytes required for the WKB of the geometry
+     */
+    public int getSize(GeoJSONGeometryObject geometry) {
+        int dimension = GeoJSONUtil.hasZ(geometry) ? 3 : 2;
+        int size = extended && srid.isPresent() ? SRID_SIZE : 0;
+        if (geometry instanceof GeoJSONPoint) {
+            size += HEADER_SIZE + dimension * ORDINATE_SIZE;
+        } else if (geometry instanceof GeoJSONLineString) {
+            size += HEADER_SIZE + getSize(((GeoJSONLineString) geometry).getCoordinates(), dimension);
+        } else if (geometry instanceof GeoJSONPolygon) {
+            size += getPolygonSize(((GeoJSONPolygon) geometry).getCoordinates(), dimension);
+        } else if (geometry instanceof GeoJSONMultiPolygon) {
+            size += HEADER_SIZE + COUNT_SIZE;
+            for (List<List<GeoJSONCoordinate>> polygon : ((GeoJSONMultiPolygon) geometry).getCoordinates())
+                size += getPolygonSize(polygon, dimension);
+        } else {
+            throw new IllegalArgumentException("unsupported geometry type " + geometry.getClass().getName());
+        }
+        return size;
+    }
+
+    /**
+     * @return the WKB of the geometry
+     */
+    public byte[] toWKB(GeoJSONGeometryObject geometry) {
+        byte[] wkb = new byte[getSize(geometry)];
+        write(geometry, ByteBuffer.wrap(wkb));
+        return wkb;
+    }
+
+    /**
+     * Writes the WKB of the geometry at the current position of the buffer
+     * and advances the position. The byte order of the buffer is restored
+     * afterwards.
+     *
+     * @return the buffer
+     * @throws BufferOverflowException
+     *             if the remaining bytes of the buffer are less than
+     *             {@link #getSize(GeoJSONGeometryObject)}
+     * @throws IllegalArgumentException
+     *             if an ordinate of a coordinate is not set (the buffer then
+     *             contains an incomplete WKB)
+     */
+    public ByteBuffer write(GeoJSONGeometryObject geometry, ByteBuffer buffer) {
+        ByteOrder previousOrder = buffer.order();
+        buffer.order(byteOrder);
+        try {
+            boolean z = GeoJSONUtil.hasZ(geometry);
+            if (geometry instanceof GeoJSONPoint) {
+                writeHeader(buffer, POINT, z, true);
+                GeoJSONPoint point = (GeoJSONPoint) geometry;
+                if (point.getCoordinates().isPresent()) {
+                    writeCoordinate(buffer, point.getCoordinates().get(), 0, z);
+                } else {
+                    buffer.putDouble(Double.NaN);
+                    buffer.putDouble(Double.NaN);
+                }
+            } else if (geometry instanceof GeoJSONLineString) {
+                writeHeader(buffer, LINE_STRING, z, true);
+                writeCoordinates(buffer, ((GeoJSONLineString) geometry).getPackedCoordinates(), z);
+            } else if (geometry instanceof GeoJSONPolygon) {
+                writePolygon(buffer, ((GeoJSONPolygon) geometry).getCoordinates(), z, true);
+            } else if (geometry instanceof GeoJSONMultiPolygon) {
+                writeHeader(buffer, MULTI_POLYGON, z, true);
+                List<List<List<GeoJSONCoordinate>>> polygons = ((GeoJSONMultiPolygon) geometry).getCoordinates();
+                buffer.putInt(polygons.size());
+                for (List<List<GeoJSONCoordinate>> polygon : polygons)
+                    writePolygon(buffer, polygon, z, false);
+            } else {
+                throw new IllegalArgumentException("unsupported geometry type " + geometry.getClass().getName());
+            }
+        } finally {
+            buffer.order(previousOrder);
+        }
+        return buffer;
+    }
+
+    private int getPolygonSize(List<List<GeoJSONCoordinate>> rings, int dimension) {
+        int size = HEADER_SIZE + COUNT_SIZE;
+        for (List<GeoJSONCoordinate> ring : rings)
+            size += getSize(ring, dimension);
+        return size;
+    }
+
+    private static int getSize(List<GeoJSONCoordinate> coordinates, int dimension) {
+        return COUNT_SIZE + coordinates.size() * dimension * ORDINATE_SIZE;
+    }
+
+    /**
+     * @param topLevel
+     *            the SRID is only written for the top level geometry, not for
+     *            the polygons of a multi polygon
+     */
+    private void writeHeader(ByteBuffer buffer, int type, boolean z, boolean topLevel) {
+        buffer.put((byte) (byteOrder == ByteOrder.LITTLE_ENDIAN ? 1 : 0));
+        if (!extended) {
+            buffer.putInt(z ? type + ISO_Z_OFFSET : type);
+            return;
+        }
+        boolean writeSrid = topLevel && srid.isPresent();
+        buffer.putInt(type | (z ? EWKB_Z_FLAG : 0) | (writeSrid ? EWKB_SRID_FLAG : 0));
+        if (writeSrid)
+            buffer.putInt(srid.get());
+    }
+
+    private void writePolygon(ByteBuffer buffer, List<List<GeoJSONCoordinate>> rings, boolean z, boolean topLevel) {
+        writeHeader(buffer, POLYGON, z, topLevel);
+        buffer.putInt(rings.size());
+        for (List<GeoJSONCoordinate> ring : rings)
+            writeCoordinates(buffer, ring, z);
+    }
+
+    private static void writeCoordinates(ByteBuffer buffer, List<GeoJSONCoordinate> coordinates, boolean z) {
+        buffer.putInt(coordinates.size());
+        if (coordinates instanceof PackedCoordinateList) {
+            PackedCoordinateList packed = (PackedCoordinateList) coordinates;
+            for (int i = 0; i < packed.size(); i++) {
+                checkOrdinate(packed, i, 0);
+                buffer.putDouble(packed.getX(i));
+                checkOrdinate(packed, i, 1);
+                buffer.putDouble(packed.getY(i));
+                if (z) {
+                    checkOrdinate(packed, i, 2);
+                    buffer.putDouble(packed.getZ(i));
+                }
+            }
+        } else {
+            for (int i = 0; i < coordinates.size(); i++)
+                writeCoordinate(buffer, coordinates.get(i), i, z);
+        }
+    }
+
+    private static void checkOrdinate(PackedCoordinateList coordinates, int index, int ordinate) {
+        Preconditions.checkArgument(coordinates.getScale(index, ordinate) != PackedCoordinateList.NO_VALUE,
+                "ordinate %s of coordinate %s is not set", ordinate, index);
+    }
+
+    private static void writeCoordinate(ByteBuffer buffer, GeoJSONCoordinate coordinate, int index, boolean z) {
+        writeOrdinate(buffer, coordinate.getX(), index, 0);
+        writeOrdinate(buffer, coordinate.getY(), index, 1);
+        if (z)
+            writeOrdinate(buffer, coordinate.getZ().orElse(null), index, 2);
+    }
+
+    private static void writeOrdinate(ByteBuffer buffer, BigDecimal value, int index, int ordinate) {
+        Preconditions.checkArgument(value != null, "ordinate %s of coordinate %s is not set", ordinate, index);
+        buffer.putDouble(value.doubleValue());
+    }
+
+}
@@ -0,0 +1,232 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads geometry objects from their
+ * <a href="https://en.wikipedia.org/wiki/Well-known_text">well known text</a>
+ * representation, i.e. the inverse of {@link WKTWriter}.
+ * <p>
+ * Supported are (case insensitive) <code>POINT</code>,
+ * <code>LINESTRING</code>, <code>POLYGON</code> and <code>MULTIPOLYGON</code>
+ * with two or three dimensions (<code>Z</code>), <code>EMPTY</code>
+ * geometries and the <code>SRID=...;</code> prefix of PostGIS' extended WKT
+ * (the SRID is ignored). Measures (<code>M</code> or <code>ZM</code>) are
+ * skipped. Ordinates are parsed in a single pass over the characters into
+ * decimal fixed-point numbers with the same precision and scale as written in
+ * the text (like when parsing GeoJSON, see {@link PackedCoordinateList}).
+ * <p>
+ * A reader is not thread-safe, but can be reused for many geometries.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class WKTReader {
+
+    private final OrdinateReader ordinates = new OrdinateReader();
+    private char[] number = new char[32];
+    private CharSequence wkt;
+    private int pos;
+    private boolean z, m;
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the text is no valid WKT of a supported geometry type
+     */
+    public GeoJSONGeometryObject read(CharSequence wkt) {
+        this.wkt = wkt;
+        this.pos = 0;
+        try {
+            skipWhitespace();
+            if (consumeKeyword("SRID")) {
+                expect('=');
+                while (pos < wkt.length() && wkt.charAt(pos) != ';')
+                    pos++;
+                expect(';');
+            }
+            GeoJSONGeometryObject geometry = readGeometry();
+            skipWhitespace();
+            if (pos < wkt.length())
+                throw error("unexpected character '" + wkt.charAt(pos) + "'");
+            return geometry;
+        } finally {
+            this.wkt = null;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the text is no valid WKT of the given geometry type
+     */
+    public <T extends GeoJSONGeometryObject> T read(CharSequence wkt, Class<T> type) {
+        GeoJSONGeometryObject geometry = read(wkt);
+        if (!type.isInstance(geometry))
+            throw new IllegalArgumentException(
+                    "expected " + GeoJSONUtil.getTypeName(type) + " but WKT contains " + geometry.getTypeName());
+        return type.cast(geometry);
+    }
+
+    private GeoJSONGeometryObject readGeometry() {
+        if (consumeKeyword("POINT")) {
+            readDimension();
+            GeoJSONPoint point = new GeoJSONPoint();
+            if (!consumeKeyword("EMPTY")) {
+                expect('(');
+                int dimension = readCoordinate();
+                expect(')');
+                point.setCoordinates(dimension == 3
+                        ? GeoJSONCoordinate.create(ordinates.getDecimal(0), ordinates.getDecimal(1),
+                                ordinates.getDecimal(2))
+                        : GeoJSONCoordinate.create(ordinates.getDecimal(0), ordinates.getDecimal(1)));
+            }
+            return point;
+        } else if (consumeKeyword("LINESTRING")) {
+            readDimension();
+            return new GeoJSONLineString().setCoordinates(readCoordinates());
+        } else if (consumeKeyword("POLYGON")) {
+            readDimension();
+            return GeoJSONPolygon.create(readPolygon());
+        } else if (consumeKeyword("MULTIPOLYGON")) {
+            readDimension();
+            List<List<List<GeoJSONCoordinate>>> polygons = new ArrayList<>();
+            if (!consumeKeyword("EMPTY")) {
+                expect('(');
+                do {
+                    polygons.add(readPolygon());
+                } while (consume(','));
+                expect(')');
+            }
+            return GeoJSONMultiPolygon.create(polygons);
+        }
+        throw error("unsupported geometry type");
+    }
+
+    private void readDimension() {
+        z = m = false;
+        if (consumeKeyword("ZM"))
+            z = m = true;
+        else if (consumeKeyword("Z"))
+            z = true;
+        else if (consumeKeyword("M"))
+            m = true;
+    }
+
+    private List<List<GeoJSONCoordinate>> readPolygon() {
+        List<List<GeoJSONCoordinate>> rings = new ArrayList<>();
+        if (!consumeKeyword("EMPTY")) {
+            expect('(');
+            do {
+                rings.add(readCoordinates());
+            } while (consume(','));
+            expect(')');
+        }
+        return rings;
+    }
+
+    private PackedCoordinateList readCoordinates() {
+        PackedCoordinateList coordinates = new PackedCoordinateList();
+        if (!consumeKeyword("EMPTY")) {
+            expect('(');
+            do {
+                coordinates.add(ordinates, readCoordinate());
+            } while (consume(','));
+            expect(')');
+        }
+        return coordinates;
+    }
+
+    /**
+     * Reads the ordinates of a coordinate into {@link #ordinates}
+     *
+     * @return the number of read ordinates without measure (2 or 3)
+     */
+    private int readCoordinate() {
+        int count = 0;
+        while (true) {
+            skipWhitespace();
+            int start = pos;
+            while (pos < wkt.length() && isNumberCharacter(wkt.charAt(pos)))
+                pos++;
+            if (pos == start)
+                break;
+            boolean measure = m && (count == (z ? 3 : 2));
+            if (!measure && count < 3)
+                readOrdinate(start, count);
+            count++;
+        }
+        if (z || m) {
+            int expected = 2 + (z ? 1 : 0) + (m ? 1 : 0);
+            if (count != expected)
+                throw error("expected " + expected + " ordinates but got " + count);
+            return z ? 3 : 2;
+        }
+        if (count < 2 || count > 3)
+            throw error("expected 2 or 3 ordinates but got " + count);
+        return count;
+    }
+
+    private void readOrdinate(int start, int ordinate) {
+        int length = pos - start;
+        if (length > number.length)
+            number = new char[Math.max(length, 2 * number.length)];
+        for (int i = 0; i < length; i++)
+            number[i] = wkt.charAt(start + i);
+        try {
+            ordinates.readOrdinate(number, 0, length, ordinate);
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("invalid number '" + new String(number, 0, length) + "'");
+        }
+    }
+
+    private static boolean isNumberCharacter(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E';
+    }
+
+    /**
+     * @return <code>true</code> if the (case insensitive) keyword follows
+     *         (and is not only the prefix of a longer word)
+     */
+    private boolean consumeKeyword(String keyword) {
+        skipWhitespace();
+        int end = pos + keyword.length();
+        if (end > wkt.length())
+            return false;
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(wkt.charAt(pos + i)) != keyword.charAt(i))
+                return false;
+        }
+        if (end < wkt.length() && Character.isLetter(wkt.charAt(end)))
+            return false;
+        pos = end;
+        return true;
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (pos < wkt.length() && wkt.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c))
+            throw error("expected '" + c + "'");
+    }
+
+    private void skipWhitespace() {
+        while (pos < wkt.length() && Character.isWhitespace(wkt.charAt(pos)))
+            pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " of WKT: " + abbreviate(wkt));
+    }
+
+    private static String abbreviate(CharSequence wkt) {
+        return wkt.length() <= 100 ? wkt.toString() : wkt.subSequence(0, 100) + "...";
+    }
+
+}
@@ -0,0 +1,182 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Writes the <a href="https://en.wikipedia.org/wiki/Well-known_text">well
+ * known text</a> representation of geometry objects directly to an
+ * {@link Appendable}, e.g. a {@link Writer} of a CSV export or a
+ * {@link StringBuilder}.
+ * <p>
+ * Ordinates are rounded half even to at most seven decimals without trailing
+ * zeros. Ordinates of {@link PackedCoordinateList}s are formatted with integer
+ * arithmetic into a reused char buffer, i.e. line strings are written without
+ * creating any objects per coordinate. Geometries where all coordinates have
+ * an altitude are written with three dimensions, e.g.
+ * <code>LineString Z (16.1 48.2 170, 16.2 48.3 171.5)</code>, all others with
+ * two (see {@link GeoJSONUtil#hasZ(GeoJSONGeometryObject)}). A coordinate
+ * without x or y can not be written and results in an
+ * {@link IllegalArgumentException}.
+ * <p>
+ * A writer is not thread-safe, but can be reused for many geometries.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class WKTWriter {
+
+    private static final int DECIMALS = 7;
+
+    private final Appendable out;
+    private final char[] buffer = new char[32];
+
+    public WKTWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * @return the well known text of the geometry
+     */
+    public static String toWKT(GeoJSONGeometryObject geometry) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            new WKTWriter(sb).write(geometry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends the well known text of the geometry
+     */
+    public WKTWriter write(GeoJSONGeometryObject geometry) throws IOException {
+        out.append(geometry.getTypeName());
+        if (geometry.isEmpty()) {
+            out.append(" EMPTY");
+            return this;
+        }
+        boolean z = GeoJSONUtil.hasZ(geometry);
+        out.append(z ? " Z " : " ");
+        if (geometry instanceof GeoJSONPoint) {
+            out.append('(');
+            writeCoordinate(((GeoJSONPoint) geometry).getCoordinates().get(), 0, z);
+            out.append(')');
+        } else if (geometry instanceof GeoJSONLineString) {
+            writeCoordinates(((GeoJSONLineString) geometry).getPackedCoordinates(), z);
+        } else if (geometry instanceof GeoJSONPolygon) {
+            writePolygon(((GeoJSONPolygon) geometry).getCoordinates(), z);
+        } else if (geometry instanceof GeoJSONMultiPolygon) {
+            out.append('(');
+            List<List<List<GeoJSONCoordinate>>> polygons = ((GeoJSONMultiPolygon) geometry).getCoordinates();
+            for (int i = 0; i < polygons.size(); i++) {
+                if (i > 0)
+                    out.append(", ");
+                writePolygon(polygons.get(i), z);
+            }
+            out.append(')');
+        } else {
+            throw new IllegalArgumentException("unsupported geometry type " + geometry.getClass().getName());
+        }
+        return this;
+    }
+
+    private void writePolygon(List<List<GeoJSONCoordinate>> rings, boolean z) throws IOException {
+        if (rings.isEmpty()) {
+            out.append("EMPTY");
+            return;
+        }
+        out.append('(');
+        for (int i = 0; i < rings.size(); i++) {
+            if (i > 0)
+                out.append(", ");
+            writeCoordinates(rings.get(i), z);
+        }
+        out.append(')');
+    }
+
+    private void writeCoordinates(List<GeoJSONCoordinate> coordinates, boolean z) throws IOException {
+        if (coordinates.isEmpty()) {
+            out.append("EMPTY");
+            return;
+        }
+        out.append('(');
+        if (coordinates instanceof PackedCoordinateList) {
+            PackedCoordinateList packed = (PackedCoordinateList) coordinates;
+            for (int i = 0; i < packed.size(); i++) {
+                if (i > 0)
+                    out.append(", ");
+                writeOrdinate(packed, i, 0);
+                out.append(' ');
+                writeOrdinate(packed, i, 1);
+                if (z) {
+                    out.append(' ');
+                    writeOrdinate(packed, i, 2);
+                }
+            }
+        } else {
+            for (int i = 0; i < coordinates.size(); i++) {
+                if (i > 0)
+                    out.append(", ");
+                writeCoordinate(coordinates.get(i), i, z);
+            }
+        }
+        out.append(')');
+    }
+
+    private void writeOrdinate(PackedCoordinateList coordinates, int index, int ordinate) throws IOException {
+        byte scale = coordinates.getScale(index, ordinate);
+        Preconditions.checkArgument(scale != PackedCoordinateList.NO_VALUE, "ordinate %s of coordinate %s is not set",
+                ordinate, index);
+        writeNumber(coordinates.getUnscaled(index, ordinate), scale);
+    }
+
+    private void writeCoordinate(GeoJSONCoordinate coordinate, int index, boolean z) throws IOException {
+        writeOrdinate(coordinate.getX(), index, 0);
+        out.append(' ');
+        writeOrdinate(coordinate.getY(), index, 1);
+        if (z) {
+            out.append(' ');
+            writeOrdinate(coordinate.getZ().orElse(null), index, 2);
+        }
+    }
+
+    private void writeOrdinate(BigDecimal value, int index, int ordinate) throws IOException {
+        Preconditions.checkArgument(value != null, "ordinate %s of coordinate %s is not set", ordinate, index);
+        writeNumber(value);
+    }
+
+    private void writeNumber(BigDecimal value) throws IOException {
+        if (value.precision() <= CoordinateNumberWriter.MAX_DECIMALS && value.scale() > Byte.MIN_VALUE
+                && value.scale() <= Byte.MAX_VALUE) {
+            writeNumber(value.unscaledValue().longValue(), value.scale());
+        } else {
+            writeLargeNumber(value);
+        }
+    }
+
+    private void writeLargeNumber(BigDecimal value) throws IOException {
+        out.append(value.setScale(DECIMALS, RoundingMode.HALF_EVEN).stripTrailingZeros().toPlainString());
+    }
+
+    private void writeNumber(long unscaled, int scale) throws IOException {
+        int length = CoordinateNumberWriter.formatRounded(buffer, unscaled, scale, DECIMALS, true);
+        if (length == 0) {
+            writeLargeNumber(BigDecimal.valueOf(unscaled, scale));
+        } else if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(buffer, 0, length);
+        } else if (out instanceof Writer) {
+            ((Writer) out).write(buffer, 0, length);
+        } else {
+            for (int i = 0; i < length; i++)
+                out.append(buffer[i]);
+        }
+    }
+
+}
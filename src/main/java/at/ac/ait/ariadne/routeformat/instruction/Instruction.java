@@ -5,6 +5,7 @@ import java.util.Optional;
 import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -14,6 +15,7 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.geojson.PackedPoint;
 
 /**
  * Common base class for all types of turn-by-turn navigation instructions.
@@ -29,21 +31,43 @@ import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
         @JsonSubTypes.Type(value = AreaInstruction.class, name = "AreaInstruction"),
         @JsonSubTypes.Type(value = ModeChangeInstruction.class, name = "ModeChangeInstruction") })
 public abstract class Instruction<T extends Instruction<T>> implements Validatable {
+    private static final String READ_ONLY_MESSAGE = "the compactly stored position of an instruction can not be "
+            + "modified in place, set a new position (feature) in the instruction instead";
 
+    /** serialized via {@link #peekPosition()}, annotated to keep the order */
+    @JsonProperty(required = true)
     private GeoJSONFeature<GeoJSONPoint> position;
-    private Optional<GeoJSONFeature<GeoJSONPoint>> previewTriggerPosition = Optional.empty();
-    private Optional<GeoJSONFeature<GeoJSONPoint>> confirmationTriggerPosition = Optional.empty();
+    /** compact form of the position as long as the feature is not needed */
+    private PackedPoint packedPosition;
+    private GeoJSONFeature<GeoJSONPoint> previewTriggerPosition;
+    private GeoJSONFeature<GeoJSONPoint> confirmationTriggerPosition;
     private Map<String, String> text = new TreeMap<>();
     private Map<String, Object> additionalInfo = new TreeMap<>();
 
     // -- getters
 
     /**
+     * Positions set with {@link #setPosition(GeoJSONCoordinate)} or read from
+     * JSON (as feature without properties) are stored in a compact form (see
+     * {@link PackedPoint}). In this case a read-only feature is returned, i.e.
+     * modifying it (including its properties, point and coordinate) throws an
+     * {@link UnsupportedOperationException}. To change the position or its
+     * properties set a new feature with {@link #setPosition(GeoJSONFeature)},
+     * which is then returned as is.
+     * 
      * @return the position the instruction is defined for
      */
-    @JsonProperty(required = true)
+    @JsonIgnore
     public GeoJSONFeature<GeoJSONPoint> getPosition() {
-        return position;
+        return packedPosition != null ? packedPosition.toReadOnlyFeature(READ_ONLY_MESSAGE) : position;
+    }
+
+    /**
+     * @return the position for serialization, see {@link #getPosition()}
+     */
+    @JsonProperty(value = "position", required = true)
+    private GeoJSONFeature<GeoJSONPoint> peekPosition() {
+        return packedPosition != null ? packedPosition.toFeature() : position;
     }
 
     /**
@@ -51,7 +75,7 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
      *         could be presented to the user
      */
     public Optional<GeoJSONFeature<GeoJSONPoint>> getPreviewTriggerPosition() {
-        return previewTriggerPosition;
+        return Optional.ofNullable(previewTriggerPosition);
     }
 
     /**
@@ -59,63 +83,82 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
      *         a confirmation message could be presented to the user
      */
     public Optional<GeoJSONFeature<GeoJSONPoint>> getConfirmationTriggerPosition() {
-        return confirmationTriggerPosition;
+        return Optional.ofNullable(confirmationTriggerPosition);
     }
 
     /**
      * @return text versions of the instruction, the key of the map is the
      *         language (RFC 1766), e.g. 'en' or 'de-AT'.
      */
+    @JsonMerge
     public Map<String, String> getText() {
         return text;
     }
 
+    @JsonMerge
     public Map<String, Object> getAdditionalInfo() {
         return additionalInfo;
     }
 
     // -- setters
 
-    @JsonProperty
+    @JsonIgnore
     @SuppressWarnings("unchecked")
     public T setPosition(GeoJSONFeature<GeoJSONPoint> position) {
         this.position = position;
+        this.packedPosition = null;
         return (T) this;
     }
 
+    /**
+     * Stores the ordinates of the position in a compact form, i.e. the given
+     * coordinate is not referenced and later changes of it are not reflected
+     */
     @JsonIgnore
     @SuppressWarnings("unchecked")
     public T setPosition(GeoJSONCoordinate position) {
-        this.position = GeoJSONFeature.createPointFeature(position);
+        if (position == null)
+            return setPosition(GeoJSONFeature.createPointFeature(position));
+        this.position = null;
+        this.packedPosition = PackedPoint.of(position);
         return (T) this;
     }
 
+    /**
+     * Uses the compact form for deserialized features if possible (they are
+     * not referenced elsewhere)
+     */
+    @JsonProperty("position")
+    private void setDeserializedPosition(GeoJSONFeature<GeoJSONPoint> position) {
+        this.packedPosition = PackedPoint.of(position).orElse(null);
+        this.position = packedPosition == null ? position : null;
+    }
+
     @JsonProperty
     @SuppressWarnings("unchecked")
     public T setPreviewTriggerPosition(GeoJSONFeature<GeoJSONPoint> previewTriggerPosition) {
-        this.previewTriggerPosition = Optional.ofNullable(previewTriggerPosition);
+        this.previewTriggerPosition = previewTriggerPosition;
         return (T) this;
     }
 
     @JsonIgnore
     @SuppressWarnings("unchecked")
     public T setPreviewTriggerPosition(GeoJSONCoordinate previewTriggerPosition) {
-        this.previewTriggerPosition = Optional.ofNullable(GeoJSONFeature.createPointFeature(previewTriggerPosition));
+        this.previewTriggerPosition = GeoJSONFeature.createPointFeature(previewTriggerPosition);
         return (T) this;
     }
 
     @JsonProperty
     @SuppressWarnings("unchecked")
     public T setConfirmationTriggerPosition(GeoJSONFeature<GeoJSONPoint> confirmationTriggerPosition) {
-        this.confirmationTriggerPosition = Optional.ofNullable(confirmationTriggerPosition);
+        this.confirmationTriggerPosition = confirmationTriggerPosition;
         return (T) this;
     }
 
     @JsonIgnore
     @SuppressWarnings("unchecked")
     public T setConfirmationTriggerPosition(GeoJSONCoordinate confirmationTriggerPosition) {
-        this.confirmationTriggerPosition = Optional
-                .ofNullable(GeoJSONFeature.createPointFeature(confirmationTriggerPosition));
+        this.confirmationTriggerPosition = GeoJSONFeature.createPointFeature(confirmationTriggerPosition);
         return (T) this;
     }
 
@@ -135,7 +178,7 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
 
     @Override
     public void validate() {
-        Preconditions.checkArgument(position != null, "position is mandatory but missing");
+        Preconditions.checkArgument(position != null || packedPosition != null, "position is mandatory but missing");
     }
 
     @Override
@@ -144,12 +187,24 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
         int result = 1;
         result = prime * result + ((additionalInfo == null) ? 0 : additionalInfo.hashCode());
         result = prime * result + ((confirmationTriggerPosition == null) ? 0 : confirmationTriggerPosition.hashCode());
-        result = prime * result + ((position == null) ? 0 : position.hashCode());
+        result = prime * result + positionHashCode();
         result = prime * result + ((previewTriggerPosition == null) ? 0 : previewTriggerPosition.hashCode());
         result = prime * result + ((text == null) ? 0 : text.hashCode());
         return result;
     }
 
+    /**
+     * @return the hash code of the ordinates (without creating the feature),
+     *         which is equal for the compact and the feature form
+     */
+    private int positionHashCode() {
+        if (packedPosition != null)
+            return packedPosition.hashCode();
+        if (position == null)
+            return 0;
+        return PackedPoint.of(position).map(PackedPoint::hashCode).orElseGet(position::hashCode);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -169,11 +224,17 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
                 return false;
         } else if (!confirmationTriggerPosition.equals(other.confirmationTriggerPosition))
             return false;
-        if (position == null) {
-            if (other.position != null)
+        if (packedPosition != null && other.packedPosition != null) {
+            if (!packedPosition.equals(other.packedPosition))
                 return false;
-        } else if (!position.equals(other.position))
-            return false;
+        } else {
+            GeoJSONFeature<GeoJSONPoint> thisPosition = peekPosition();
+            if (thisPosition == null) {
+                if (other.peekPosition() != null)
+                    return false;
+            } else if (!thisPosition.equals(other.peekPosition()))
+                return false;
+        }
         if (previewTriggerPosition == null) {
             if (other.previewTriggerPosition != null)
                 return false;
@@ -189,9 +250,9 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
 
     @Override
     public String toString() {
-        return "Instruction [position=" + position + ", previewTriggerPosition=" + previewTriggerPosition
-                + ", confirmationTriggerPosition=" + confirmationTriggerPosition + ", text=" + text
-                + ", additionalInfo=" + additionalInfo + "]";
+        return "Instruction [position=" + peekPosition() + ", previewTriggerPosition=" + getPreviewTriggerPosition()
+                + ", confirmationTriggerPosition=" + getConfirmationTriggerPosition() + ", text="
+                + text + ", additionalInfo=" + additionalInfo + "]";
     }
 
 }
@@ -7,6 +7,7 @@ import java.util.TreeMap;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -17,6 +18,7 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.geojson.PackedPoint;
 
 /**
  * A generic {@link Location}.
@@ -31,16 +33,25 @@ import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
         @JsonSubTypes.Type(value = Parking.class) })
 @JsonInclude(Include.NON_ABSENT)
 public class Location<T extends Location<T>> implements Validatable {
+    private static final String READ_ONLY_MESSAGE = "the compactly stored coordinate of a location can not be "
+            + "modified in place, set a new coordinate (feature) in the location instead";
+    /** serialized via {@link #peekCoordinate()}, annotated to keep the order */
+    @JsonProperty
     private GeoJSONFeature<GeoJSONPoint> coordinate;
-    private Optional<GeoJSONFeature<?>> complexGeometry = Optional.empty();
-    private Optional<Address> address = Optional.empty();
+    /** compact form of the coordinate as long as the feature is not needed */
+    private PackedPoint packedCoordinate;
+    private GeoJSONFeature<?> complexGeometry;
+    private Address address;
     private Map<String, Object> additionalInfo = new TreeMap<>();
 
     // -- getters
 
     /**
      * Convenience getter for the actual coordinate wrapped in the GeoJSON
-     * feature
+     * feature. If the coordinate is stored in the compact form (see
+     * {@link #getCoordinate()}) it is read-only, i.e. modifying it throws an
+     * {@link UnsupportedOperationException} (use
+     * {@link #setCoordinate(GeoJSONCoordinate)} instead).
      * 
      * @throws NullPointerException
      *             in case the {@link Location}'s point feature did not contain
@@ -48,6 +59,8 @@ public class Location<T extends Location<T>> implements Validatable {
      */
     @JsonIgnore
     public GeoJSONCoordinate getSimpleCoordinate() {
+        if (packedCoordinate != null)
+            return packedCoordinate.toReadOnlyCoordinate(READ_ONLY_MESSAGE);
         return coordinate.getGeometry().getCoordinates().get();
     }
 
@@ -59,9 +72,26 @@ public class Location<T extends Location<T>> implements Validatable {
      * <p>
      * In case this {@link Location} is part of a {@link RoutingRequest}
      * (from/to/via) this point is used as input for routing.
+     * <p>
+     * Coordinates set with {@link #setCoordinate(GeoJSONCoordinate)} or read
+     * from JSON (as feature without properties) are stored in a compact form
+     * (see {@link PackedPoint}). In this case a read-only feature is returned,
+     * i.e. modifying it (including its properties, point and coordinate)
+     * throws an {@link UnsupportedOperationException}. To change the
+     * coordinate or its properties set a new feature with
+     * {@link #setCoordinate(GeoJSONFeature)}, which is then returned as is.
      */
+    @JsonIgnore
     public GeoJSONFeature<GeoJSONPoint> getCoordinate() {
-        return coordinate;
+        return packedCoordinate != null ? packedCoordinate.toReadOnlyFeature(READ_ONLY_MESSAGE) : coordinate;
+    }
+
+    /**
+     * @return the point feature for serialization, see {@link #getCoordinate()}
+     */
+    @JsonProperty("coordinate")
+    private GeoJSONFeature<GeoJSONPoint> peekCoordinate() {
+        return packedCoordinate != null ? packedCoordinate.toFeature() : coordinate;
     }
 
     /**
@@ -70,13 +100,14 @@ public class Location<T extends Location<T>> implements Validatable {
      * {@link #getCoordinate()} is not detailed enough.
      */
     public Optional<GeoJSONFeature<?>> getComplexGeometry() {
-        return complexGeometry;
+        return Optional.ofNullable(complexGeometry);
     }
 
     public Optional<Address> getAddress() {
-        return address;
+        return Optional.ofNullable(address);
     }
 
+    @JsonMerge
     public Map<String, Object> getAdditionalInfo() {
         return additionalInfo;
     }
@@ -84,28 +115,46 @@ public class Location<T extends Location<T>> implements Validatable {
     // -- setters
 
     @SuppressWarnings("unchecked")
-    @JsonProperty
+    @JsonIgnore
     public T setCoordinate(GeoJSONFeature<GeoJSONPoint> coordinate) {
         this.coordinate = coordinate;
+        this.packedCoordinate = null;
         return (T) this;
     }
 
+    /**
+     * Stores the ordinates of the coordinate in a compact form, i.e. the given
+     * coordinate is not referenced and later changes of it are not reflected
+     */
     @SuppressWarnings("unchecked")
     @JsonIgnore
     public T setCoordinate(GeoJSONCoordinate coordinate) {
-        this.coordinate = GeoJSONFeature.createPointFeature(coordinate);
+        if (coordinate == null)
+            return setCoordinate(GeoJSONFeature.createPointFeature(coordinate));
+        this.coordinate = null;
+        this.packedCoordinate = PackedPoint.of(coordinate);
         return (T) this;
     }
 
+    /**
+     * Uses the compact form for deserialized features if possible (they are
+     * not referenced elsewhere)
+     */
+    @JsonProperty("coordinate")
+    private void setDeserializedCoordinate(GeoJSONFeature<GeoJSONPoint> coordinate) {
+        this.packedCoordinate = PackedPoint.of(coordinate).orElse(null);
+        this.coordinate = packedCoordinate == null ? coordinate : null;
+    }
+
     @SuppressWarnings("unchecked")
     public T setComplexGeometry(GeoJSONFeature<?> complexGeometry) {
-        this.complexGeometry = Optional.ofNullable(complexGeometry);
+        this.complexGeometry = complexGeometry;
         return (T) this;
     }
 
     @SuppressWarnings("unchecked")
     public T setAddress(Address address) {
-        this.address = Optional.ofNullable(address);
+        this.address = address;
         return (T) this;
     }
 
@@ -123,10 +172,14 @@ public class Location<T extends Location<T>> implements Validatable {
 
     @Override
     public void validate() {
-        Preconditions.checkArgument(coordinate != null, "coordinate is mandatory but missing");
-        coordinate.validate();
-        complexGeometry.ifPresent(c -> c.validate());
-        address.ifPresent(a -> a.validate());
+        Preconditions.checkArgument(coordinate != null || packedCoordinate != null,
+                "coordinate is mandatory but missing");
+        if (coordinate != null)
+            coordinate.validate();
+        if (packedCoordinate != null)
+            packedCoordinate.validate();
+        getComplexGeometry().ifPresent(c -> c.validate());
+        getAddress().ifPresent(a -> a.validate());
     }
 
     @Override
@@ -136,10 +189,22 @@ public class Location<T extends Location<T>> implements Validatable {
         result = prime * result + ((additionalInfo == null) ? 0 : additionalInfo.hashCode());
         result = prime * result + ((address == null) ? 0 : address.hashCode());
         result = prime * result + ((complexGeometry == null) ? 0 : complexGeometry.hashCode());
-        result = prime * result + ((coordinate == null) ? 0 : coordinate.hashCode());
+        result = prime * result + coordinateHashCode();
         return result;
     }
 
+    /**
+     * @return the hash code of the ordinates (without creating the feature),
+     *         which is equal for the compact and the feature form
+     */
+    private int coordinateHashCode() {
+        if (packedCoordinate != null)
+            return packedCoordinate.hashCode();
+        if (coordinate == null)
+            return 0;
+        return PackedPoint.of(coordinate).map(PackedPoint::hashCode).orElseGet(coordinate::hashCode);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -164,18 +229,21 @@ public class Location<T extends Location<T>> implements Validatable {
                 return false;
         } else if (!complexGeometry.equals(other.complexGeometry))
             return false;
-        if (coordinate == null) {
-            if (other.coordinate != null)
+        if (packedCoordinate != null && other.packedCoordinate != null)
+            return packedCoordinate.equals(other.packedCoordinate);
+        GeoJSONFeature<GeoJSONPoint> thisCoordinate = peekCoordinate();
+        if (thisCoordinate == null) {
+            if (other.peekCoordinate() != null)
                 return false;
-        } else if (!coordinate.equals(other.coordinate))
+        } else if (!thisCoordinate.equals(other.peekCoordinate()))
             return false;
         return true;
     }
 
     @Override
     public String toString() {
-        return "Location [coordinate=" + coordinate + ", address=" + address + ", additionalInfo=" + additionalInfo
-                + "]";
+        return "Location [coordinate=" + peekCoordinate() + ", address=" + getAddress() + ", additionalInfo="
+                + additionalInfo + "]";
     }
 
 }
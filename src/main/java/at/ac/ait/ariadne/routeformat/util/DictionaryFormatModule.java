@@ -0,0 +1,448 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Operator;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.location.Location;
+
+/**
+ * Jackson module for a compact variant of the {@link RoutingResponse} format,
+ * in which each distinct {@link Location} (including all subclasses),
+ * {@link ModeOfTransport} and {@link Operator} is written only once into a
+ * top-level dictionary and referenced by its index in the dictionary
+ * everywhere else (instead of the object a number is written):
+ *
+ * <pre>
+ * {
+ *   "operators": [ {...}, ... ],
+ *   "modesOfTransport": [ {..., "operator": 0}, ... ],
+ *   "locations": [ {...}, ... ],
+ *   "response": { ..., "from": 0, ..., "modeOfTransport": 2, ... }
+ * }
+ * </pre>
+ *
+ * Equal objects share one dictionary entry. Dictionaries precede the parts
+ * that reference them and are omitted if empty. The compact format is
+ * written with {@link #writeValue(ObjectMapper, OutputStream, RoutingResponse)}
+ * and read back into the normal object graph with
+ * {@link #readValue(ObjectMapper, InputStream)}, where all references to one
+ * entry resolve to the same instance (so they should be treated as
+ * read-only). The normal format is not affected.
+ * <p>
+ * The module is registered automatically by
+ * {@link ObjectMapper#findAndRegisterModules()} and
+ * {@link RouteFormatJson#createMapper()}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class DictionaryFormatModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String DICTIONARIES_ATTRIBUTE = DictionaryFormatModule.class.getName() + ".dictionaries";
+    private static final String RESPONSE_FIELD = "response";
+
+    /** in the order they are written */
+    private enum Dictionary {
+        OPERATORS("operators", Operator.class), MODES_OF_TRANSPORT("modesOfTransport", ModeOfTransport.class),
+        LOCATIONS("locations", Location.class);
+
+        private final String fieldName;
+        private final Class<?> type;
+
+        private Dictionary(String fieldName, Class<?> type) {
+            this.fieldName = fieldName;
+            this.type = type;
+        }
+
+        private static Dictionary forType(Class<?> type) {
+            for (Dictionary dictionary : values()) {
+                if (dictionary.type.isAssignableFrom(type))
+                    return dictionary;
+            }
+            return null;
+        }
+
+        private static Dictionary forFieldName(String fieldName) {
+            for (Dictionary dictionary : values()) {
+                if (dictionary.fieldName.equals(fieldName))
+                    return dictionary;
+            }
+            return null;
+        }
+    }
+
+    public DictionaryFormatModule() {
+        super(DictionaryFormatModule.class.getSimpleName());
+        setSerializerModifier(new BeanSerializerModifier() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                    JsonSerializer<?> serializer) {
+                Dictionary dictionary = Dictionary.forType(beanDesc.getBeanClass());
+                if (dictionary == null)
+                    return serializer;
+                return new ReferenceSerializer(dictionary, (JsonSerializer<Object>) serializer);
+            }
+        });
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc,
+                    JsonDeserializer<?> deserializer) {
+                Dictionary dictionary = Dictionary.forType(beanDesc.getBeanClass());
+                if (dictionary == null)
+                    return deserializer;
+                return new ReferenceDeserializer(dictionary, deserializer);
+            }
+        });
+    }
+
+    /**
+     * Writes the response in the compact format
+     *
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static void writeValue(ObjectMapper mapper, OutputStream out, RoutingResponse response)
+            throws IOException {
+        checkRegistered(mapper);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            writeValue(mapper, generator, response);
+        }
+    }
+
+    /**
+     * @return the response in the compact format
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static String writeValueAsString(ObjectMapper mapper, RoutingResponse response) throws IOException {
+        checkRegistered(mapper);
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+            writeValue(mapper, generator, response);
+        }
+        return writer.toString();
+    }
+
+    private static void writeValue(ObjectMapper mapper, JsonGenerator generator, RoutingResponse response)
+            throws IOException {
+        if (mapper.isEnabled(SerializationFeature.INDENT_OUTPUT))
+            generator.useDefaultPrettyPrinter();
+        Dictionaries dictionaries = new Dictionaries();
+        ObjectWriter writer = mapper.writer().withAttribute(DICTIONARIES_ATTRIBUTE, dictionaries);
+
+        // the response is buffered, because the dictionaries are only known
+        // afterwards. entries of later dictionaries only reference entries of
+        // earlier dictionaries, i.e. they are serialized in reverse order.
+        TokenBuffer responseBuffer = new TokenBuffer(mapper, false);
+        writer.writeValue(responseBuffer, response);
+        Map<Dictionary, TokenBuffer> dictionaryBuffers = new EnumMap<>(Dictionary.class);
+        Dictionary[] dictionaryOrder = Dictionary.values();
+        for (int i = dictionaryOrder.length - 1; i >= 0; i--) {
+            Dictionary dictionary = dictionaryOrder[i];
+            List<Object> entries = dictionaries.getEntries(dictionary);
+            if (entries.isEmpty())
+                continue;
+            ObjectWriter entryWriter = writer.forType(dictionary.type);
+            TokenBuffer buffer = new TokenBuffer(mapper, false);
+            buffer.writeStartArray();
+            for (int j = 0; j < entries.size(); j++)
+                entryWriter.writeValue(buffer, entries.get(j));
+            buffer.writeEndArray();
+            dictionaryBuffers.put(dictionary, buffer);
+        }
+
+        generator.writeStartObject();
+        for (Map.Entry<Dictionary, TokenBuffer> dictionary : dictionaryBuffers.entrySet()) {
+            generator.writeFieldName(dictionary.getKey().fieldName);
+            dictionary.getValue().serialize(generator);
+        }
+        generator.writeFieldName(RESPONSE_FIELD);
+        responseBuffer.serialize(generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Reads a response in the compact format
+     *
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static RoutingResponse readValue(ObjectMapper mapper, InputStream in) throws IOException {
+        checkRegistered(mapper);
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            return readValue(mapper, parser);
+        }
+    }
+
+    /**
+     * Reads a response in the compact format
+     *
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static RoutingResponse readValue(ObjectMapper mapper, String json) throws IOException {
+        checkRegistered(mapper);
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return readValue(mapper, parser);
+        }
+    }
+
+    private static RoutingResponse readValue(ObjectMapper mapper, JsonParser parser) throws IOException {
+        Dictionaries dictionaries = new Dictionaries();
+        ObjectReader reader = mapper.reader().withAttribute(DICTIONARIES_ATTRIBUTE, dictionaries);
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+            throw MismatchedInputException.from(parser, RoutingResponse.class, "expected an object");
+        RoutingResponse response = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (RESPONSE_FIELD.equals(fieldName)) {
+                response = reader.forType(RoutingResponse.class).readValue(parser);
+                continue;
+            }
+            Dictionary dictionary = Dictionary.forFieldName(fieldName);
+            if (dictionary == null || response != null)
+                throw MismatchedInputException.from(parser, RoutingResponse.class,
+                        "unexpected field " + fieldName + " (dictionaries must precede the response)");
+            if (parser.currentToken() != JsonToken.START_ARRAY)
+                throw MismatchedInputException.from(parser, RoutingResponse.class,
+                        "expected an array for dictionary " + fieldName);
+            ObjectReader entryReader = reader.forType(dictionary.type);
+            while (parser.nextToken() != JsonToken.END_ARRAY)
+                dictionaries.getEntries(dictionary).add(entryReader.readValue(parser));
+        }
+        if (response == null)
+            throw MismatchedInputException.from(parser, RoutingResponse.class, "response is missing");
+        return response;
+    }
+
+    private static void checkRegistered(ObjectMapper mapper) {
+        Preconditions.checkState(mapper.getRegisteredModuleIds().contains(DictionaryFormatModule.class.getName()),
+                "%s must be registered in the mapper", DictionaryFormatModule.class.getSimpleName());
+    }
+
+    /**
+     * The entries of all dictionaries of one document
+     */
+    private static class Dictionaries {
+
+        private final Map<Dictionary, List<Object>> entries = new EnumMap<>(Dictionary.class);
+        private final Map<Dictionary, Map<Object, Integer>> indices = new EnumMap<>(Dictionary.class);
+
+        private List<Object> getEntries(Dictionary dictionary) {
+            return entries.computeIfAbsent(dictionary, d -> new ArrayList<>());
+        }
+
+        /**
+         * @return the index of the (equal) entry, which is added if necessary
+         */
+        private int add(Dictionary dictionary, Object value) {
+            Map<Object, Integer> dictionaryIndices = indices.computeIfAbsent(dictionary, d -> new HashMap<>());
+            Integer index = dictionaryIndices.get(value);
+            if (index == null) {
+                List<Object> dictionaryEntries = getEntries(dictionary);
+                index = dictionaryEntries.size();
+                dictionaryEntries.add(value);
+                dictionaryIndices.put(value, index);
+            }
+            return index;
+        }
+
+    }
+
+    /**
+     * Writes a reference instead of the object if dictionaries are used and the
+     * object is the value of a property declared with the type of the
+     * dictionary (or a collection or {@link java.util.Optional} of it). Other
+     * values are written inline, e.g. dictionary entries themselves or
+     * objects in untyped maps such as the additional info, which could not be
+     * resolved when reading.
+     */
+    private static class ReferenceSerializer extends StdSerializer<Object>
+            implements ResolvableSerializer, ContextualSerializer {
+
+        private static final long serialVersionUID = 1L;
+        private final Dictionary dictionary;
+        private final JsonSerializer<Object> delegate;
+        private final boolean referenced;
+
+        ReferenceSerializer(Dictionary dictionary, JsonSerializer<Object> delegate) {
+            this(dictionary, delegate, false);
+        }
+
+        private ReferenceSerializer(Dictionary dictionary, JsonSerializer<Object> delegate, boolean referenced) {
+            super(Object.class);
+            this.dictionary = dictionary;
+            this.delegate = delegate;
+            this.referenced = referenced;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!writeReference(value, gen, provider))
+                delegate.serialize(value, gen, provider);
+        }
+
+        @Override
+        public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider,
+                TypeSerializer typeSer) throws IOException {
+            if (!writeReference(value, gen, provider))
+                delegate.serializeWithType(value, gen, provider, typeSer);
+        }
+
+        private boolean writeReference(Object value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (!referenced)
+                return false;
+            Dictionaries dictionaries = (Dictionaries) provider.getAttribute(DICTIONARIES_ATTRIBUTE);
+            if (dictionaries == null)
+                return false;
+            gen.writeNumber(dictionaries.add(dictionary, value));
+            return true;
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Object value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public boolean usesObjectId() {
+            return delegate.usesObjectId();
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer)
+                ((ResolvableSerializer) delegate).resolve(provider);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+                throws JsonMappingException {
+            JsonSerializer<?> contextual = delegate;
+            if (delegate instanceof ContextualSerializer)
+                contextual = ((ContextualSerializer) delegate).createContextual(provider, property);
+            boolean contextualReferenced = property != null && isDeclaredType(property.getType());
+            if (contextual == delegate && contextualReferenced == referenced)
+                return this;
+            return new ReferenceSerializer(dictionary, (JsonSerializer<Object>) contextual, contextualReferenced);
+        }
+
+        /**
+         * @return <code>true</code> if the (content) type of the property is
+         *         the type of the dictionary
+         */
+        private boolean isDeclaredType(JavaType type) {
+            while (type.getContentType() != null)
+                type = type.getContentType();
+            return dictionary.type.isAssignableFrom(type.getRawClass());
+        }
+
+        @Override
+        public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType type)
+                throws JsonMappingException {
+            delegate.acceptJsonFormatVisitor(visitor, type);
+        }
+
+    }
+
+    /**
+     * Resolves references if dictionaries are used
+     */
+    private static class ReferenceDeserializer extends DelegatingDeserializer {
+
+        private static final long serialVersionUID = 1L;
+        private final Dictionary dictionary;
+
+        ReferenceDeserializer(Dictionary dictionary, JsonDeserializer<?> delegatee) {
+            super(delegatee);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new ReferenceDeserializer(dictionary, newDelegatee);
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Object reference = resolveReference(p, ctxt);
+            return reference != null ? reference : super.deserialize(p, ctxt);
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer)
+                throws IOException {
+            Object reference = resolveReference(p, ctxt);
+            return reference != null ? reference : super.deserializeWithType(p, ctxt, typeDeserializer);
+        }
+
+        private Object resolveReference(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Dictionaries dictionaries = (Dictionaries) ctxt.getAttribute(DICTIONARIES_ATTRIBUTE);
+            if (dictionaries == null || !p.hasToken(JsonToken.VALUE_NUMBER_INT))
+                return null;
+            List<Object> entries = dictionaries.getEntries(dictionary);
+            int index = p.getIntValue();
+            if (index < 0 || index >= entries.size())
+                return ctxt.reportInputMismatch(this, "invalid reference %s into %s (%s entries)", index,
+                        dictionary.fieldName, entries.size());
+            Object entry = entries.get(index);
+            if (!handledType().isInstance(entry))
+                return ctxt.reportInputMismatch(this, "reference %s into %s is a %s, but a %s is expected", index,
+                        dictionary.fieldName, entry.getClass().getSimpleName(), handledType().getSimpleName());
+            return entry;
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList;
+
+/**
+ * Encodes and decodes geometries in the "Encoded Polyline Algorithm Format",
+ * where coordinates are written as latitude/longitude pairs (i.e. y before x).
+ * Besides the standard precision of 5 decimals used by Google also 6 (e.g.
+ * used by OSRM and Valhalla) or 7 decimals are supported. Optionally the
+ * altitude is encoded as third value (with the same precision).
+ * <p>
+ * Encoding and decoding work on the primitive values of
+ * {@link PackedCoordinateList}, i.e. no intermediate objects are created
+ * per coordinate. Coordinates are encoded from their exactly stored values
+ * (rounded half up to the precision) and decoded coordinates are stored with
+ * exactly the given precision.
+ * 
+ * @see "https://developers.google.com/maps/documentation/utilities/polylinealgorithm"
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class EncodedPolyLineCodec {
+
+    /** the standard format with five decimals and without altitude */
+    public static final EncodedPolyLineCodec DEFAULT = new EncodedPolyLineCodec(5, false);
+
+    private final int precision;
+    private final boolean withAltitude;
+
+    /**
+     * @param precision
+     *            number of decimals (5, 6 or 7)
+     * @param withAltitude
+     *            if <code>true</code> the altitude is encoded as third value,
+     *            which is then mandatory for all coordinates
+     */
+    public EncodedPolyLineCodec(int precision, boolean withAltitude) {
+        Preconditions.checkArgument(precision >= 5 && precision <= 7, "precision must be 5, 6 or 7 but was %s",
+                precision);
+        this.precision = precision;
+        this.withAltitude = withAltitude;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public boolean isWithAltitude() {
+        return withAltitude;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the altitude is encoded but missing for a coordinate
+     */
+    public String encode(GeoJSONLineString lineString) {
+        PackedCoordinateList coordinates = lineString.getPackedCoordinates();
+        StringBuilder encoded = new StringBuilder(coordinates.size() * (withAltitude ? 12 : 8));
+        long previousX = 0, previousY = 0, previousZ = 0;
+        for (int i = 0; i < coordinates.size(); i++) {
+            long x = coordinates.getUnscaled(i, 0, precision);
+            long y = coordinates.getUnscaled(i, 1, precision);
+            encodeValue(y - previousY, encoded);
+            encodeValue(x - previousX, encoded);
+            previousX = x;
+            previousY = y;
+            if (withAltitude) {
+                Preconditions.checkArgument(coordinates.hasZ(i), "altitude missing for coordinate %s", i);
+                long z = coordinates.getUnscaled(i, 2, precision);
+                encodeValue(z - previousZ, encoded);
+                previousZ = z;
+            }
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the encoded polyline is malformed
+     */
+    public GeoJSONLineString decode(CharSequence encoded) {
+        int values = withAltitude ? 3 : 2;
+        GeoJSONLineString lineString = new GeoJSONLineString();
+        PackedCoordinateList coordinates = lineString.getPackedCoordinates();
+        long[] current = new long[values];
+        int index = 0;
+        while (index < encoded.length()) {
+            for (int value = 0; value < values; value++) {
+                long result = 0;
+                int shift = 0, chunk;
+                do {
+                    Preconditions.checkArgument(index < encoded.length(), "encoded polyline is truncated");
+                    chunk = encoded.charAt(index++) - 63;
+                    Preconditions.checkArgument(chunk >= 0 && chunk < 64 && shift < 64,
+                            "invalid character in encoded polyline at position %s", index - 1);
+                    result |= (long) (chunk & 0x1f) << shift;
+                    shift += 5;
+                } while (chunk >= 0x20);
+                current[value] += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+            }
+            if (withAltitude)
+                coordinates.addUnscaled(current[1], current[0], current[2], precision);
+            else
+                coordinates.addUnscaled(current[1], current[0], precision);
+        }
+        return lineString;
+    }
+
+    /**
+     * Sets {@link RouteSegment#getGeometryEncodedPolyLine()} from
+     * {@link RouteSegment#getGeometryGeoJson()} (if present)
+     */
+    public RouteSegment setEncodedPolyLine(RouteSegment segment) {
+        segment.getGeometryGeoJson()
+                .ifPresent(feature -> segment.setGeometryEncodedPolyLine(encode(feature.getGeometry())));
+        return segment;
+    }
+
+    /**
+     * Sets {@link Route#getSimplifiedGeometryEncodedPolyLine()} from
+     * {@link Route#getSimplifiedGeometryGeoJson()} (if present) and the encoded
+     * polylines of all segments, see {@link #setEncodedPolyLine(RouteSegment)}
+     */
+    public Route setEncodedPolyLines(Route route) {
+        route.getSimplifiedGeometryGeoJson()
+                .ifPresent(feature -> route.setSimplifiedGeometryEncodedPolyLine(encode(feature.getGeometry())));
+        route.getSegments().forEach(this::setEncodedPolyLine);
+        return route;
+    }
+
+    private static void encodeValue(long delta, StringBuilder encoded) {
+        long value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            encoded.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        encoded.append((char) (value + 63));
+    }
+
+}
@@ -0,0 +1,132 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.RequestModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.PreparedMultiPolygon;
+
+/**
+ * Checks if the routes of a {@link RoutingResponse} respect the forbidden
+ * areas ({@link RequestModeOfTransport#getForbiddenAreas()}) of a
+ * {@link RoutingRequest}, e.g. for validating responses of third-party
+ * routing services. The forbidden areas are prepared once in the constructor
+ * (see {@link PreparedMultiPolygon}), so one checker should be reused for all
+ * responses to the same request.
+ * <p>
+ * The forbidden areas of a requested mode of transport apply to all segments
+ * with an equal mode of transport or - if there is no equal one - with the
+ * same generalized type (and the same detailed type, if it is set in the
+ * request). The geometry of a segment is taken from
+ * {@link RouteSegment#getGeometryGeoJson()} or, if it is not present, from
+ * {@link RouteSegment#getGeometryGeoJsonEdges()}. Segments without any
+ * geometry can not be checked and are ignored.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class ForbiddenAreaChecker {
+
+    private final List<ModeOfTransport> modesOfTransport = new ArrayList<>();
+    private final List<PreparedMultiPolygon> forbiddenAreas = new ArrayList<>();
+
+    public ForbiddenAreaChecker(RoutingRequest request) {
+        for (RequestModeOfTransport<?> requestMot : request.getModesOfTransport()) {
+            if (requestMot.getForbiddenAreas().isPresent()) {
+                PreparedMultiPolygon prepared = new PreparedMultiPolygon(
+                        requestMot.getForbiddenAreas().get().getGeometry());
+                if (!prepared.isEmpty()) {
+                    modesOfTransport.add(requestMot.getModeOfTransport());
+                    forbiddenAreas.add(prepared);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if at least one requested mode of transport
+     *         has a (non-empty) forbidden area, i.e. if checking is necessary
+     *         at all
+     */
+    public boolean hasForbiddenAreas() {
+        return !forbiddenAreas.isEmpty();
+    }
+
+    /**
+     * @return the segments of the route crossing or touching a forbidden area
+     *         of their mode of transport
+     */
+    public List<RouteSegment> getViolatingSegments(Route route) {
+        List<RouteSegment> violating = new ArrayList<>();
+        if (!hasForbiddenAreas())
+            return violating;
+        for (RouteSegment segment : route.getSegments()) {
+            if (isViolating(segment))
+                violating.add(segment);
+        }
+        return violating;
+    }
+
+    /**
+     * @return <code>true</code> if the segment crosses or touches a forbidden
+     *         area of its mode of transport
+     */
+    public boolean isViolating(RouteSegment segment) {
+        Optional<PreparedMultiPolygon> forbiddenArea = getForbiddenArea(segment.getModeOfTransport());
+        if (!forbiddenArea.isPresent())
+            return false;
+        if (segment.getGeometryGeoJson().isPresent())
+            return forbiddenArea.get().intersects(segment.getGeometryGeoJson().get().getGeometry());
+        if (segment.getGeometryGeoJsonEdges().isPresent()) {
+            for (GeoJSONFeature<GeoJSONLineString> edge : segment.getGeometryGeoJsonEdges().get().getFeatures()) {
+                if (forbiddenArea.get().intersects(edge.getGeometry()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if a segment of any route crosses or touches a forbidden
+     *             area of its mode of transport
+     */
+    public void validate(RoutingResponse response) {
+        StringBuilder violations = new StringBuilder();
+        for (int i = 0; i < response.getRoutes().size(); i++) {
+            for (RouteSegment segment : getViolatingSegments(response.getRoutes().get(i))) {
+                if (violations.length() > 0)
+                    violations.append(", ");
+                violations.append(String.format("route #%d segment #%d (%s)", i + 1, segment.getNr(),
+                        segment.getModeOfTransport().getGeneralizedType()));
+            }
+        }
+        if (violations.length() > 0)
+            throw new IllegalArgumentException("forbidden areas are crossed by " + violations);
+    }
+
+    private Optional<PreparedMultiPolygon> getForbiddenArea(ModeOfTransport segmentMot) {
+        if (segmentMot == null)
+            return Optional.empty();
+        for (int i = 0; i < modesOfTransport.size(); i++) {
+            if (segmentMot.equals(modesOfTransport.get(i)))
+                return Optional.of(forbiddenAreas.get(i));
+        }
+        for (int i = 0; i < modesOfTransport.size(); i++) {
+            ModeOfTransport requestMot = modesOfTransport.get(i);
+            if (requestMot.getGeneralizedType() == segmentMot.getGeneralizedType()
+                    && (!requestMot.getDetailedType().isPresent()
+                            || requestMot.getDetailedType().equals(segmentMot.getDetailedType())))
+                return Optional.of(forbiddenAreas.get(i));
+        }
+        return Optional.empty();
+    }
+
+}
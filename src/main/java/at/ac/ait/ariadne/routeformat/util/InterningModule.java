@@ -0,0 +1,182 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Operator;
+import at.ac.ait.ariadne.routeformat.Service;
+import at.ac.ait.ariadne.routeformat.location.Location;
+
+/**
+ * Jackson module that canonicalizes value objects while deserializing, i.e.
+ * equal {@link Location}s (including all subclasses), {@link ModeOfTransport}s,
+ * {@link Operator}s and {@link Service}s are replaced by one shared instance.
+ * This typically applies to the end of a segment and the start of the next
+ * one, stops that appear in many intermediate stop lists, and modes of
+ * transport repeated across alternative routes.
+ * <p>
+ * Interning is opt-in and only active for readers created with
+ * {@link #readerFor(ObjectMapper, Class)} (equal objects within one document
+ * are shared) or {@link #readerFor(ObjectMapper, Class, Interner)}
+ * (additionally shared with other documents read with the same
+ * {@link Interner}). The shared instances must be treated as read-only,
+ * because a modification would affect all places they are used. Reading them
+ * concurrently is safe: the getters of the interned types do not modify the
+ * instances, e.g. compactly stored coordinates are returned as new features
+ * and cached geometry values are published as immutable values.
+ * <p>
+ * The module is registered automatically by
+ * {@link ObjectMapper#findAndRegisterModules()} and
+ * {@link RouteFormatJson#createMapper()}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class InterningModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Jackson attribute that activates interning, either
+     * {@link Boolean#TRUE} (per document) or an {@link Interner} (shared with
+     * other documents)
+     */
+    public static final String INTERNING_ATTRIBUTE = InterningModule.class.getName() + ".interning";
+    private static final String DOCUMENT_INSTANCES_ATTRIBUTE = InterningModule.class.getName() + ".documentInstances";
+
+    private static final List<Class<?>> INTERNED_TYPES = Arrays.asList(Location.class, ModeOfTransport.class,
+            Operator.class, Service.class);
+
+    public InterningModule() {
+        super(InterningModule.class.getSimpleName());
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc,
+                    JsonDeserializer<?> deserializer) {
+                for (Class<?> type : INTERNED_TYPES) {
+                    if (type.isAssignableFrom(beanDesc.getBeanClass()))
+                        return new InterningDeserializer(deserializer);
+                }
+                return deserializer;
+            }
+        });
+    }
+
+    /**
+     * @return a reader that shares equal objects within each document it
+     *         reads
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static ObjectReader readerFor(ObjectMapper mapper, Class<?> type) {
+        checkRegistered(mapper);
+        return mapper.readerFor(type).withAttribute(INTERNING_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    /**
+     * @return a reader that shares equal objects within each document it reads
+     *         and with all other documents read with the same interner
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static ObjectReader readerFor(ObjectMapper mapper, Class<?> type, Interner interner) {
+        checkRegistered(mapper);
+        Preconditions.checkArgument(interner != null, "interner is mandatory but missing");
+        return mapper.readerFor(type).withAttribute(INTERNING_ATTRIBUTE, interner);
+    }
+
+    private static void checkRegistered(ObjectMapper mapper) {
+        Preconditions.checkState(mapper.getRegisteredModuleIds().contains(InterningModule.class.getName()),
+                "%s must be registered in the mapper", InterningModule.class.getSimpleName());
+    }
+
+    /**
+     * Thread-safe cache of canonical instances that can be shared by many
+     * readers. The least recently used instances are evicted when the maximum
+     * size is reached.
+     */
+    public static class Interner {
+
+        private final Cache<Object, Object> instances;
+
+        public Interner(long maximumSize) {
+            Preconditions.checkArgument(maximumSize > 0, "maximumSize must be > 0, but was %s", maximumSize);
+            this.instances = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        }
+
+        /**
+         * @return the canonical instance equal to the given value (which
+         *         becomes the canonical instance if there was none yet)
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T intern(T value) {
+            Object canonical = instances.asMap().putIfAbsent(value, value);
+            return canonical == null ? value : (T) canonical;
+        }
+
+        /**
+         * @return the (approximate) number of cached instances
+         */
+        public long size() {
+            return instances.size();
+        }
+
+    }
+
+    private static class InterningDeserializer extends DelegatingDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        InterningDeserializer(JsonDeserializer<?> delegatee) {
+            super(delegatee);
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new InterningDeserializer(newDelegatee);
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Object value = super.deserialize(p, ctxt);
+            Object interning = ctxt.getAttribute(INTERNING_ATTRIBUTE);
+            if (value == null || interning == null)
+                return value;
+
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> documentInstances = (Map<Object, Object>) ctxt
+                    .getAttribute(DOCUMENT_INSTANCES_ATTRIBUTE);
+            if (documentInstances == null) {
+                documentInstances = new HashMap<>();
+                ctxt.setAttribute(DOCUMENT_INSTANCES_ATTRIBUTE, documentInstances);
+            }
+            Object canonical = documentInstances.get(value);
+            if (canonical == null) {
+                canonical = interning instanceof Interner ? ((Interner) interning).intern(value) : value;
+                documentInstances.put(canonical, canonical);
+            }
+            return canonical;
+        }
+
+    }
+
+}
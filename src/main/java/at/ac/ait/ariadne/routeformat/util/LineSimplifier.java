@@ -0,0 +1,296 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList;
+
+/**
+ * Simplifies line strings with a tolerance in meters, e.g. to create
+ * {@link Route#getSimplifiedGeometryGeoJson()} for overview maps. Coordinates
+ * (WGS84) are projected to a local equirectangular projection around the mean
+ * latitude of the line, which is sufficiently accurate for routes.
+ * <p>
+ * Supported algorithms:
+ * <ul>
+ * <li>{@link Algorithm#DOUGLAS_PEUCKER}: keeps all points deviating more than
+ * the tolerance from the simplified line</li>
+ * <li>{@link Algorithm#VISVALINGAM_WHYATT}: removes points with the smallest
+ * effective area as long as it is below the square of the tolerance</li>
+ * </ul>
+ * The first and the last point are always kept and the kept points are copied
+ * exactly (including their altitude). Simplification works on primitive
+ * arrays, i.e. no objects are created per coordinate.
+ * 
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class LineSimplifier {
+
+    public enum Algorithm {
+        DOUGLAS_PEUCKER, VISVALINGAM_WHYATT
+    }
+
+    /** mean earth radius in meters times degrees to radians */
+    private static final double METERS_PER_DEGREE = 6371008.8 * Math.PI / 180;
+
+    private final Algorithm algorithm;
+    private final double toleranceMeters;
+
+    public LineSimplifier(Algorithm algorithm, double toleranceMeters) {
+        Preconditions.checkArgument(toleranceMeters >= 0, "tolerance must be >= 0 but was %s", toleranceMeters);
+        this.algorithm = algorithm;
+        this.toleranceMeters = toleranceMeters;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public double getToleranceMeters() {
+        return toleranceMeters;
+    }
+
+    /**
+     * @return a new simplified line string
+     */
+    public GeoJSONLineString simplify(GeoJSONLineString lineString) {
+        return simplify(lineString.getPackedCoordinates());
+    }
+
+    /**
+     * Sets {@link Route#getSimplifiedGeometryGeoJson()} to the simplified
+     * geometry of all segments of the route. The geometry of a segment is taken
+     * from {@link RouteSegment#getGeometryGeoJson()} or, if it is not present,
+     * from {@link RouteSegment#getGeometryGeoJsonEdges()} (segments without any
+     * geometry are ignored). A coordinate equal to its predecessor - e.g. where
+     * two segments or edges meet - is skipped. Routes without any geometry are
+     * not modified.
+     * <p>
+     * Only the GeoJSON geometry is set,
+     * {@link Route#getSimplifiedGeometryEncodedPolyLine()} can be derived from
+     * it with {@link EncodedPolyLineCodec#setEncodedPolyLines(Route)}.
+     */
+    public Route setSimplifiedGeometry(Route route) {
+        int size = 0;
+        for (RouteSegment segment : route.getSegments()) {
+            for (GeoJSONLineString lineString : getLineStrings(segment))
+                size += lineString.getPackedCoordinates().size();
+        }
+        if (size == 0)
+            return route;
+
+        PackedCoordinateList coordinates = new PackedCoordinateList(size);
+        for (RouteSegment segment : route.getSegments()) {
+            for (GeoJSONLineString lineString : getLineStrings(segment)) {
+                PackedCoordinateList source = lineString.getPackedCoordinates();
+                for (int i = 0; i < source.size(); i++) {
+                    if (coordinates.isEmpty() || !isSameCoordinate(coordinates, coordinates.size() - 1, source, i))
+                        coordinates.add(source, i);
+                }
+            }
+        }
+        return route.setSimplifiedGeometryGeoJson(GeoJSONFeature.createLineStringFeature(simplify(coordinates)));
+    }
+
+    private static List<GeoJSONLineString> getLineStrings(RouteSegment segment) {
+        if (segment.getGeometryGeoJson().isPresent())
+            return Collections.singletonList(segment.getGeometryGeoJson().get().getGeometry());
+        if (!segment.getGeometryGeoJsonEdges().isPresent())
+            return Collections.emptyList();
+        List<GeoJSONLineString> edges = new ArrayList<>();
+        for (GeoJSONFeature<GeoJSONLineString> edge : segment.getGeometryGeoJsonEdges().get().getFeatures()) {
+            if (edge.getGeometry() != null)
+                edges.add(edge.getGeometry());
+        }
+        return edges;
+    }
+
+    private static boolean isSameCoordinate(PackedCoordinateList a, int i, PackedCoordinateList b, int j) {
+        if (a.getX(i) != b.getX(j) || a.getY(i) != b.getY(j) || a.hasZ(i) != b.hasZ(j))
+            return false;
+        return !a.hasZ(i) || a.getZ(i) == b.getZ(j);
+    }
+
+    private GeoJSONLineString simplify(PackedCoordinateList coordinates) {
+        int n = coordinates.size();
+        double[] x = new double[n], y = new double[n];
+        project(coordinates, x, y);
+
+        boolean[] keep;
+        if (n <= 2) {
+            keep = new boolean[n];
+            Arrays.fill(keep, true);
+        } else if (algorithm == Algorithm.DOUGLAS_PEUCKER) {
+            keep = douglasPeucker(x, y, toleranceMeters * toleranceMeters);
+        } else {
+            keep = visvalingamWhyatt(x, y, toleranceMeters * toleranceMeters);
+        }
+
+        PackedCoordinateList simplified = new PackedCoordinateList();
+        for (int i = 0; i < n; i++) {
+            if (keep[i])
+                simplified.add(coordinates, i);
+        }
+        return new GeoJSONLineString().setCoordinates(simplified);
+    }
+
+    private static void project(PackedCoordinateList coordinates, double[] x, double[] y) {
+        double latitudeSum = 0;
+        for (int i = 0; i < coordinates.size(); i++)
+            latitudeSum += coordinates.getY(i);
+        double cosLatitude = Math.cos(Math.toRadians(latitudeSum / Math.max(1, coordinates.size())));
+        for (int i = 0; i < coordinates.size(); i++) {
+            x[i] = coordinates.getX(i) * cosLatitude * METERS_PER_DEGREE;
+            y[i] = coordinates.getY(i) * METERS_PER_DEGREE;
+        }
+    }
+
+    /**
+     * Iterative implementation with an explicit stack of ranges
+     */
+    private static boolean[] douglasPeucker(double[] x, double[] y, double squaredTolerance) {
+        int n = x.length;
+        boolean[] keep = new boolean[n];
+        keep[0] = keep[n - 1] = true;
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = n - 1;
+        while (stackSize > 0) {
+            int last = stack[--stackSize];
+            int first = stack[--stackSize];
+            double maxDistance = -1;
+            int maxIndex = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = squaredSegmentDistance(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    maxIndex = i;
+                }
+            }
+            if (maxIndex >= 0 && maxDistance > squaredTolerance) {
+                keep[maxIndex] = true;
+                if (stackSize + 4 > stack.length)
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[stackSize++] = first;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = last;
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * Removes points in the order of their effective area using an indexed
+     * binary min-heap. The effective area of a point never becomes smaller
+     * than the area of a previously removed point.
+     */
+    private static boolean[] visvalingamWhyatt(double[] x, double[] y, double areaThreshold) {
+        int n = x.length;
+        int[] previous = new int[n], next = new int[n];
+        double[] area = new double[n];
+        for (int i = 0; i < n; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+        }
+
+        // heap of inner points (1..n-2) ordered by area, position of each point
+        int[] heap = new int[n - 2], position = new int[n];
+        int heapSize = 0;
+        for (int i = 1; i < n - 1; i++) {
+            area[i] = triangleArea(x, y, i - 1, i, i + 1);
+            heap[heapSize] = i;
+            position[i] = heapSize++;
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--)
+            siftDown(heap, heapSize, position, area, i);
+
+        boolean[] keep = new boolean[n];
+        Arrays.fill(keep, true);
+        double maxRemovedArea = 0;
+        while (heapSize > 0 && area[heap[0]] < areaThreshold) {
+            int point = heap[0];
+            heap[0] = heap[--heapSize];
+            position[heap[0]] = 0;
+            siftDown(heap, heapSize, position, area, 0);
+
+            keep[point] = false;
+            maxRemovedArea = Math.max(maxRemovedArea, area[point]);
+            int before = previous[point], after = next[point];
+            next[before] = after;
+            previous[after] = before;
+            if (before > 0)
+                updateArea(x, y, previous, next, heap, heapSize, position, area, before, maxRemovedArea);
+            if (after < n - 1)
+                updateArea(x, y, previous, next, heap, heapSize, position, area, after, maxRemovedArea);
+        }
+        return keep;
+    }
+
+    private static void updateArea(double[] x, double[] y, int[] previous, int[] next, int[] heap, int heapSize,
+            int[] position, double[] area, int point, double minArea) {
+        double oldArea = area[point];
+        area[point] = Math.max(minArea, triangleArea(x, y, previous[point], point, next[point]));
+        if (area[point] < oldArea)
+            siftUp(heap, position, area, position[point]);
+        else
+            siftDown(heap, heapSize, position, area, position[point]);
+    }
+
+    private static void siftUp(int[] heap, int[] position, double[] area, int index) {
+        int point = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (area[heap[parent]] <= area[point])
+                break;
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = point;
+        position[point] = index;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int[] position, double[] area, int index) {
+        if (heapSize == 0)
+            return;
+        int point = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && area[heap[child + 1]] < area[heap[child]])
+                child++;
+            if (area[point] <= area[heap[child]])
+                break;
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = point;
+        position[point] = index;
+    }
+
+    private static double triangleArea(double[] x, double[] y, int a, int b, int c) {
+        return Math.abs((x[b] - x[a]) * (y[c] - y[a]) - (x[c] - x[a]) * (y[b] - y[a])) / 2;
+    }
+
+    private static double squaredSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax, dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx), ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+}
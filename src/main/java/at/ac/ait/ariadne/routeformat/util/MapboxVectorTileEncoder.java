@@ -0,0 +1,432 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.Service;
+import at.ac.ait.ariadne.routeformat.geojson.BoundingBox;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList;
+
+/**
+ * Encodes the geometries of route segments as a
+ * <a href="https://github.com/mapbox/vector-tile-spec/tree/master/2.1">Mapbox
+ * Vector Tile</a> (version 2.1), e.g. for rendering many routes as map
+ * overlays. The protobuf wire format is written directly.
+ * <p>
+ * Each segment with a geometry becomes one line string feature in a single
+ * layer with the properties <code>generalizedMot</code>,
+ * <code>detailedMot</code>, <code>line</code> and <code>towards</code> (like
+ * {@link at.ac.ait.ariadne.routeformat.example.QGISGeoJSONExporter}). The
+ * geometry is taken from {@link RouteSegment#getGeometryGeoJson()} or, if it is
+ * not present, from {@link RouteSegment#getGeometryGeoJsonEdges()}.
+ * <p>
+ * Tiles are addressed in the usual web mercator (EPSG:3857) XYZ scheme, i.e.
+ * tile 0/0/0 covers the whole world and y grows to the south. Geometries are
+ * clipped to the tile extended by a buffer (to avoid rendering artifacts at
+ * tile borders) and quantized to integer coordinates of the tile extent.
+ * Repeated points after quantization are dropped. An encoder is immutable and
+ * can be shared between threads.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class MapboxVectorTileEncoder {
+
+    public static final String DEFAULT_LAYER_NAME = "routes";
+    public static final int DEFAULT_EXTENT = 4096, DEFAULT_BUFFER = 64;
+
+    /** latitude limit of web mercator */
+    private static final double MAX_LATITUDE = 85.0511287798066;
+    private static final int MAX_ZOOM = 30;
+
+    // protobuf field numbers and geometry commands of the vector tile spec
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_NAME = 1, LAYER_FEATURES = 2, LAYER_KEYS = 3, LAYER_VALUES = 4,
+            LAYER_EXTENT = 5, LAYER_VERSION = 15;
+    private static final int FEATURE_TAGS = 2, FEATURE_TYPE = 3, FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+    private static final int VERSION = 2, GEOMETRY_TYPE_LINESTRING = 2;
+    private static final int MOVE_TO = 1, LINE_TO = 2;
+    private static final int WIRE_TYPE_VARINT = 0, WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+    private final String layerName;
+    private final int extent;
+    private final int buffer;
+
+    public MapboxVectorTileEncoder() {
+        this(DEFAULT_LAYER_NAME, DEFAULT_EXTENT, DEFAULT_BUFFER);
+    }
+
+    /**
+     * @param layerName
+     *            the name of the single layer of the tiles
+     * @param extent
+     *            the number of integer coordinates per tile side
+     * @param buffer
+     *            the number of integer coordinates geometries are kept beyond
+     *            the tile borders
+     */
+    public MapboxVectorTileEncoder(String layerName, int extent, int buffer) {
+        Preconditions.checkArgument(extent > 0, "extent must be > 0 but was %s", extent);
+        Preconditions.checkArgument(buffer >= 0 && buffer <= extent, "buffer must be within [0, %s] but was %s",
+                extent, buffer);
+        this.layerName = Preconditions.checkNotNull(layerName, "layerName");
+        this.extent = extent;
+        this.buffer = buffer;
+    }
+
+    public String getLayerName() {
+        return layerName;
+    }
+
+    public int getExtent() {
+        return extent;
+    }
+
+    public int getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the encoded tile containing the segments of all routes
+     */
+    public byte[] encodeRoutes(Collection<Route> routes, int z, int x, int y) {
+        TileBuilder builder = new TileBuilder(z, x, y);
+        for (Route route : routes) {
+            for (RouteSegment segment : route.getSegments())
+                builder.add(segment);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the encoded tile containing the segments
+     */
+    public byte[] encodeSegments(Collection<RouteSegment> segments, int z, int x, int y) {
+        TileBuilder builder = new TileBuilder(z, x, y);
+        for (RouteSegment segment : segments)
+            builder.add(segment);
+        return builder.build();
+    }
+
+    /**
+     * @return the x coordinate in web mercator world coordinates, i.e. within
+     *         [0, 1] from west to east (multiplied with 2^z the x of the tile
+     *         at zoom level z)
+     */
+    public static double getWorldX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    /**
+     * @return the y coordinate in web mercator world coordinates, i.e. within
+     *         [0, 1] from north to south
+     */
+    public static double getWorldY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    /**
+     * Collects the features of one tile. Coordinates are projected to tile
+     * coordinates (doubles), clipped and then quantized into the current part
+     * of a line, which is encoded as soon as it is complete.
+     */
+    private class TileBuilder {
+
+        private final double scale, offsetX, offsetY;
+        private final double min, max;
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<String, Integer> values = new LinkedHashMap<>();
+        private final ProtobufBuffer features = new ProtobufBuffer();
+        private final ProtobufBuffer feature = new ProtobufBuffer();
+        private final ProtobufBuffer tags = new ProtobufBuffer();
+        private final ProtobufBuffer geometry = new ProtobufBuffer();
+
+        /** the current part of a line and the cursor of the geometry */
+        private int[] partX = new int[16], partY = new int[16];
+        private int partSize;
+        private boolean partOpen;
+        private int cursorX, cursorY;
+        /** the visible range of the currently clipped line */
+        private double t0, t1;
+
+        TileBuilder(int z, int x, int y) {
+            Preconditions.checkArgument(z >= 0 && z <= MAX_ZOOM, "zoom must be within [0, %s] but was %s", MAX_ZOOM,
+                    z);
+            int tiles = 1 << z;
+            Preconditions.checkArgument(x >= 0 && x < tiles && y >= 0 && y < tiles,
+                    "tile %s/%s does not exist at zoom %s", x, y, z);
+            scale = (double) tiles * extent;
+            offsetX = (double) x * extent;
+            offsetY = (double) y * extent;
+            min = -buffer;
+            max = extent + buffer;
+        }
+
+        void add(RouteSegment segment) {
+            geometry.clear();
+            cursorX = cursorY = 0;
+            if (segment.getGeometryGeoJson().isPresent()) {
+                addLine(segment.getGeometryGeoJson().get().getGeometry());
+            } else if (segment.getGeometryGeoJsonEdges().isPresent()) {
+                for (GeoJSONFeature<GeoJSONLineString> edge : segment.getGeometryGeoJsonEdges().get().getFeatures())
+                    addLine(edge.getGeometry());
+            }
+            if (geometry.size() == 0)
+                return;
+
+            tags.clear();
+            ModeOfTransport mot = segment.getModeOfTransport();
+            addTag("generalizedMot", mot.getGeneralizedType().name());
+            if (mot.getDetailedType().isPresent())
+                addTag("detailedMot", mot.getDetailedType().get().name());
+            if (mot.getService().isPresent()) {
+                Service service = mot.getService().get();
+                addTag("line", service.getName());
+                addTag("towards", service.getTowards().orElse(""));
+            }
+
+            feature.clear();
+            feature.writeBytes(FEATURE_TAGS, tags);
+            feature.writeVarint(FEATURE_TYPE, GEOMETRY_TYPE_LINESTRING);
+            feature.writeBytes(FEATURE_GEOMETRY, geometry);
+            features.writeBytes(LAYER_FEATURES, feature);
+        }
+
+        byte[] build() {
+            ProtobufBuffer layer = new ProtobufBuffer();
+            layer.writeVarint(LAYER_VERSION, VERSION);
+            layer.writeString(LAYER_NAME, layerName);
+            layer.writeRaw(features);
+            for (String key : keys.keySet())
+                layer.writeString(LAYER_KEYS, key);
+            ProtobufBuffer value = new ProtobufBuffer();
+            for (String stringValue : values.keySet()) {
+                value.clear();
+                value.writeString(VALUE_STRING, stringValue);
+                layer.writeBytes(LAYER_VALUES, value);
+            }
+            layer.writeVarint(LAYER_EXTENT, extent);
+
+            ProtobufBuffer tile = new ProtobufBuffer();
+            if (features.size() > 0)
+                tile.writeBytes(TILE_LAYERS, layer);
+            return tile.toByteArray();
+        }
+
+        private void addTag(String key, String value) {
+            tags.writeRawVarint(index(keys, key));
+            tags.writeRawVarint(index(values, value));
+        }
+
+        private int index(Map<String, Integer> dictionary, String entry) {
+            Integer index = dictionary.get(entry);
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.put(entry, index);
+            }
+            return index;
+        }
+
+        private void addLine(GeoJSONLineString lineString) {
+            PackedCoordinateList coordinates = lineString.getPackedCoordinates();
+            Optional<BoundingBox> boundingBox = coordinates.getBoundingBox();
+            if (!boundingBox.isPresent() || !intersectsTile(boundingBox.get()))
+                return;
+
+            partOpen = false;
+            double previousX = projectX(coordinates.getX(0)), previousY = projectY(coordinates.getY(0));
+            for (int i = 1; i < coordinates.size(); i++) {
+                double nextX = projectX(coordinates.getX(i)), nextY = projectY(coordinates.getY(i));
+                clip(previousX, previousY, nextX, nextY);
+                previousX = nextX;
+                previousY = nextY;
+            }
+            closePart();
+        }
+
+        private boolean intersectsTile(BoundingBox boundingBox) {
+            return projectX(boundingBox.getMaxX()) >= min && projectX(boundingBox.getMinX()) <= max
+                    && projectY(boundingBox.getMinY()) >= min && projectY(boundingBox.getMaxY()) <= max;
+        }
+
+        private double projectX(double longitude) {
+            return getWorldX(longitude) * scale - offsetX;
+        }
+
+        private double projectY(double latitude) {
+            return getWorldY(latitude) * scale - offsetY;
+        }
+
+        /**
+         * Clips the line from a to b to the buffered tile (Liang-Barsky) and
+         * adds the visible part to the current part of the line
+         */
+        private void clip(double ax, double ay, double bx, double by) {
+            double dx = bx - ax, dy = by - ay;
+            t0 = 0;
+            t1 = 1;
+            if (!clipEdge(-dx, ax - min) || !clipEdge(dx, max - ax) || !clipEdge(-dy, ay - min)
+                    || !clipEdge(dy, max - ay)) {
+                closePart();
+                return;
+            }
+            if (!partOpen || t0 > 0) {
+                closePart();
+                partOpen = true;
+                addPoint(ax + t0 * dx, ay + t0 * dy);
+            }
+            addPoint(ax + t1 * dx, ay + t1 * dy);
+            if (t1 < 1)
+                closePart();
+        }
+
+        /**
+         * @return <code>false</code> if the line is completely outside of the
+         *         edge
+         */
+        private boolean clipEdge(double p, double q) {
+            if (p == 0)
+                return q >= 0;
+            double r = q / p;
+            if (p < 0) {
+                if (r > t1)
+                    return false;
+                t0 = Math.max(t0, r);
+            } else {
+                if (r < t0)
+                    return false;
+                t1 = Math.min(t1, r);
+            }
+            return true;
+        }
+
+        private void addPoint(double x, double y) {
+            int qx = (int) Math.round(x), qy = (int) Math.round(y);
+            if (partSize > 0 && partX[partSize - 1] == qx && partY[partSize - 1] == qy)
+                return;
+            if (partSize == partX.length) {
+                partX = Arrays.copyOf(partX, 2 * partSize);
+                partY = Arrays.copyOf(partY, 2 * partSize);
+            }
+            partX[partSize] = qx;
+            partY[partSize] = qy;
+            partSize++;
+        }
+
+        /**
+         * Encodes the current part of the line (if it has at least two
+         * distinct points) as MoveTo and LineTo commands
+         */
+        private void closePart() {
+            if (partSize >= 2) {
+                geometry.writeRawVarint(command(MOVE_TO, 1));
+                writePoint(0);
+                geometry.writeRawVarint(command(LINE_TO, partSize - 1));
+                for (int i = 1; i < partSize; i++)
+                    writePoint(i);
+            }
+            partSize = 0;
+            partOpen = false;
+        }
+
+        private void writePoint(int i) {
+            geometry.writeRawVarint(zigZag(partX[i] - cursorX));
+            geometry.writeRawVarint(zigZag(partY[i] - cursorY));
+            cursorX = partX[i];
+            cursorY = partY[i];
+        }
+
+    }
+
+    private static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    /**
+     * A growable byte array for writing protobuf messages
+     */
+    private static class ProtobufBuffer {
+
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        void writeVarint(int field, int value) {
+            writeRawVarint(field << 3 | WIRE_TYPE_VARINT);
+            writeRawVarint(value);
+        }
+
+        void writeString(int field, String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeRawVarint(field << 3 | WIRE_TYPE_LENGTH_DELIMITED);
+            writeRawVarint(utf8.length);
+            writeRaw(utf8, utf8.length);
+        }
+
+        /**
+         * Writes an embedded message or a packed repeated field
+         */
+        void writeBytes(int field, ProtobufBuffer message) {
+            writeRawVarint(field << 3 | WIRE_TYPE_LENGTH_DELIMITED);
+            writeRawVarint(message.size);
+            writeRaw(message);
+        }
+
+        void writeRaw(ProtobufBuffer other) {
+            writeRaw(other.bytes, other.size);
+        }
+
+        /**
+         * Writes an unsigned varint (negative values are treated as unsigned
+         * 32 bit)
+         */
+        void writeRawVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeRaw(byte[] other, int length) {
+            ensureCapacity(length);
+            System.arraycopy(other, 0, bytes, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(size + additional, 2 * bytes.length));
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Constants.OutputFormat;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+
+/**
+ * Jackson module that omits geometries not requested in
+ * {@link RoutingRequest#getOutputFormats()} while serializing, i.e. without
+ * copying or modifying the routes. The requested formats are passed as
+ * attribute of the writer, e.g. created with
+ * {@link #writerFor(ObjectMapper, RoutingRequest)}. Without this attribute
+ * all geometries are written.
+ * <p>
+ * The module is registered automatically by
+ * {@link ObjectMapper#findAndRegisterModules()} and
+ * {@link RouteFormatJson#createMapper()}.
+ * 
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class OutputFormatModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Jackson attribute (a {@link Collection} of {@link OutputFormat}s) for the
+     * geometries to be written
+     */
+    public static final String OUTPUT_FORMATS_ATTRIBUTE = OutputFormatModule.class.getName() + ".outputFormats";
+
+    private static final Map<Class<?>, Map<String, OutputFormat>> GEOMETRY_PROPERTIES = new HashMap<>();
+    static {
+        Map<String, OutputFormat> segmentProperties = new HashMap<>();
+        segmentProperties.put("geometryEncodedPolyLine", OutputFormat.ENCODED_POLYLINE);
+        segmentProperties.put("geometryGeoJson", OutputFormat.GEOJSON);
+        segmentProperties.put("geometryGeoJsonEdges", OutputFormat.GEOJSON_EDGES);
+        GEOMETRY_PROPERTIES.put(RouteSegment.class, segmentProperties);
+
+        Map<String, OutputFormat> routeProperties = new HashMap<>();
+        routeProperties.put("simplifiedGeometryEncodedPolyLine", OutputFormat.SIMPLIFIED_ENCODED_POLYLINE);
+        routeProperties.put("simplifiedGeometryGeoJson", OutputFormat.SIMPLIFIED_GEOJSON);
+        GEOMETRY_PROPERTIES.put(Route.class, routeProperties);
+    }
+
+    public OutputFormatModule() {
+        super(OutputFormatModule.class.getSimpleName());
+        setSerializerModifier(new BeanSerializerModifier() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                    List<BeanPropertyWriter> beanProperties) {
+                Map<String, OutputFormat> geometryProperties = getGeometryProperties(beanDesc.getBeanClass());
+                if (geometryProperties != null) {
+                    for (int i = 0; i < beanProperties.size(); i++) {
+                        OutputFormat format = geometryProperties.get(beanProperties.get(i).getName());
+                        if (format != null)
+                            beanProperties.set(i, new OutputFormatPropertyWriter(beanProperties.get(i), format));
+                    }
+                }
+                return beanProperties;
+            }
+        });
+    }
+
+    /**
+     * @return a writer that only writes the geometries requested in
+     *         {@link RoutingRequest#getOutputFormats()} or all geometries if
+     *         no output formats are requested
+     * @throws IllegalStateException
+     *             if the module is not registered in the mapper
+     */
+    public static ObjectWriter writerFor(ObjectMapper mapper, RoutingRequest request) {
+        Preconditions.checkState(mapper.getRegisteredModuleIds().contains(OutputFormatModule.class.getName()),
+                "%s must be registered in the mapper", OutputFormatModule.class.getSimpleName());
+        if (request.getOutputFormats().isEmpty())
+            return mapper.writer();
+        return mapper.writer().withAttribute(OUTPUT_FORMATS_ATTRIBUTE, EnumSet.copyOf(request.getOutputFormats()));
+    }
+
+    /**
+     * @return the geometry properties of the class or of its closest mapped
+     *         superclass (subclasses inherit the properties) or
+     *         <code>null</code>
+     */
+    private static Map<String, OutputFormat> getGeometryProperties(Class<?> beanClass) {
+        for (Class<?> c = beanClass; c != null; c = c.getSuperclass()) {
+            Map<String, OutputFormat> geometryProperties = GEOMETRY_PROPERTIES.get(c);
+            if (geometryProperties != null)
+                return geometryProperties;
+        }
+        return null;
+    }
+
+    private static class OutputFormatPropertyWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+        private final OutputFormat format;
+
+        OutputFormatPropertyWriter(BeanPropertyWriter base, OutputFormat format) {
+            super(base);
+            this.format = format;
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            Object outputFormats = prov.getAttribute(OUTPUT_FORMATS_ATTRIBUTE);
+            if (outputFormats instanceof Collection && !((Collection<?>) outputFormats).contains(format))
+                return;
+            super.serializeAsField(bean, gen, prov);
+        }
+
+    }
+
+}
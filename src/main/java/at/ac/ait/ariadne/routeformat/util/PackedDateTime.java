@@ -0,0 +1,321 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A compact, immutable representation of a point in time, e.g. the start time
+ * of a route segment. Instead of a {@link ZonedDateTime} (which references a
+ * local date and a local time) only the epoch seconds, the nanoseconds and the
+ * (shared) zone are stored. The {@link ZonedDateTime} is created on demand
+ * with {@link #toZonedDateTime()}.
+ * <p>
+ * Additionally this class offers a hand-written parser and formatter for the
+ * format used throughout the route format, i.e. <code>2017-12-31T23:00:00Z</code>
+ * or <code>2017-12-31T23:00:00+01:00</code> (see {@link Utils#FORMATTER}).
+ * Input and values that do not fit this fixed format are handled by the
+ * (slower) standard parser and formatter.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class PackedDateTime implements Comparable<PackedDateTime> {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final long DAYS_0000_TO_1970 = 719528;
+    /** the epoch days of 0001-01-01 and 9999-12-31 */
+    private static final long MIN_EPOCH_DAY = -719162, MAX_EPOCH_DAY = 2932896;
+    private static final int LENGTH_UTC = 20, LENGTH_OFFSET = 25;
+
+    private final long epochSecond;
+    private final int nano;
+    private final ZoneId zone;
+
+    private PackedDateTime(long epochSecond, int nano, ZoneId zone) {
+        this.epochSecond = epochSecond;
+        this.nano = nano;
+        this.zone = zone;
+    }
+
+    /**
+     * @return the exact instant and zone of the time (which is not referenced)
+     */
+    public static PackedDateTime of(ZonedDateTime time) {
+        Preconditions.checkArgument(time != null, "time must not be null");
+        return new PackedDateTime(time.toEpochSecond(), time.getNano(), time.getZone());
+    }
+
+    /**
+     * Parses a time in the format of the route format or any other format
+     * supported by {@link ZonedDateTime#parse(CharSequence)}.
+     *
+     * @return the parsed time with seconds accuracy
+     * @throws DateTimeParseException
+     *             if the text can not be parsed
+     */
+    public static PackedDateTime parse(CharSequence text) {
+        PackedDateTime time = parseFixedFormat(text);
+        if (time != null)
+            return time;
+        return of(ZonedDateTime.parse(text).truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * @return the time formatted with {@link Utils#FORMATTER}, i.e. in the
+     *         format of the route format
+     */
+    public static String format(ZonedDateTime time) {
+        int year = time.getYear();
+        if (year < 1 || year > 9999)
+            return Utils.FORMATTER.format(time);
+        return format(year, time.getMonthValue(), time.getDayOfMonth(), time.getHour(), time.getMinute(),
+                time.getSecond(), time.getOffset());
+    }
+
+    // -- getters
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public int getNano() {
+        return nano;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // --
+
+    /**
+     * @return a new {@link ZonedDateTime} for the exact instant and zone
+     */
+    public ZonedDateTime toZonedDateTime() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), zone);
+    }
+
+    /**
+     * @return the time formatted with {@link Utils#FORMATTER} without creating
+     *         a {@link ZonedDateTime} (for all years between 1 and 9999)
+     */
+    public String format() {
+        ZoneOffset offset = zone instanceof ZoneOffset ? (ZoneOffset) zone
+                : zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+        long localSecond = epochSecond + offset.getTotalSeconds();
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY)
+            return Utils.FORMATTER.format(toZonedDateTime());
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+
+        // see LocalDate.ofEpochDay (simplified for positive years)
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long year = (400 * zeroDay + 591) / 146097;
+        long dayOfYear = zeroDay - (365 * year + year / 4 - year / 100 + year / 400);
+        if (dayOfYear < 0) {
+            year--;
+            dayOfYear = zeroDay - (365 * year + year / 4 - year / 100 + year / 400);
+        }
+        int marchMonth = ((int) dayOfYear * 5 + 2) / 153;
+        int month = (marchMonth + 2) % 12 + 1;
+        int day = (int) dayOfYear - (marchMonth * 306 + 5) / 10 + 1;
+        year += marchMonth / 10;
+
+        return format((int) year, month, day, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60,
+                offset);
+    }
+
+    public PackedDateTime plusSeconds(long seconds) {
+        return new PackedDateTime(Math.addExact(epochSecond, seconds), nano, zone);
+    }
+
+    /**
+     * @return <code>true</code> if the instant of this time is before the
+     *         instant of the other time (see
+     *         {@link ZonedDateTime#isBefore(java.time.chrono.ChronoZonedDateTime)})
+     */
+    public boolean isBefore(PackedDateTime other) {
+        return compareInstant(other) < 0;
+    }
+
+    /**
+     * Compares the instants of the times, the zones are not considered (i.e.
+     * this ordering is not consistent with equals)
+     */
+    @Override
+    public int compareTo(PackedDateTime other) {
+        return compareInstant(other);
+    }
+
+    private int compareInstant(PackedDateTime other) {
+        int result = Long.compare(epochSecond, other.epochSecond);
+        return result != 0 ? result : Integer.compare(nano, other.nano);
+    }
+
+    /**
+     * @return the time or <code>null</code> if the text does not exactly match
+     *         the format of the route format or contains invalid values
+     */
+    private static PackedDateTime parseFixedFormat(CharSequence text) {
+        int length = text.length();
+        if (length != LENGTH_UTC && length != LENGTH_OFFSET)
+            return null;
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':'
+                || text.charAt(16) != ':')
+            return null;
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour < 0
+                || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return null;
+
+        int offsetSeconds;
+        char sign = text.charAt(19);
+        if (length == LENGTH_UTC) {
+            if (sign != 'Z')
+                return null;
+            offsetSeconds = 0;
+        } else {
+            if ((sign != '+' && sign != '-') || text.charAt(22) != ':')
+                return null;
+            int offsetHours = digits(text, 20, 2);
+            int offsetMinutes = digits(text, 23, 2);
+            if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59)
+                return null;
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (offsetSeconds > 18 * 3600)
+                return null;
+            if (sign == '-')
+                offsetSeconds = -offsetSeconds;
+        }
+
+        long epochSecond = toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second
+                - offsetSeconds;
+        // offsets in whole quarter hours (i.e. all real-world offsets) are
+        // cached and therefore shared by all times
+        return new PackedDateTime(epochSecond, 0, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    /**
+     * @return the value of the digits or -1 if a character is not a digit
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            return isLeapYear(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * see LocalDate.toEpochDay (simplified for positive years)
+     */
+    private static long toEpochDay(long year, int month, int day) {
+        long total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year))
+                total--;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static String format(int year, int month, int day, int hour, int minute, int second,
+            ZoneOffset offset) {
+        int offsetSeconds = offset.getTotalSeconds();
+        char[] chars = new char[offsetSeconds == 0 ? LENGTH_UTC : LENGTH_OFFSET];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        putDigits(chars, 8, day, 2);
+        chars[10] = 'T';
+        putDigits(chars, 11, hour, 2);
+        chars[13] = ':';
+        putDigits(chars, 14, minute, 2);
+        chars[16] = ':';
+        putDigits(chars, 17, second, 2);
+        if (offsetSeconds == 0) {
+            chars[19] = 'Z';
+        } else {
+            // like the pattern XXX seconds of the offset are not written
+            int absoluteSeconds = Math.abs(offsetSeconds);
+            chars[19] = offsetSeconds < 0 ? '-' : '+';
+            putDigits(chars, 20, absoluteSeconds / 3600, 2);
+            chars[22] = ':';
+            putDigits(chars, 23, absoluteSeconds / 60 % 60, 2);
+        }
+        return new String(chars);
+    }
+
+    private static void putDigits(char[] chars, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Long.hashCode(epochSecond);
+        result = prime * result + nano;
+        result = prime * result + zone.hashCode();
+        return result;
+    }
+
+    /**
+     * Equal to {@link ZonedDateTime#equals(Object)}, i.e. the instant and the
+     * zone must be equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        PackedDateTime other = (PackedDateTime) obj;
+        return epochSecond == other.epochSecond && nano == other.nano && zone.equals(other.zone);
+    }
+
+    @Override
+    public String toString() {
+        return toZonedDateTime().toString();
+    }
+
+}
@@ -0,0 +1,116 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.features.RoutingFeatures;
+
+/**
+ * Shared, pre-configured Jackson readers and writers for the route format.
+ * Creating an {@link ObjectMapper} (and especially scanning the classpath with
+ * {@link ObjectMapper#findAndRegisterModules()}) is expensive and its
+ * serializer caches are lost with it, so the instances provided here should be
+ * preferred over creating new mappers. {@link ObjectReader}s and
+ * {@link ObjectWriter}s are immutable and thread-safe, further configuration
+ * (e.g. {@link ObjectWriter#withAttribute(Object, Object)}) creates new
+ * instances sharing the caches.
+ * <p>
+ * If a mapper is required, e.g. to change its configuration, use
+ * {@link #createMapper()}.
+ * 
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RouteFormatJson {
+
+    private static final ObjectMapper MAPPER = createMapper();
+
+    private static final ObjectWriter WRITER = MAPPER.writer();
+    private static final ObjectWriter PRETTY_WRITER = MAPPER.writer(SerializationFeature.INDENT_OUTPUT);
+
+    private static final ObjectReader ROUTING_REQUEST_READER = MAPPER.readerFor(RoutingRequest.class);
+    private static final ObjectReader ROUTING_RESPONSE_READER = MAPPER.readerFor(RoutingResponse.class);
+    private static final ObjectReader ROUTING_FEATURES_READER = MAPPER.readerFor(RoutingFeatures.class);
+
+    private static final ObjectWriter ROUTING_REQUEST_WRITER = MAPPER.writerFor(RoutingRequest.class);
+    private static final ObjectWriter ROUTING_RESPONSE_WRITER = MAPPER.writerFor(RoutingResponse.class);
+    private static final ObjectWriter ROUTING_FEATURES_WRITER = MAPPER.writerFor(RoutingFeatures.class);
+
+    private RouteFormatJson() {
+    }
+
+    /**
+     * @return new instances of all modules used by the route format, i.e. the
+     *         Jackson modules for {@link java.util.Optional} and
+     *         <code>java.time</code> and all modules of this library (which
+     *         are inactive until requested, e.g. with
+     *         {@link OutputFormatModule#writerFor(ObjectMapper, RoutingRequest)})
+     */
+    public static List<Module> createModules() {
+        return Arrays.asList(new Jdk8Module(), new JavaTimeModule(), new OutputFormatModule(), new InterningModule(),
+                new DictionaryFormatModule());
+    }
+
+    /**
+     * @return a new mapper with all modules of {@link #createModules()}
+     *         registered explicitly (i.e. without scanning the classpath)
+     */
+    public static ObjectMapper createMapper() {
+        return new ObjectMapper().registerModules(createModules());
+    }
+
+    /**
+     * @return a writer for arbitrary objects
+     */
+    public static ObjectWriter getWriter() {
+        return WRITER;
+    }
+
+    /**
+     * @return a writer for arbitrary objects with indented output
+     */
+    public static ObjectWriter getPrettyWriter() {
+        return PRETTY_WRITER;
+    }
+
+    public static ObjectReader getRoutingRequestReader() {
+        return ROUTING_REQUEST_READER;
+    }
+
+    public static ObjectReader getRoutingResponseReader() {
+        return ROUTING_RESPONSE_READER;
+    }
+
+    public static ObjectReader getRoutingFeaturesReader() {
+        return ROUTING_FEATURES_READER;
+    }
+
+    public static ObjectWriter getRoutingRequestWriter() {
+        return ROUTING_REQUEST_WRITER;
+    }
+
+    public static ObjectWriter getRoutingResponseWriter() {
+        return ROUTING_RESPONSE_WRITER;
+    }
+
+    public static ObjectWriter getRoutingFeaturesWriter() {
+        return ROUTING_FEATURES_WRITER;
+    }
+
+    /**
+     * @return the shared mapper, which must not be reconfigured
+     */
+    static ObjectMapper getSharedMapper() {
+        return MAPPER;
+    }
+
+}
@@ -49,7 +49,8 @@ import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
  * segments with (exactly!) the same mode of transport, which is activated by
  * default, can be (de)activated. <b>Note</b>, that for merged segments boarding
  * and alighting time is simply summed up and the geometry is simply
- * concatenated without recalculating the distance.
+ * concatenated without recalculating the distance (which can be done
+ * afterwards with {@link RouteSegment#setDistanceMetersFromGeometry()}).
  * <p>
  * With {@link #setAdditionalAlightingSecondsBetweenRoutes(List)} additional
  * alighting seconds can be added.
@@ -224,7 +225,7 @@ public class RouteSegmentMerger {
             modifiedCopy.setEndTime(segment.getEndTimeAsZonedDateTime().plus(shiftSeconds, ChronoUnit.SECONDS));
             modifiedSegments.add(modifiedCopy);
             if (!segment.getModeOfTransport().equals(ModeOfTransport.STANDARD_FOOT))
-                LOGGER.warn(shiftSeconds + "s shift for mot " + segment.getModeOfTransport());
+                LOGGER.warn("{}s shift for mot {}", shiftSeconds, segment.getModeOfTransport());
         }
         return modifiedSegments;
     }
@@ -244,12 +245,9 @@ public class RouteSegmentMerger {
         List<RouteSegment> mergedSegments = new ArrayList<>();
         for (int i = 0; i < segments.size(); i++) {
             if (start2Range.containsKey(i)) {
-                Range<Integer> range = start2Range.get(i);
-                RouteSegment prev = segments.get(i);
-                while (i < upperBound(range)) {
-                    prev = mergeTwoSegments(prev, segments.get(++i));
-                }
-                mergedSegments.add(prev);
+                int upper = upperBound(start2Range.get(i));
+                mergedSegments.add(mergeSegments(segments.subList(i, upper + 1)));
+                i = upper;
             } else {
                 mergedSegments.add(segments.get(i));
             }
@@ -260,33 +258,42 @@ public class RouteSegmentMerger {
     /**
      * @return a single merged {@link RouteSegment} with the main attributes
      *         from the first segment but the combined duration, distance and
-     *         geometry
+     *         geometry. The segments are not modified and all geometries are
+     *         concatenated at once (see
+     *         {@link GeoJSONLineString#concat(List)}), i.e. merging takes time
+     *         linear in the total number of coordinates.
      */
-    private static RouteSegment mergeTwoSegments(RouteSegment a, RouteSegment b) {
-        // mot, start & end time e.g. from a
-        RouteSegment merged = RouteSegment.createShallowCopy(a);
+    private static RouteSegment mergeSegments(List<RouteSegment> segments) {
+        RouteSegment first = segments.get(0), last = segments.get(segments.size() - 1);
+        // mot, start & end time e.g. from the first segment
+        RouteSegment merged = RouteSegment.createShallowCopy(first);
+
+        int totalSeconds = 0, boardingSeconds = 0, alightingSeconds = 0;
+        int distanceMeters = 0;
+        List<GeoJSONLineString> lineStrings = new ArrayList<>();
+        List<GeoJSONFeature<GeoJSONLineString>> newGeometryGeoJsonEdges = new ArrayList<>();
+        for (RouteSegment segment : segments) {
+            totalSeconds += segment.getDurationSeconds();
+            boardingSeconds += segment.getBoardingSeconds().orElse(0);
+            alightingSeconds += segment.getAlightingSeconds().orElse(0);
+            distanceMeters += segment.getDistanceMeters();
+            segment.getGeometryGeoJson().ifPresent(g -> lineStrings.add(g.getGeometry()));
+            segment.getGeometryGeoJsonEdges().ifPresent(g -> newGeometryGeoJsonEdges.addAll(g.getFeatures()));
+        }
 
         // adapt time
-        int totalSeconds = a.getDurationSeconds() + b.getDurationSeconds();
-        merged.setBoardingSeconds(a.getBoardingSeconds().orElse(0) + b.getBoardingSeconds().orElse(0));
-        merged.setAlightingSeconds(a.getAlightingSeconds().orElse(0) + b.getAlightingSeconds().orElse(0));
+        merged.setBoardingSeconds(boardingSeconds);
+        merged.setAlightingSeconds(alightingSeconds);
         merged.setDurationSeconds(totalSeconds);
-        merged.setEndTime(a.getStartTimeAsZonedDateTime().plus(totalSeconds, ChronoUnit.SECONDS));
+        merged.setEndTime(first.getStartTimeAsZonedDateTime().plus(totalSeconds, ChronoUnit.SECONDS));
 
         // adapt geometry & length
-        merged.setTo(b.getTo());
-        GeoJSONFeature<GeoJSONLineString> newlineString = GeoJSONFeature.createLineStringFeature(new ArrayList<>());
-        List<GeoJSONFeature<GeoJSONLineString>> newGeometryGeoJsonEdges = new ArrayList<>();
-        for (RouteSegment routeSegment : new RouteSegment[] { a, b }) {
-            routeSegment.getGeometryGeoJson().ifPresent(
-                    g -> newlineString.getGeometry().getCoordinates().addAll(g.getGeometry().getCoordinates()));
-            routeSegment.getGeometryGeoJsonEdges().ifPresent(g -> newGeometryGeoJsonEdges.addAll(g.getFeatures()));
-        }
-        merged.setGeometryGeoJson(newlineString);
+        merged.setTo(last.getTo());
+        merged.setGeometryGeoJson(GeoJSONFeature.createLineStringFeature(GeoJSONLineString.concat(lineStrings)));
         if (!newGeometryGeoJsonEdges.isEmpty()) {
             merged.setGeometryGeoJsonEdges(GeoJSONFeatureCollection.create(newGeometryGeoJsonEdges));
         }
-        merged.setDistanceMeters(a.getDistanceMeters() + b.getDistanceMeters());
+        merged.setDistanceMeters(distanceMeters);
 
         return merged;
     }
@@ -0,0 +1,480 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.geojson.GeodesicDistance;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList;
+
+/**
+ * Spatial index over the geometries ({@link RouteSegment#getGeometryGeoJson()})
+ * of a {@link Route} answering "where on the route am I?" for a position, e.g.
+ * a GPS fix during on-trip navigation.
+ * <p>
+ * The index is a packed R-tree (sort-tile-recursive bulk loading) over all
+ * edges of the route and is built once in the constructor. Queries do not
+ * modify the index, i.e. a single instance can be queried concurrently by
+ * many threads. The index is a snapshot of the segments of the route, i.e.
+ * segments added to or removed from the route afterwards are not reflected
+ * (and do not shift the segment indices). The geometries of the segments are
+ * referenced: if they are changed afterwards a new index must be created.
+ * <p>
+ * The nearest edge is searched in a local equirectangular projection around
+ * the mean latitude of the route, distances are reported as geodesic
+ * distances in meters (see {@link GeodesicDistance}) based on the cached
+ * cumulative distances of the line strings. Segments without geometry are
+ * ignored.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RouteSnapIndex {
+
+    /**
+     * The position on a route nearest to a queried position
+     */
+    public static class SnapResult {
+        private final RouteSegment segment;
+        private final int segmentIndex;
+        private final int vertexIndex;
+        private final double fraction;
+        private final double x, y;
+        private final double distanceMeters;
+        private final double distanceAlongSegmentMeters;
+        private final double distanceAlongRouteMeters;
+
+        private SnapResult(RouteSegment segment, int segmentIndex, int vertexIndex, double fraction, double x,
+                double y, double distanceMeters, double distanceAlongSegmentMeters, double distanceAlongRouteMeters) {
+            this.segment = segment;
+            this.segmentIndex = segmentIndex;
+            this.vertexIndex = vertexIndex;
+            this.fraction = fraction;
+            this.x = x;
+            this.y = y;
+            this.distanceMeters = distanceMeters;
+            this.distanceAlongSegmentMeters = distanceAlongSegmentMeters;
+            this.distanceAlongRouteMeters = distanceAlongRouteMeters;
+        }
+
+        public RouteSegment getSegment() {
+            return segment;
+        }
+
+        /** @return the index of the segment in {@link Route#getSegments()} */
+        public int getSegmentIndex() {
+            return segmentIndex;
+        }
+
+        /**
+         * @return the index of the first vertex of the nearest edge in the
+         *         coordinates of the segment's geometry
+         */
+        public int getVertexIndex() {
+            return vertexIndex;
+        }
+
+        /**
+         * @return the relative position of the snapped point on the nearest
+         *         edge between 0 (at the vertex) and 1 (at the next vertex)
+         */
+        public double getFraction() {
+            return fraction;
+        }
+
+        /** @return the longitude of the snapped point */
+        public double getX() {
+            return x;
+        }
+
+        /** @return the latitude of the snapped point */
+        public double getY() {
+            return y;
+        }
+
+        /** @return the distance between the queried and the snapped point */
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+
+        public double getDistanceAlongSegmentMeters() {
+            return distanceAlongSegmentMeters;
+        }
+
+        public double getDistanceAlongRouteMeters() {
+            return distanceAlongRouteMeters;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SnapResult [segmentIndex=%d, vertexIndex=%d, fraction=%.3f, distance=%.1fm, "
+                    + "distanceAlongRoute=%.1fm]", segmentIndex, vertexIndex, fraction, distanceMeters,
+                    distanceAlongRouteMeters);
+        }
+    }
+
+    private static final int NODE_CAPACITY = 16;
+    /** mean earth radius in meters */
+    private static final double EARTH_RADIUS = 6371008.8;
+
+    private final List<RouteSegment> segments;
+    private final double cosLatitude;
+    private final double totalDistanceMeters;
+
+    /** edges in the order of the leaves of the tree */
+    private final int edgeCount;
+    private final int[] edgeSegment, edgeVertex;
+    private final double[] ax, ay, bx, by;
+    private final double[] edgeStartDistance, edgeLength, segmentStartDistance;
+
+    /**
+     * all nodes, leaves first and the root last. The children of leaves are
+     * edges, the children of all other nodes are nodes.
+     */
+    private final int leafCount;
+    private final double[] nodeMinX, nodeMinY, nodeMaxX, nodeMaxY;
+    private final int[] childStart, childEnd;
+
+    public RouteSnapIndex(Route route) {
+        this.segments = ImmutableList.copyOf(route.getSegments());
+
+        int size = 0;
+        double latitudeSum = 0;
+        int pointCount = 0;
+        for (RouteSegment segment : segments) {
+            if (segment.getGeometryGeoJson().isPresent()) {
+                PackedCoordinateList coordinates = segment.getGeometryGeoJson().get().getGeometry()
+                        .getPackedCoordinates();
+                if (!coordinates.isEmpty())
+                    size += Math.max(1, coordinates.size() - 1);
+                for (int i = 0; i < coordinates.size(); i++)
+                    latitudeSum += coordinates.getY(i);
+                pointCount += coordinates.size();
+            }
+        }
+        cosLatitude = Math.cos(Math.toRadians(latitudeSum / Math.max(1, pointCount)));
+
+        int[] segmentOfEdge = new int[size], vertexOfEdge = new int[size];
+        double[] startDistance = new double[size], length = new double[size];
+        segmentStartDistance = new double[segments.size()];
+        int edge = 0;
+        double distance = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            segmentStartDistance[s] = distance;
+            if (!segments.get(s).getGeometryGeoJson().isPresent())
+                continue;
+            PackedCoordinateList coordinates = segments.get(s).getGeometryGeoJson().get().getGeometry()
+                    .getPackedCoordinates();
+            if (coordinates.isEmpty())
+                continue;
+            for (int i = 0; i < Math.max(1, coordinates.size() - 1); i++) {
+                int next = Math.min(i + 1, coordinates.size() - 1);
+                segmentOfEdge[edge] = s;
+                vertexOfEdge[edge] = i;
+                startDistance[edge] = distance;
+                length[edge] = coordinates.getCumulativeDistanceMeters(next)
+                        - coordinates.getCumulativeDistanceMeters(i);
+                distance += length[edge];
+                edge++;
+            }
+        }
+        totalDistanceMeters = distance;
+        edgeCount = edge;
+
+        // sort-tile-recursive order of the edges by their centers
+        double[] centerX = new double[edgeCount], centerY = new double[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            PackedCoordinateList coordinates = coordinatesOf(segmentOfEdge[e]);
+            int next = Math.min(vertexOfEdge[e] + 1, coordinates.size() - 1);
+            centerX[e] = (projectX(coordinates.getX(vertexOfEdge[e])) + projectX(coordinates.getX(next))) / 2;
+            centerY[e] = (projectY(coordinates.getY(vertexOfEdge[e])) + projectY(coordinates.getY(next))) / 2;
+        }
+        int[] order = sortTileRecursive(centerX, centerY, edgeCount);
+
+        edgeSegment = new int[edgeCount];
+        edgeVertex = new int[edgeCount];
+        edgeStartDistance = new double[edgeCount];
+        edgeLength = new double[edgeCount];
+        ax = new double[edgeCount];
+        ay = new double[edgeCount];
+        bx = new double[edgeCount];
+        by = new double[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int original = order[e];
+            edgeSegment[e] = segmentOfEdge[original];
+            edgeVertex[e] = vertexOfEdge[original];
+            edgeStartDistance[e] = startDistance[original];
+            edgeLength[e] = length[original];
+            PackedCoordinateList coordinates = coordinatesOf(edgeSegment[e]);
+            int next = Math.min(edgeVertex[e] + 1, coordinates.size() - 1);
+            ax[e] = projectX(coordinates.getX(edgeVertex[e]));
+            ay[e] = projectY(coordinates.getY(edgeVertex[e]));
+            bx[e] = projectX(coordinates.getX(next));
+            by[e] = projectY(coordinates.getY(next));
+        }
+
+        // levels of nodes, each node covering up to NODE_CAPACITY children
+        int nodeCount = 0;
+        for (int count = edgeCount; count > 0;) {
+            count = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            nodeCount += count;
+            if (count == 1)
+                break;
+        }
+        nodeMinX = new double[nodeCount];
+        nodeMinY = new double[nodeCount];
+        nodeMaxX = new double[nodeCount];
+        nodeMaxY = new double[nodeCount];
+        childStart = new int[nodeCount];
+        childEnd = new int[nodeCount];
+
+        leafCount = (edgeCount + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        for (int n = 0; n < leafCount; n++) {
+            childStart[n] = n * NODE_CAPACITY;
+            childEnd[n] = Math.min(edgeCount, childStart[n] + NODE_CAPACITY);
+            nodeMinX[n] = nodeMinY[n] = Double.POSITIVE_INFINITY;
+            nodeMaxX[n] = nodeMaxY[n] = Double.NEGATIVE_INFINITY;
+            for (int e = childStart[n]; e < childEnd[n]; e++) {
+                nodeMinX[n] = Math.min(nodeMinX[n], Math.min(ax[e], bx[e]));
+                nodeMinY[n] = Math.min(nodeMinY[n], Math.min(ay[e], by[e]));
+                nodeMaxX[n] = Math.max(nodeMaxX[n], Math.max(ax[e], bx[e]));
+                nodeMaxY[n] = Math.max(nodeMaxY[n], Math.max(ay[e], by[e]));
+            }
+        }
+        int levelStart = 0, levelEnd = leafCount;
+        while (levelEnd - levelStart > 1) {
+            buildParentLevel(levelStart, levelEnd);
+            int parentCount = (levelEnd - levelStart + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            levelStart = levelEnd;
+            levelEnd += parentCount;
+        }
+    }
+
+    /** @return the length of all geometries of the route in meters */
+    public double getTotalDistanceMeters() {
+        return totalDistanceMeters;
+    }
+
+    /**
+     * @param x
+     *            longitude
+     * @param y
+     *            latitude
+     * @return the nearest position on the route or empty if the route has no
+     *         geometry
+     */
+    public Optional<SnapResult> snap(double x, double y) {
+        return snap(x, y, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param x
+     *            longitude
+     * @param y
+     *            latitude
+     * @param maxDistanceMeters
+     *            the maximum distance between the position and the route
+     *            (approximately, i.e. measured in the projection used for
+     *            searching), which allows to stop searching early for
+     *            positions off the route
+     * @return the nearest position on the route or empty if the route is
+     *         farther away than the maximum distance
+     */
+    public Optional<SnapResult> snap(double x, double y, double maxDistanceMeters) {
+        Preconditions.checkArgument(maxDistanceMeters >= 0, "maximum distance must be >= 0 but was %s",
+                maxDistanceMeters);
+        if (edgeCount == 0)
+            return Optional.empty();
+
+        double px = projectX(x), py = projectY(y);
+        double bestDistance = maxDistanceMeters * maxDistanceMeters;
+        int bestEdge = -1;
+        double bestFraction = 0;
+
+        // best-first search with a binary min-heap of nodes ordered by the
+        // squared distance to their bounding boxes
+        double[] heapDistance = new double[32];
+        int[] heapNode = new int[32];
+        heapNode[0] = childStart.length - 1;
+        int heapSize = 1;
+        while (heapSize > 0 && heapDistance[0] <= bestDistance) {
+            int node = heapNode[0];
+            heapSize--;
+            siftDown(heapDistance, heapNode, heapSize, heapDistance[heapSize], heapNode[heapSize]);
+
+            if (node < leafCount) {
+                for (int e = childStart[node]; e < childEnd[node]; e++) {
+                    double fraction = projectOntoEdge(px, py, e);
+                    double dx = px - (ax[e] + fraction * (bx[e] - ax[e]));
+                    double dy = py - (ay[e] + fraction * (by[e] - ay[e]));
+                    double distance = dx * dx + dy * dy;
+                    // on ties prefer the edge nearer to the start of the route
+                    if (distance < bestDistance || (distance == bestDistance
+                            && (bestEdge < 0 || edgeStartDistance[e] < edgeStartDistance[bestEdge]))) {
+                        bestDistance = distance;
+                        bestEdge = e;
+                        bestFraction = fraction;
+                    }
+                }
+            } else {
+                for (int child = childStart[node]; child < childEnd[node]; child++) {
+                    double distance = boxDistance(px, py, child);
+                    if (distance > bestDistance)
+                        continue;
+                    if (heapSize == heapNode.length) {
+                        heapDistance = Arrays.copyOf(heapDistance, heapSize * 2);
+                        heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+                    }
+                    siftUp(heapDistance, heapNode, heapSize++, distance, child);
+                }
+            }
+        }
+        if (bestEdge < 0)
+            return Optional.empty();
+
+        int segmentIndex = edgeSegment[bestEdge];
+        PackedCoordinateList coordinates = coordinatesOf(segmentIndex);
+        int vertex = edgeVertex[bestEdge];
+        int next = Math.min(vertex + 1, coordinates.size() - 1);
+        double snappedX = coordinates.getX(vertex) + bestFraction * (coordinates.getX(next) - coordinates.getX(vertex));
+        double snappedY = coordinates.getY(vertex) + bestFraction * (coordinates.getY(next) - coordinates.getY(vertex));
+        double alongRoute = edgeStartDistance[bestEdge] + bestFraction * edgeLength[bestEdge];
+        double distanceMeters = GeodesicDistance.meters(x, y, snappedX, snappedY);
+        return Optional.of(new SnapResult(segments.get(segmentIndex), segmentIndex, vertex, bestFraction, snappedX,
+                snappedY, distanceMeters, alongRoute - segmentStartDistance[segmentIndex], alongRoute));
+    }
+
+    private PackedCoordinateList coordinatesOf(int segmentIndex) {
+        return segments.get(segmentIndex).getGeometryGeoJson().get().getGeometry().getPackedCoordinates();
+    }
+
+    private double projectX(double longitude) {
+        return Math.toRadians(longitude) * cosLatitude * EARTH_RADIUS;
+    }
+
+    private double projectY(double latitude) {
+        return Math.toRadians(latitude) * EARTH_RADIUS;
+    }
+
+    private double projectOntoEdge(double px, double py, int edge) {
+        double dx = bx[edge] - ax[edge], dy = by[edge] - ay[edge];
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0)
+            return 0;
+        double t = ((px - ax[edge]) * dx + (py - ay[edge]) * dy) / lengthSquared;
+        return Math.max(0, Math.min(1, t));
+    }
+
+    private double boxDistance(double px, double py, int node) {
+        double dx = Math.max(0, Math.max(nodeMinX[node] - px, px - nodeMaxX[node]));
+        double dy = Math.max(0, Math.max(nodeMinY[node] - py, py - nodeMaxY[node]));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Groups the nodes of a level (in sort-tile-recursive order of their
+     * centers) into parent nodes, which are stored directly after the level.
+     * The nodes of the level are reordered accordingly so that the children
+     * of each parent are contiguous.
+     */
+    private void buildParentLevel(int levelStart, int levelEnd) {
+        int count = levelEnd - levelStart;
+        double[] centerX = new double[count], centerY = new double[count];
+        for (int n = 0; n < count; n++) {
+            centerX[n] = (nodeMinX[levelStart + n] + nodeMaxX[levelStart + n]) / 2;
+            centerY[n] = (nodeMinY[levelStart + n] + nodeMaxY[levelStart + n]) / 2;
+        }
+        int[] order = sortTileRecursive(centerX, centerY, count);
+        permute(nodeMinX, levelStart, order);
+        permute(nodeMinY, levelStart, order);
+        permute(nodeMaxX, levelStart, order);
+        permute(nodeMaxY, levelStart, order);
+        permute(childStart, levelStart, order);
+        permute(childEnd, levelStart, order);
+
+        int parent = levelEnd;
+        for (int first = levelStart; first < levelEnd; first += NODE_CAPACITY, parent++) {
+            childStart[parent] = first;
+            childEnd[parent] = Math.min(levelEnd, first + NODE_CAPACITY);
+            nodeMinX[parent] = nodeMinY[parent] = Double.POSITIVE_INFINITY;
+            nodeMaxX[parent] = nodeMaxY[parent] = Double.NEGATIVE_INFINITY;
+            for (int child = childStart[parent]; child < childEnd[parent]; child++) {
+                nodeMinX[parent] = Math.min(nodeMinX[parent], nodeMinX[child]);
+                nodeMinY[parent] = Math.min(nodeMinY[parent], nodeMinY[child]);
+                nodeMaxX[parent] = Math.max(nodeMaxX[parent], nodeMaxX[child]);
+                nodeMaxY[parent] = Math.max(nodeMaxY[parent], nodeMaxY[child]);
+            }
+        }
+    }
+
+    /**
+     * @return the indices of the items sorted into vertical slices by x and
+     *         within each slice by y, so that each run of
+     *         {@link #NODE_CAPACITY} items is spatially compact
+     */
+    private static int[] sortTileRecursive(double[] x, double[] y, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(x[a], x[b]));
+        int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceSize = (int) Math.ceil(Math.sqrt(nodes)) * NODE_CAPACITY;
+        for (int start = 0; start < count; start += sliceSize)
+            Arrays.sort(order, start, Math.min(count, start + sliceSize), (a, b) -> Double.compare(y[a], y[b]));
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++)
+            result[i] = order[i];
+        return result;
+    }
+
+    private static void permute(double[] values, int offset, int[] order) {
+        double[] copy = Arrays.copyOfRange(values, offset, offset + order.length);
+        for (int i = 0; i < order.length; i++)
+            values[offset + i] = copy[order[i]];
+    }
+
+    private static void permute(int[] values, int offset, int[] order) {
+        int[] copy = Arrays.copyOfRange(values, offset, offset + order.length);
+        for (int i = 0; i < order.length; i++)
+            values[offset + i] = copy[order[i]];
+    }
+
+    private static void siftUp(double[] distances, int[] nodes, int index, double distance, int node) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (distances[parent] <= distance)
+                break;
+            distances[index] = distances[parent];
+            nodes[index] = nodes[parent];
+            index = parent;
+        }
+        distances[index] = distance;
+        nodes[index] = node;
+    }
+
+    /** moves the given element (replacing the root) down to its position */
+    private static void siftDown(double[] distances, int[] nodes, int size, double distance, int node) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && distances[child + 1] < distances[child])
+                child++;
+            if (distance <= distances[child])
+                break;
+            distances[index] = distances[child];
+            nodes[index] = nodes[child];
+            index = child;
+        }
+        if (size > 0) {
+            distances[index] = distance;
+            nodes[index] = node;
+        }
+    }
+
+}
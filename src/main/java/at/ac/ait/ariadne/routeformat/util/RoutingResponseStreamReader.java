@@ -0,0 +1,190 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+
+/**
+ * Reads a {@link RoutingResponse} from an {@link InputStream} route by route
+ * instead of materializing all routes at once. Routes that are not needed can
+ * be skipped with {@link #skipRoute()} without creating any objects, and the
+ * segments of a route can be processed one by one with
+ * {@link #nextRoute(Consumer)}.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * try (RoutingResponseStreamReader reader = new RoutingResponseStreamReader(in)) {
+ *     RoutingResponse header = reader.getHeader();
+ *     Route first = reader.hasNextRoute() ? reader.nextRoute() : null;
+ * }
+ * </pre>
+ *
+ * {@link #getHeader()} contains all attributes of the response except the
+ * routes. Attributes located after the routes in the document (e.g. the
+ * additional info as written by Jackson) are only available in the header
+ * after all routes were read or skipped.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RoutingResponseStreamReader implements Closeable {
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private final TokenBuffer headerFields;
+    private RoutingResponse header;
+    private boolean routesFinished = false;
+
+    public RoutingResponseStreamReader(InputStream in) throws IOException {
+        this(RouteFormatJson.getSharedMapper(), in);
+    }
+
+    public RoutingResponseStreamReader(ObjectMapper mapper, InputStream in) throws IOException {
+        this.mapper = mapper;
+        this.parser = mapper.getFactory().createParser(in);
+        this.headerFields = new TokenBuffer(parser);
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+            throw JsonMappingException.from(parser, "expected start of routing response object");
+        if (readHeaderFieldsUntilRoutes())
+            advanceToNextRoute();
+        else
+            routesFinished = true;
+    }
+
+    /**
+     * @return the response with all attributes read so far, i.e. everything
+     *         except the routes
+     */
+    public RoutingResponse getHeader() throws IOException {
+        if (header == null) {
+            TokenBuffer buffer = new TokenBuffer(parser);
+            buffer.writeStartObject();
+            buffer.append(headerFields);
+            buffer.writeEndObject();
+            try (JsonParser headerParser = buffer.asParser()) {
+                header = mapper.readValue(headerParser, RoutingResponse.class);
+            }
+        }
+        return header;
+    }
+
+    public boolean hasNextRoute() {
+        return !routesFinished;
+    }
+
+    public Route nextRoute() throws IOException {
+        checkHasNextRoute();
+        Route route = mapper.readValue(parser, Route.class);
+        advanceToNextRoute();
+        return route;
+    }
+
+    /**
+     * Reads the next route but passes its segments to the consumer instead of
+     * keeping them in memory. <code>null</code> segments are skipped.
+     *
+     * @return the route with all attributes except the segments
+     */
+    public Route nextRoute(Consumer<RouteSegment> segmentConsumer) throws IOException {
+        checkHasNextRoute();
+        TokenBuffer routeFields = new TokenBuffer(parser);
+        routeFields.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals("segments") && value == JsonToken.START_ARRAY) {
+                for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                    if (token == JsonToken.START_OBJECT)
+                        segmentConsumer.accept(mapper.readValue(parser, RouteSegment.class));
+                    else if (token != JsonToken.VALUE_NULL)
+                        throw JsonMappingException.from(parser, "expected segment object but got " + token);
+                }
+            } else {
+                routeFields.writeFieldName(name);
+                routeFields.copyCurrentStructure(parser);
+            }
+        }
+        routeFields.writeEndObject();
+
+        Route route;
+        try (JsonParser routeParser = routeFields.asParser()) {
+            route = mapper.readValue(routeParser, Route.class);
+        }
+        advanceToNextRoute();
+        return route;
+    }
+
+    /**
+     * Skips the next route without creating any objects
+     */
+    public void skipRoute() throws IOException {
+        checkHasNextRoute();
+        parser.skipChildren();
+        advanceToNextRoute();
+    }
+
+    /**
+     * Skips all remaining routes, i.e. afterwards {@link #getHeader()} is
+     * complete
+     */
+    public void skipRemainingRoutes() throws IOException {
+        while (hasNextRoute())
+            skipRoute();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void checkHasNextRoute() {
+        if (routesFinished)
+            throw new NoSuchElementException("no more routes available");
+    }
+
+    /**
+     * @return <code>true</code> if the parser is positioned at the start of
+     *         the routes array
+     */
+    private boolean readHeaderFieldsUntilRoutes() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals("routes") && value == JsonToken.START_ARRAY)
+                return true;
+            headerFields.writeFieldName(name);
+            headerFields.copyCurrentStructure(parser);
+            header = null;
+        }
+        return false;
+    }
+
+    /**
+     * Positions the parser at the start of the next route or, if there are no
+     * more routes, reads the remaining attributes of the response
+     */
+    private void advanceToNextRoute() throws IOException {
+        JsonToken token = parser.nextToken();
+        while (token == JsonToken.VALUE_NULL)
+            token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT)
+            return;
+        if (token != JsonToken.END_ARRAY)
+            throw JsonMappingException.from(parser, "expected route object but got " + token);
+        routesFinished = true;
+        readHeaderFieldsUntilRoutes();
+    }
+
+}
@@ -0,0 +1,208 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+
+/**
+ * Writes a {@link RoutingResponse} directly to an {@link OutputStream} without
+ * materializing the whole response (neither as object tree nor as
+ * {@link String}). Routes can be written one by one as soon as they are
+ * calculated, or even segment by segment with {@link #beginRoute()},
+ * {@link #writeSegment(RouteSegment)} and {@link #endRoute(Route)}.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * try (RoutingResponseStreamWriter writer = new RoutingResponseStreamWriter(out)) {
+ *     writer.beginRoutes(responseWithoutRoutes);
+ *     for (Route route : router.calculateRoutes())
+ *         writer.writeRoute(route);
+ *     writer.end();
+ * }
+ * </pre>
+ *
+ * The written JSON can be read with the normal data binding, i.e. it is a valid
+ * {@link RoutingResponse}. Note, that the order of attributes differs from a
+ * {@link RoutingResponse} written in one go: the routes are written after all
+ * other attributes and the segments of a route written with
+ * {@link #beginRoute()} are written before the other attributes of the route.
+ * <p>
+ * If the writer is closed before {@link #end()} was called (e.g. because
+ * calculating a route failed within the try-with-resources block above) the
+ * open arrays and objects are not closed, i.e. the client receives invalid
+ * JSON instead of a valid but truncated {@link RoutingResponse}.
+ * <p>
+ * To apply writer settings such as the geometries requested in a
+ * {@link at.ac.ait.ariadne.routeformat.RoutingRequest} or the number of
+ * decimals of coordinates use
+ * {@link #RoutingResponseStreamWriter(ObjectWriter, OutputStream)}, e.g. with
+ * a writer created by {@link OutputFormatModule#writerFor(ObjectMapper,
+ * at.ac.ait.ariadne.routeformat.RoutingRequest)}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RoutingResponseStreamWriter implements Closeable {
+
+    private enum State {
+        INITIAL, ROUTES, SEGMENTS, END
+    }
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private State state = State.INITIAL;
+
+    public RoutingResponseStreamWriter(OutputStream out) throws IOException {
+        this(RouteFormatJson.getSharedMapper(), out);
+    }
+
+    /**
+     * @param mapper
+     *            the mapper used to serialize the single routes and segments
+     *            (e.g. with indentation enabled)
+     */
+    public RoutingResponseStreamWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+        this(mapper.writer(), out);
+    }
+
+    /**
+     * @param writer
+     *            the writer used to serialize the single routes and segments
+     *            including its attributes (e.g. created with
+     *            {@link OutputFormatModule#writerFor(ObjectMapper, at.ac.ait.ariadne.routeformat.RoutingRequest)})
+     */
+    public RoutingResponseStreamWriter(ObjectWriter writer, OutputStream out) throws IOException {
+        this.writer = writer;
+        this.generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        if (writer.isEnabled(SerializationFeature.INDENT_OUTPUT))
+            generator.useDefaultPrettyPrinter();
+    }
+
+    /**
+     * Writes all attributes of the given response except its routes and opens
+     * the array of routes.
+     *
+     * @param header
+     *            the response containing all attributes except the routes,
+     *            which are ignored if present
+     */
+    public RoutingResponseStreamWriter beginRoutes(RoutingResponse header) throws IOException {
+        Preconditions.checkState(state == State.INITIAL, "routes were already begun");
+        generator.writeStartObject();
+        writeFieldsExcept(header, "routes");
+        generator.writeArrayFieldStart("routes");
+        generator.flush();
+        state = State.ROUTES;
+        return this;
+    }
+
+    /**
+     * Writes a complete route and flushes it to the underlying stream
+     */
+    public RoutingResponseStreamWriter writeRoute(Route route) throws IOException {
+        Preconditions.checkState(state == State.ROUTES, "writing a route is only possible after beginRoutes()");
+        writer.writeValue(generator, route);
+        generator.flush();
+        return this;
+    }
+
+    /**
+     * Begins a route whose segments are subsequently written with
+     * {@link #writeSegment(RouteSegment)}
+     */
+    public RoutingResponseStreamWriter beginRoute() throws IOException {
+        Preconditions.checkState(state == State.ROUTES, "beginning a route is only possible after beginRoutes()");
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("segments");
+        state = State.SEGMENTS;
+        return this;
+    }
+
+    public RoutingResponseStreamWriter writeSegment(RouteSegment segment) throws IOException {
+        Preconditions.checkState(state == State.SEGMENTS, "writing a segment is only possible after beginRoute()");
+        writer.writeValue(generator, segment);
+        return this;
+    }
+
+    /**
+     * Finishes a route begun with {@link #beginRoute()} and flushes it to the
+     * underlying stream.
+     *
+     * @param summary
+     *            the route containing all attributes except the segments
+     *            (which are ignored if present), e.g. created with
+     *            {@link Route#createFromSegments(java.util.List)}
+     */
+    public RoutingResponseStreamWriter endRoute(Route summary) throws IOException {
+        Preconditions.checkState(state == State.SEGMENTS, "ending a route is only possible after beginRoute()");
+        generator.writeEndArray();
+        writeFieldsExcept(summary, "segments");
+        generator.writeEndObject();
+        generator.flush();
+        state = State.ROUTES;
+        return this;
+    }
+
+    /**
+     * Closes the array of routes and the response and flushes everything to
+     * the underlying stream (which is not closed)
+     */
+    public void end() throws IOException {
+        Preconditions.checkState(state == State.ROUTES, "ending is only possible after beginRoutes()");
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+        state = State.END;
+    }
+
+    /**
+     * Closes the writer and the underlying stream. If {@link #end()} was not
+     * called the open arrays and objects are left open, so that the output is
+     * not mistaken for a complete response.
+     */
+    @Override
+    public void close() throws IOException {
+        if (state != State.END)
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.close();
+    }
+
+    /**
+     * Serializes the value into a {@link TokenBuffer} (and not a tree, which
+     * would normalize decimal numbers) and copies all fields except the
+     * excluded one
+     */
+    private void writeFieldsExcept(Object value, String excludedField) throws IOException {
+        TokenBuffer buffer = new TokenBuffer((ObjectCodec) null, false);
+        writer.writeValue(buffer, value);
+        try (JsonParser parser = buffer.asParser()) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (name.equals(excludedField)) {
+                    parser.skipChildren();
+                } else {
+                    generator.writeFieldName(name);
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.features.RoutingFeatures;
+import at.ac.ait.ariadne.routeformat.features.Site;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
+import at.ac.ait.ariadne.routeformat.geojson.PreparedMultiPolygon;
+
+/**
+ * Resolves coordinates to the {@link Site}s of {@link RoutingFeatures} whose
+ * {@link Site#getBoundingPolygon()} contains them, e.g. for routing requests
+ * without {@link RoutingRequest#getSiteId()}.
+ * <p>
+ * Sites are found with a uniform grid over the bounding boxes of their
+ * polygons and then refined with an exact point-in-polygon test (see
+ * {@link PreparedMultiPolygon}). The index is an immutable snapshot, which is
+ * replaced atomically by {@link #rebuild(RoutingFeatures)}, i.e. queries
+ * running concurrently to a rebuild see either the old or the new sites but
+ * never a mixture. Sites without bounding polygon can only be resolved by
+ * their id.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class SiteResolver {
+
+    private volatile Index index;
+
+    public SiteResolver(RoutingFeatures features) {
+        rebuild(features);
+    }
+
+    /**
+     * Builds a new index for the (changed) features and replaces the current
+     * one atomically
+     */
+    public void rebuild(RoutingFeatures features) {
+        index = new Index(features.getSites());
+    }
+
+    /**
+     * @return all sites containing the coordinate in the order of
+     *         {@link RoutingFeatures#getSites()}
+     */
+    public List<Site> getSites(double x, double y) {
+        return index.getSites(x, y);
+    }
+
+    /**
+     * @return the first site (in the order of
+     *         {@link RoutingFeatures#getSites()}) containing the coordinate
+     */
+    public Optional<Site> getSite(double x, double y) {
+        List<Site> sites = index.getSites(x, y);
+        return sites.isEmpty() ? Optional.empty() : Optional.of(sites.get(0));
+    }
+
+    public Optional<Site> getSite(GeoJSONCoordinate coordinate) {
+        return getSite(coordinate.getX().doubleValue(), coordinate.getY().doubleValue());
+    }
+
+    public Optional<Site> getSiteById(String id) {
+        return Optional.ofNullable(index.sitesById.get(id));
+    }
+
+    /**
+     * @return the site given by {@link RoutingRequest#getSiteId()} or, if it is
+     *         not set, the first site containing both from and to of the
+     *         request
+     */
+    public Optional<Site> resolve(RoutingRequest request) {
+        Index current = index;
+        if (request.getSiteId().isPresent())
+            return Optional.ofNullable(current.sitesById.get(request.getSiteId().get()));
+        GeoJSONCoordinate from = request.getFrom().getSimpleCoordinate();
+        GeoJSONCoordinate to = request.getTo().getSimpleCoordinate();
+        List<Site> fromSites = current.getSites(from.getX().doubleValue(), from.getY().doubleValue());
+        if (fromSites.isEmpty())
+            return Optional.empty();
+        List<Site> toSites = current.getSites(to.getX().doubleValue(), to.getY().doubleValue());
+        for (Site site : fromSites) {
+            if (toSites.contains(site))
+                return Optional.of(site);
+        }
+        return Optional.empty();
+    }
+
+    private static class Index {
+        private static final int MAX_CELLS_PER_AXIS = 64;
+
+        private final Map<String, Site> sitesById = new HashMap<>();
+        private final List<Site> sites = new ArrayList<>();
+        private final List<PreparedMultiPolygon> polygons = new ArrayList<>();
+        private final double minX, minY, maxX, maxY, cellWidth, cellHeight;
+        private final int cellsPerAxis;
+        /** indices of the sites whose bounding box touches each cell */
+        private final int[][] cellSites;
+
+        Index(List<Site> allSites) {
+            List<double[]> boxes = new ArrayList<>();
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (Site site : allSites) {
+                sitesById.putIfAbsent(site.getId(), site);
+                if (!site.getBoundingPolygon().isPresent())
+                    continue;
+                GeoJSONPolygon polygon = site.getBoundingPolygon().get().getGeometry();
+                PreparedMultiPolygon prepared = new PreparedMultiPolygon(polygon);
+                if (prepared.isEmpty())
+                    continue;
+                double[] box = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                        Double.NEGATIVE_INFINITY };
+                for (GeoJSONCoordinate coordinate : polygon.getCoordinates().get(0)) {
+                    box[0] = Math.min(box[0], coordinate.getX().doubleValue());
+                    box[1] = Math.min(box[1], coordinate.getY().doubleValue());
+                    box[2] = Math.max(box[2], coordinate.getX().doubleValue());
+                    box[3] = Math.max(box[3], coordinate.getY().doubleValue());
+                }
+                sites.add(site);
+                polygons.add(prepared);
+                boxes.add(box);
+                minX = Math.min(minX, box[0]);
+                minY = Math.min(minY, box[1]);
+                maxX = Math.max(maxX, box[2]);
+                maxY = Math.max(maxY, box[3]);
+            }
+
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            cellsPerAxis = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, 2 * (int) Math.ceil(Math.sqrt(sites.size()))));
+            cellWidth = maxX > minX ? (maxX - minX) / cellsPerAxis : 1;
+            cellHeight = maxY > minY ? (maxY - minY) / cellsPerAxis : 1;
+
+            List<List<Integer>> cells = new ArrayList<>();
+            for (int cell = 0; cell < cellsPerAxis * cellsPerAxis; cell++)
+                cells.add(new ArrayList<>());
+            for (int i = 0; i < boxes.size(); i++) {
+                double[] box = boxes.get(i);
+                for (int row = row(box[1]); row <= row(box[3]); row++) {
+                    for (int column = column(box[0]); column <= column(box[2]); column++)
+                        cells.get(row * cellsPerAxis + column).add(i);
+                }
+            }
+            cellSites = new int[cells.size()][];
+            for (int cell = 0; cell < cells.size(); cell++)
+                cellSites[cell] = cells.get(cell).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        List<Site> getSites(double x, double y) {
+            if (sites.isEmpty() || x < minX || y < minY || x > maxX || y > maxY)
+                return Collections.emptyList();
+            List<Site> result = new ArrayList<>(1);
+            for (int i : cellSites[row(y) * cellsPerAxis + column(x)]) {
+                if (polygons.get(i).contains(x, y))
+                    result.add(sites.get(i));
+            }
+            return result;
+        }
+
+        private int column(double x) {
+            return Math.max(0, Math.min(cellsPerAxis - 1, (int) ((x - minX) / cellWidth)));
+        }
+
+        private int row(double y) {
+            return Math.max(0, Math.min(cellsPerAxis - 1, (int) ((y - minY) / cellHeight)));
+        }
+    }
+
+}
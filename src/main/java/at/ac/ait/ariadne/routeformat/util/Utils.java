@@ -1,25 +1,20 @@
 package at.ac.ait.ariadne.routeformat.util;
 
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.ModeOfTransport;
 import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.geojson.BoundingBox;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
@@ -36,18 +31,28 @@ public class Utils {
      * @return a ZonedDateTime with seconds accuracy
      */
     public static ZonedDateTime parseDateTime(String dateTimeString, String variableName) {
+        return parsePackedDateTime(dateTimeString, variableName).toZonedDateTime();
+    }
+
+    /**
+     * @return a {@link PackedDateTime} with seconds accuracy
+     */
+    public static PackedDateTime parsePackedDateTime(String dateTimeString, String variableName) {
         if (dateTimeString == null)
             throw new IllegalArgumentException(variableName + " must not be null");
 
         try {
-            return ZonedDateTime.parse(dateTimeString).truncatedTo(ChronoUnit.SECONDS);
+            return PackedDateTime.parse(dateTimeString);
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException(variableName + " could not be parsed: " + e.getMessage());
         }
     }
-    
+
+    /**
+     * @return the time formatted with {@link #FORMATTER}
+     */
     public static String getDateTimeString(ZonedDateTime time) {
-        return FORMATTER.format(time);
+        return PackedDateTime.format(time);
     }
 
     public static String getShortStringDateTime(ZonedDateTime time) {
@@ -99,40 +104,20 @@ public class Utils {
     }
 
     public static String getJsonString(Object object) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        return mapper.writeValueAsString(object);
+        return RouteFormatJson.getPrettyWriter().writeValueAsString(object);
     }
 
+    /**
+     * @return the bounding box of the geometries of all segments (including
+     *         {@link RouteSegment#getGeometryGeoJsonEdges()}), see
+     *         {@link RouteSegment#getGeometryBoundingBox()}
+     */
     public static Optional<GeoJSONFeature<GeoJSONPolygon>> getBoundingBoxFromGeometryGeoJson(
             List<RouteSegment> segments) {
-        BigDecimal minX = null, maxX = null, minY = null, maxY = null;
-        for (RouteSegment segment : segments) {
-            if (segment.getGeometryGeoJson().isPresent()) {
-                for (GeoJSONCoordinate xy : segment.getGeometryGeoJson().get().getGeometry().getCoordinates()) {
-                    if (minX == null || minX.compareTo(xy.getX()) > 0)
-                        minX = xy.getX();
-                    if (maxX == null || maxX.compareTo(xy.getX()) < 0)
-                        maxX = xy.getX();
-                    if (minY == null || minY.compareTo(xy.getY()) > 0)
-                        minY = xy.getY();
-                    if (maxY == null || maxY.compareTo(xy.getY()) < 0)
-                        maxY = xy.getY();
-                }
-            }
-        }
-
-        if (minX == null || maxX == null || minY == null || maxY == null)
-            return Optional.empty();
-
-        List<GeoJSONCoordinate> outerRing = new ArrayList<>();
-        outerRing.add(GeoJSONCoordinate.create(minX, minY));
-        outerRing.add(GeoJSONCoordinate.create(minX, maxY));
-        outerRing.add(GeoJSONCoordinate.create(maxX, maxY));
-        outerRing.add(GeoJSONCoordinate.create(maxX, minY));
-        outerRing.add(GeoJSONCoordinate.create(minX, minY));
-        return Optional.of(GeoJSONFeature.createPolygonFeatureFromRings(outerRing, Collections.emptyList()));
+        Optional<BoundingBox> box = Optional.empty();
+        for (RouteSegment segment : segments)
+            box = BoundingBox.union(box, segment.getGeometryBoundingBox());
+        return box.map(BoundingBox::toPolygonFeature);
     }
 
     /**
@@ -0,0 +1,66 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+
+public class BoundingBoxTest {
+
+    @Test
+    public void lineStringBoundingBoxIsUpdatedTest() {
+        GeoJSONLineString lineString = GeoJSONLineString.create(
+                Arrays.asList(GeoJSONCoordinate.create("16.0", "48"), GeoJSONCoordinate.create("16.5", "48.5")));
+        BoundingBox box = lineString.getBoundingBox().get();
+        Assert.assertEquals(16, box.getMinX(), 0);
+        Assert.assertEquals(48.5, box.getMaxY(), 0);
+        Assert.assertSame(box, lineString.getBoundingBox().get());
+
+        lineString.getPackedCoordinates().add(15.5, 49);
+        Assert.assertEquals(15.5, lineString.getBoundingBox().get().getMinX(), 0);
+        Assert.assertEquals(49, lineString.getBoundingBox().get().getMaxY(), 0);
+
+        lineString.getPackedCoordinates().remove(2);
+        lineString.getPackedCoordinates().set(1, GeoJSONCoordinate.create("16.1", "48.1"));
+        Assert.assertEquals(new BoundingBox(16, 48, 16.1, 48.1, null, null, null, null),
+                lineString.getBoundingBox().get());
+
+        lineString.getPackedCoordinates().clear();
+        Assert.assertFalse(lineString.getBoundingBox().isPresent());
+    }
+
+    @Test
+    public void exactPolygonTest() throws IOException {
+        GeoJSONLineString lineString = TestUtil.MAPPER.readValue(
+                "{\"type\":\"LineString\",\"coordinates\":[[16.0,48.20],[16.37,48.1]]}", GeoJSONLineString.class);
+        List<GeoJSONCoordinate> ring = lineString.getBoundingBox().get().toPolygonFeature().getGeometry()
+                .getCoordinates().get(0);
+        Assert.assertEquals(5, ring.size());
+        Assert.assertEquals(new BigDecimal("16.0"), ring.get(0).getX());
+        Assert.assertEquals(new BigDecimal("48.1"), ring.get(0).getY());
+        Assert.assertEquals(new BigDecimal("16.37"), ring.get(2).getX());
+        Assert.assertEquals(new BigDecimal("48.20"), ring.get(2).getY());
+        Assert.assertEquals(ring.get(0), ring.get(4));
+    }
+
+    @Test
+    public void segmentBoundingBoxIncludesEdgesTest() {
+        RouteSegment segment = TestUtil.createTestRouteSegment(TestUtil.START_TIME, TestUtil.END_TIME);
+        GeoJSONFeatureCollection<GeoJSONLineString> edges = new GeoJSONFeatureCollection<>();
+        edges.getFeatures().add(GeoJSONFeature.createLineStringFeature(
+                Arrays.asList(GeoJSONCoordinate.create("15", "48"), GeoJSONCoordinate.create("16", "48"))));
+        segment.setGeometryGeoJsonEdges(edges);
+
+        BoundingBox box = segment.getGeometryBoundingBox().get();
+        Assert.assertEquals(15, box.getMinX(), 0);
+        Assert.assertEquals(16.01, box.getMaxX(), 0);
+        Assert.assertEquals(48.01, box.getMaxY(), 0);
+    }
+
+}
@@ -0,0 +1,68 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+import at.ac.ait.ariadne.routeformat.TestUtil;
+
+public class GeoJSONCoordinateDeserializerTest {
+
+    private static final String[] NUMBERS = { "0", "-0", "0.00", "16", "-16.3738189", "48.20817430", "1E+2", "1e2",
+            "-2.5E-3", "1.5e+10", "123456789012345678", "1234567890123456789.123", "0.0000000000000000000001",
+            "1E-200" };
+
+    @Test
+    public void numbersAreParsedLikeBigDecimalTest() throws IOException {
+        for (String number : NUMBERS) {
+            GeoJSONCoordinate coordinate = TestUtil.MAPPER.readValue("[" + number + ", 1, " + number + "]",
+                    GeoJSONCoordinate.class);
+            Assert.assertEquals(number, new BigDecimal(number), coordinate.getX());
+            Assert.assertEquals(number, new BigDecimal(number), coordinate.getZ().get());
+        }
+    }
+
+    @Test
+    public void lineStringIsParsedIntoPackedListTest() throws IOException {
+        GeoJSONLineString lineString = TestUtil.MAPPER.readValue(
+                "{\"type\":\"LineString\",\"coordinates\":[[16.3738189,48.2081743],[1E+2,-0.10,170.5]]}",
+                GeoJSONLineString.class);
+        Assert.assertEquals(16.3738189, lineString.getPackedCoordinates().getX(0), 0);
+        Assert.assertEquals(GeoJSONCoordinate.create("1E+2", "-0.10", "170.5"), lineString.getCoordinates().get(1));
+        Assert.assertFalse(lineString.getPackedCoordinates().hasZ(0));
+    }
+
+    @Test
+    public void readerIsReusedForAllCoordinatesTest() throws IOException {
+        List<GeoJSONCoordinate> coordinates = TestUtil.MAPPER.readValue("[[1, 2, 3], [4, 12345678901234567890], [5, 6]]",
+                new TypeReference<List<GeoJSONCoordinate>>() {
+                });
+        Assert.assertEquals(GeoJSONCoordinate.create("1", "2", "3"), coordinates.get(0));
+        Assert.assertEquals(GeoJSONCoordinate.create("4", "12345678901234567890"), coordinates.get(1));
+        Assert.assertEquals(GeoJSONCoordinate.create("5", "6"), coordinates.get(2));
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void noArrayTest() throws IOException {
+        TestUtil.MAPPER.readValue("{\"x\": 1}", GeoJSONCoordinate.class);
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void tooManyOrdinatesTest() throws IOException {
+        TestUtil.MAPPER.readValue("[1, 2, 3, 4]", GeoJSONCoordinate.class);
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void nonNumericOrdinateTest() throws IOException {
+        TestUtil.MAPPER.readValue("{\"type\":\"LineString\",\"coordinates\":[[1, \"2\"],[3, 4]]}",
+                GeoJSONLineString.class);
+    }
+
+}
@@ -0,0 +1,86 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import at.ac.ait.ariadne.routeformat.TestUtil;
+
+public class GeoJSONCoordinateSerializerTest {
+
+    private static final String NUMBERS = "[[16.3738189,-48.20817435],[1E+2,0.00,-0.10],[0E-7,0.000001],"
+            + "[123456789.123456,-0.000004999]]";
+
+    private static GeoJSONLineString createLineString() throws IOException {
+        return TestUtil.MAPPER.readValue("{\"type\":\"LineString\",\"coordinates\":" + NUMBERS + "}",
+                GeoJSONLineString.class);
+    }
+
+    @Test
+    public void exactTest() throws IOException {
+        String json = TestUtil.MAPPER.writeValueAsString(createLineString());
+        Assert.assertEquals("{\"type\":\"LineString\",\"coordinates\":" + NUMBERS + "}", json);
+    }
+
+    @Test
+    public void fixedDecimalsTest() throws IOException {
+        ObjectWriter writer = TestUtil.MAPPER.writer().withAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE,
+                7);
+        String expected = "[[16.3738189,-48.2081744],[100,0,-0.1],[0,0.000001],[123456789.123456,-0.000005]]";
+        Assert.assertEquals("{\"type\":\"LineString\",\"coordinates\":" + expected + "}",
+                writer.writeValueAsString(createLineString()));
+        Assert.assertEquals(expected,
+                writer.writeValueAsString(Arrays.asList(createLineString().getCoordinates().toArray())));
+    }
+
+    @Test
+    public void zeroDecimalsTest() throws IOException {
+        ObjectWriter writer = TestUtil.MAPPER.writer().withAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE,
+                0);
+        Assert.assertEquals("[16,-48,170]",
+                writer.writeValueAsString(GeoJSONCoordinate.create("16.3738189", "-48.2081743", "169.5")));
+    }
+
+    @Test
+    public void byteOutputTest() throws IOException {
+        ObjectWriter writer = TestUtil.MAPPER.writer().withAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE,
+                7);
+        GeoJSONLineString lineString = createLineString();
+        Assert.assertEquals(writer.writeValueAsString(lineString),
+                new String(writer.writeValueAsBytes(lineString), StandardCharsets.UTF_8));
+        Assert.assertEquals(TestUtil.MAPPER.writeValueAsString(lineString),
+                new String(TestUtil.MAPPER.writeValueAsBytes(lineString), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void tokenBufferTest() throws IOException {
+        GeoJSONLineString lineString = createLineString();
+        Assert.assertEquals(lineString, TestUtil.MAPPER.convertValue(lineString, GeoJSONLineString.class));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void missingOrdinateTest() throws IOException {
+        GeoJSONLineString lineString = createLineString();
+        lineString.getPackedCoordinates().add(new GeoJSONCoordinate().setX(BigDecimal.ONE));
+        TestUtil.MAPPER.writeValueAsString(lineString);
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void missingOrdinateOfCoordinateTest() throws IOException {
+        TestUtil.MAPPER.writeValueAsString(new GeoJSONCoordinate().setY(BigDecimal.ONE));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void illegalDecimalsTest() throws IOException {
+        TestUtil.MAPPER.writer().withAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE, 19)
+                .writeValueAsString(createLineString());
+    }
+
+}
@@ -40,4 +40,13 @@ public class GeoJSONFeatureTest {
         Assert.assertEquals("Point (1.234 2.3456789)", p.toWKT());
     }
 
+    @Test
+    public void typeNameTest() {
+        Assert.assertEquals("Point", new GeoJSONPoint().getTypeName());
+        Assert.assertEquals("LineString", new GeoJSONLineString().getTypeName());
+        Assert.assertEquals("Feature", new GeoJSONFeature<>().type);
+        Assert.assertEquals("FeatureCollection", new GeoJSONFeatureCollection<>().type);
+        Assert.assertEquals("LineString", GeoJSONUtil.getTypeName(GeoJSONLineString.class));
+    }
+
 }
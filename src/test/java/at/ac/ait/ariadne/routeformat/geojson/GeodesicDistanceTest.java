@@ -0,0 +1,86 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+
+public class GeodesicDistanceTest {
+
+    @Test
+    public void vincentyTest() {
+        // Flinders Peak to Buninyong, reference value from Vincenty (1975)
+        double distance = GeodesicDistance.meters(144.424867889, -37.951033417, 143.926495528, -37.652821139);
+        Assert.assertEquals(54972.271, distance, 0.001);
+        Assert.assertEquals(distance,
+                GeodesicDistance.meters(143.926495528, -37.652821139, 144.424867889, -37.951033417), 1e-6);
+        Assert.assertEquals(0, GeodesicDistance.meters(16, 48, 16, 48), 0);
+        Assert.assertEquals(GeodesicDistance.meters(179.5, 0, 180.5, 0), GeodesicDistance.meters(179.5, 0, -179.5, 0),
+                1e-6);
+        Assert.assertTrue(Double.isNaN(GeodesicDistance.meters(Double.NaN, 48, 16, 48)));
+    }
+
+    @Test
+    public void localApproximationTest() {
+        // just below and above the threshold between the two formulas
+        double local = GeodesicDistance.meters(16.3, 48.2, 16.3999999999, 48.2999999999);
+        double vincenty = GeodesicDistance.meters(16.3, 48.2, 16.4000000001, 48.3000000001);
+        Assert.assertEquals(local, vincenty, 0.01);
+        Assert.assertEquals(1111.90, GeodesicDistance.meters(16, 48, 16, 48.01), 0.01);
+    }
+
+    @Test
+    public void cumulativeDistancesTest() {
+        PackedCoordinateList list = new PackedCoordinateList();
+        list.add(16, 48).add(16, 48.01).add(16, 48.02);
+        double step = GeodesicDistance.meters(16, 48, 16, 48.01);
+        Assert.assertEquals(0, list.getCumulativeDistanceMeters(0), 0);
+        Assert.assertEquals(step, list.getCumulativeDistanceMeters(1), 0);
+        Assert.assertEquals(list.getLengthMeters(), list.getCumulativeDistanceMeters(2), 0);
+
+        // appending keeps, modifying recalculates the distances
+        list.add(16, 48.03);
+        Assert.assertEquals(GeodesicDistance.meters(16, 48, 16, 48.03), list.getLengthMeters(), 0.01);
+        list.set(3, GeoJSONCoordinate.create("16", "48.02"));
+        Assert.assertEquals(list.getCumulativeDistanceMeters(2), list.getLengthMeters(), 0);
+        list.remove(0);
+        Assert.assertEquals(0, list.getCumulativeDistanceMeters(0), 0);
+        Assert.assertEquals(GeodesicDistance.meters(16, 48.01, 16, 48.02), list.getLengthMeters(), 1e-9);
+        list.clear();
+        Assert.assertEquals(0, list.getLengthMeters(), 0);
+    }
+
+    @Test
+    public void interpolateTest() {
+        GeoJSONLineString lineString = GeoJSONLineString.create(Arrays.asList(GeoJSONCoordinate.create("16", "48", "100"),
+                GeoJSONCoordinate.create("16", "48.01", "200"), GeoJSONCoordinate.create("16.01", "48.01")));
+        double step = lineString.getPackedCoordinates().getCumulativeDistanceMeters(1);
+
+        Assert.assertEquals(GeoJSONCoordinate.create(16, 48.005, 150), lineString.getCoordinateAtDistance(step / 2));
+        Assert.assertEquals(lineString.getCoordinates().get(1), lineString.getCoordinateAtDistance(step));
+        Assert.assertEquals(GeoJSONCoordinate.create(16.005, 48.01),
+                lineString.getCoordinateAtDistance((step + lineString.getLengthMeters()) / 2));
+        Assert.assertEquals(lineString.getCoordinates().get(0), lineString.getCoordinateAtDistance(-1));
+        Assert.assertEquals(lineString.getCoordinates().get(2), lineString.getCoordinateAtDistance(1e9));
+        Assert.assertEquals(1, lineString.getPackedCoordinates().getIndexAtDistance(step));
+    }
+
+    @Test
+    public void distanceFromGeometryTest() {
+        GeoJSONLineString lineString = GeoJSONLineString.create(
+                Arrays.asList(GeoJSONCoordinate.create("16", "48"), GeoJSONCoordinate.create("16", "48.01")));
+        RouteSegment withGeometry = new RouteSegment().setDistanceMeters(1)
+                .setGeometryGeoJson(GeoJSONFeature.createLineStringFeature(lineString));
+        RouteSegment withoutGeometry = new RouteSegment().setDistanceMeters(100);
+        Route route = new Route().setSegments(Arrays.asList(withGeometry, withoutGeometry));
+
+        route.setDistanceMetersFromGeometry();
+        Assert.assertEquals(1112, withGeometry.getDistanceMeters());
+        Assert.assertEquals(100, withoutGeometry.getDistanceMeters());
+        Assert.assertEquals(1212, route.getDistanceMeters());
+    }
+
+}
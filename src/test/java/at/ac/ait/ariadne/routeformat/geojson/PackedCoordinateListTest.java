@@ -0,0 +1,358 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PackedCoordinateListTest {
+
+    private static final List<GeoJSONCoordinate> COORDINATES = Arrays.asList(GeoJSONCoordinate.create("16", "48.2"),
+            GeoJSONCoordinate.create("16.3738189", "48.2081743"), GeoJSONCoordinate.create("1E+2", "-0.10", "170.5"));
+
+    @Test
+    public void exactRoundTripTest() {
+        PackedCoordinateList list = new PackedCoordinateList(COORDINATES);
+        Assert.assertEquals(COORDINATES, list);
+        Assert.assertEquals(list, COORDINATES);
+        Assert.assertEquals(COORDINATES.hashCode(), list.hashCode());
+        Assert.assertEquals(new BigDecimal("-0.10"), list.get(2).getY());
+        Assert.assertFalse(list.get(0).getZ().isPresent());
+        Assert.assertEquals(new BigDecimal("170.5"), list.get(2).getZ().get());
+    }
+
+    @Test
+    public void primitiveAccessTest() {
+        PackedCoordinateList list = new PackedCoordinateList(COORDINATES);
+        Assert.assertEquals(16.3738189, list.getX(1), 0);
+        Assert.assertEquals(48.2081743, list.getY(1), 0);
+        Assert.assertEquals(100, list.getX(2), 0);
+        Assert.assertFalse(list.hasZ(1));
+        Assert.assertTrue(Double.isNaN(list.getZ(1)));
+        Assert.assertTrue(list.hasZ(2));
+        Assert.assertTrue(list.hasAnyZ());
+    }
+
+    @Test
+    public void addDoubleTest() {
+        PackedCoordinateList list = new PackedCoordinateList();
+        list.add(16.37, 48.2).add(16.38, 48.21, 180);
+        Assert.assertEquals(GeoJSONCoordinate.create(16.37, 48.2), list.get(0));
+        Assert.assertEquals(GeoJSONCoordinate.create(16.38, 48.21, 180), list.get(1));
+    }
+
+    @Test
+    public void roundingTest() {
+        // exactly between two results (in decimal), negative values are
+        // rounded away from zero as well
+        double[] values = { 0.00000005, -0.00000005, -16.12345675, 16.12345675, -0.00000015, 1.00000025,
+                -99999.99999995, 123456.123456785, -0.0 };
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double value = (random.nextDouble() - 0.5) * 360;
+            if (i % 2 == 0)
+                value = Math.round(value * 1e8) / 1e8 + (value < 0 ? -5e-8 : 5e-8);
+            checkRounding(value);
+        }
+        for (double value : values)
+            checkRounding(value);
+    }
+
+    private static void checkRounding(double value) {
+        BigDecimal expected = new BigDecimal(String.format(Locale.US, "%.7f", value));
+        Assert.assertEquals(expected, GeoJSONCoordinate.create(value, value).getX());
+        Assert.assertEquals(expected, new PackedCoordinateList().add(value, 0).get(0).getX());
+    }
+
+    @Test
+    public void getUnscaledTest() {
+        PackedCoordinateList list = new PackedCoordinateList(
+                Arrays.asList(GeoJSONCoordinate.create("16.3738189", "-48.2081750", "171"),
+                        GeoJSONCoordinate.create("1.5E+2", "-0.000005", "-2.5")));
+        Assert.assertEquals(1637382, list.getUnscaled(0, 0, 5));
+        Assert.assertEquals(-4820818, list.getUnscaled(0, 1, 5));
+        Assert.assertEquals(171000000, list.getUnscaled(0, 2, 6));
+        Assert.assertEquals(15000000, list.getUnscaled(1, 0, 5));
+        Assert.assertEquals(-1, list.getUnscaled(1, 1, 5));
+        Assert.assertEquals(-3, list.getUnscaled(1, 2, 0));
+        Assert.assertEquals(0, list.getUnscaled(1, 1, 0));
+        list.add(1, 2);
+        try {
+            list.getUnscaled(2, 2, 5);
+            Assert.fail("z is not set");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void nullCoordinateTest() {
+        PackedCoordinateList list = new PackedCoordinateList(COORDINATES);
+        try {
+            list.addAll(Arrays.asList(GeoJSONCoordinate.create(1, 2), null));
+            Assert.fail("a null coordinate must be rejected");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("coordinate at index " + (COORDINATES.size() + 1), e.getMessage());
+        }
+        Assert.assertEquals(COORDINATES, list);
+        try {
+            list.set(0, null);
+            Assert.fail("a null coordinate must be rejected");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("coordinate at index 0", e.getMessage());
+        }
+        Assert.assertEquals(COORDINATES, list);
+        try {
+            new GeoJSONLineString().setCoordinates(Arrays.asList(GeoJSONCoordinate.create(1, 2), null));
+            Assert.fail("a null coordinate must be rejected");
+        } catch (NullPointerException e) {
+            Assert.assertEquals("coordinate at index 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void hashCodeTest() {
+        List<GeoJSONCoordinate> coordinates = new ArrayList<>(COORDINATES);
+        coordinates.add(GeoJSONCoordinate.create("-179.9999999", "-89.1234567890123456", "-0.5"));
+        coordinates.add(GeoJSONCoordinate.create("-12345678901.5", "0"));
+        coordinates.add(GeoJSONCoordinate.create("-1E+5", "0.000"));
+        coordinates.add(new GeoJSONCoordinate().setY(BigDecimal.ONE));
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++)
+            coordinates.add(GeoJSONCoordinate.create((random.nextDouble() - 0.5) * 360,
+                    (random.nextDouble() - 0.5) * 1e10));
+        PackedCoordinateList list = new PackedCoordinateList(coordinates);
+        Assert.assertEquals(coordinates, list);
+        Assert.assertEquals(coordinates.hashCode(), list.hashCode());
+        Assert.assertEquals(new PackedCoordinateList(COORDINATES).hashCode(), COORDINATES.hashCode());
+    }
+
+    @Test
+    public void unmodifiableViewTest() {
+        PackedCoordinateList list = new PackedCoordinateList(COORDINATES);
+        List<GeoJSONCoordinate> view = list.asUnmodifiableList();
+        Assert.assertEquals(COORDINATES, view);
+        Assert.assertEquals(view, COORDINATES);
+        Assert.assertEquals(COORDINATES.get(2), view.get(2));
+        Assert.assertSame(list, PackedCoordinateList.unwrap(view));
+        try {
+            view.get(0).setX(BigDecimal.ONE);
+            Assert.fail("coordinates of the view must be read-only");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            view.add(GeoJSONCoordinate.create("1", "1"));
+            Assert.fail("the view must be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        list.set(0, GeoJSONCoordinate.create("1", "1"));
+        Assert.assertEquals(GeoJSONCoordinate.create("1", "1"), view.get(0));
+    }
+
+    @Test
+    public void modificationTest() {
+        PackedCoordinateList list = new PackedCoordinateList();
+        for (int i = 0; i < 100; i++)
+            list.add(GeoJSONCoordinate.create(i, i));
+        list.add(0, COORDINATES.get(2));
+        list.set(1, COORDINATES.get(0));
+        list.remove(2);
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(COORDINATES.get(2), list.get(0));
+        Assert.assertEquals(COORDINATES.get(0), list.get(1));
+        Assert.assertEquals(GeoJSONCoordinate.create(2, 2), list.get(2));
+        Assert.assertFalse(list.get(99).getZ().isPresent());
+
+        PackedCoordinateList copy = list.copyOfRange(1, 3);
+        copy.addAll(list.copyOfRange(0, 1));
+        Assert.assertEquals(Arrays.asList(list.get(1), list.get(2), list.get(0)), copy);
+
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.hasAnyZ());
+    }
+
+    @Test
+    public void concurrentReadTest() throws Exception {
+        Random random = new Random(42);
+        PackedCoordinateList expected = new PackedCoordinateList();
+        for (int i = 0; i < 10000; i++)
+            expected.add(16 + random.nextDouble(), 48 + random.nextDouble());
+        double length = expected.getLengthMeters();
+        BoundingBox box = expected.getBoundingBox().get();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int run = 0; run < 20; run++) {
+                // the range has neither cached distances nor extremes
+                PackedCoordinateList list = expected.copyOfRange(0, expected.size());
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < 4; thread++) {
+                    futures.add(executor.submit(() -> {
+                        Assert.assertEquals(length, list.getLengthMeters(), 0);
+                        Assert.assertEquals(box.getMaxX(), list.getBoundingBox().get().getMaxX(), 0);
+                        Assert.assertEquals(list.getCumulativeDistanceMeters(5000),
+                                expected.getCumulativeDistanceMeters(5000), 0);
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void copyOfRangeTest() {
+        PackedCoordinateList list = new PackedCoordinateList(COORDINATES);
+        PackedCoordinateList range = list.copyOfRange(1, 3);
+        Assert.assertEquals(COORDINATES.subList(1, 3), range);
+        Assert.assertEquals(100, range.getX(1), 0);
+        Assert.assertTrue(range.hasZ(1));
+
+        range.set(0, COORDINATES.get(0));
+        range.add(GeoJSONCoordinate.create(1, 2));
+        Assert.assertEquals(COORDINATES, list);
+        Assert.assertEquals(Arrays.asList(COORDINATES.get(0), COORDINATES.get(2), GeoJSONCoordinate.create(1, 2)),
+                range);
+
+        range = list.copyOfRange(0, 2);
+        list.remove(0);
+        list.add(16, 48);
+        Assert.assertEquals(COORDINATES.subList(0, 2), range);
+        Assert.assertFalse(range.hasAnyZ());
+    }
+
+    @Test
+    public void concatTest() {
+        PackedCoordinateList first = new PackedCoordinateList(COORDINATES.subList(0, 2));
+        PackedCoordinateList second = new PackedCoordinateList(COORDINATES.subList(1, 3));
+        Assert.assertTrue(first.getBoundingBox().isPresent());
+        PackedCoordinateList concatenation = first.concat(second);
+        Assert.assertEquals(4, concatenation.size());
+        Assert.assertEquals(COORDINATES.subList(0, 2), concatenation.subList(0, 2));
+        Assert.assertEquals(COORDINATES.subList(1, 3), concatenation.subList(2, 4));
+        Assert.assertEquals(new PackedCoordinateList(concatenation).getBoundingBox(),
+                concatenation.getBoundingBox());
+
+        // the sources and the concatenation are independent
+        first.add(1, 1);
+        first.set(0, COORDINATES.get(2));
+        concatenation.set(1, COORDINATES.get(2));
+        Assert.assertEquals(Arrays.asList(COORDINATES.get(2), COORDINATES.get(1), GeoJSONCoordinate.create(1, 1)),
+                first);
+        Assert.assertEquals(Arrays.asList(COORDINATES.get(0), COORDINATES.get(2), COORDINATES.get(1),
+                COORDINATES.get(2)), concatenation);
+        Assert.assertEquals(COORDINATES.subList(1, 3), second);
+    }
+
+    @Test
+    public void concatDoesNotModifySourcesTest() {
+        PackedCoordinateList source = new PackedCoordinateList(COORDINATES.subList(0, 2));
+        PackedCoordinateList other = new PackedCoordinateList(COORDINATES.subList(2, 3));
+        // both results are appended to, which must neither affect the source
+        // nor the other result
+        PackedCoordinateList a = source.concat(other).add(1, 1);
+        PackedCoordinateList b = source.concat(other).add(2, 2);
+        Assert.assertEquals(COORDINATES.subList(0, 2), source);
+        Assert.assertEquals(COORDINATES.subList(2, 3), other);
+        Assert.assertEquals(GeoJSONCoordinate.create(1, 1), a.get(3));
+        Assert.assertEquals(GeoJSONCoordinate.create(2, 2), b.get(3));
+        Assert.assertEquals(COORDINATES, a.subList(0, 3));
+        Assert.assertEquals(COORDINATES, b.subList(0, 3));
+    }
+
+    @Test
+    public void rangeSharingTest() {
+        PackedCoordinateList list = new PackedCoordinateList(10).add(1, 1).add(2, 2).add(3, 3);
+        PackedCoordinateList head = list.copyOfRange(0, 2);
+        PackedCoordinateList all = list.copyOfRange(0, 3);
+        // only one of the lists ending at the last used slot may append there
+        list.add(4, 4);
+        all.add(5, 5, 50);
+        head.add(6, 6);
+        head.removeRange(0, 1);
+        Assert.assertEquals(new PackedCoordinateList().add(1, 1).add(2, 2).add(3, 3).add(4, 4), list);
+        Assert.assertEquals(new PackedCoordinateList().add(1, 1).add(2, 2).add(3, 3).add(5, 5, 50), all);
+        Assert.assertEquals(new PackedCoordinateList().add(2, 2).add(6, 6), head);
+        Assert.assertFalse(list.hasAnyZ());
+
+        // removing the tail of a shared list does not affect the others
+        PackedCoordinateList range = list.copyOfRange(1, 4);
+        range.remove(2);
+        range.add(7, 7);
+        list.clear();
+        list.add(8, 8);
+        Assert.assertEquals(new PackedCoordinateList().add(2, 2).add(3, 3).add(7, 7), range);
+        Assert.assertEquals(new PackedCoordinateList().add(8, 8), list);
+    }
+
+    @Test
+    public void concurrentConcatTest() throws Exception {
+        PackedCoordinateList source = new PackedCoordinateList(1000);
+        for (int i = 0; i < 100; i++)
+            source.add(i, i);
+        PackedCoordinateList expectedSource = new PackedCoordinateList(source);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<PackedCoordinateList>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int value = thread;
+                futures.add(executor.submit(() -> {
+                    PackedCoordinateList other = new PackedCoordinateList();
+                    for (int i = 0; i < 100; i++)
+                        other.add(value, -i);
+                    PackedCoordinateList concatenation = source.concat(other);
+                    for (int i = 0; i < 100; i++)
+                        concatenation.add(value, i);
+                    return concatenation;
+                }));
+            }
+            for (int thread = 0; thread < futures.size(); thread++) {
+                PackedCoordinateList concatenation = futures.get(thread).get();
+                Assert.assertEquals(300, concatenation.size());
+                Assert.assertEquals(expectedSource, concatenation.subList(0, 100));
+                for (int i = 0; i < 100; i++) {
+                    Assert.assertEquals(GeoJSONCoordinate.create(thread, -i), concatenation.get(100 + i));
+                    Assert.assertEquals(GeoJSONCoordinate.create(thread, i), concatenation.get(200 + i));
+                }
+            }
+            Assert.assertEquals(expectedSource, source);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void concatChainTest() {
+        PackedCoordinateList expected = new PackedCoordinateList();
+        PackedCoordinateList concatenation = new PackedCoordinateList();
+        List<PackedCoordinateList> parts = new ArrayList<>();
+        List<PackedCoordinateList> intermediates = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            PackedCoordinateList part = new PackedCoordinateList().add(i, i).add(i + 0.5, i + 0.5);
+            expected.addAll(part);
+            parts.add(part);
+            concatenation = concatenation.concat(part);
+            intermediates.add(concatenation);
+        }
+        Assert.assertEquals(expected, concatenation);
+        for (int i = 0; i < intermediates.size(); i++)
+            Assert.assertEquals(expected.subList(0, 2 * (i + 1)), intermediates.get(i));
+        Assert.assertEquals(expected.getLengthMeters(), concatenation.getLengthMeters(), 1e-6);
+        Assert.assertEquals(expected, PackedCoordinateList.concat(parts));
+    }
+
+}
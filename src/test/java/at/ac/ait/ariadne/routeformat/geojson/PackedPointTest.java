@@ -0,0 +1,48 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PackedPointTest {
+
+    @Test
+    public void exactOrdinatesTest() {
+        GeoJSONCoordinate coordinate = GeoJSONCoordinate.create("16", "48.2345678901", "-3.50");
+        PackedPoint point = PackedPoint.of(coordinate);
+        Assert.assertEquals(coordinate, point.toCoordinate());
+        Assert.assertEquals(new BigDecimal("-3.50"), point.toCoordinate().getZ().get());
+        Assert.assertEquals(16, point.getX(), 0);
+        Assert.assertEquals(48.2345678901, point.getY(), 0);
+        Assert.assertTrue(point.hasZ());
+        Assert.assertEquals(GeoJSONFeature.createPointFeature(coordinate), point.toFeature());
+
+        PackedPoint point2D = PackedPoint.of(GeoJSONCoordinate.create("16", "48"));
+        Assert.assertFalse(point2D.hasZ());
+        Assert.assertTrue(Double.isNaN(point2D.getZ()));
+        Assert.assertFalse(point2D.toCoordinate().getZ().isPresent());
+    }
+
+    @Test
+    public void equalsTest() {
+        PackedPoint a = PackedPoint.of(GeoJSONCoordinate.create("16.1", "48.2"));
+        Assert.assertEquals(a, PackedPoint.of(GeoJSONCoordinate.create("16.1", "48.2")));
+        Assert.assertEquals(a.hashCode(), PackedPoint.of(GeoJSONCoordinate.create("16.1", "48.2")).hashCode());
+        // same as BigDecimal the scale matters
+        Assert.assertNotEquals(a, PackedPoint.of(GeoJSONCoordinate.create("16.10", "48.2")));
+        Assert.assertNotEquals(a, PackedPoint.of(GeoJSONCoordinate.create("16.1", "48.2", "0")));
+    }
+
+    @Test
+    public void featureTest() {
+        GeoJSONFeature<GeoJSONPoint> feature = GeoJSONFeature.createPointFeature(GeoJSONCoordinate.create("1", "2"));
+        Assert.assertEquals(feature, PackedPoint.of(feature).get().toFeature());
+
+        feature.getProperties().put("name", "value");
+        Assert.assertFalse(PackedPoint.of(feature).isPresent());
+        Assert.assertFalse(PackedPoint.of(GeoJSONFeature.createPointFeature(new GeoJSONPoint())).isPresent());
+        Assert.assertFalse(PackedPoint.of((GeoJSONFeature<GeoJSONPoint>) null).isPresent());
+    }
+
+}
@@ -0,0 +1,105 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PreparedMultiPolygonTest {
+
+    /**
+     * a star-shaped ring with many vertices around the center
+     */
+    private static List<GeoJSONCoordinate> createRing(double centerX, double centerY, double radius, int vertices,
+            Random random) {
+        List<GeoJSONCoordinate> ring = new ArrayList<>();
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double r = radius * (0.5 + random.nextDouble() / 2);
+            ring.add(GeoJSONCoordinate.create(centerX + r * Math.cos(angle), centerY + r * Math.sin(angle)));
+        }
+        ring.add(ring.get(0));
+        return ring;
+    }
+
+    /** two overlapping polygons, the first one with a hole */
+    private static List<List<List<GeoJSONCoordinate>>> createPolygons() {
+        Random random = new Random(1);
+        List<List<GeoJSONCoordinate>> first = Arrays.asList(createRing(16.37, 48.2, 0.1, 2000, random),
+                createRing(16.37, 48.2, 0.02, 100, random));
+        List<List<GeoJSONCoordinate>> second = Arrays.asList(createRing(16.45, 48.2, 0.05, 300, random));
+        return Arrays.asList(first, second);
+    }
+
+    private static boolean naiveContains(List<List<List<GeoJSONCoordinate>>> polygons, double x, double y) {
+        for (List<List<GeoJSONCoordinate>> polygon : polygons) {
+            boolean inside = false;
+            for (List<GeoJSONCoordinate> ring : polygon) {
+                for (int i = 0; i + 1 < ring.size(); i++) {
+                    double ax = ring.get(i).getX().doubleValue(), ay = ring.get(i).getY().doubleValue();
+                    double bx = ring.get(i + 1).getX().doubleValue(), by = ring.get(i + 1).getY().doubleValue();
+                    if ((ay > y) != (by > y) && x < ax + (y - ay) * (bx - ax) / (by - ay))
+                        inside = !inside;
+                }
+            }
+            if (inside)
+                return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void containsTest() {
+        List<List<List<GeoJSONCoordinate>>> polygons = createPolygons();
+        PreparedMultiPolygon prepared = new PreparedMultiPolygon(GeoJSONMultiPolygon.create(polygons));
+        Random random = new Random(2);
+        for (int i = 0; i < 20000; i++) {
+            double x = 16.25 + random.nextDouble() * 0.3, y = 48.08 + random.nextDouble() * 0.24;
+            Assert.assertEquals("point " + x + " " + y, naiveContains(polygons, x, y), prepared.contains(x, y));
+        }
+        Assert.assertFalse(prepared.contains(16.37, 48.2));
+        Assert.assertTrue(prepared.contains(16.45, 48.2));
+    }
+
+    @Test
+    public void intersectsTest() {
+        PreparedMultiPolygon prepared = new PreparedMultiPolygon(GeoJSONMultiPolygon.create(createPolygons()));
+        // completely within the hole, crossing the hole's ring, passing by
+        Assert.assertFalse(prepared.intersects(16.369, 48.2, 16.371, 48.2));
+        Assert.assertTrue(prepared.intersects(16.37, 48.2, 16.37, 48.25));
+        Assert.assertFalse(prepared.intersects(16.0, 48.0, 16.1, 48.5));
+        // both ends outside, crossing the whole polygon
+        Assert.assertTrue(prepared.intersects(16.2, 48.3, 16.6, 48.1));
+
+        GeoJSONLineString lineString = GeoJSONLineString.create(Arrays.asList(GeoJSONCoordinate.create("16.0", "48.0"),
+                GeoJSONCoordinate.create("16.0", "48.2"), GeoJSONCoordinate.create("16.4", "48.2")));
+        Assert.assertEquals(1, prepared.findFirstIntersectingEdge(lineString).get().intValue());
+        Assert.assertFalse(prepared.intersects(lineString.subLineString(0, 2)));
+    }
+
+    @Test
+    public void segmentsIntersectTest() {
+        Assert.assertTrue(PreparedMultiPolygon.segmentsIntersect(0, 0, 2, 2, 0, 2, 2, 0));
+        Assert.assertTrue(PreparedMultiPolygon.segmentsIntersect(0, 0, 2, 0, 1, 0, 1, 1));
+        Assert.assertTrue(PreparedMultiPolygon.segmentsIntersect(0, 0, 2, 0, 1, 0, 3, 0));
+        Assert.assertFalse(PreparedMultiPolygon.segmentsIntersect(0, 0, 2, 0, 3, 0, 4, 0));
+        Assert.assertFalse(PreparedMultiPolygon.segmentsIntersect(0, 0, 2, 2, 0, 1, 1, 2));
+    }
+
+    @Test
+    public void rectangleTest() {
+        PreparedMultiPolygon prepared = new PreparedMultiPolygon(GeoJSONPolygon.create(Arrays.asList(
+                Arrays.asList(GeoJSONCoordinate.create("0", "0"), GeoJSONCoordinate.create("0", "1"),
+                        GeoJSONCoordinate.create("1", "1"), GeoJSONCoordinate.create("1", "0"),
+                        GeoJSONCoordinate.create("0", "0")))));
+        Assert.assertTrue(prepared.contains(0.5, 0.5));
+        Assert.assertFalse(prepared.contains(1.5, 0.5));
+        Assert.assertFalse(prepared.intersects(-1, 0.5, -0.5, 0.5));
+        Assert.assertTrue(prepared.intersects(-1, 0.5, 2, 0.5));
+        Assert.assertTrue(new PreparedMultiPolygon(new GeoJSONMultiPolygon()).isEmpty());
+    }
+
+}
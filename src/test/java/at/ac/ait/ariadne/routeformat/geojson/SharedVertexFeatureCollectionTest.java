@@ -0,0 +1,128 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class SharedVertexFeatureCollectionTest {
+
+    @Test
+    public void shareEdgeVerticesTest() throws IOException {
+        RouteSegment segment = new IntermodalRouteExample().getFootSegment();
+        GeoJSONFeatureCollection<GeoJSONLineString> edges = segment.getGeometryGeoJsonEdges().get();
+        String expectedJson = TestUtil.MAPPER.writeValueAsString(edges);
+        Assert.assertFalse(edges instanceof SharedVertexFeatureCollection);
+
+        Assert.assertTrue(segment.shareEdgeVertices());
+        GeoJSONFeatureCollection<GeoJSONLineString> shared = segment.getGeometryGeoJsonEdges().get();
+        Assert.assertTrue(shared instanceof SharedVertexFeatureCollection);
+        Assert.assertEquals(edges, shared);
+        Assert.assertEquals(expectedJson, TestUtil.MAPPER.writeValueAsString(shared));
+        Assert.assertEquals(edges, TestUtil.MAPPER.readValue(expectedJson,
+                new TypeReference<GeoJSONFeatureCollection<GeoJSONLineString>>() {
+                }));
+        Assert.assertEquals(segment.getGeometryGeoJson().get().getGeometry().getBoundingBox(),
+                segment.getGeometryBoundingBox());
+        Assert.assertTrue(segment.shareEdgeVertices());
+
+        // modifying the geometry ends the sharing
+        segment.getGeometryGeoJson().get().getGeometry().getPackedCoordinates().add(16.4, 48.2);
+        Assert.assertEquals(expectedJson, TestUtil.MAPPER.writeValueAsString(shared));
+        Assert.assertFalse(((SharedVertexFeatureCollection) shared)
+                .sharesVerticesOf(segment.getGeometryGeoJson().get().getGeometry()));
+    }
+
+    @Test
+    public void viewTest() {
+        GeoJSONLineString lineString = new GeoJSONLineString()
+                .setCoordinates(new PackedCoordinateList().add(0, 0).add(1, 0).add(2, 0).add(3, 0));
+        SharedVertexFeatureCollection edges = new SharedVertexFeatureCollection(lineString);
+        edges.addEdge(0, 2, null).addEdge(1, 4, null);
+        edges.getFeatures().get(1).getProperties().put("name", "second");
+        Assert.assertEquals("second", edges.getFeatures().get(1).getProperties().get("name"));
+        Assert.assertSame(edges.getFeatures().get(0), edges.getFeatures().get(0));
+        Assert.assertEquals(Arrays.asList("LineString (0 0, 1 0)", "LineString (1 0, 2 0, 3 0)"), edges.toWKT());
+        Assert.assertTrue(edges.sharesVerticesOf(lineString));
+
+        // the edges are independent of later changes of the common line
+        // string (or of other edges)
+        lineString.getPackedCoordinates().set(1, GeoJSONCoordinate.create("1", "1"));
+        lineString.getPackedCoordinates().remove(3);
+        edges.getFeatures().get(0).getGeometry().getPackedCoordinates().set(1, GeoJSONCoordinate.create("5", "5"));
+        Assert.assertEquals(Arrays.asList("LineString (0 0, 5 5)", "LineString (1 0, 2 0, 3 0)"), edges.toWKT());
+        Assert.assertEquals("LineString (0 0, 1 0, 2 0, 3 0)", edges.getLineString().toWKT());
+        Assert.assertFalse(edges.sharesVerticesOf(lineString));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void edgeAfterLastVertexTest() {
+        GeoJSONLineString lineString = new GeoJSONLineString()
+                .setCoordinates(new PackedCoordinateList().add(0, 0).add(1, 0));
+        new SharedVertexFeatureCollection(lineString).addEdge(0, 2, null).addEdge(1, 3, null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyTest() {
+        GeoJSONLineString lineString = new GeoJSONLineString()
+                .setCoordinates(new PackedCoordinateList().add(0, 0).add(1, 0));
+        new SharedVertexFeatureCollection(lineString).getFeatures()
+                .add(GeoJSONFeature.createLineStringFeature(lineString));
+    }
+
+    @Test
+    public void setFeaturesTest() {
+        GeoJSONLineString lineString = new GeoJSONLineString()
+                .setCoordinates(new PackedCoordinateList().add(0, 0).add(1, 0).add(2, 0).add(3, 0));
+        SharedVertexFeatureCollection edges = new SharedVertexFeatureCollection(lineString);
+        GeoJSONFeatureCollection<GeoJSONLineString> collection = edges;
+
+        // consecutive parts keep sharing the vertices of the line string
+        collection.setFeatures(Arrays.asList(GeoJSONFeature.createLineStringFeature(lineString.subLineString(0, 2)),
+                GeoJSONFeature.createLineStringFeature(lineString.subLineString(1, 4))));
+        Assert.assertTrue(edges.sharesVerticesOf(lineString));
+        Assert.assertEquals(Arrays.asList("LineString (0 0, 1 0)", "LineString (1 0, 2 0, 3 0)"), edges.toWKT());
+
+        // other edges get their own common line string
+        collection.setFeatures(Arrays.asList(
+                GeoJSONFeature.createLineStringFeature(
+                        new GeoJSONLineString().setCoordinates(new PackedCoordinateList().add(5, 5).add(6, 6))),
+                GeoJSONFeature.createLineStringFeature(
+                        new GeoJSONLineString().setCoordinates(new PackedCoordinateList().add(6, 6).add(7, 7)))));
+        Assert.assertFalse(edges.sharesVerticesOf(lineString));
+        Assert.assertEquals(3, edges.getLineString().getCoordinates().size());
+        Assert.assertEquals(Arrays.asList("LineString (5 5, 6 6)", "LineString (6 6, 7 7)"), edges.toWKT());
+
+        // replacing the features with the view itself keeps them
+        collection.setFeatures(edges.getFeatures());
+        Assert.assertEquals(Arrays.asList("LineString (5 5, 6 6)", "LineString (6 6, 7 7)"), edges.toWKT());
+        Assert.assertEquals(4, lineString.getCoordinates().size());
+    }
+
+    @Test
+    public void notConsecutiveTest() {
+        GeoJSONLineString lineString = new GeoJSONLineString()
+                .setCoordinates(new PackedCoordinateList().add(0, 0).add(1, 0).add(2, 0).add(3, 0));
+        List<GeoJSONFeature<GeoJSONLineString>> edges = Arrays.asList(
+                GeoJSONFeature.createLineStringFeature(lineString.subLineString(0, 2)),
+                GeoJSONFeature.createLineStringFeature(lineString.subLineString(2, 4)));
+        Assert.assertTrue(SharedVertexFeatureCollection.create(lineString, edges).isPresent());
+
+        edges = Arrays.asList(GeoJSONFeature.createLineStringFeature(lineString.subLineString(0, 2)),
+                GeoJSONFeature.createLineStringFeature(lineString.subLineString(3, 4)));
+        Assert.assertFalse(SharedVertexFeatureCollection.create(lineString, edges).isPresent());
+
+        edges = Arrays.asList(GeoJSONFeature.createLineStringFeature(
+                new GeoJSONLineString().setCoordinates(new PackedCoordinateList().add(0, 0).add(1, 0.5))));
+        Assert.assertFalse(SharedVertexFeatureCollection.create(lineString, edges).isPresent());
+    }
+
+}
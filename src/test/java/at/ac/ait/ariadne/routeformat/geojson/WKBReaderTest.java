@@ -0,0 +1,79 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WKBReaderTest {
+
+    private final WKBReader reader = new WKBReader();
+
+    private static List<GeoJSONGeometryObject> createGeometries() {
+        return Arrays.asList(GeoJSONPoint.create(GeoJSONCoordinate.create("1.5", "-2")),
+                GeoJSONPoint.create(GeoJSONCoordinate.create("1", "2", "3")), new GeoJSONPoint(),
+                new GeoJSONLineString().setCoordinates(new PackedCoordinateList().add(16.1, 48.2).add(16.2, 48.3)),
+                new GeoJSONLineString()
+                        .setCoordinates(new PackedCoordinateList().add(16.1, 48.2, 170).add(16.2, 48.3, 171.5)),
+                GeoJSONPolygon.create(Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(0, 0),
+                        GeoJSONCoordinate.create(1, 0), GeoJSONCoordinate.create(1, 1), GeoJSONCoordinate.create(0, 0)))),
+                GeoJSONMultiPolygon.create(Arrays.asList(
+                        Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(0, 0, 1), GeoJSONCoordinate.create(1, 0, 1),
+                                GeoJSONCoordinate.create(1, 1, 2), GeoJSONCoordinate.create(0, 0, 1))),
+                        Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(5, 5, 0), GeoJSONCoordinate.create(6, 5, 0),
+                                GeoJSONCoordinate.create(6, 6, 0), GeoJSONCoordinate.create(5, 5, 0))))));
+    }
+
+    @Test
+    public void roundTripTest() {
+        for (WKBWriter writer : Arrays.asList(new WKBWriter(), new WKBWriter().setByteOrder(ByteOrder.BIG_ENDIAN),
+                new WKBWriter().setSrid(4326))) {
+            for (GeoJSONGeometryObject geometry : createGeometries())
+                Assert.assertEquals(geometry.toWKT(), reader.read(writer.toWKB(geometry)).toWKT());
+        }
+    }
+
+    @Test
+    public void consecutiveGeometriesTest() {
+        List<GeoJSONGeometryObject> geometries = createGeometries();
+        WKBWriter writer = new WKBWriter().setSrid(4326);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (GeoJSONGeometryObject geometry : geometries)
+            writer.write(geometry, buffer);
+        buffer.flip();
+        for (GeoJSONGeometryObject geometry : geometries)
+            Assert.assertEquals(geometry.toWKT(), reader.read(buffer).toWKT());
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void postgisHexTest() {
+        // SELECT ST_AsEWKB('SRID=4326;LINESTRING(1 2,3 4)'::geometry)
+        GeoJSONGeometryObject lineString = reader.readHex(
+                "0102000020E610000002000000000000000000F03F000000000000004000000000000008400000000000001040");
+        Assert.assertEquals("LineString (1 2, 3 4)", lineString.toWKT());
+        // ISO WKB of LINESTRING M (1 2 5, 3 4 6), measures are skipped
+        Assert.assertEquals("LineString (1 2, 3 4)", reader.readHex(
+                "01D207000002000000000000000000F03F00000000000000400000000000001440"
+                        + "000000000000084000000000000010400000000000001840")
+                .toWKT());
+    }
+
+    @Test
+    public void invalidTest() {
+        byte[] wkb = new WKBWriter().toWKB(createGeometries().get(3));
+        for (byte[] invalid : Arrays.asList(new byte[0], Arrays.copyOf(wkb, wkb.length - 1),
+                Arrays.copyOf(wkb, wkb.length + 1), new byte[] { 2, 1, 0, 0, 0 }, new byte[] { 1, 4, 0, 0, 0 })) {
+            try {
+                reader.read(invalid);
+                Assert.fail("expected exception for " + Arrays.toString(invalid));
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.io.BaseEncoding;
+
+public class WKBWriterTest {
+
+    @Test
+    public void pointTest() {
+        GeoJSONPoint point = GeoJSONPoint.create(GeoJSONCoordinate.create("1", "2"));
+        Assert.assertEquals("0101000000000000000000F03F0000000000000040", hex(new WKBWriter().toWKB(point)));
+        Assert.assertEquals("00000000013FF00000000000004000000000000000",
+                hex(new WKBWriter().setByteOrder(ByteOrder.BIG_ENDIAN).toWKB(point)));
+        Assert.assertEquals("0101000000000000000000F87F000000000000F87F", hex(new WKBWriter().toWKB(new GeoJSONPoint())));
+    }
+
+    @Test
+    public void lineStringTest() {
+        GeoJSONLineString lineString = new GeoJSONLineString()
+                .setCoordinates(new PackedCoordinateList().add(1, 2, 3).add(4, 5, 6));
+        // ISO: type 1002 for LineString Z
+        Assert.assertEquals("01EA03000002000000000000000000F03F00000000000000400000000000000840"
+                + "000000000000104000000000000014400000000000001840", hex(new WKBWriter().toWKB(lineString)));
+        // EWKB: Z and SRID flag with SRID 4326
+        Assert.assertEquals("01020000A0E610000002000000000000000000F03F00000000000000400000000000000840"
+                + "000000000000104000000000000014400000000000001840",
+                hex(new WKBWriter().setSrid(4326).toWKB(lineString)));
+    }
+
+    @Test
+    public void missingOrdinateTest() {
+        PackedCoordinateList coordinates = new PackedCoordinateList().add(16.4, 48.2).add(16.5, Double.NaN);
+        try {
+            new WKBWriter().toWKB(new GeoJSONLineString().setCoordinates(coordinates));
+            Assert.fail("a missing y must not be written");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("ordinate 1 of coordinate 1 is not set", e.getMessage());
+        }
+
+        GeoJSONPolygon polygon = GeoJSONPolygon.create(Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(0, 0),
+                new GeoJSONCoordinate().setY(BigDecimal.ONE), GeoJSONCoordinate.create(1, 1),
+                GeoJSONCoordinate.create(0, 0))));
+        try {
+            new WKBWriter().toWKB(polygon);
+            Assert.fail("a missing x must not be written");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("ordinate 0 of coordinate 1 is not set", e.getMessage());
+        }
+    }
+
+    @Test
+    public void multiPolygonTest() {
+        GeoJSONMultiPolygon multiPolygon = GeoJSONMultiPolygon.create(Arrays.asList(
+                Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(0, 0), GeoJSONCoordinate.create(1, 0),
+                        GeoJSONCoordinate.create(1, 1), GeoJSONCoordinate.create(0, 0))),
+                Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(5, 5), GeoJSONCoordinate.create(6, 5),
+                        GeoJSONCoordinate.create(6, 6), GeoJSONCoordinate.create(5, 5)))));
+        WKBWriter writer = new WKBWriter().setSrid(4326);
+        int size = writer.getSize(multiPolygon);
+        Assert.assertEquals(5 + 4 + 4 + 2 * (5 + 4 + 4 + 4 * 16), size);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size + 10).order(ByteOrder.BIG_ENDIAN);
+        buffer.position(10);
+        writer.write(multiPolygon, buffer);
+        Assert.assertEquals(size + 10, buffer.position());
+        Assert.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(1, buffer.get(10));
+        Assert.assertEquals(6 | 0x20000000, buffer.getInt(11));
+        Assert.assertEquals(4326, buffer.getInt(15));
+        Assert.assertEquals(2, buffer.getInt(19));
+        // the polygons have no SRID
+        Assert.assertEquals(3, buffer.getInt(24));
+        Assert.assertEquals(1, buffer.getInt(28));
+        Assert.assertEquals(4, buffer.getInt(32));
+        Assert.assertEquals(1, buffer.getDouble(36 + 16), 0);
+    }
+
+    private static String hex(byte[] bytes) {
+        return BaseEncoding.base16().encode(bytes);
+    }
+
+}
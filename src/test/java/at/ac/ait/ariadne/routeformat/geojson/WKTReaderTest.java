@@ -0,0 +1,63 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WKTReaderTest {
+
+    private final WKTReader reader = new WKTReader();
+
+    @Test
+    public void roundTripTest() {
+        for (String wkt : Arrays.asList("Point (1.5 -2)", "Point Z (1 2 3)", "Point EMPTY",
+                "LineString (16.1 48.2, 16.2 48.3, 16.3 48.4)", "LineString Z (16.1 48.2 170, 16.2 48.3 171.5)",
+                "LineString EMPTY", "Polygon ((1.1 1.2, 2.1 2.2, 3.1 3.2, 1.1 1.2))",
+                "Polygon ((0 0, 10 0, 10 10, 0 0), (1 1, 2 1, 2 2, 1 1))", "Polygon EMPTY",
+                "MultiPolygon (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))", "MultiPolygon EMPTY")) {
+            Assert.assertEquals(wkt, reader.read(wkt).toWKT());
+        }
+    }
+
+    @Test
+    public void syntaxVariantsTest() {
+        GeoJSONLineString expected = new GeoJSONLineString()
+                .setCoordinates(Arrays.asList(GeoJSONCoordinate.create("1", "2"), GeoJSONCoordinate.create("3", "4")));
+        Assert.assertEquals(expected, reader.read("LINESTRING(1 2,3 4)"));
+        Assert.assertEquals(expected, reader.read("  linestring ( 1  2 ,\n3\t4 )  "));
+        Assert.assertEquals(expected, reader.read("SRID=4326;LINESTRING(1 2,3 4)"));
+        Assert.assertEquals(expected, reader.read("LINESTRING M (1 2 100,3 4 200)"));
+        Assert.assertEquals(expected.toWKT(), reader.read("LINESTRING(1e0 20E-1,3 4)").toWKT());
+        Assert.assertEquals(new GeoJSONLineString().setCoordinates(Arrays
+                .asList(GeoJSONCoordinate.create("1", "2", "5"), GeoJSONCoordinate.create("3", "4", "6"))),
+                reader.read("LINESTRING ZM (1 2 5 100,3 4 6 200)"));
+    }
+
+    @Test
+    public void exactDecimalsTest() {
+        GeoJSONPoint point = reader.read("POINT (16.37000 48.123456789012345678901)", GeoJSONPoint.class);
+        Assert.assertEquals(new BigDecimal("16.37000"), point.getCoordinates().get().getX());
+        Assert.assertEquals(new BigDecimal("48.123456789012345678901"), point.getCoordinates().get().getY());
+    }
+
+    @Test
+    public void invalidTest() {
+        for (String wkt : Arrays.asList("", "POINT", "POINT (1)", "POINT (1 2 3 4)", "POINT Z (1 2)", "POINT (1 a)",
+                "POINT (1 2) x", "MULTIPOINT ((1 2))", "LINESTRING (1 2, 3 4", "POINT (1 2-3)")) {
+            try {
+                reader.read(wkt);
+                Assert.fail("expected exception for " + wkt);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongTypeTest() {
+        reader.read("POINT (1 2)", GeoJSONLineString.class);
+    }
+
+}
@@ -0,0 +1,86 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WKTWriterTest {
+
+    @Test
+    public void altitudeTest() {
+        PackedCoordinateList coordinates = new PackedCoordinateList().add(16.1, 48.2, 170).add(16.2, 48.3, 171.5);
+        Assert.assertEquals("LineString Z (16.1 48.2 170, 16.2 48.3 171.5)",
+                WKTWriter.toWKT(new GeoJSONLineString().setCoordinates(coordinates)));
+        Assert.assertEquals("Point Z (1 2 3)",
+                WKTWriter.toWKT(GeoJSONPoint.create(GeoJSONCoordinate.create("1", "2", "3"))));
+
+        // without altitude for all coordinates only two dimensions are written
+        coordinates.add(16.3, 48.4);
+        Assert.assertEquals("LineString (16.1 48.2, 16.2 48.3, 16.3 48.4)",
+                WKTWriter.toWKT(new GeoJSONLineString().setCoordinates(coordinates)));
+    }
+
+    @Test
+    public void multiPolygonTest() {
+        GeoJSONMultiPolygon multiPolygon = GeoJSONMultiPolygon.create(Arrays.asList(
+                Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(0, 0, 1), GeoJSONCoordinate.create(1, 0, 1),
+                        GeoJSONCoordinate.create(1, 1, 2), GeoJSONCoordinate.create(0, 0, 1))),
+                Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(5, 5, 0), GeoJSONCoordinate.create(6, 5, 0),
+                        GeoJSONCoordinate.create(6, 6, 0), GeoJSONCoordinate.create(5, 5, 0)))));
+        Assert.assertEquals("MultiPolygon Z (((0 0 1, 1 0 1, 1 1 2, 0 0 1)), ((5 5 0, 6 5 0, 6 6 0, 5 5 0)))",
+                multiPolygon.toWKT());
+    }
+
+    @Test
+    public void appendableTest() throws IOException {
+        StringWriter writer = new StringWriter();
+        new WKTWriter(writer).write(GeoJSONPoint.create(GeoJSONCoordinate.create("1.5", "-2")))
+                .write(new GeoJSONLineString());
+        Assert.assertEquals("Point (1.5 -2)LineString EMPTY", writer.toString());
+    }
+
+    @Test
+    public void missingOrdinateTest() {
+        PackedCoordinateList coordinates = new PackedCoordinateList().add(Double.NaN, 48.2).add(16.4, 48.3);
+        try {
+            WKTWriter.toWKT(new GeoJSONLineString().setCoordinates(coordinates));
+            Assert.fail("a missing x must not be written");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("ordinate 0 of coordinate 0 is not set", e.getMessage());
+        }
+
+        GeoJSONPolygon polygon = GeoJSONPolygon.create(Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(0, 0),
+                new GeoJSONCoordinate().setY(BigDecimal.ONE), GeoJSONCoordinate.create(1, 1),
+                GeoJSONCoordinate.create(0, 0))));
+        try {
+            WKTWriter.toWKT(polygon);
+            Assert.fail("a missing x must not be written");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("ordinate 0 of coordinate 1 is not set", e.getMessage());
+        }
+    }
+
+    /** the formatting must stay identical to the previous DecimalFormat based one */
+    @Test
+    public void sameAsDecimalFormatTest() {
+        DecimalFormat format = new DecimalFormat("#.#######", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            BigDecimal x = BigDecimal.valueOf(random.nextLong() % 100_000_000_000L, random.nextInt(15) - 2);
+            BigDecimal y = new BigDecimal(random.nextDouble() * 360 - 180);
+            String expected = "Point (" + format.format(x) + " " + format.format(y) + ")";
+            if (expected.contains("-0 ") || expected.endsWith("-0)"))
+                continue;
+            Assert.assertEquals(expected, WKTWriter.toWKT(GeoJSONPoint.create(GeoJSONCoordinate.create(x, y))));
+        }
+    }
+
+}
@@ -1,9 +1,16 @@
 package at.ac.ait.ariadne.routeformat.location;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.TreeMap;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import at.ac.ait.ariadne.routeformat.TestUtil;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
 
 public class LocationTest {
 
@@ -18,6 +25,82 @@ public class LocationTest {
         Assert.assertEquals(coordinateA.getY(), l.getCoordinate().getGeometry().getCoordinates().get().getY());
     }
 
+    @Test
+    public void compactCoordinateTest() throws IOException {
+        Location<?> l = Location.createMinimal(coordinateA);
+        Assert.assertEquals(coordinateA, l.getSimpleCoordinate());
+
+        String json = TestUtil.MAPPER.writeValueAsString(l);
+        Location<?> deserialized = TestUtil.MAPPER.readValue(json, Location.class);
+        Assert.assertEquals(l, deserialized);
+        Assert.assertEquals(l.hashCode(), deserialized.hashCode());
+        Assert.assertEquals(GeoJSONFeature.createPointFeature(coordinateA), deserialized.getCoordinate());
+        Assert.assertEquals(deserialized.getCoordinate(), GeoJSONFeature.createPointFeature(coordinateA));
+
+        // the compact form is read-only, i.e. edits via the getters fail
+        // instead of being silently lost
+        assertReadOnly(() -> deserialized.getCoordinate().getProperties().put("name", "value"));
+        assertReadOnly(() -> deserialized.getCoordinate().setProperties(new TreeMap<>()));
+        assertReadOnly(() -> deserialized.getCoordinate().setGeometry(new GeoJSONPoint()));
+        assertReadOnly(() -> deserialized.getCoordinate().getGeometry().setCoordinates(coordinateB));
+        assertReadOnly(() -> deserialized.getCoordinate().getGeometry().getCoordinates().get().setX(BigDecimal.ONE));
+        assertReadOnly(() -> deserialized.getSimpleCoordinate().setY(BigDecimal.ONE));
+        Assert.assertEquals(l, deserialized);
+
+        // a feature that was set is kept as is
+        GeoJSONFeature<GeoJSONPoint> feature = GeoJSONFeature.createPointFeature(coordinateA);
+        feature.getProperties().put("name", "value");
+        deserialized.setCoordinate(feature);
+        Assert.assertSame(feature, deserialized.getCoordinate());
+        Assert.assertNotEquals(l, deserialized);
+        feature.getProperties().clear();
+        Assert.assertEquals(l, deserialized);
+        Assert.assertEquals(l.hashCode(), deserialized.hashCode());
+        Assert.assertEquals(json, TestUtil.MAPPER.writeValueAsString(deserialized));
+    }
+
+    private static void assertReadOnly(Runnable modification) {
+        try {
+            modification.run();
+            Assert.fail("modification must fail");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactCoordinateValidationTest() {
+        Location.createMinimal(new GeoJSONCoordinate().setX(BigDecimal.ONE)).validate();
+    }
+
+    @Test
+    public void emptyMapsSerializationTest() throws IOException {
+        Location<?> location = Location.createMinimal(GeoJSONCoordinate.create("16.4", "48.2"));
+        String expected = "{\"type\":\"Location\",\"coordinate\":{\"type\":\"Feature\",\"geometry\":"
+                + "{\"type\":\"Point\",\"coordinates\":[16.4,48.2]},\"properties\":{}},\"additionalInfo\":{}}";
+        Assert.assertEquals(expected, TestUtil.MAPPER.writeValueAsString(location));
+
+        Location<?> deserialized = TestUtil.MAPPER.readValue(expected, Location.class);
+        Assert.assertEquals(location, deserialized);
+        Assert.assertEquals(expected, TestUtil.MAPPER.writeValueAsString(deserialized));
+
+        location.getAdditionalInfo().put("key", "value");
+        Assert.assertTrue(
+                TestUtil.MAPPER.writeValueAsString(location).endsWith("\"additionalInfo\":{\"key\":\"value\"}}"));
+    }
+
+    @Test
+    public void mapsAreFilledInPlaceTest() throws IOException {
+        String json = "{\"type\":\"Location\",\"coordinate\":{\"type\":\"Feature\",\"geometry\":"
+                + "{\"type\":\"Point\",\"coordinates\":[16.4,48.2]},\"properties\":{}},"
+                + "\"additionalInfo\":{\"b\":1,\"a\":\"2\"}}";
+        Location<?> location = TestUtil.MAPPER.readValue(json, Location.class);
+        Assert.assertTrue(location.getAdditionalInfo() instanceof TreeMap);
+        Assert.assertEquals("{a=2, b=1}", location.getAdditionalInfo().toString());
+        location.getAdditionalInfo().put("c", 3);
+        Assert.assertEquals(3, location.getAdditionalInfo().size());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void simpleLocationValidationTest() {
         Location<?> l = new Location<>();
@@ -0,0 +1,98 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class DictionaryFormatModuleTest {
+
+    @Test
+    public void roundTripTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        String normal = TestUtil.MAPPER.writeValueAsString(response);
+        String compact = DictionaryFormatModule.writeValueAsString(TestUtil.MAPPER, response);
+        Assert.assertTrue(compact.length() < normal.length());
+        // the normal format is not affected
+        Assert.assertEquals(normal, TestUtil.MAPPER.writeValueAsString(response));
+
+        JsonNode tree = TestUtil.MAPPER.readTree(compact);
+        Assert.assertTrue(tree.get("operators").isArray());
+        Assert.assertTrue(tree.get("modesOfTransport").isArray());
+        Assert.assertTrue(tree.get("locations").isArray());
+        JsonNode segment = tree.get("response").get("routes").get(0).get("segments").get(0);
+        Assert.assertTrue(segment.get("from").isInt());
+        Assert.assertTrue(segment.get("modeOfTransport").isInt());
+        // the type of locations is kept in the dictionary
+        Assert.assertTrue(tree.get("locations").get(0).has("type"));
+
+        // objects in untyped maps are not referenced
+        Assert.assertTrue(tree.get("response").get("request").get("additionalInfo").get("ait:additionalTestObject")
+                .isObject());
+
+        RoutingResponse read = DictionaryFormatModule.readValue(TestUtil.MAPPER, compact);
+        Assert.assertEquals(readAndWrite(normal), TestUtil.MAPPER.writeValueAsString(read));
+
+        List<RouteSegment> segments = read.getRoutes().get(0).getSegments();
+        Assert.assertSame(segments.get(0).getTo(), segments.get(1).getFrom());
+    }
+
+    @Test
+    public void streamTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DictionaryFormatModule.writeValue(TestUtil.MAPPER, out, response);
+        RoutingResponse read = DictionaryFormatModule.readValue(TestUtil.MAPPER,
+                new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(readAndWrite(TestUtil.MAPPER.writeValueAsString(response)),
+                TestUtil.MAPPER.writeValueAsString(read));
+    }
+
+    @Test
+    public void createMapperTest() throws IOException {
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        RoutingResponse read = DictionaryFormatModule.readValue(mapper,
+                DictionaryFormatModule.writeValueAsString(mapper, response));
+        Assert.assertEquals(readAndWrite(mapper.writeValueAsString(response)),
+                TestUtil.MAPPER.writeValueAsString(read));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void invalidReferenceTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        String compact = DictionaryFormatModule.writeValueAsString(TestUtil.MAPPER, response);
+        DictionaryFormatModule.readValue(TestUtil.MAPPER, compact.replace("\"from\":0", "\"from\":9999"));
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void dictionaryAfterResponseTest() throws IOException {
+        DictionaryFormatModule.readValue(TestUtil.MAPPER, "{\"response\":{},\"locations\":[]}");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unregisteredModuleTest() throws IOException {
+        DictionaryFormatModule.writeValueAsString(new ObjectMapper(), new RoutingResponse());
+    }
+
+    /**
+     * @return the JSON after a plain round trip, i.e. with the same (hash) set
+     *         implementations as a response read in the compact format
+     */
+    private static String readAndWrite(String json) throws IOException {
+        return TestUtil.MAPPER.writeValueAsString(TestUtil.MAPPER.readValue(json, RoutingResponse.class));
+    }
+
+}
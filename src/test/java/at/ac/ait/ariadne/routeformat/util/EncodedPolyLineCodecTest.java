@@ -0,0 +1,91 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+
+public class EncodedPolyLineCodecTest {
+
+    /** example from the format specification */
+    private static final GeoJSONLineString GOOGLE_EXAMPLE = GeoJSONLineString.create(
+            Arrays.asList(GeoJSONCoordinate.create("-120.2", "38.5"), GeoJSONCoordinate.create("-120.95", "40.7"),
+                    GeoJSONCoordinate.create("-126.453", "43.252")));
+    private static final String GOOGLE_EXAMPLE_ENCODED = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    @Test
+    public void encodeTest() {
+        Assert.assertEquals(GOOGLE_EXAMPLE_ENCODED, EncodedPolyLineCodec.DEFAULT.encode(GOOGLE_EXAMPLE));
+    }
+
+    @Test
+    public void decodeTest() {
+        GeoJSONLineString decoded = EncodedPolyLineCodec.DEFAULT.decode(GOOGLE_EXAMPLE_ENCODED);
+        Assert.assertEquals(3, decoded.getCoordinates().size());
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, GOOGLE_EXAMPLE.getCoordinates().get(i).getX()
+                    .compareTo(decoded.getCoordinates().get(i).getX()));
+            Assert.assertEquals(0, GOOGLE_EXAMPLE.getCoordinates().get(i).getY()
+                    .compareTo(decoded.getCoordinates().get(i).getY()));
+        }
+        Assert.assertEquals("-126.45300", decoded.getCoordinates().get(2).getX().toPlainString());
+    }
+
+    @Test
+    public void roundTripWithAltitudeTest() {
+        GeoJSONLineString lineString = GeoJSONLineString
+                .create(Arrays.asList(GeoJSONCoordinate.create("16.3738189", "48.2081743", "171.5"),
+                        GeoJSONCoordinate.create("16.3738189", "48.2081743", "-3"),
+                        GeoJSONCoordinate.create("-179.9999999", "-89.9999999", "0")));
+        EncodedPolyLineCodec codec = new EncodedPolyLineCodec(7, true);
+        GeoJSONLineString decoded = codec.decode(codec.encode(lineString));
+        Assert.assertEquals(lineString.getPackedCoordinates().getX(2), decoded.getPackedCoordinates().getX(2), 0);
+        Assert.assertEquals(lineString.getPackedCoordinates().getY(0), decoded.getPackedCoordinates().getY(0), 0);
+        Assert.assertEquals(-3, decoded.getPackedCoordinates().getZ(1), 0);
+    }
+
+    @Test
+    public void encodeExactValuesTest() {
+        // as double 0.000035 * 1e5 is just below 3.5, Math.round would round
+        // -1.5 up to -1
+        GeoJSONLineString lineString = GeoJSONLineString.create(
+                Arrays.asList(GeoJSONCoordinate.create("0.000035", "-0.000015"), GeoJSONCoordinate.create("0", "0")));
+        GeoJSONLineString decoded = EncodedPolyLineCodec.DEFAULT
+                .decode(EncodedPolyLineCodec.DEFAULT.encode(lineString));
+        Assert.assertEquals("0.00004", decoded.getCoordinates().get(0).getX().toPlainString());
+        Assert.assertEquals("-0.00002", decoded.getCoordinates().get(0).getY().toPlainString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingAltitudeTest() {
+        GeoJSONLineString lineString = GeoJSONLineString.create(Arrays
+                .asList(GeoJSONCoordinate.create("16.37", "48.2", "171"), GeoJSONCoordinate.create("16.38", "48.3")));
+        new EncodedPolyLineCodec(6, true).encode(lineString);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedTest() {
+        EncodedPolyLineCodec.DEFAULT.decode(GOOGLE_EXAMPLE_ENCODED.substring(0, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedPrecisionTest() {
+        new EncodedPolyLineCodec(4, false);
+    }
+
+    @Test
+    public void setEncodedPolyLinesTest() {
+        RouteSegment segment = TestUtil.createTestRouteSegment(TestUtil.START_TIME, TestUtil.END_TIME);
+        Route route = Route.createFromSegments(Arrays.asList(segment));
+        EncodedPolyLineCodec.DEFAULT.setEncodedPolyLines(route);
+        Assert.assertEquals(EncodedPolyLineCodec.DEFAULT.encode(TestUtil.GEOMETRY_GEOJSON.getGeometry()),
+                route.getSegments().get(0).getGeometryEncodedPolyLine().get());
+    }
+
+}
@@ -0,0 +1,56 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.RequestModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
+
+public class ForbiddenAreaCheckerTest {
+
+    @Test
+    public void exampleRespectsForbiddenAreasTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        ForbiddenAreaChecker checker = new ForbiddenAreaChecker(response.getRequest().get());
+        Assert.assertTrue(checker.hasForbiddenAreas());
+        checker.validate(response);
+    }
+
+    @Test
+    public void violatingSegmentTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        Route route = response.getRoutes().get(0);
+        RouteSegment footSegment = route.getSegments().stream()
+                .filter(s -> s.getModeOfTransport().equals(ModeOfTransport.STANDARD_FOOT)).findFirst().get();
+        GeoJSONFeature<GeoJSONPolygon> area = footSegment.getGeometryBoundingBox().get().toPolygonFeature();
+
+        RoutingRequest request = new RoutingRequest().setModesOfTransport(Arrays.asList(
+                RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_FOOT).setForbiddenAreas(
+                        GeoJSONFeature.createMultiPolygonFeatureFromPolygons(Arrays.asList(area))),
+                RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_BICYCLE)));
+        ForbiddenAreaChecker checker = new ForbiddenAreaChecker(request);
+
+        Assert.assertTrue(checker.isViolating(footSegment));
+        Assert.assertTrue(checker.getViolatingSegments(route).contains(footSegment));
+        for (RouteSegment segment : checker.getViolatingSegments(route))
+            Assert.assertEquals(ModeOfTransport.STANDARD_FOOT.getGeneralizedType(),
+                    segment.getModeOfTransport().getGeneralizedType());
+        try {
+            checker.validate(response);
+            Assert.fail("forbidden area is crossed");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("segment #" + footSegment.getNr() + " (FOOT)"));
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class InterningModuleTest {
+
+    private static byte[] createJson() throws IOException {
+        return TestUtil.MAPPER.writeValueAsBytes(new IntermodalRouteExample().getRoutingResponse());
+    }
+
+    @Test
+    public void equalObjectsAreSharedTest() throws IOException {
+        byte[] json = createJson();
+        RoutingResponse response = InterningModule.readerFor(TestUtil.MAPPER, RoutingResponse.class).readValue(json);
+        RoutingResponse plain = TestUtil.MAPPER.readValue(json, RoutingResponse.class);
+        Assert.assertEquals(plain, response);
+
+        List<RouteSegment> segments = response.getRoutes().get(0).getSegments();
+        List<RouteSegment> plainSegments = plain.getRoutes().get(0).getSegments();
+        int shared = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            RouteSegment a = segments.get(i), b = segments.get(i + 1);
+            if (a.getTo().equals(b.getFrom())) {
+                Assert.assertSame(a.getTo(), b.getFrom());
+                Assert.assertNotSame(plainSegments.get(i).getTo(), plainSegments.get(i + 1).getFrom());
+                shared++;
+            }
+            for (RouteSegment other : segments) {
+                if (a.getModeOfTransport().equals(other.getModeOfTransport()))
+                    Assert.assertSame(a.getModeOfTransport(), other.getModeOfTransport());
+            }
+        }
+        Assert.assertTrue(shared > 0);
+
+        RoutingResponse second = InterningModule.readerFor(TestUtil.MAPPER, RoutingResponse.class).readValue(json);
+        Assert.assertNotSame(response.getRoutes().get(0).getFrom(), second.getRoutes().get(0).getFrom());
+    }
+
+    @Test
+    public void sharedInternerTest() throws IOException {
+        byte[] json = createJson();
+        InterningModule.Interner interner = new InterningModule.Interner(1000);
+        RoutingResponse a = InterningModule.readerFor(TestUtil.MAPPER, RoutingResponse.class, interner)
+                .readValue(json);
+        long size = interner.size();
+        RoutingResponse b = InterningModule.readerFor(TestUtil.MAPPER, RoutingResponse.class, interner)
+                .readValue(json);
+        Assert.assertEquals(size, interner.size());
+        Assert.assertSame(a.getRoutes().get(0).getFrom(), b.getRoutes().get(0).getFrom());
+        Assert.assertSame(a.getRoutes().get(0).getSegments().get(1).getModeOfTransport(),
+                b.getRoutes().get(0).getSegments().get(1).getModeOfTransport());
+    }
+
+    @Test
+    public void boundedInternerTest() throws IOException {
+        InterningModule.Interner interner = new InterningModule.Interner(2);
+        RoutingResponse response = InterningModule.readerFor(TestUtil.MAPPER, RoutingResponse.class, interner)
+                .readValue(createJson());
+        Assert.assertTrue(interner.size() <= 2);
+        // sharing within the document does not depend on the shared interner
+        List<RouteSegment> segments = response.getRoutes().get(0).getSegments();
+        Assert.assertSame(segments.get(0).getTo(), segments.get(1).getFrom());
+    }
+
+    @Test
+    public void createMapperTest() throws IOException {
+        byte[] json = createJson();
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        RoutingResponse response = InterningModule.readerFor(mapper, RoutingResponse.class).readValue(json);
+        Assert.assertEquals(TestUtil.MAPPER.readValue(json, RoutingResponse.class), response);
+        List<RouteSegment> segments = response.getRoutes().get(0).getSegments();
+        Assert.assertSame(segments.get(0).getTo(), segments.get(1).getFrom());
+    }
+
+    @Test
+    public void concurrentReadTest() throws Exception {
+        byte[] json = createJson();
+        InterningModule.Interner interner = new InterningModule.Interner(1000);
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        ObjectWriter writer = mapper.writerFor(RoutingResponse.class);
+        String expected = writer.writeValueAsString(mapper.readValue(json, RoutingResponse.class));
+
+        // responses sharing instances are written (i.e. all getters are
+        // called) concurrently
+        List<RoutingResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            responses.add(InterningModule.readerFor(mapper, RoutingResponse.class, interner).readValue(json));
+        ExecutorService executor = Executors.newFixedThreadPool(responses.size());
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (RoutingResponse response : responses)
+                results.add(executor.submit(() -> writer.writeValueAsString(response)));
+            for (Future<String> result : results)
+                Assert.assertEquals(expected, result.get());
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(mapper.readValue(json, RoutingResponse.class), responses.get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unregisteredModuleTest() {
+        InterningModule.readerFor(new ObjectMapper(), RoutingResponse.class);
+    }
+
+}
@@ -0,0 +1,126 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.util.LineSimplifier.Algorithm;
+
+public class LineSimplifierTest {
+
+    /**
+     * a straight line to the east (~75m per point) with a single detour of
+     * ~110m to the north in the middle and tiny zig-zags of ~1m
+     */
+    private static GeoJSONLineString createLine() {
+        List<GeoJSONCoordinate> coordinates = new ArrayList<>();
+        for (int i = 0; i <= 20; i++) {
+            String latitude = i == 10 ? "48.001" : (i % 2 == 0 ? "48" : "48.00001");
+            coordinates.add(GeoJSONCoordinate.create(String.valueOf(16 + i / 1000.0), latitude));
+        }
+        return GeoJSONLineString.create(coordinates);
+    }
+
+    @Test
+    public void douglasPeuckerTest() {
+        GeoJSONLineString line = createLine();
+        GeoJSONLineString simplified = new LineSimplifier(Algorithm.DOUGLAS_PEUCKER, 5).simplify(line);
+        Assert.assertEquals(5, simplified.getCoordinates().size());
+        Assert.assertEquals(line.getCoordinates().get(0), simplified.getCoordinates().get(0));
+        Assert.assertEquals(line.getCoordinates().get(10), simplified.getCoordinates().get(2));
+        Assert.assertEquals(line.getCoordinates().get(20), simplified.getCoordinates().get(4));
+
+        Assert.assertEquals(21, new LineSimplifier(Algorithm.DOUGLAS_PEUCKER, 0.5).simplify(line).getCoordinates()
+                .size());
+    }
+
+    @Test
+    public void visvalingamWhyattTest() {
+        GeoJSONLineString line = createLine();
+        GeoJSONLineString simplified = new LineSimplifier(Algorithm.VISVALINGAM_WHYATT, 20).simplify(line);
+        Assert.assertEquals(line.getCoordinates().get(0), simplified.getCoordinates().get(0));
+        Assert.assertTrue(simplified.getCoordinates().contains(line.getCoordinates().get(10)));
+        Assert.assertEquals(line.getCoordinates().get(20),
+                simplified.getCoordinates().get(simplified.getCoordinates().size() - 1));
+        Assert.assertTrue(simplified.getCoordinates().size() <= 5);
+
+        Assert.assertEquals(21, new LineSimplifier(Algorithm.VISVALINGAM_WHYATT, 0).simplify(line).getCoordinates()
+                .size());
+    }
+
+    @Test
+    public void setSimplifiedGeometryTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        new LineSimplifier(Algorithm.DOUGLAS_PEUCKER, 10).setSimplifiedGeometry(route);
+        GeoJSONLineString simplified = route.getSimplifiedGeometryGeoJson().get().getGeometry();
+        simplified.validate();
+
+        GeoJSONLineString first = route.getSegments().get(0).getGeometryGeoJson().get().getGeometry();
+        GeoJSONLineString last = route.getSegments().get(route.getSegments().size() - 1).getGeometryGeoJson().get()
+                .getGeometry();
+        Assert.assertEquals(first.getCoordinates().get(0), simplified.getCoordinates().get(0));
+        Assert.assertEquals(last.getCoordinates().get(last.getCoordinates().size() - 1),
+                simplified.getCoordinates().get(simplified.getCoordinates().size() - 1));
+    }
+
+    @Test
+    public void junctionsAreNotDuplicatedTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        List<GeoJSONCoordinate> coordinates = new ArrayList<>();
+        int duplicates = 0;
+        for (RouteSegment segment : route.getSegments()) {
+            for (GeoJSONCoordinate coordinate : segment.getGeometryGeoJson().get().getGeometry().getCoordinates()) {
+                if (!coordinates.isEmpty() && coordinates.get(coordinates.size() - 1).equals(coordinate))
+                    duplicates++;
+                coordinates.add(coordinate);
+            }
+        }
+        Assert.assertTrue(duplicates > 0);
+
+        new LineSimplifier(Algorithm.VISVALINGAM_WHYATT, 0).setSimplifiedGeometry(route);
+        List<GeoJSONCoordinate> simplified = route.getSimplifiedGeometryGeoJson().get().getGeometry().getCoordinates();
+        Assert.assertEquals(coordinates.size() - duplicates, simplified.size());
+        for (int i = 1; i < simplified.size(); i++)
+            Assert.assertNotEquals(simplified.get(i - 1), simplified.get(i));
+    }
+
+    @Test
+    public void edgesAreUsedWithoutGeometryTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        List<GeoJSONCoordinate> expected = new ArrayList<>();
+        for (RouteSegment segment : route.getSegments()) {
+            segment.setGeometryGeoJson(null);
+            if (!segment.getGeometryGeoJsonEdges().isPresent())
+                continue;
+            for (GeoJSONFeature<GeoJSONLineString> edge : segment.getGeometryGeoJsonEdges().get().getFeatures()) {
+                for (GeoJSONCoordinate coordinate : edge.getGeometry().getCoordinates()) {
+                    if (expected.isEmpty() || !expected.get(expected.size() - 1).equals(coordinate))
+                        expected.add(coordinate);
+                }
+            }
+        }
+        Assert.assertTrue(expected.size() > 2);
+
+        new LineSimplifier(Algorithm.VISVALINGAM_WHYATT, 0).setSimplifiedGeometry(route);
+        Assert.assertEquals(expected, route.getSimplifiedGeometryGeoJson().get().getGeometry().getCoordinates());
+    }
+
+    @Test
+    public void routeWithoutGeometryTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        for (RouteSegment segment : route.getSegments())
+            segment.setGeometryGeoJson(null).setGeometryGeoJsonEdges(null);
+        new LineSimplifier(Algorithm.DOUGLAS_PEUCKER, 10).setSimplifiedGeometry(route);
+        Assert.assertFalse(route.getSimplifiedGeometryGeoJson().isPresent());
+    }
+
+}
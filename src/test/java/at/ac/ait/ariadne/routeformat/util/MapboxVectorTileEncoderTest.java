@@ -0,0 +1,226 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+
+public class MapboxVectorTileEncoderTest {
+
+    private final MapboxVectorTileEncoder encoder = new MapboxVectorTileEncoder();
+
+    @Test
+    public void routeTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        GeoJSONCoordinate start = route.getFrom().getCoordinate().getGeometry().getCoordinates().get();
+        int z = 12, tiles = 1 << z;
+        int x = (int) (MapboxVectorTileEncoder.getWorldX(start.getX().doubleValue()) * tiles);
+        int y = (int) (MapboxVectorTileEncoder.getWorldY(start.getY().doubleValue()) * tiles);
+        Layer layer = decode(encoder.encodeRoutes(Arrays.asList(route), z, x, y));
+
+        Assert.assertEquals(2, layer.version);
+        Assert.assertEquals(MapboxVectorTileEncoder.DEFAULT_LAYER_NAME, layer.name);
+        Assert.assertEquals(4096, layer.extent);
+        // the whole route is within the tile, but lines without length are
+        // dropped
+        List<RouteSegment> segments = new ArrayList<>();
+        for (RouteSegment segment : route.getSegments()) {
+            if (segment.getGeometryGeoJson().get().getGeometry().getLengthMeters() > 0)
+                segments.add(segment);
+        }
+        Assert.assertEquals(route.getSegments().size() - 1, segments.size());
+        Assert.assertEquals(segments.size(), layer.features.size());
+        for (int i = 0; i < segments.size(); i++) {
+            ModeOfTransport mot = segments.get(i).getModeOfTransport();
+            Map<String, String> properties = layer.features.get(i).properties;
+            Assert.assertEquals(mot.getGeneralizedType().name(), properties.get("generalizedMot"));
+            Assert.assertEquals(mot.getDetailedType().map(Enum::name).orElse(null), properties.get("detailedMot"));
+            Assert.assertEquals(mot.getService().map(s -> s.getName()).orElse(null), properties.get("line"));
+            Assert.assertEquals(2, layer.features.get(i).type);
+            Assert.assertEquals(1, layer.features.get(i).geometry[0] & 0x7);
+        }
+    }
+
+    @Test
+    public void clippingTest() {
+        // tile 2/1/1 covers the longitudes -90 to 0
+        RouteSegment segment = createSegment(GeoJSONCoordinate.create(-135, 40), GeoJSONCoordinate.create(-45, 40),
+                GeoJSONCoordinate.create(45, 40));
+        Layer layer = decode(encoder.encodeSegments(Arrays.asList(segment), 2, 1, 1));
+        Assert.assertEquals(1, layer.features.size());
+        int expectedY = (int) Math.round((MapboxVectorTileEncoder.getWorldY(40) * 4 - 1) * 4096);
+        int[] expected = { 9, zigZag(-64), zigZag(expectedY), 2 | 2 << 3, zigZag(2048 + 64), 0, zigZag(2048 + 64),
+                0 };
+        Assert.assertArrayEquals(expected, layer.features.get(0).geometry);
+        Assert.assertEquals("FOOT", layer.features.get(0).properties.get("generalizedMot"));
+    }
+
+    @Test
+    public void multipleClippedPartsTest() {
+        // leaves and re-enters tile 2/1/1
+        RouteSegment segment = createSegment(GeoJSONCoordinate.create(-45, 40), GeoJSONCoordinate.create(-45, 80),
+                GeoJSONCoordinate.create(-44, 40));
+        Layer layer = decode(encoder.encodeSegments(Arrays.asList(segment), 2, 1, 1));
+        int[] geometry = layer.features.get(0).geometry;
+        Assert.assertEquals(12, geometry.length);
+        Assert.assertEquals(9, geometry[0]);
+        Assert.assertEquals(2 | 1 << 3, geometry[3]);
+        Assert.assertEquals(9, geometry[6]);
+        Assert.assertEquals(2 | 1 << 3, geometry[9]);
+    }
+
+    @Test
+    public void emptyTileTest() {
+        RouteSegment segment = createSegment(GeoJSONCoordinate.create(-135, 40), GeoJSONCoordinate.create(-100, 40));
+        Assert.assertEquals(0, encoder.encodeSegments(Arrays.asList(segment), 2, 2, 1).length);
+        Assert.assertEquals(0, encoder.encodeSegments(Collections.emptyList(), 0, 0, 0).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTileTest() {
+        encoder.encodeSegments(Collections.emptyList(), 2, 4, 0);
+    }
+
+    private static RouteSegment createSegment(GeoJSONCoordinate... coordinates) {
+        return new RouteSegment().setModeOfTransport(ModeOfTransport.STANDARD_FOOT)
+                .setGeometryGeoJson(GeoJSONFeature.createLineStringFeature(
+                        GeoJSONLineString.create(Arrays.asList(coordinates))));
+    }
+
+    private static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    // -- minimal protobuf decoder for the parts of the vector tile spec used
+    // by the encoder
+
+    private static class Layer {
+        int version, extent;
+        String name;
+        List<String> keys = new ArrayList<>(), values = new ArrayList<>();
+        List<Feature> features = new ArrayList<>();
+    }
+
+    private static class Feature {
+        int type;
+        int[] tags, geometry;
+        Map<String, String> properties = new HashMap<>();
+    }
+
+    private static Layer decode(byte[] tile) {
+        Reader reader = new Reader(tile, 0, tile.length);
+        Assert.assertEquals(3 << 3 | 2, reader.varint());
+        Reader layerReader = reader.message();
+        Assert.assertFalse(reader.hasMore());
+
+        Layer layer = new Layer();
+        while (layerReader.hasMore()) {
+            int tag = layerReader.varint();
+            switch (tag >>> 3) {
+            case 1:
+                layer.name = layerReader.string();
+                break;
+            case 2:
+                Reader featureReader = layerReader.message();
+                Feature feature = new Feature();
+                while (featureReader.hasMore()) {
+                    int featureTag = featureReader.varint();
+                    if (featureTag >>> 3 == 2)
+                        feature.tags = featureReader.message().packed();
+                    else if (featureTag >>> 3 == 3)
+                        feature.type = featureReader.varint();
+                    else if (featureTag >>> 3 == 4)
+                        feature.geometry = featureReader.message().packed();
+                    else
+                        Assert.fail("unexpected feature field " + (featureTag >>> 3));
+                }
+                layer.features.add(feature);
+                break;
+            case 3:
+                layer.keys.add(layerReader.string());
+                break;
+            case 4:
+                Reader valueReader = layerReader.message();
+                Assert.assertEquals(1 << 3 | 2, valueReader.varint());
+                layer.values.add(valueReader.string());
+                break;
+            case 5:
+                layer.extent = layerReader.varint();
+                break;
+            case 15:
+                layer.version = layerReader.varint();
+                break;
+            default:
+                Assert.fail("unexpected layer field " + (tag >>> 3));
+            }
+        }
+        for (Feature feature : layer.features) {
+            for (int i = 0; i < feature.tags.length; i += 2)
+                feature.properties.put(layer.keys.get(feature.tags[i]), layer.values.get(feature.tags[i + 1]));
+        }
+        return layer;
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int pos;
+        private final int end;
+
+        Reader(byte[] bytes, int pos, int end) {
+            this.bytes = bytes;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        boolean hasMore() {
+            return pos < end;
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = bytes[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+        }
+
+        Reader message() {
+            int length = varint();
+            Reader message = new Reader(bytes, pos, pos + length);
+            pos += length;
+            return message;
+        }
+
+        String string() {
+            int length = varint();
+            String string = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return string;
+        }
+
+        int[] packed() {
+            List<Integer> values = new ArrayList<>();
+            while (hasMore())
+                values.add(varint());
+            return values.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+}
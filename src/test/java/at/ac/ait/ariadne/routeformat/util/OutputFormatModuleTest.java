@@ -0,0 +1,79 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import at.ac.ait.ariadne.routeformat.Constants.OutputFormat;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class OutputFormatModuleTest {
+
+    private static RoutingResponse createResponse() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        Route route = response.getRoutes().get(0);
+        new LineSimplifier(LineSimplifier.Algorithm.DOUGLAS_PEUCKER, 10).setSimplifiedGeometry(route);
+        EncodedPolyLineCodec.DEFAULT.setEncodedPolyLines(route);
+        return response;
+    }
+
+    @Test
+    public void onlyRequestedGeometriesAreWrittenTest() throws IOException {
+        RoutingResponse response = createResponse();
+        RoutingRequest request = new RoutingRequest()
+                .setOutputFormats(Arrays.asList(OutputFormat.ENCODED_POLYLINE, OutputFormat.SIMPLIFIED_GEOJSON));
+
+        String json = OutputFormatModule.writerFor(TestUtil.MAPPER, request).writeValueAsString(response);
+        Assert.assertTrue(json.contains("\"geometryEncodedPolyLine\""));
+        Assert.assertTrue(json.contains("\"simplifiedGeometryGeoJson\""));
+        Assert.assertFalse(json.contains("\"geometryGeoJson\""));
+        Assert.assertFalse(json.contains("\"geometryGeoJsonEdges\""));
+        Assert.assertFalse(json.contains("\"simplifiedGeometryEncodedPolyLine\""));
+
+        RoutingResponse parsed = TestUtil.MAPPER.readValue(json, RoutingResponse.class);
+        Assert.assertFalse(parsed.getRoutes().get(0).getSegments().get(0).getGeometryGeoJson().isPresent());
+        Assert.assertTrue(response.getRoutes().get(0).getSegments().get(0).getGeometryGeoJson().isPresent());
+    }
+
+    @Test
+    public void allGeometriesAreWrittenWithoutOutputFormatsTest() throws IOException {
+        RoutingResponse response = createResponse();
+        String json = OutputFormatModule.writerFor(TestUtil.MAPPER, new RoutingRequest()).writeValueAsString(response);
+        Assert.assertEquals(TestUtil.MAPPER.writeValueAsString(response), json);
+        Assert.assertTrue(json.contains("\"geometryGeoJson\""));
+        Assert.assertTrue(json.contains("\"simplifiedGeometryEncodedPolyLine\""));
+    }
+
+    @Test
+    public void subclassesAreHandledTest() throws IOException {
+        RouteSegment segment = TestUtil.MAPPER.convertValue(
+                TestUtil.createTestRouteSegment(TestUtil.START_TIME, TestUtil.END_TIME), ExtendedRouteSegment.class);
+        EncodedPolyLineCodec.DEFAULT.setEncodedPolyLine(segment);
+        RoutingRequest request = new RoutingRequest()
+                .setOutputFormats(Collections.singletonList(OutputFormat.ENCODED_POLYLINE));
+
+        String json = OutputFormatModule.writerFor(TestUtil.MAPPER, request).writeValueAsString(segment);
+        Assert.assertTrue(json.contains("\"geometryEncodedPolyLine\""));
+        Assert.assertFalse(json.contains("\"geometryGeoJson\""));
+    }
+
+    static class ExtendedRouteSegment extends RouteSegment {
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void moduleNotRegisteredTest() {
+        OutputFormatModule.writerFor(new ObjectMapper(),
+                new RoutingRequest().setOutputFormats(Collections.singletonList(OutputFormat.GEOJSON)));
+    }
+
+}
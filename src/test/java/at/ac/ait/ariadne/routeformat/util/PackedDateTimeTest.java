@@ -0,0 +1,116 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PackedDateTimeTest {
+
+    @Test
+    public void parseTest() {
+        assertParsedLikeZonedDateTime("2017-12-31T23:00:00+01:00");
+        assertParsedLikeZonedDateTime("2017-12-31T23:00:00Z");
+        assertParsedLikeZonedDateTime("2017-12-31T23:00:00-00:00");
+        assertParsedLikeZonedDateTime("2016-02-29T00:00:59-09:30");
+        assertParsedLikeZonedDateTime("0001-01-01T00:00:00+18:00");
+        assertParsedLikeZonedDateTime("9999-12-31T23:59:59-18:00");
+        Assert.assertSame(ZoneOffset.UTC, PackedDateTime.parse("2017-12-31T23:00:00Z").getZone());
+        Assert.assertSame(PackedDateTime.parse("2017-01-01T00:00:00+01:00").getZone(),
+                PackedDateTime.parse("2017-07-01T00:00:00+01:00").getZone());
+    }
+
+    @Test
+    public void parseOtherFormatsTest() {
+        // handled by ZonedDateTime.parse
+        assertParsedLikeZonedDateTime("2017-12-31T23:00:00.999+01:00");
+        assertParsedLikeZonedDateTime("2017-12-31T23:00+01:00");
+        assertParsedLikeZonedDateTime("2017-12-31T23:00:00+01:00[Europe/Vienna]");
+        assertParsedLikeZonedDateTime("2017-12-31T23:00:00+01:00:30");
+        // year 0 is outside of the fast path
+        assertParsedLikeZonedDateTime("0000-01-01T00:00:00Z");
+        assertParsedLikeZonedDateTime("0000-12-31T23:00:00-01:00");
+    }
+
+    @Test
+    public void parseInvalidTest() {
+        for (String text : new String[] { "", "2017-12-31T23:00:00", "2017-12-31 23:00:00+01:00",
+                "2017-13-31T23:00:00+01:00", "2017-02-29T23:00:00+01:00", "2017-12-31T24:00:00+01:00",
+                "2017-12-31T23:60:00+01:00", "2017-12-31T23:00:60+01:00", "2017-12-31T23:00:00+19:00",
+                "2017-12-31T23:00:00*01:00", "2017-12-31T23:00:00+01-00", "2017-12-31T23:00:00X",
+                "2017-1a-31T23:00:00+01:00" }) {
+            try {
+                PackedDateTime.parse(text);
+                Assert.fail("parsing '" + text + "' should fail");
+            } catch (DateTimeParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void formatTest() {
+        Random random = new Random(42);
+        ZoneId[] zones = { ZoneOffset.UTC, ZoneOffset.ofHoursMinutes(5, 45), ZoneOffset.ofHours(-10),
+                ZoneOffset.ofTotalSeconds(-3600 - 30), ZoneId.of("Europe/Vienna"), ZoneId.of("America/St_Johns") };
+        long max = ZonedDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        long min = ZonedDateTime.of(1, 1, 2, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        for (int i = 0; i < 10000; i++) {
+            long epochSecond = min + (long) (random.nextDouble() * (max - min));
+            ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond),
+                    zones[i % zones.length]);
+            String expected = Utils.FORMATTER.format(time);
+            Assert.assertEquals(expected, PackedDateTime.format(time));
+            Assert.assertEquals(expected, PackedDateTime.of(time).format());
+            // the seconds of an offset are not formatted
+            if (time.getOffset().getTotalSeconds() % 60 == 0)
+                Assert.assertEquals(time.toInstant(), PackedDateTime.parse(expected).toZonedDateTime().toInstant());
+            if (time.getZone() instanceof ZoneOffset && time.getOffset().getTotalSeconds() % 60 == 0)
+                Assert.assertEquals(PackedDateTime.of(time), PackedDateTime.parse(expected));
+        }
+    }
+
+    @Test
+    public void formatOtherYearsTest() {
+        for (ZonedDateTime time : new ZonedDateTime[] { ZonedDateTime.of(10000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                ZonedDateTime.of(0, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                ZonedDateTime.of(-5, 6, 1, 0, 0, 0, 0, ZoneOffset.ofHours(2)) }) {
+            Assert.assertEquals(Utils.FORMATTER.format(time), PackedDateTime.format(time));
+            Assert.assertEquals(Utils.FORMATTER.format(time), PackedDateTime.of(time).format());
+        }
+    }
+
+    @Test
+    public void zonedDateTimeTest() {
+        ZonedDateTime time = ZonedDateTime.of(2017, 10, 29, 2, 30, 0, 123, ZoneId.of("Europe/Vienna"))
+                .withLaterOffsetAtOverlap();
+        PackedDateTime packed = PackedDateTime.of(time);
+        Assert.assertEquals(time, packed.toZonedDateTime());
+        Assert.assertEquals(time.plusSeconds(3600), packed.plusSeconds(3600).toZonedDateTime());
+        Assert.assertEquals("2017-10-29T02:30:00+01:00", packed.format());
+        Assert.assertEquals(time.toString(), packed.toString());
+
+        PackedDateTime truncated = PackedDateTime.of(time.truncatedTo(ChronoUnit.SECONDS));
+        Assert.assertTrue(truncated.isBefore(packed));
+        Assert.assertFalse(packed.isBefore(truncated));
+        Assert.assertNotEquals(truncated, packed);
+        Assert.assertEquals(PackedDateTime.of(time), packed);
+        Assert.assertEquals(PackedDateTime.of(time).hashCode(), packed.hashCode());
+        // same instant, different zone
+        Assert.assertNotEquals(PackedDateTime.of(time.withZoneSameInstant(ZoneOffset.UTC)), packed);
+    }
+
+    private static void assertParsedLikeZonedDateTime(String text) {
+        ZonedDateTime expected = ZonedDateTime.parse(text).truncatedTo(ChronoUnit.SECONDS);
+        PackedDateTime parsed = PackedDateTime.parse(text);
+        Assert.assertEquals(expected, parsed.toZonedDateTime());
+        Assert.assertEquals(PackedDateTime.of(expected), parsed);
+    }
+
+}
@@ -0,0 +1,52 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.ServiceLoader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class RouteFormatJsonTest {
+
+    @Test
+    public void sameOutputAsDiscoveredModulesTest() throws IOException {
+        IntermodalRouteExample example = new IntermodalRouteExample();
+        ObjectMapper discoveredModulesMapper = new ObjectMapper().findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT);
+
+        String json = RouteFormatJson.getRoutingResponseWriter().writeValueAsString(example.getRoutingResponse());
+        Assert.assertEquals(discoveredModulesMapper.writeValueAsString(example.getRoutingResponse()),
+                RouteFormatJson.getPrettyWriter().writeValueAsString(example.getRoutingResponse()));
+        Assert.assertEquals(discoveredModulesMapper.writeValueAsString(example.getRoutingFeatures()),
+                Utils.getJsonString(example.getRoutingFeatures()));
+
+        // compare objects, the order of sets (e.g. Parking.modesOfTransport)
+        // is not stable between instances
+        RoutingResponse parsed = RouteFormatJson.getRoutingResponseReader().readValue(json);
+        Assert.assertEquals(discoveredModulesMapper.readValue(json, RoutingResponse.class), parsed);
+        Assert.assertEquals(example.getRoutingFeatures(), RouteFormatJson.getRoutingFeaturesReader()
+                .readValue(RouteFormatJson.getRoutingFeaturesWriter().writeValueAsString(example.getRoutingFeatures())));
+    }
+
+    @Test
+    public void allModulesOfLibraryRegisteredTest() {
+        ObjectMapper mapper = RouteFormatJson.createMapper();
+        for (Module module : ServiceLoader.load(Module.class)) {
+            if (module.getClass().getName().startsWith("at.ac.ait.ariadne.routeformat"))
+                Assert.assertTrue(module.getModuleName(),
+                        mapper.getRegisteredModuleIds().contains(module.getTypeId()));
+        }
+        Assert.assertTrue(mapper.getRegisteredModuleIds().contains(new Jdk8Module().getTypeId()));
+        Assert.assertTrue(mapper.getRegisteredModuleIds().contains(new JavaTimeModule().getTypeId()));
+    }
+
+}
@@ -1,5 +1,6 @@
 package at.ac.ait.ariadne.routeformat.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -56,6 +57,18 @@ public class RouteSegmentMergerTest {
                 (int) merged.getBoardingSeconds().get());
         Assert.assertEquals("sum of alighting of all segments", 120, (int) merged.getAlightingSeconds().get());
         Assert.assertEquals(597 + 941, merged.getDistanceMeters());
+
+        List<GeoJSONCoordinate> expectedGeometry = new ArrayList<>();
+        for (List<RouteSegment> segments : listOfSegmentList)
+            expectedGeometry.addAll(segments.get(0).getGeometryGeoJson().get().getGeometry().getCoordinates());
+        Assert.assertEquals(expectedGeometry, merged.getGeometryGeoJson().get().getGeometry().getCoordinates());
+
+        // merged geometries are independent of each other and of the inputs
+        GeoJSONLineString mergedAgain = merger.createMergedSegments().get(0).getGeometryGeoJson().get().getGeometry();
+        merged.getGeometryGeoJson().get().getGeometry().getPackedCoordinates().add(16, 48);
+        Assert.assertEquals(expectedGeometry, mergedAgain.getCoordinates());
+        Assert.assertEquals(getFirstSegment(ModeOfTransport.STANDARD_FOOT).getGeometryGeoJson(),
+                listOfSegmentList.get(0).get(0).getGeometryGeoJson());
     }
 
     @Test
@@ -0,0 +1,131 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.GeodesicDistance;
+import at.ac.ait.ariadne.routeformat.geojson.PackedCoordinateList;
+import at.ac.ait.ariadne.routeformat.util.RouteSnapIndex.SnapResult;
+
+public class RouteSnapIndexTest {
+
+    /**
+     * a random walk around Vienna split into segments of 500 points, the
+     * second segment has no geometry
+     */
+    private static Route createRoute() {
+        Random random = new Random(42);
+        List<RouteSegment> segments = new ArrayList<>();
+        double x = 16.37, y = 48.2;
+        for (int s = 0; s < 5; s++) {
+            if (s == 1) {
+                segments.add(new RouteSegment());
+                continue;
+            }
+            PackedCoordinateList coordinates = new PackedCoordinateList();
+            coordinates.add(x, y);
+            for (int i = 0; i < 500; i++) {
+                x += (random.nextDouble() - 0.5) / 500;
+                y += (random.nextDouble() - 0.5) / 500;
+                coordinates.add(x, y);
+            }
+            segments.add(new RouteSegment().setGeometryGeoJson(
+                    GeoJSONFeature.createLineStringFeature(new GeoJSONLineString().setCoordinates(coordinates))));
+        }
+        return new Route().setSegments(segments);
+    }
+
+    @Test
+    public void snapToVertexTest() {
+        Route route = createRoute();
+        RouteSnapIndex index = new RouteSnapIndex(route);
+        PackedCoordinateList third = route.getSegments().get(2).getGeometryGeoJson().get().getGeometry()
+                .getPackedCoordinates();
+
+        // the start of the third segment is the end of the first one, which
+        // comes first along the route
+        SnapResult result = index.snap(third.getX(0), third.getY(0)).get();
+        Assert.assertEquals(0, result.getDistanceMeters(), 1e-6);
+        Assert.assertEquals(0, result.getSegmentIndex());
+        Assert.assertEquals(result.getDistanceAlongRouteMeters(), result.getDistanceAlongSegmentMeters(), 1e-6);
+        double alongRoute = result.getDistanceAlongRouteMeters();
+        Assert.assertTrue(alongRoute > 0);
+
+        result = index.snap(third.getX(100), third.getY(100)).get();
+        Assert.assertEquals(0, result.getDistanceMeters(), 1e-6);
+        Assert.assertEquals(route.getSegments().get(2), result.getSegment());
+        Assert.assertEquals(2, result.getSegmentIndex());
+        Assert.assertEquals(alongRoute + result.getDistanceAlongSegmentMeters(), result.getDistanceAlongRouteMeters(),
+                1e-6);
+        Assert.assertTrue(result.getDistanceAlongRouteMeters() < index.getTotalDistanceMeters());
+    }
+
+    @Test
+    public void snapMatchesLinearScanTest() {
+        Route route = createRoute();
+        RouteSnapIndex index = new RouteSnapIndex(route);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            double x = 16.33 + random.nextDouble() * 0.08, y = 48.16 + random.nextDouble() * 0.08;
+            SnapResult result = index.snap(x, y).get();
+            Assert.assertEquals(linearScanDistance(route, x, y), result.getDistanceMeters(), 0.01);
+        }
+    }
+
+    @Test
+    public void snapshotOfSegmentsTest() {
+        Route route = createRoute();
+        RouteSnapIndex index = new RouteSnapIndex(route);
+        RouteSegment third = route.getSegments().get(2);
+        PackedCoordinateList coordinates = third.getGeometryGeoJson().get().getGeometry().getPackedCoordinates();
+        route.getSegments().add(0, new RouteSegment());
+
+        SnapResult result = index.snap(coordinates.getX(100), coordinates.getY(100)).get();
+        Assert.assertEquals(2, result.getSegmentIndex());
+        Assert.assertSame(third, result.getSegment());
+    }
+
+    @Test
+    public void maxDistanceTest() {
+        RouteSnapIndex index = new RouteSnapIndex(createRoute());
+        Assert.assertFalse(index.snap(17, 49, 1000).isPresent());
+        Assert.assertTrue(index.snap(17, 49).isPresent());
+        Assert.assertFalse(new RouteSnapIndex(new Route()).snap(16, 48).isPresent());
+    }
+
+    /**
+     * geodesic distance to the nearest point on the route found by linear
+     * scan (in the same projection as the index)
+     */
+    private static double linearScanDistance(Route route, double x, double y) {
+        double cosLatitude = Math.cos(Math.toRadians(48.2));
+        double best = Double.POSITIVE_INFINITY, bestX = 0, bestY = 0;
+        for (RouteSegment segment : route.getSegments()) {
+            if (!segment.getGeometryGeoJson().isPresent())
+                continue;
+            PackedCoordinateList c = segment.getGeometryGeoJson().get().getGeometry().getPackedCoordinates();
+            for (int i = 0; i + 1 < c.size(); i++) {
+                double ax = c.getX(i) * cosLatitude, ay = c.getY(i);
+                double dx = c.getX(i + 1) * cosLatitude - ax, dy = c.getY(i + 1) - ay;
+                double t = ((x * cosLatitude - ax) * dx + (y - ay) * dy) / (dx * dx + dy * dy);
+                t = Math.max(0, Math.min(1, t));
+                double ex = x * cosLatitude - (ax + t * dx), ey = y - (ay + t * dy);
+                if (ex * ex + ey * ey < best) {
+                    best = ex * ex + ey * ey;
+                    bestX = c.getX(i) + t * (c.getX(i + 1) - c.getX(i));
+                    bestY = ay + t * dy;
+                }
+            }
+        }
+        return GeodesicDistance.meters(x, y, bestX, bestY);
+    }
+
+}
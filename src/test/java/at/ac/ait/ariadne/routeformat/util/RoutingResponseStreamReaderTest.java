@@ -0,0 +1,108 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class RoutingResponseStreamReaderTest {
+
+    private static RoutingResponse expected;
+    private static byte[] json;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        List<Route> routes = new ArrayList<>(response.getRoutes());
+        // a separate instance, so that the first route is not modified
+        routes.add(new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0).setId("second"));
+        response.setRoutes(routes).setAdditionalInfo(Collections.singletonMap("trailing", "info"));
+        json = TestUtil.MAPPER.writeValueAsBytes(response);
+        expected = TestUtil.MAPPER.readValue(json, RoutingResponse.class);
+    }
+
+    @Test
+    public void readRoutesTest() throws IOException {
+        try (RoutingResponseStreamReader reader = new RoutingResponseStreamReader(TestUtil.MAPPER,
+                new ByteArrayInputStream(json))) {
+            Assert.assertEquals(expected.getRequestId(), reader.getHeader().getRequestId());
+            Assert.assertEquals(expected.getRequest(), reader.getHeader().getRequest());
+
+            List<Route> routes = new ArrayList<>();
+            while (reader.hasNextRoute())
+                routes.add(reader.nextRoute());
+            Assert.assertEquals(expected.getRoutes(), routes);
+            Assert.assertEquals("info", reader.getHeader().getAdditionalInfo().get("trailing"));
+        }
+    }
+
+    @Test
+    public void skipAndStreamSegmentsTest() throws IOException {
+        try (RoutingResponseStreamReader reader = new RoutingResponseStreamReader(TestUtil.MAPPER,
+                new ByteArrayInputStream(json))) {
+            reader.skipRoute();
+
+            List<RouteSegment> segments = new ArrayList<>();
+            Route route = reader.nextRoute(segments::add);
+            Assert.assertTrue(route.getSegments().isEmpty());
+            Assert.assertEquals("second", route.getId().get());
+            Assert.assertEquals(expected.getRoutes().get(1).getDistanceMeters(), route.getDistanceMeters());
+            Assert.assertEquals(expected.getRoutes().get(1).getSegments(), segments);
+
+            Assert.assertFalse(reader.hasNextRoute());
+            Assert.assertEquals("info", reader.getHeader().getAdditionalInfo().get("trailing"));
+        }
+    }
+
+    @Test
+    public void nullSegmentTest() throws IOException {
+        ObjectNode tree = (ObjectNode) TestUtil.MAPPER.readTree(json);
+        ((ArrayNode) tree.get("routes").get(1).get("segments")).insertNull(1);
+        byte[] jsonWithNullSegment = TestUtil.MAPPER.writeValueAsBytes(tree);
+
+        try (RoutingResponseStreamReader reader = new RoutingResponseStreamReader(TestUtil.MAPPER,
+                new ByteArrayInputStream(jsonWithNullSegment))) {
+            reader.skipRoute();
+
+            List<RouteSegment> segments = new ArrayList<>();
+            Route route = reader.nextRoute(segments::add);
+            Route expectedRoute = TestUtil.MAPPER.readValue(jsonWithNullSegment, RoutingResponse.class).getRoutes()
+                    .get(1);
+            Assert.assertNull(expectedRoute.getSegments().remove(1));
+            Assert.assertEquals(expectedRoute.getSegments(), segments);
+            Assert.assertEquals("second", route.getId().get());
+            Assert.assertEquals(expectedRoute.getEndTime(), route.getEndTime());
+            Assert.assertEquals(expectedRoute.getSimplifiedGeometryGeoJson(), route.getSimplifiedGeometryGeoJson());
+
+            Assert.assertFalse(reader.hasNextRoute());
+            Assert.assertEquals("info", reader.getHeader().getAdditionalInfo().get("trailing"));
+        }
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void invalidSegmentTest() throws IOException {
+        ObjectNode tree = (ObjectNode) TestUtil.MAPPER.readTree(json);
+        ((ArrayNode) tree.get("routes").get(0).get("segments")).insert(0, 42);
+        try (RoutingResponseStreamReader reader = new RoutingResponseStreamReader(TestUtil.MAPPER,
+                new ByteArrayInputStream(TestUtil.MAPPER.writeValueAsBytes(tree)))) {
+            reader.nextRoute(segment -> {
+            });
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import at.ac.ait.ariadne.routeformat.Constants.OutputFormat;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinateSerializer;
+
+public class RoutingResponseStreamWriterTest {
+
+    @Test
+    public void writeRoutesTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RoutingResponseStreamWriter writer = new RoutingResponseStreamWriter(TestUtil.MAPPER, out)) {
+            writer.beginRoutes(response);
+            for (Route route : response.getRoutes())
+                writer.writeRoute(route);
+            writer.end();
+        }
+
+        RoutingResponse parsed = TestUtil.MAPPER.readValue(out.toByteArray(), RoutingResponse.class);
+        RoutingResponse expected = TestUtil.MAPPER.readValue(TestUtil.MAPPER.writeValueAsBytes(response),
+                RoutingResponse.class);
+        Assert.assertEquals(expected, parsed);
+    }
+
+    @Test
+    public void writeSegmentsTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        RoutingResponse header = new RoutingResponse().setRouteFormatVersion(response.getRouteFormatVersion())
+                .setRequestId(response.getRequestId()).setProcessedTime(response.getProcessedTimeAsZonedDateTime())
+                .setStatus(response.getStatus()).setCoordinateReferenceSystem(response.getCoordinateReferenceSystem())
+                .setRoutes(new ArrayList<>());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RoutingResponseStreamWriter writer = new RoutingResponseStreamWriter(TestUtil.MAPPER, out)) {
+            writer.beginRoutes(header);
+            int bytesAfterHeader = out.size();
+            Assert.assertTrue("header must be flushed immediately", bytesAfterHeader > 0);
+            for (Route route : response.getRoutes()) {
+                writer.beginRoute();
+                for (RouteSegment segment : route.getSegments())
+                    writer.writeSegment(segment);
+                writer.endRoute(route);
+            }
+            writer.end();
+        }
+
+        RoutingResponse parsed = TestUtil.MAPPER.readValue(out.toByteArray(), RoutingResponse.class);
+        Assert.assertEquals(response.getRoutes(), parsed.getRoutes());
+        Assert.assertEquals(response.getRequestId(), parsed.getRequestId());
+    }
+
+    @Test
+    public void closeWithoutEndTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RoutingResponseStreamWriter writer = new RoutingResponseStreamWriter(TestUtil.MAPPER, out)) {
+            writer.beginRoutes(response);
+            writer.writeRoute(response.getRoutes().get(0));
+            // e.g. the calculation of the next route fails
+        }
+
+        Assert.assertTrue(out.size() > 0);
+        try {
+            TestUtil.MAPPER.readValue(out.toByteArray(), RoutingResponse.class);
+            Assert.fail("a response closed before end() must not be valid JSON");
+        } catch (JsonProcessingException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void writerAttributesTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        RoutingRequest request = new RoutingRequest().setOutputFormats(Arrays.asList(OutputFormat.GEOJSON));
+        ObjectWriter objectWriter = OutputFormatModule.writerFor(TestUtil.MAPPER, request)
+                .withAttribute(GeoJSONCoordinateSerializer.DECIMALS_ATTRIBUTE, 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RoutingResponseStreamWriter writer = new RoutingResponseStreamWriter(objectWriter, out)) {
+            writer.beginRoutes(response);
+            for (Route route : response.getRoutes())
+                writer.writeRoute(route);
+            writer.end();
+        }
+
+        String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertEquals(response.getRoutes().size(),
+                TestUtil.MAPPER.readValue(json, RoutingResponse.class).getRoutes().size());
+        Assert.assertFalse(json.contains("\"geometryGeoJsonEdges\""));
+        Assert.assertTrue(json.contains("\"coordinates\":[16.37,48.23]"));
+        Assert.assertFalse(json.matches("(?s).*\\[\\d+\\.\\d{3}.*"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writeRouteBeforeBeginTest() throws IOException {
+        try (RoutingResponseStreamWriter writer = new RoutingResponseStreamWriter(TestUtil.MAPPER,
+                new ByteArrayOutputStream())) {
+            writer.writeRoute(new Route());
+        }
+    }
+
+}
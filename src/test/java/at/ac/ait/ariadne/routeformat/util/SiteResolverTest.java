@@ -0,0 +1,73 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.RequestModeOfTransport;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.features.RoutingFeatures;
+import at.ac.ait.ariadne.routeformat.features.Site;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.location.Location;
+
+public class SiteResolverTest {
+
+    private static Site createSite(String id, String minX, String minY, String maxX, String maxY) {
+        return Site.createMinimal(id).setBoundingPolygon(GeoJSONFeature.createPolygonFeatureFromCoordinatePoints(
+                Arrays.asList(Arrays.asList(GeoJSONCoordinate.create(minX, minY), GeoJSONCoordinate.create(minX, maxY),
+                        GeoJSONCoordinate.create(maxX, maxY), GeoJSONCoordinate.create(maxX, minY),
+                        GeoJSONCoordinate.create(minX, minY)))));
+    }
+
+    private static final Site VIENNA = createSite("vienna", "16.18", "48.11", "16.58", "48.33");
+    private static final Site GRAZ = createSite("graz", "15.34", "46.99", "15.53", "47.13");
+    private static final Site AUSTRIA = createSite("austria", "9.53", "46.37", "17.16", "49.02");
+    private static final Site WITHOUT_POLYGON = Site.createMinimal("other");
+
+    private static RoutingFeatures createFeatures() {
+        return new RoutingFeatures().setSites(Arrays.asList(VIENNA, GRAZ, AUSTRIA, WITHOUT_POLYGON));
+    }
+
+    @Test
+    public void lookupTest() {
+        SiteResolver resolver = new SiteResolver(createFeatures());
+        Assert.assertEquals(Arrays.asList(VIENNA, AUSTRIA), resolver.getSites(16.37, 48.2));
+        Assert.assertEquals(GRAZ, resolver.getSite(GeoJSONCoordinate.create("15.44", "47.07")).get());
+        Assert.assertEquals(AUSTRIA, resolver.getSite(14.29, 48.31).get());
+        Assert.assertFalse(resolver.getSite(2.35, 48.86).isPresent());
+        Assert.assertEquals(WITHOUT_POLYGON, resolver.getSiteById("other").get());
+    }
+
+    @Test
+    public void resolveRequestTest() {
+        SiteResolver resolver = new SiteResolver(createFeatures());
+        RoutingRequest request = RoutingRequest.createMinimal(
+                Location.createMinimal(GeoJSONCoordinate.create("16.37", "48.2")),
+                Location.createMinimal(GeoJSONCoordinate.create("15.44", "47.07")),
+                Arrays.asList(RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_CAR)));
+        Assert.assertEquals(AUSTRIA, resolver.resolve(request).get());
+
+        request.setTo(Location.createMinimal(GeoJSONCoordinate.create("16.4", "48.21")));
+        Assert.assertEquals(VIENNA, resolver.resolve(request).get());
+
+        request.setSiteId("graz");
+        Assert.assertEquals(GRAZ, resolver.resolve(request).get());
+    }
+
+    @Test
+    public void rebuildTest() {
+        RoutingFeatures features = createFeatures();
+        SiteResolver resolver = new SiteResolver(features);
+        features.setSites(new ArrayList<>(Arrays.asList(GRAZ)));
+        Assert.assertEquals(VIENNA, resolver.getSite(16.37, 48.2).get());
+        resolver.rebuild(features);
+        Assert.assertFalse(resolver.getSite(16.37, 48.2).isPresent());
+        Assert.assertFalse(resolver.getSiteById("vienna").isPresent());
+    }
+
+}